@@ -20,6 +20,7 @@
  */
 
 import org.apache.maven.artifact.ArtifactUtils;
+import org.apache.maven.execution.BuildDurationRepository;
 import org.apache.maven.execution.BuildResumptionAnalyzer;
 import org.apache.maven.execution.BuildResumptionDataRepository;
 import org.apache.maven.execution.BuildResumptionPersistenceException;
@@ -30,6 +31,7 @@
 import org.apache.maven.execution.MavenSession;
 import org.apache.maven.execution.ProfileActivation;
 import org.apache.maven.execution.ProjectDependencyGraph;
+import org.apache.maven.feature.Features;
 import org.apache.maven.graph.GraphBuilder;
 import org.apache.maven.internal.aether.DefaultRepositorySystemSessionFactory;
 import org.apache.maven.lifecycle.LifecycleExecutionException;
@@ -69,6 +71,7 @@
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 import java.util.function.Function;
 import java.util.stream.Stream;
@@ -105,6 +108,8 @@
 
     private final BuildResumptionDataRepository buildResumptionDataRepository;
 
+    private final BuildDurationRepository buildDurationRepository;
+
     private final SuperPomProvider superPomProvider;
 
     @Inject
@@ -119,6 +124,7 @@ public DefaultMaven(
             @Named( GraphBuilder.HINT ) GraphBuilder graphBuilder,
             BuildResumptionAnalyzer buildResumptionAnalyzer,
             BuildResumptionDataRepository buildResumptionDataRepository,
+            BuildDurationRepository buildDurationRepository,
             SuperPomProvider superPomProvider )
     {
         this.projectBuilder = projectBuilder;
@@ -131,6 +137,7 @@ public DefaultMaven(
         this.graphBuilder = graphBuilder;
         this.buildResumptionAnalyzer = buildResumptionAnalyzer;
         this.buildResumptionDataRepository = buildResumptionDataRepository;
+        this.buildDurationRepository = buildDurationRepository;
         this.superPomProvider = superPomProvider;
     }
 
@@ -334,8 +341,21 @@ private MavenExecutionResult doExecute( MavenExecutionRequest request, MavenSess
 
             validateOptionalProfiles( session, request.getProfileActivation() );
 
+            Optional<MavenProject> rootProject = Optional.empty();
+            if ( Features.buildDurationHistory( request.getUserProperties() ).isActive() )
+            {
+                rootProject = session.getAllProjects().stream()
+                        .filter( MavenProject::isExecutionRoot )
+                        .findFirst();
+                rootProject.map( buildDurationRepository::loadBuildDurations )
+                        .ifPresent( session::setBuildDurations );
+            }
+
             lifecycleStarter.execute( session );
 
+            rootProject.ifPresent( root ->
+                    buildDurationRepository.persistBuildDurations( root, session.getBuildDurations() ) );
+
             validateOptionalProfiles( session, request.getProfileActivation() );
 
             if ( session.getResult().hasExceptions() )
@@ -40,6 +40,7 @@
 
 import org.apache.maven.artifact.ArtifactUtils;
 import org.apache.maven.execution.MavenSession;
+import org.apache.maven.lifecycle.internal.builder.multithreaded.PhaseReleaseListener;
 import org.apache.maven.model.Model;
 import org.apache.maven.project.MavenProject;
 import org.apache.maven.repository.internal.MavenWorkspaceReader;
@@ -68,14 +69,16 @@
     private static final Logger LOGGER = LoggerFactory.getLogger( ReactorReader.class );
 
     private final MavenSession session;
+    private final PhaseReleaseListener phaseReleaseListener;
     private final Map<String, MavenProject> projectsByGAV;
     private final Map<String, List<MavenProject>> projectsByGA;
     private final WorkspaceRepository repository;
 
     @Inject
-    ReactorReader( MavenSession session )
+    ReactorReader( MavenSession session, PhaseReleaseListener phaseReleaseListener )
     {
         this.session = session;
+        this.phaseReleaseListener = phaseReleaseListener;
         this.projectsByGAV = new HashMap<>( session.getAllProjects().size() * 2 );
         session.getAllProjects().forEach( project ->
         {
@@ -173,8 +176,21 @@ private File find( MavenProject project, Artifact artifact )
         {
             return projectArtifact.getFile();
         }
+
+        // The project was released to its downstream projects before packaging, its artifact is still being written.
+        // Its output directory is used unless there is none for the artifact, e.g. the test classes of a test-jar
+        // when the project was released before test-compile.
+        if ( phaseReleaseListener.isPackaging( project ) )
+        {
+            File outputDirectory = determineBuildOutputDirectoryForArtifact( project, artifact );
+            if ( outputDirectory != null )
+            {
+                return outputDirectory;
+            }
+        }
+
         // Check whether an earlier Maven run might have produced an artifact that is still on disk.
-        else if ( packagedArtifactFile != null && packagedArtifactFile.exists()
+        if ( packagedArtifactFile != null && packagedArtifactFile.exists()
                 && isPackagedArtifactUpToDate( project, packagedArtifactFile, artifact ) )
         {
             return packagedArtifactFile;
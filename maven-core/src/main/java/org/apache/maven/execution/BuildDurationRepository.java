@@ -0,0 +1,48 @@
+package org.apache.maven.execution;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import org.apache.maven.project.MavenProject;
+
+/**
+ * Instances of this interface retrieve and store the build durations of projects and mojo executions, so that later
+ * invocations of Maven can use them, for instance to schedule long running projects first.
+ *
+ * @since 4.0.0
+ */
+public interface BuildDurationRepository
+{
+    /**
+     * Loads the durations remembered from earlier builds of the given root project.
+     *
+     * @param rootProject The root project that is being built.
+     * @return The remembered durations, never {@code null}.
+     */
+    BuildDurations loadBuildDurations( MavenProject rootProject );
+
+    /**
+     * Persists the durations of the current build, retaining remembered durations of projects and mojo executions
+     * that were not part of it. Failing to persist the durations does not fail the build.
+     *
+     * @param rootProject The root project that is being built.
+     * @param buildDurations The durations to persist.
+     */
+    void persistBuildDurations( MavenProject rootProject, BuildDurations buildDurations );
+}
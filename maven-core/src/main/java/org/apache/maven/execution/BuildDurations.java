@@ -0,0 +1,156 @@
+package org.apache.maven.execution;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.maven.plugin.MojoExecution;
+import org.apache.maven.project.MavenProject;
+
+/**
+ * Holds the build durations of projects and mojo executions, both as remembered from earlier builds and as measured
+ * during the current build. Recording is thread-safe, so the builder threads of a parallel build can share a single
+ * instance.
+ *
+ * @see BuildDurationRepository
+ * @since 4.0.0
+ */
+public class BuildDurations
+{
+    private final Map<String, Long> previousDurations;
+
+    private final Map<String, Long> currentDurations = new ConcurrentHashMap<>();
+
+    /**
+     * Creates an empty instance, without any history.
+     */
+    public BuildDurations()
+    {
+        this( Collections.emptyMap() );
+    }
+
+    /**
+     * Creates a new instance with the durations from earlier builds.
+     *
+     * @param previousDurations The durations in milliseconds, keyed as in {@link #getCurrentDurations()}.
+     */
+    public BuildDurations( Map<String, Long> previousDurations )
+    {
+        this.previousDurations = Collections.unmodifiableMap( previousDurations );
+    }
+
+    /**
+     * Records the time it took to build the given project in the current build.
+     *
+     * @param project The project that was built, must not be {@code null}.
+     * @param time The build time of the project in milliseconds.
+     */
+    public void recordProject( MavenProject project, long time )
+    {
+        currentDurations.put( projectKey( project ), time );
+    }
+
+    /**
+     * Records the time it took to run the given mojo execution in the current build.
+     *
+     * @param project The project the mojo was executed for, must not be {@code null}.
+     * @param mojoExecution The mojo execution, must not be {@code null}.
+     * @param time The execution time of the mojo in milliseconds.
+     */
+    public void recordMojo( MavenProject project, MojoExecution mojoExecution, long time )
+    {
+        currentDurations.put( mojoKey( project, mojoExecution ), time );
+    }
+
+    /**
+     * Gets the build time of the given project in the most recent earlier build that built it.
+     *
+     * @param project The project, must not be {@code null}.
+     * @return The build time in milliseconds or empty if the project has no history.
+     */
+    public OptionalLong getPreviousProjectDuration( MavenProject project )
+    {
+        return get( previousDurations, projectKey( project ) );
+    }
+
+    /**
+     * Gets the execution time of the given mojo execution in the most recent earlier build that ran it.
+     *
+     * @param project The project the mojo is executed for, must not be {@code null}.
+     * @param mojoExecution The mojo execution, must not be {@code null}.
+     * @return The execution time in milliseconds or empty if the mojo execution has no history.
+     */
+    public OptionalLong getPreviousMojoDuration( MavenProject project, MojoExecution mojoExecution )
+    {
+        return get( previousDurations, mojoKey( project, mojoExecution ) );
+    }
+
+    /**
+     * Gets the build time of the given project in the current build.
+     *
+     * @param project The project, must not be {@code null}.
+     * @return The build time in milliseconds or empty if the project has not been built (yet).
+     */
+    public OptionalLong getCurrentProjectDuration( MavenProject project )
+    {
+        return get( currentDurations, projectKey( project ) );
+    }
+
+    /**
+     * Gets all durations remembered from earlier builds.
+     *
+     * @return The durations in milliseconds, never {@code null}.
+     */
+    public Map<String, Long> getPreviousDurations()
+    {
+        return previousDurations;
+    }
+
+    /**
+     * Gets all durations recorded in the current build. Projects are keyed by {@code groupId:artifactId}, mojo
+     * executions by the project key followed by {@code /groupId:artifactId:goal@executionId} of the mojo.
+     *
+     * @return The durations in milliseconds, never {@code null}.
+     */
+    public Map<String, Long> getCurrentDurations()
+    {
+        return Collections.unmodifiableMap( currentDurations );
+    }
+
+    private static OptionalLong get( Map<String, Long> durations, String key )
+    {
+        Long time = durations.get( key );
+        return time != null ? OptionalLong.of( time ) : OptionalLong.empty();
+    }
+
+    private static String projectKey( MavenProject project )
+    {
+        return project.getGroupId() + ':' + project.getArtifactId();
+    }
+
+    private static String mojoKey( MavenProject project, MojoExecution mojoExecution )
+    {
+        return projectKey( project ) + '/' + mojoExecution.getGroupId() + ':' + mojoExecution.getArtifactId() + ':'
+            + mojoExecution.getGoal() + '@' + mojoExecution.getExecutionId();
+    }
+}
@@ -0,0 +1,106 @@
+package org.apache.maven.execution;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import org.apache.maven.project.MavenProject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.inject.Named;
+import javax.inject.Singleton;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * This implementation of {@link BuildDurationRepository} persists durations in a properties file. The file is stored
+ * in the build output directory under the Maven execution root, next to the data of the --resume / -r feature.
+ */
+@Named
+@Singleton
+public class DefaultBuildDurationRepository implements BuildDurationRepository
+{
+    private static final String BUILD_DURATIONS_FILENAME = "build-durations.properties";
+    private static final Logger LOGGER = LoggerFactory.getLogger( DefaultBuildDurationRepository.class );
+
+    @Override
+    public BuildDurations loadBuildDurations( MavenProject rootProject )
+    {
+        Path path = Paths.get( rootProject.getBuild().getDirectory(), BUILD_DURATIONS_FILENAME );
+        Map<String, Long> durations = new HashMap<>();
+        if ( !Files.exists( path ) )
+        {
+            return new BuildDurations( durations );
+        }
+
+        Properties properties = new Properties();
+        try ( Reader reader = Files.newBufferedReader( path ) )
+        {
+            properties.load( reader );
+        }
+        catch ( IOException e )
+        {
+            LOGGER.warn( "Unable to read {}, build durations of earlier builds will not be available.", path );
+        }
+
+        for ( String key : properties.stringPropertyNames() )
+        {
+            try
+            {
+                durations.put( key, Long.parseLong( properties.getProperty( key ) ) );
+            }
+            catch ( NumberFormatException e )
+            {
+                LOGGER.debug( "Ignoring invalid build duration {} in {}", key, path );
+            }
+        }
+        return new BuildDurations( durations );
+    }
+
+    @Override
+    public void persistBuildDurations( MavenProject rootProject, BuildDurations buildDurations )
+    {
+        Properties properties = new Properties();
+        buildDurations.getPreviousDurations()
+            .forEach( ( key, time ) -> properties.setProperty( key, time.toString() ) );
+        buildDurations.getCurrentDurations()
+            .forEach( ( key, time ) -> properties.setProperty( key, time.toString() ) );
+
+        Path path = Paths.get( rootProject.getBuild().getDirectory(), BUILD_DURATIONS_FILENAME );
+        try
+        {
+            Files.createDirectories( path.getParent() );
+            try ( Writer writer = Files.newBufferedWriter( path ) )
+            {
+                properties.store( writer, null );
+            }
+        }
+        catch ( IOException e )
+        {
+            LOGGER.warn( "Could not write {} file.", BUILD_DURATIONS_FILENAME, e );
+        }
+    }
+}
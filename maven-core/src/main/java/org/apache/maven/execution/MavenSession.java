@@ -24,6 +24,7 @@
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Properties;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
@@ -76,6 +77,8 @@
 
     private boolean parallel;
 
+    private BuildDurations buildDurations = new BuildDurations();
+
     /**
      * Plugin context keyed by project ({@link MavenProject#getId()}) and by plugin lookup key
      * ({@link PluginDescriptor#getPluginLookupKey()}). Plugin contexts itself are mappings of {@link String} keys to
@@ -263,6 +266,25 @@ public void setParallel( boolean parallel )
         this.parallel = parallel;
     }
 
+    /**
+     * Gets the build durations of this session. The instance is shared with all clones of this session.
+     *
+     * @return The build durations, never {@code null}.
+     * @since 4.0.0
+     */
+    public BuildDurations getBuildDurations()
+    {
+        return buildDurations;
+    }
+
+    /**
+     * @since 4.0.0
+     */
+    public void setBuildDurations( BuildDurations buildDurations )
+    {
+        this.buildDurations = Objects.requireNonNull( buildDurations, "buildDurations cannot be null" );
+    }
+
     public RepositorySystemSession getRepositorySession()
     {
         return repositorySession;
@@ -20,6 +20,8 @@
  */
 
 import java.io.File;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
@@ -28,7 +30,6 @@
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
 import java.util.Set;
 
 import javax.inject.Inject;
@@ -43,6 +44,7 @@
 import org.apache.maven.execution.MavenSession;
 import org.apache.maven.execution.ProjectActivation;
 import org.apache.maven.execution.ProjectDependencyGraph;
+import org.apache.maven.feature.Features;
 import org.apache.maven.model.Plugin;
 import org.apache.maven.model.building.DefaultModelProblem;
 import org.apache.maven.model.building.Result;
@@ -57,8 +59,6 @@
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import static java.util.Comparator.comparing;
-
 /**
  * Builds the {@link ProjectDependencyGraph inter-dependencies graph} between projects in the reactor.
  */
@@ -125,7 +125,8 @@ private Result<ProjectDependencyGraph> sessionDependencyGraph( final MavenSessio
         if ( session.getProjectDependencyGraph() != null || session.getProjects() != null )
         {
             final ProjectDependencyGraph graph =
-                new DefaultProjectDependencyGraph( session.getAllProjects(), session.getProjects() );
+                new DefaultProjectDependencyGraph( session.getAllProjects(), session.getProjects(),
+                                                   getGraphDirectory( session.getRequest() ) );
 
             result = Result.success( graph );
         }
@@ -136,12 +137,14 @@ private Result<ProjectDependencyGraph> sessionDependencyGraph( final MavenSessio
     private Result<ProjectDependencyGraph> reactorDependencyGraph( MavenSession session, List<MavenProject> projects )
         throws CycleDetectedException, DuplicateProjectException, MavenExecutionException
     {
-        ProjectDependencyGraph projectDependencyGraph = new DefaultProjectDependencyGraph( projects );
+        ProjectDependencyGraph projectDependencyGraph =
+            new DefaultProjectDependencyGraph( projects, projects, getGraphDirectory( session.getRequest() ) );
+        ProjectSelection selection = new ProjectSelection( projectDependencyGraph );
         List<MavenProject> activeProjects = projectDependencyGraph.getSortedProjects();
-        activeProjects = trimProjectsToRequest( activeProjects, projectDependencyGraph, session.getRequest() );
-        activeProjects = trimSelectedProjects( activeProjects, projectDependencyGraph, session.getRequest() );
-        activeProjects = trimResumedProjects( activeProjects, projectDependencyGraph, session.getRequest() );
-        activeProjects = trimExcludedProjects( activeProjects, projectDependencyGraph, session.getRequest() );
+        activeProjects = trimProjectsToRequest( activeProjects, selection, session.getRequest() );
+        activeProjects = trimSelectedProjects( activeProjects, selection, session.getRequest() );
+        activeProjects = trimResumedProjects( activeProjects, selection, session.getRequest() );
+        activeProjects = trimExcludedProjects( activeProjects, selection, session.getRequest() );
 
         if ( activeProjects.size() != projectDependencyGraph.getSortedProjects().size() )
         {
@@ -151,8 +154,22 @@ private Result<ProjectDependencyGraph> reactorDependencyGraph( MavenSession sess
         return Result.success( projectDependencyGraph );
     }
 
+    /**
+     * @return The directory to keep the reactor graph in or {@code null} if the graph is not kept
+     */
+    private Path getGraphDirectory( MavenExecutionRequest request )
+    {
+        if ( request.getUserProperties() == null || request.getSystemProperties() == null
+            || !Features.reactorGraphCache( request.getUserProperties() ).isActive() )
+        {
+            return null;
+        }
+        String userHome = request.getSystemProperties().getProperty( "user.home" );
+        return userHome != null ? Paths.get( userHome, ".m2", "reactor-graph" ) : null;
+    }
+
     private List<MavenProject> trimProjectsToRequest( List<MavenProject> activeProjects,
-                                                      ProjectDependencyGraph graph,
+                                                      ProjectSelection selection,
                                                       MavenExecutionRequest request )
             throws MavenExecutionException
     {
@@ -160,18 +177,15 @@ private List<MavenProject> trimProjectsToRequest( List<MavenProject> activeProje
 
         if ( request.getPom() != null )
         {
-            result = getProjectsInRequestScope( request, activeProjects );
+            result = selection.sort( getProjectsInRequestScope( request, activeProjects ) );
 
-            List<MavenProject> sortedProjects = graph.getSortedProjects();
-            result.sort( comparing( sortedProjects::indexOf ) );
-
-            result = includeAlsoMakeTransitively( result, request, graph );
+            result = includeAlsoMakeTransitively( result, request, selection );
         }
 
         return result;
     }
 
-    private List<MavenProject> trimSelectedProjects( List<MavenProject> projects, ProjectDependencyGraph graph,
+    private List<MavenProject> trimSelectedProjects( List<MavenProject> projects, ProjectSelection selection,
                                                      MavenExecutionRequest request )
         throws MavenExecutionException
     {
@@ -189,13 +203,10 @@ private List<MavenProject> trimSelectedProjects( List<MavenProject> projects, Pr
             // it can be empty when an optional project is missing from the reactor, fallback to returning all projects
             if ( !selectedProjects.isEmpty() )
             {
-                result = new ArrayList<>( selectedProjects );
-
-                result = includeAlsoMakeTransitively( result, request, graph );
-
                 // Order the new list in the original order
-                List<MavenProject> sortedProjects = graph.getSortedProjects();
-                result.sort( comparing( sortedProjects::indexOf ) );
+                result = selection.sort( selectedProjects );
+
+                result = includeAlsoMakeTransitively( result, request, selection );
             }
         }
 
@@ -207,14 +218,18 @@ private Set<MavenProject> getProjectsBySelectors( MavenExecutionRequest request,
             throws MavenExecutionException
     {
         Set<MavenProject> selectedProjects = new LinkedHashSet<>();
+        if ( projectSelectors.isEmpty() )
+        {
+            return selectedProjects;
+        }
+
         File reactorDirectory = getReactorDirectory( request );
+        ProjectSelection.Index index = new ProjectSelection.Index( projects );
 
         for ( String selector : projectSelectors )
         {
-            Optional<MavenProject> optSelectedProject = projects.stream()
-                    .filter( project -> isMatchingProject( project, selector, reactorDirectory ) )
-                    .findFirst();
-            if ( !optSelectedProject.isPresent() )
+            MavenProject selectedProject = index.find( selector, reactorDirectory );
+            if ( selectedProject == null )
             {
                 String message = "Could not find the selected project in the reactor: " + selector;
                 if ( required )
@@ -228,8 +243,6 @@ private Set<MavenProject> getProjectsBySelectors( MavenExecutionRequest request,
                 }
             }
 
-            MavenProject selectedProject = optSelectedProject.get();
-
             selectedProjects.add( selectedProject );
 
             List<MavenProject> children = selectedProject.getCollectedProjects();
@@ -242,7 +255,7 @@ private Set<MavenProject> getProjectsBySelectors( MavenExecutionRequest request,
         return selectedProjects;
     }
 
-    private List<MavenProject> trimResumedProjects( List<MavenProject> projects, ProjectDependencyGraph graph,
+    private List<MavenProject> trimResumedProjects( List<MavenProject> projects, ProjectSelection selection,
                                                     MavenExecutionRequest request )
             throws MavenExecutionException
     {
@@ -263,13 +276,13 @@ private List<MavenProject> trimResumedProjects( List<MavenProject> projects, Pro
             int resumeFromProjectIndex = projects.indexOf( resumingFromProject );
             List<MavenProject> retainingProjects = result.subList( resumeFromProjectIndex, projects.size() );
 
-            result = includeAlsoMakeTransitively( retainingProjects, request, graph );
+            result = includeAlsoMakeTransitively( retainingProjects, request, selection );
         }
 
         return result;
     }
 
-    private List<MavenProject> trimExcludedProjects( List<MavenProject> projects, ProjectDependencyGraph graph,
+    private List<MavenProject> trimExcludedProjects( List<MavenProject> projects, ProjectSelection selection,
                                                      MavenExecutionRequest request )
         throws MavenExecutionException
     {
@@ -281,7 +294,7 @@ private List<MavenProject> trimExcludedProjects( List<MavenProject> projects, Pr
         if ( !requiredSelectors.isEmpty() || !optionalSelectors.isEmpty() )
         {
             Set<MavenProject> excludedProjects = new HashSet<>( requiredSelectors.size() + optionalSelectors.size() );
-            List<MavenProject> allProjects = graph.getAllProjects();
+            List<MavenProject> allProjects = selection.getGraph().getAllProjects();
             excludedProjects.addAll( getProjectsBySelectors( request, allProjects, requiredSelectors, true ) );
             excludedProjects.addAll( getProjectsBySelectors( request, allProjects, optionalSelectors, false ) );
 
@@ -301,7 +314,7 @@ private List<MavenProject> trimExcludedProjects( List<MavenProject> projects, Pr
     }
 
     private List<MavenProject> includeAlsoMakeTransitively( List<MavenProject> projects, MavenExecutionRequest request,
-                                                            ProjectDependencyGraph graph )
+                                                            ProjectSelection selection )
             throws MavenExecutionException
     {
         List<MavenProject> result = projects;
@@ -320,25 +333,8 @@ private List<MavenProject> includeAlsoMakeTransitively( List<MavenProject> proje
 
         if ( makeUpstream || makeDownstream )
         {
-            Set<MavenProject> projectsSet = new HashSet<>( projects );
-
-            for ( MavenProject project : projects )
-            {
-                if ( makeUpstream )
-                {
-                    projectsSet.addAll( graph.getUpstreamProjects( project, true ) );
-                }
-                if ( makeDownstream )
-                {
-                    projectsSet.addAll( graph.getDownstreamProjects( project, true ) );
-                }
-            }
-
-            result = new ArrayList<>( projectsSet );
-
             // Order the new list in the original order
-            List<MavenProject> sortedProjects = graph.getSortedProjects();
-            result.sort( comparing( sortedProjects::indexOf ) );
+            result = selection.alsoMake( projects, makeUpstream, makeDownstream );
         }
 
         return result;
@@ -19,17 +19,17 @@
  * under the License.
  */
 
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.Comparator;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
-import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 import org.apache.maven.execution.ProjectDependencyGraph;
 import org.apache.maven.project.DuplicateProjectException;
@@ -39,6 +39,11 @@
 
 /**
  * Describes the inter-dependencies between projects in the reactor.
+ * <p>
+ * The projects are indexed by their build order once, with the direct dependencies stored in compressed adjacency
+ * arrays. The transitive closures are computed on first use as bit sets, so every query results in a list that is
+ * already sorted in the build order. The returned lists are immutable.
+ * </p>
  *
  * @author Benjamin Bentmann
  */
@@ -50,9 +55,16 @@
 
     private final List<MavenProject> allProjects;
 
-    private final Map<MavenProject, Integer> order;
+    /**
+     * The projects in the build order, a project's index in this array is its id in the adjacency structures.
+     */
+    private final MavenProject[] sortedProjects;
+
+    private final Map<String, Integer> indices;
 
-    private final Map<String, MavenProject> projects;
+    private final Adjacency upstream;
+
+    private final Adjacency downstream;
 
     /**
      * Creates a new project dependency graph based on the specified projects.
@@ -79,19 +91,62 @@ public DefaultProjectDependencyGraph( Collection<MavenProject> projects )
     public DefaultProjectDependencyGraph( Collection<MavenProject> allProjects,
                                           Collection<MavenProject> projects )
             throws CycleDetectedException, DuplicateProjectException
+    {
+        this( allProjects, projects, null );
+    }
+
+    /**
+     * Creates a new project dependency graph based on the specified projects.
+     *
+     * @param allProjects    All collected projects.
+     * @param projects       The projects to create the dependency graph with.
+     * @param graphDirectory The directory to keep the graph in between builds, may be {@code null}.
+     * @throws DuplicateProjectException
+     * @throws CycleDetectedException
+     * @since 4.0.0
+     * @see ProjectSorter#ProjectSorter(Collection, Path)
+     */
+    public DefaultProjectDependencyGraph( Collection<MavenProject> allProjects,
+                                          Collection<MavenProject> projects, Path graphDirectory )
+            throws CycleDetectedException, DuplicateProjectException
     {
         this.allProjects = Collections.unmodifiableList( new ArrayList<>( allProjects ) );
-        this.sorter = new ProjectSorter( projects );
-        this.order = new HashMap<>();
-        this.projects = new HashMap<>();
+        this.sorter = new ProjectSorter( projects, graphDirectory );
         List<MavenProject> sorted = this.sorter.getSortedProjects();
-        for ( int index = 0; index < sorted.size(); index++ )
+        this.sortedProjects = sorted.toArray( new MavenProject[0] );
+        this.indices = new HashMap<>( sorted.size() * 2 );
+        for ( int index = 0; index < sortedProjects.length; index++ )
         {
-            MavenProject project = sorted.get( index );
-            String id = ProjectSorter.getId( project );
-            this.projects.put( id, project );
-            this.order.put( project, index );
+            this.indices.put( ProjectSorter.getId( sortedProjects[index] ), index );
         }
+
+        int[][] dependencies = new int[sortedProjects.length][];
+        int[][] dependents = new int[sortedProjects.length][];
+        for ( int index = 0; index < sortedProjects.length; index++ )
+        {
+            String id = ProjectSorter.getId( sortedProjects[index] );
+            dependencies[index] = toIndices( sorter.getDependencies( id ) );
+            dependents[index] = toIndices( sorter.getDependents( id ) );
+        }
+        this.upstream = new Adjacency( dependencies, true );
+        this.downstream = new Adjacency( dependents, false );
+    }
+
+    private int[] toIndices( List<String> ids )
+    {
+        int[] result = new int[ids.size()];
+        int size = 0;
+        for ( String id : ids )
+        {
+            Integer index = indices.get( id );
+            if ( index != null )
+            {
+                result[size++] = index;
+            }
+        }
+        result = Arrays.copyOf( result, size );
+        Arrays.sort( result );
+        return result;
     }
 
     /**
@@ -104,65 +159,146 @@ public List<MavenProject> getAllProjects()
 
     public List<MavenProject> getSortedProjects()
     {
-        return new ArrayList<>( sorter.getSortedProjects() );
+        return new ArrayList<>( Arrays.asList( sortedProjects ) );
     }
 
     public List<MavenProject> getDownstreamProjects( MavenProject project, boolean transitive )
     {
         Objects.requireNonNull( project, "project cannot be null" );
 
-        Set<String> projectIds = new HashSet<>();
+        return downstream.get( project, transitive );
+    }
 
-        getDownstreamProjects( ProjectSorter.getId( project ), projectIds, transitive );
+    public List<MavenProject> getUpstreamProjects( MavenProject project, boolean transitive )
+    {
+        Objects.requireNonNull( project, "project cannot be null" );
 
-        return getSortedProjects( projectIds );
+        return upstream.get( project, transitive );
     }
 
-    private void getDownstreamProjects( String projectId, Set<String> projectIds, boolean transitive )
+    @Override
+    public String toString()
     {
-        for ( String id : sorter.getDependents( projectId ) )
+        return sorter.getSortedProjects().toString();
+    }
+
+    /**
+     * The edges of the graph in one direction, as compressed sparse rows, with the query results cached per project.
+     */
+    private final class Adjacency
+    {
+        private final int[] offsets;
+
+        private final int[] targets;
+
+        /**
+         * Whether the edges point towards lower indices, i.e. whether a closure only depends on the closures of lower
+         * indices.
+         */
+        private final boolean towardsLowerIndices;
+
+        private final AtomicReferenceArray<List<MavenProject>> direct;
+
+        private final AtomicReferenceArray<List<MavenProject>> transitive;
+
+        private volatile BitSet[] closures;
+
+        Adjacency( int[][] edges, boolean towardsLowerIndices )
         {
-            if ( projectIds.add( id ) && transitive )
+            this.offsets = new int[edges.length + 1];
+            for ( int index = 0; index < edges.length; index++ )
+            {
+                offsets[index + 1] = offsets[index] + edges[index].length;
+            }
+            this.targets = new int[offsets[edges.length]];
+            for ( int index = 0; index < edges.length; index++ )
             {
-                getDownstreamProjects( id, projectIds, transitive );
+                System.arraycopy( edges[index], 0, targets, offsets[index], edges[index].length );
             }
+            this.towardsLowerIndices = towardsLowerIndices;
+            this.direct = new AtomicReferenceArray<>( edges.length );
+            this.transitive = new AtomicReferenceArray<>( edges.length );
         }
-    }
 
-    public List<MavenProject> getUpstreamProjects( MavenProject project, boolean transitive )
-    {
-        Objects.requireNonNull( project, "project cannot be null" );
-
-        Set<String> projectIds = new HashSet<>();
+        List<MavenProject> get( MavenProject project, boolean transitiveClosure )
+        {
+            Integer index = indices.get( ProjectSorter.getId( project ) );
+            if ( index == null )
+            {
+                return Collections.emptyList();
+            }
 
-        getUpstreamProjects( ProjectSorter.getId( project ), projectIds, transitive );
+            AtomicReferenceArray<List<MavenProject>> cache = transitiveClosure ? transitive : direct;
+            List<MavenProject> result = cache.get( index );
+            if ( result == null )
+            {
+                BitSet selection = transitiveClosure ? getClosures()[index] : getDirect( index );
+                result = toProjects( selection );
+                cache.compareAndSet( index, null, result );
+            }
+            return result;
+        }
 
-        return getSortedProjects( projectIds );
-    }
+        private BitSet getDirect( int index )
+        {
+            BitSet selection = new BitSet( sortedProjects.length );
+            for ( int i = offsets[index]; i < offsets[index + 1]; i++ )
+            {
+                selection.set( targets[i] );
+            }
+            return selection;
+        }
 
-    private void getUpstreamProjects( String projectId, Collection<String> projectIds, boolean transitive )
-    {
-        for ( String id : sorter.getDependencies( projectId ) )
+        private BitSet[] getClosures()
         {
-            if ( projectIds.add( id ) && transitive )
+            BitSet[] result = closures;
+            if ( result == null )
             {
-                getUpstreamProjects( id, projectIds, transitive );
+                synchronized ( this )
+                {
+                    result = closures;
+                    if ( result == null )
+                    {
+                        result = computeClosures();
+                        closures = result;
+                    }
+                }
             }
+            return result;
         }
-    }
 
-    private List<MavenProject> getSortedProjects( Set<String> projectIds )
-    {
-        return projectIds.stream()
-                .map( projects::get )
-                .sorted( Comparator.comparingInt( order::get ) )
-                .collect( Collectors.toList() );
-    }
+        /**
+         * Computes all closures in a single pass over the build order (or its reverse), in which the closures of all
+         * neighbours of a project are complete before the project itself is visited.
+         */
+        private BitSet[] computeClosures()
+        {
+            int n = sortedProjects.length;
+            BitSet[] result = new BitSet[n];
+            for ( int step = 0; step < n; step++ )
+            {
+                int index = towardsLowerIndices ? step : n - 1 - step;
+                BitSet closure = new BitSet( n );
+                for ( int i = offsets[index]; i < offsets[index + 1]; i++ )
+                {
+                    int target = targets[i];
+                    closure.set( target );
+                    closure.or( result[target] );
+                }
+                result[index] = closure;
+            }
+            return result;
+        }
 
-    @Override
-    public String toString()
-    {
-        return sorter.getSortedProjects().toString();
+        private List<MavenProject> toProjects( BitSet selection )
+        {
+            List<MavenProject> result = new ArrayList<>( selection.cardinality() );
+            for ( int index = selection.nextSetBit( 0 ); index >= 0; index = selection.nextSetBit( index + 1 ) )
+            {
+                result.add( sortedProjects[index] );
+            }
+            return Collections.unmodifiableList( result );
+        }
     }
 
 }
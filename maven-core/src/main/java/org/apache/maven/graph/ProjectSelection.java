@@ -0,0 +1,227 @@
+package org.apache.maven.graph;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.maven.execution.ProjectDependencyGraph;
+import org.apache.maven.project.MavenProject;
+
+/**
+ * Selects projects of the reactor for <code>-pl</code>, <code>-am</code>, <code>-amd</code> and <code>-rf</code>. The
+ * projects are identified by their index in the build order, so that selections are bit sets that are merged and
+ * sorted in linear time.
+ *
+ * @since 4.0.0
+ */
+final class ProjectSelection
+{
+    private final ProjectDependencyGraph graph;
+
+    private final List<MavenProject> sortedProjects;
+
+    private final Map<MavenProject, Integer> indices;
+
+    ProjectSelection( ProjectDependencyGraph graph )
+    {
+        this.graph = graph;
+        this.sortedProjects = graph.getSortedProjects();
+        this.indices = new IdentityHashMap<>( sortedProjects.size() );
+        for ( int index = 0; index < sortedProjects.size(); index++ )
+        {
+            indices.put( sortedProjects.get( index ), index );
+        }
+    }
+
+    ProjectDependencyGraph getGraph()
+    {
+        return graph;
+    }
+
+    /**
+     * Sorts the projects in the build order, projects that are not part of the graph come first.
+     *
+     * @param projects The projects to sort, duplicates are removed
+     * @return The sorted projects, never {@code null}
+     */
+    List<MavenProject> sort( Collection<MavenProject> projects )
+    {
+        List<MavenProject> result = new ArrayList<>( projects.size() );
+        BitSet selection = new BitSet( sortedProjects.size() );
+        for ( MavenProject project : projects )
+        {
+            Integer index = indices.get( project );
+            if ( index == null )
+            {
+                if ( !result.contains( project ) )
+                {
+                    result.add( project );
+                }
+            }
+            else
+            {
+                selection.set( index );
+            }
+        }
+        return toProjects( selection, result );
+    }
+
+    /**
+     * Adds the transitive upstream and/or downstream projects to the given projects, visiting every project and edge
+     * of the graph at most once.
+     *
+     * @return The projects including the added ones, sorted in the build order
+     */
+    List<MavenProject> alsoMake( Collection<MavenProject> projects, boolean upstream, boolean downstream )
+    {
+        BitSet selection = new BitSet( sortedProjects.size() );
+        List<MavenProject> unknown = new ArrayList<>();
+        for ( MavenProject project : projects )
+        {
+            Integer index = indices.get( project );
+            if ( index == null )
+            {
+                if ( !unknown.contains( project ) )
+                {
+                    unknown.add( project );
+                }
+            }
+            else
+            {
+                selection.set( index );
+            }
+        }
+
+        BitSet result = (BitSet) selection.clone();
+        if ( upstream )
+        {
+            result.or( close( selection, true ) );
+        }
+        if ( downstream )
+        {
+            result.or( close( selection, false ) );
+        }
+
+        return toProjects( result, unknown );
+    }
+
+    private BitSet close( BitSet start, boolean upstream )
+    {
+        BitSet visited = (BitSet) start.clone();
+        Deque<Integer> queue = new ArrayDeque<>();
+        for ( int index = start.nextSetBit( 0 ); index >= 0; index = start.nextSetBit( index + 1 ) )
+        {
+            queue.add( index );
+        }
+        while ( !queue.isEmpty() )
+        {
+            MavenProject project = sortedProjects.get( queue.poll() );
+            List<MavenProject> neighbours = upstream
+                ? graph.getUpstreamProjects( project, false )
+                : graph.getDownstreamProjects( project, false );
+            for ( MavenProject neighbour : neighbours )
+            {
+                Integer index = indices.get( neighbour );
+                if ( index != null && !visited.get( index ) )
+                {
+                    visited.set( index );
+                    queue.add( index );
+                }
+            }
+        }
+        return visited;
+    }
+
+    private List<MavenProject> toProjects( BitSet selection, List<MavenProject> result )
+    {
+        for ( int index = selection.nextSetBit( 0 ); index >= 0; index = selection.nextSetBit( index + 1 ) )
+        {
+            result.add( sortedProjects.get( index ) );
+        }
+        return result;
+    }
+
+    /**
+     * Looks up projects by <code>[groupId]:artifactId</code> or by path, like a linear search over the projects would
+     * find them, i.e. the first of several matching projects wins.
+     */
+    static final class Index
+    {
+        private final Map<String, MavenProject> byId = new HashMap<>();
+
+        private final Map<File, MavenProject> byFile = new HashMap<>();
+
+        private final Map<File, MavenProject> byBasedir = new HashMap<>();
+
+        Index( List<MavenProject> projects )
+        {
+            for ( MavenProject project : projects )
+            {
+                byId.putIfAbsent( ':' + project.getArtifactId(), project );
+                byId.putIfAbsent( project.getGroupId() + ':' + project.getArtifactId(), project );
+                if ( project.getFile() != null )
+                {
+                    byFile.putIfAbsent( project.getFile(), project );
+                    byBasedir.putIfAbsent( project.getBasedir(), project );
+                }
+            }
+        }
+
+        /**
+         * @param selector The selector, either <code>[groupId]:artifactId</code> or a path relative to the reactor
+         * @param reactorDirectory The reactor directory, may be {@code null}
+         * @return The matching project or {@code null}
+         */
+        MavenProject find( String selector, File reactorDirectory )
+        {
+            // [groupId]:artifactId
+            if ( selector.indexOf( ':' ) >= 0 )
+            {
+                return byId.get( selector );
+            }
+
+            // relative path, e.g. "sub", "../sub" or "."
+            else if ( reactorDirectory != null )
+            {
+                File selectedProject = new File( new File( reactorDirectory, selector ).toURI().normalize() );
+
+                if ( selectedProject.isFile() )
+                {
+                    return byFile.get( selectedProject );
+                }
+                else if ( selectedProject.isDirectory() )
+                {
+                    return byBasedir.get( selectedProject );
+                }
+            }
+
+            return null;
+        }
+    }
+}
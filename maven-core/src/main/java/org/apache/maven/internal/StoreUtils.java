@@ -0,0 +1,148 @@
+package org.apache.maven.internal;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Assists the caches that keep their entries in the local repository between builds. <strong>Warning:</strong> This
+ * is an internal utility class that is only public for technical reasons, it is not part of the public API. In
+ * particular, this class can be changed or deleted without prior notice.
+ *
+ * @since 4.0.0
+ */
+public final class StoreUtils
+{
+
+    /**
+     * Writes the content of an entry.
+     */
+    @FunctionalInterface
+    public interface EntryWriter
+    {
+        void write( DataOutputStream out )
+            throws IOException;
+    }
+
+    private StoreUtils()
+    {
+        // hide constructor
+    }
+
+    /**
+     * @return A new SHA-256 digest
+     */
+    public static MessageDigest newSha256()
+    {
+        try
+        {
+            return MessageDigest.getInstance( "SHA-256" );
+        }
+        catch ( NoSuchAlgorithmException e )
+        {
+            throw new IllegalStateException( e );
+        }
+    }
+
+    /**
+     * @return The hex encoded SHA-256 digest of the UTF-8 bytes of the value
+     */
+    public static String sha256( String value )
+    {
+        return toHex( newSha256().digest( value.getBytes( StandardCharsets.UTF_8 ) ) );
+    }
+
+    public static String toHex( byte[] bytes )
+    {
+        StringBuilder hex = new StringBuilder( bytes.length * 2 );
+        for ( byte b : bytes )
+        {
+            hex.append( Character.forDigit( ( b >> 4 ) & 0xf, 16 ) ).append( Character.forDigit( b & 0xf, 16 ) );
+        }
+        return hex.toString();
+    }
+
+    /**
+     * Writes a nullable string, unlike {@link DataOutputStream#writeUTF(String)} not limited to 64k.
+     */
+    public static void writeString( DataOutputStream out, String value )
+        throws IOException
+    {
+        if ( value == null )
+        {
+            out.writeInt( -1 );
+        }
+        else
+        {
+            byte[] bytes = value.getBytes( StandardCharsets.UTF_8 );
+            out.writeInt( bytes.length );
+            out.write( bytes );
+        }
+    }
+
+    /**
+     * Reads a string written by {@link #writeString(DataOutputStream, String)}.
+     */
+    public static String readString( DataInputStream in )
+        throws IOException
+    {
+        int length = in.readInt();
+        if ( length < 0 )
+        {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully( bytes );
+        return new String( bytes, StandardCharsets.UTF_8 );
+    }
+
+    /**
+     * Writes an entry to a temporary file next to it and moves it in place, so that concurrent builds never see a
+     * partially written entry.
+     */
+    public static void writeAtomically( Path entry, EntryWriter writer )
+        throws IOException
+    {
+        Files.createDirectories( entry.getParent() );
+        Path tmp = Files.createTempFile( entry.getParent(), entry.getFileName().toString(), ".tmp" );
+        try
+        {
+            try ( DataOutputStream out =
+                new DataOutputStream( new BufferedOutputStream( Files.newOutputStream( tmp ) ) ) )
+            {
+                writer.write( out );
+            }
+            Files.move( tmp, entry, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE );
+        }
+        finally
+        {
+            Files.deleteIfExists( tmp );
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package org.apache.maven.lifecycle.internal;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Limits the number of project builds that use the CPU at the same time when builds run on threads that are cheap to
+ * block, e.g. virtual threads. A build holds a permit while it runs and hands it back to the other builds for the
+ * duration of {@link #blocking(BlockingOperation) blocking operations} like artifact downloads.
+ * <strong>NOTE:</strong> This class is not part of any public api and can be changed or deleted without prior notice.
+ *
+ * @since 4.0.0
+ */
+public final class CpuPermits
+{
+    private static final ThreadLocal<Semaphore> HELD = new ThreadLocal<>();
+
+    /**
+     * An operation that mostly waits for I/O.
+     *
+     * @param <E> The exception thrown by the operation
+     */
+    @FunctionalInterface
+    public interface BlockingOperation<E extends Exception>
+    {
+        void run()
+            throws E;
+    }
+
+    private CpuPermits()
+    {
+    }
+
+    /**
+     * Runs the task on the current thread while holding one of the permits.
+     *
+     * @param permits The permits shared by all builds
+     * @param task The task
+     * @return The result of the task
+     * @throws Exception If the task failed
+     */
+    public static <T> T run( Semaphore permits, Callable<T> task )
+        throws Exception
+    {
+        permits.acquire();
+        HELD.set( permits );
+        try
+        {
+            return task.call();
+        }
+        finally
+        {
+            HELD.remove();
+            permits.release();
+        }
+    }
+
+    /**
+     * Runs the operation without holding a permit. Outside of {@link #run(Semaphore, Callable)} the operation simply
+     * runs.
+     *
+     * @param operation The blocking operation
+     * @throws E If the operation failed
+     */
+    public static <E extends Exception> void blocking( BlockingOperation<E> operation )
+        throws E
+    {
+        Semaphore permits = HELD.get();
+        if ( permits == null )
+        {
+            operation.run();
+            return;
+        }
+        HELD.remove();
+        permits.release();
+        try
+        {
+            operation.run();
+        }
+        finally
+        {
+            permits.acquireUninterruptibly();
+            HELD.set( permits );
+        }
+    }
+}
@@ -60,6 +60,8 @@
 import org.codehaus.plexus.util.StringUtils;
 import org.codehaus.plexus.util.xml.Xpp3Dom;
 import org.codehaus.plexus.util.xml.pull.XmlPullParserException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 
 /**
@@ -74,6 +76,14 @@
 public class DefaultLifecycleExecutionPlanCalculator
     implements LifecycleExecutionPlanCalculator
 {
+    /**
+     * User property listing the mojo executions that may run concurrently with the other listed executions of their
+     * phase, as comma separated <code>[groupId:]artifactId:goal[@executionId]</code>. They share the threads of the
+     * build, so they only run concurrently with a thread count of 2 or more.
+     */
+    public static final String PARALLEL_EXECUTIONS_PROPERTY = "maven.mojo.parallelExecutions";
+
+    private final Logger logger = LoggerFactory.getLogger( getClass() );
 
     private final BuildPluginManager pluginManager;
 
@@ -138,6 +148,8 @@ public MavenExecutionPlan calculateExecutionPlan( MavenSession session, MavenPro
         if ( setup )
         {
             setupMojoExecutions( session, project, executions );
+
+            markParallelSafeExecutions( session, executions );
         }
 
         final List<ExecutionPlanItem> planItem = ExecutionPlanItem.createExecutionPlanItems( project, executions );
@@ -167,6 +179,63 @@ private void setupMojoExecutions( MavenSession session, MavenProject project, Li
         }
     }
 
+    /**
+     * Marks the executions that the user declared as parallel-safe and that can actually run concurrently: their
+     * plugin must be thread-safe and they may neither aggregate nor fork.
+     */
+    void markParallelSafeExecutions( MavenSession session, List<MojoExecution> mojoExecutions )
+    {
+        String declaration = session.getUserProperties().getProperty( PARALLEL_EXECUTIONS_PROPERTY );
+        if ( StringUtils.isBlank( declaration ) )
+        {
+            return;
+        }
+
+        Set<String> declared = new HashSet<>();
+        for ( String key : declaration.split( "," ) )
+        {
+            if ( StringUtils.isNotBlank( key ) )
+            {
+                declared.add( key.trim() );
+            }
+        }
+
+        for ( MojoExecution mojoExecution : mojoExecutions )
+        {
+            if ( !isDeclaredParallelSafe( declared, mojoExecution ) )
+            {
+                continue;
+            }
+
+            MojoDescriptor mojoDescriptor = mojoExecution.getMojoDescriptor();
+            if ( !mojoDescriptor.isThreadSafe() )
+            {
+                logger.warn( "Mojo execution " + mojoExecution
+                    + " is declared parallel-safe but its plugin is not thread-safe, it will run sequentially" );
+            }
+            else if ( mojoDescriptor.isAggregator() || !mojoExecution.getForkedExecutions().isEmpty()
+                || mojoExecution.getLifecyclePhase() == null )
+            {
+                logger.debug( "Mojo execution " + mojoExecution + " aggregates, forks or is not bound to a phase,"
+                    + " it will run sequentially" );
+            }
+            else
+            {
+                mojoExecution.setParallelSafe( true );
+            }
+        }
+    }
+
+    private static boolean isDeclaredParallelSafe( Set<String> declared, MojoExecution mojoExecution )
+    {
+        String goal = mojoExecution.getArtifactId() + ':' + mojoExecution.getGoal();
+        String qualifiedGoal = mojoExecution.getGroupId() + ':' + goal;
+        String execution = '@' + mojoExecution.getExecutionId();
+
+        return declared.contains( goal ) || declared.contains( goal + execution )
+            || declared.contains( qualifiedGoal ) || declared.contains( qualifiedGoal + execution );
+    }
+
     private Set<MojoDescriptor> fillMojoDescriptors( MavenSession session, MavenProject project,
                                                     List<MojoExecution> mojoExecutions )
             throws InvalidPluginDescriptorException, MojoNotFoundException, PluginResolutionException,
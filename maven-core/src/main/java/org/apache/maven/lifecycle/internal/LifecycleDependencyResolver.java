@@ -142,9 +142,9 @@ public void resolveProjectDependencies( MavenProject project, Collection<String>
             {
                 try
                 {
-                    resolvedArtifacts = getDependencies( project, scopesToCollect, scopesToResolve, session,
-                                                         aggregating, projectArtifacts );
-                    recordArtifacts = projectArtifactsCache.put( cacheKey, resolvedArtifacts );
+                    recordArtifacts = getDependencies( project, scopesToCollect, scopesToResolve, session,
+                                                       aggregating, projectArtifacts, cacheKey );
+                    resolvedArtifacts = recordArtifacts.getArtifacts();
                 }
                 catch ( LifecycleExecutionException e )
                 {
@@ -201,9 +201,12 @@ public void resolveProjectDependencies( MavenProject project, Collection<String>
         }
     }
 
-    private Set<Artifact> getDependencies( MavenProject project, Collection<String> scopesToCollect,
-                                           Collection<String> scopesToResolve, MavenSession session,
-                                           boolean aggregating, Set<Artifact> projectArtifacts )
+    private ProjectArtifactsCache.CacheRecord getDependencies( MavenProject project,
+                                                               Collection<String> scopesToCollect,
+                                                               Collection<String> scopesToResolve,
+                                                               MavenSession session, boolean aggregating,
+                                                               Set<Artifact> projectArtifacts,
+                                                               ProjectArtifactsCache.Key cacheKey )
         throws LifecycleExecutionException
     {
         if ( scopesToCollect == null )
@@ -217,7 +220,7 @@ private Set<Artifact> getDependencies( MavenProject project, Collection<String>
 
         if ( scopesToCollect.isEmpty() && scopesToResolve.isEmpty() )
         {
-            return new LinkedHashSet<>();
+            return projectArtifactsCache.put( cacheKey, new LinkedHashSet<>() );
         }
 
         scopesToCollect = new HashSet<>( scopesToCollect );
@@ -276,7 +279,31 @@ private Set<Artifact> getDependencies( MavenProject project, Collection<String>
             RepositoryUtils.toArtifacts( artifacts, result.getDependencyGraph().getChildren(),
                                          Collections.singletonList( project.getArtifact().getId() ), collectionFilter );
         }
-        return artifacts;
+        if ( hasVersionRanges( result.getDependencyGraph() ) )
+        {
+            return projectArtifactsCache.putWithVersionRanges( cacheKey, artifacts );
+        }
+        return projectArtifactsCache.put( cacheKey, artifacts );
+    }
+
+    private static boolean hasVersionRanges( DependencyNode node )
+    {
+        if ( node == null )
+        {
+            return false;
+        }
+        if ( node.getVersionConstraint() != null && node.getVersionConstraint().getRange() != null )
+        {
+            return true;
+        }
+        for ( DependencyNode child : node.getChildren() )
+        {
+            if ( hasVersionRanges( child ) )
+            {
+                return true;
+            }
+        }
+        return false;
     }
 
     private boolean areAllDependenciesInReactor( Collection<MavenProject> projects,
@@ -122,6 +122,7 @@ public void buildProject( MavenSession session, MavenSession rootSession, Reacto
 
             reactorContext.getResult().addBuildSummary( new BuildSuccess( currentProject,
                                                                           buildEndTime - buildStartTime ) );
+            session.getBuildDurations().recordProject( currentProject, buildEndTime - buildStartTime );
 
             eventCatapult.fire( ExecutionEvent.Type.ProjectSucceeded, session, null );
         }
@@ -65,6 +65,8 @@
 
     private final SessionScope sessionScope;
 
+    private final MojoExecutor mojoExecutor;
+
     @Inject
     public LifecycleStarter(
             ExecutionEventCatapult eventCatapult,
@@ -73,7 +75,8 @@ public LifecycleStarter(
             LifecycleDebugLogger lifecycleDebugLogger,
             LifecycleTaskSegmentCalculator lifecycleTaskSegmentCalculator,
             Map<String, Builder> builders,
-            SessionScope sessionScope )
+            SessionScope sessionScope,
+            MojoExecutor mojoExecutor )
     {
         this.eventCatapult = eventCatapult;
         this.defaultLifeCycles = defaultLifeCycles;
@@ -82,6 +85,7 @@ public LifecycleStarter(
         this.lifecycleTaskSegmentCalculator = lifecycleTaskSegmentCalculator;
         this.builders = builders;
         this.sessionScope = sessionScope;
+        this.mojoExecutor = mojoExecutor;
     }
 
     public void execute( MavenSession session )
@@ -149,6 +153,7 @@ public void execute( MavenSession session )
         }
         finally
         {
+            mojoExecutor.shutdown( session );
             eventCatapult.fire( ExecutionEvent.Type.SessionEnded, session, null );
         }
     }
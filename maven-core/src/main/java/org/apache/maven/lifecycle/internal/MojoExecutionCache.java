@@ -0,0 +1,658 @@
+package org.apache.maven.lifecycle.internal;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.execution.MavenSession;
+import org.apache.maven.model.io.xpp3.MavenXpp3Writer;
+import org.apache.maven.plugin.MojoExecution;
+import org.apache.maven.project.MavenProject;
+import org.apache.maven.project.MavenProjectHelper;
+import org.codehaus.plexus.util.StringUtils;
+import org.eclipse.aether.RepositorySystemSession;
+import org.eclipse.aether.SessionData;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import static org.apache.maven.internal.StoreUtils.newSha256;
+import static org.apache.maven.internal.StoreUtils.toHex;
+
+/**
+ * <p>
+ * Caches the outputs of mojo executions in a local directory, so that an execution whose inputs are unchanged is
+ * skipped and its outputs are restored instead. Users opt in per execution by listing it in the user property
+ * {@value #EXECUTIONS_PROPERTY} as comma separated <code>[groupId:]artifactId:goal[@executionId]</code>. Only list
+ * executions that write into the build directory of the project and change nothing else but the main and attached
+ * artifacts, the source roots and the properties of the project.
+ * </p>
+ * <p>
+ * The fingerprint of an execution covers the plugin, the mojo configuration, the model of the project, the user
+ * properties, the resolved dependencies and the files of the project directory, including the build directory as left
+ * by the preceding executions. Its outputs are the files of the build directory that the execution created, changed or
+ * deleted, together with the changes to the project.
+ * </p>
+ * <strong>NOTE:</strong> This class is not part of any public api and can be changed or deleted without prior notice.
+ *
+ * @since 4.0.0
+ */
+@Named
+@Singleton
+public class MojoExecutionCache
+{
+    /**
+     * User property listing the mojo executions whose outputs are cached.
+     */
+    public static final String EXECUTIONS_PROPERTY = "maven.buildCache.executions";
+
+    /**
+     * User property for the directory of the cache, <code>~/.m2/build-cache</code> by default.
+     */
+    public static final String DIRECTORY_PROPERTY = "maven.buildCache.directory";
+
+    private static final String FORMAT = "1";
+
+    private static final String MANIFEST = "entry.properties";
+
+    private static final String FILES = "files";
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private static final String FILE_HASHES_KEY = MojoExecutionCache.class.getName() + ".fileHashes";
+
+    /**
+     * How long after its last modification a file may still be rewritten without changing its modification time,
+     * the coarsest timestamp granularity of common file systems.
+     */
+    private static final long TIMESTAMP_GRANULARITY_MILLIS = 2000;
+
+    private final Logger logger = LoggerFactory.getLogger( getClass() );
+
+    private final MavenProjectHelper projectHelper;
+
+    @Inject
+    public MojoExecutionCache( MavenProjectHelper projectHelper )
+    {
+        this.projectHelper = projectHelper;
+    }
+
+    /**
+     * Fingerprints a mojo execution about to run.
+     *
+     * @return The cache record of the execution or {@code null} if its outputs are not cached
+     */
+    public Record begin( MavenSession session, MojoExecution mojoExecution )
+    {
+        MavenProject project = session.getCurrentProject();
+        if ( !isCacheable( session, project, mojoExecution ) )
+        {
+            return null;
+        }
+
+        try
+        {
+            Path basedir = project.getBasedir().toPath().toAbsolutePath().normalize();
+            Path buildDirectory = basedir.resolve( project.getBuild().getDirectory() ).normalize();
+            if ( !buildDirectory.startsWith( basedir ) || buildDirectory.equals( basedir ) )
+            {
+                logger.debug( "Not caching {}, the build directory is not within the project directory",
+                              mojoExecution );
+                return null;
+            }
+
+            Map<String, String> fileHashes = getFileHashes( session );
+            Map<String, String> files = hashTree( basedir, basedir, fileHashes );
+
+            MessageDigest digest = newSha256();
+            update( digest, FORMAT );
+            update( digest, mojoExecution.getGroupId() + ':' + mojoExecution.getArtifactId() + ':'
+                + mojoExecution.getVersion() + ':' + mojoExecution.getGoal() + '@' + mojoExecution.getExecutionId() );
+            update( digest, Objects.toString( mojoExecution.getConfiguration() ) );
+            update( digest, System.getProperty( "java.version" ) );
+            update( digest, new TreeMap<>( session.getUserProperties() ).toString() );
+            try ( Writer writer = new OutputStreamWriter( new DigestOutputStream( new NullOutputStream(), digest ),
+                                                          StandardCharsets.UTF_8 ) )
+            {
+                new MavenXpp3Writer().write( writer, project.getModel() );
+            }
+
+            List<Artifact> artifacts = new ArrayList<>( project.getArtifacts() );
+            artifacts.sort( Comparator.comparing( Artifact::getId ) );
+            for ( Artifact artifact : artifacts )
+            {
+                update( digest, artifact.getId() );
+                File file = artifact.getFile();
+                if ( file != null && file.isDirectory() )
+                {
+                    update( digest, hashTree( file.toPath(), file.toPath(), fileHashes ).toString() );
+                }
+                else if ( file != null && file.isFile() )
+                {
+                    update( digest, hash( file.toPath(), fileHashes ) );
+                }
+            }
+
+            update( digest, files.toString() );
+
+            Path entry = getDirectory( session ).resolve( toHex( digest.digest() ) );
+            return new Record( project, mojoExecution, basedir, buildDirectory, files, entry, fileHashes );
+        }
+        catch ( IOException e )
+        {
+            logger.warn( "Unable to fingerprint " + mojoExecution + " for the build cache: " + e.getMessage() );
+            return null;
+        }
+    }
+
+    private boolean isCacheable( MavenSession session, MavenProject project, MojoExecution mojoExecution )
+    {
+        String declaration = session.getUserProperties().getProperty( EXECUTIONS_PROPERTY );
+        if ( StringUtils.isBlank( declaration ) || project == null || project.getBasedir() == null
+            || project.getBuild() == null || project.getBuild().getDirectory() == null )
+        {
+            return false;
+        }
+
+        String goal = mojoExecution.getArtifactId() + ':' + mojoExecution.getGoal();
+        String qualifiedGoal = mojoExecution.getGroupId() + ':' + goal;
+        String execution = '@' + mojoExecution.getExecutionId();
+
+        boolean declared = false;
+        for ( String key : declaration.split( "," ) )
+        {
+            key = key.trim();
+            if ( key.equals( goal ) || key.equals( goal + execution ) || key.equals( qualifiedGoal )
+                || key.equals( qualifiedGoal + execution ) )
+            {
+                declared = true;
+                break;
+            }
+        }
+        if ( !declared )
+        {
+            return false;
+        }
+
+        // concurrent executions would see each other's outputs
+        if ( mojoExecution.getMojoDescriptor().isAggregator() || !mojoExecution.getForkedExecutions().isEmpty()
+            || mojoExecution.isParallelSafe() )
+        {
+            logger.debug( "Not caching {}, it aggregates, forks or runs in parallel", mojoExecution );
+            return false;
+        }
+        return true;
+    }
+
+    private Path getDirectory( MavenSession session )
+    {
+        String directory = session.getUserProperties().getProperty( DIRECTORY_PROPERTY );
+        if ( StringUtils.isNotBlank( directory ) )
+        {
+            return Paths.get( directory );
+        }
+        return Paths.get( System.getProperty( "user.home" ), ".m2", "build-cache" );
+    }
+
+    /**
+     * The hashes of files by their path, size and modification time, which save to hash unchanged files for every
+     * execution. They are kept for the build only, in the data of its repository session.
+     */
+    @SuppressWarnings( "unchecked" )
+    private static Map<String, String> getFileHashes( MavenSession session )
+    {
+        RepositorySystemSession repositorySession = session.getRepositorySession();
+        if ( repositorySession == null )
+        {
+            return new ConcurrentHashMap<>();
+        }
+        SessionData data = repositorySession.getData();
+        Map<String, String> fileHashes = (Map<String, String>) data.get( FILE_HASHES_KEY );
+        while ( fileHashes == null )
+        {
+            fileHashes = new ConcurrentHashMap<>();
+            if ( data.set( FILE_HASHES_KEY, null, fileHashes ) )
+            {
+                break;
+            }
+            fileHashes = (Map<String, String>) data.get( FILE_HASHES_KEY );
+        }
+        return fileHashes;
+    }
+
+    /**
+     * Hashes the files below a directory by their path relative to the root, skipping hidden files and the
+     * directories of other projects.
+     */
+    private static Map<String, String> hashTree( Path root, Path directory, Map<String, String> fileHashes )
+        throws IOException
+    {
+        Map<String, String> hashes = new TreeMap<>();
+        Files.walkFileTree( directory, new SimpleFileVisitor<Path>()
+        {
+            @Override
+            public FileVisitResult preVisitDirectory( Path dir, BasicFileAttributes attrs )
+            {
+                boolean otherProject = Files.isRegularFile( dir.resolve( "pom.xml" ) );
+                if ( !dir.equals( directory ) && ( isHidden( dir ) || otherProject ) )
+                {
+                    return FileVisitResult.SKIP_SUBTREE;
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile( Path file, BasicFileAttributes attrs )
+                throws IOException
+            {
+                if ( attrs.isRegularFile() && !isHidden( file ) )
+                {
+                    hashes.put( relativize( root, file ), hash( file, attrs, fileHashes ) );
+                }
+                return FileVisitResult.CONTINUE;
+            }
+        } );
+        return hashes;
+    }
+
+    private static boolean isHidden( Path path )
+    {
+        return path.getFileName() != null && path.getFileName().toString().startsWith( "." );
+    }
+
+    private static String relativize( Path root, Path file )
+    {
+        return root.relativize( file ).toString().replace( File.separatorChar, '/' );
+    }
+
+    private static String hash( Path file, Map<String, String> fileHashes )
+        throws IOException
+    {
+        return hash( file, Files.readAttributes( file, BasicFileAttributes.class ), fileHashes );
+    }
+
+    private static String hash( Path file, BasicFileAttributes attrs, Map<String, String> fileHashes )
+        throws IOException
+    {
+        String key = file + ":" + attrs.fileKey() + ":" + attrs.size() + ":" + attrs.lastModifiedTime();
+        String hash = fileHashes.get( key );
+        if ( hash == null )
+        {
+            long hashed = System.currentTimeMillis();
+            MessageDigest digest = newSha256();
+            try ( InputStream in = Files.newInputStream( file ) )
+            {
+                byte[] buffer = new byte[BUFFER_SIZE];
+                for ( int n; ( n = in.read( buffer ) ) >= 0; )
+                {
+                    digest.update( buffer, 0, n );
+                }
+            }
+            hash = toHex( digest.digest() );
+            // a file modified just now may be rewritten with the same size and modification time, so its hash is
+            // only kept once every later rewrite is bound to change the modification time
+            if ( attrs.lastModifiedTime().toMillis() < hashed - TIMESTAMP_GRANULARITY_MILLIS )
+            {
+                fileHashes.put( key, hash );
+            }
+        }
+        return hash;
+    }
+
+    private static void update( MessageDigest digest, String value )
+    {
+        digest.update( value.getBytes( StandardCharsets.UTF_8 ) );
+        digest.update( (byte) 0 );
+    }
+
+    private static void deleteTree( Path directory )
+        throws IOException
+    {
+        if ( Files.exists( directory ) )
+        {
+            try ( Stream<Path> paths = Files.walk( directory ) )
+            {
+                for ( Path path : (Iterable<Path>) paths.sorted( Comparator.reverseOrder() )::iterator )
+                {
+                    Files.delete( path );
+                }
+            }
+        }
+    }
+
+    /**
+     * The fingerprint of a mojo execution and the state of its project before it runs.
+     */
+    public final class Record
+    {
+        private final MavenProject project;
+
+        private final MojoExecution mojoExecution;
+
+        private final Path basedir;
+
+        private final Path buildDirectory;
+
+        private final Map<String, String> filesBefore;
+
+        private final Path entry;
+
+        private final Map<String, String> fileHashes;
+
+        private final File artifactFileBefore;
+
+        private final int attachedArtifactsBefore;
+
+        private final List<String> compileSourceRootsBefore;
+
+        private final List<String> testCompileSourceRootsBefore;
+
+        private final Properties propertiesBefore;
+
+        Record( MavenProject project, MojoExecution mojoExecution, Path basedir,
+                Path buildDirectory, Map<String, String> filesBefore, Path entry, Map<String, String> fileHashes )
+        {
+            this.project = project;
+            this.mojoExecution = mojoExecution;
+            this.basedir = basedir;
+            this.buildDirectory = buildDirectory;
+            this.filesBefore = filesBefore;
+            this.entry = entry;
+            this.fileHashes = fileHashes;
+            this.artifactFileBefore = project.getArtifact() != null ? project.getArtifact().getFile() : null;
+            this.attachedArtifactsBefore = project.getAttachedArtifacts().size();
+            this.compileSourceRootsBefore = new ArrayList<>( project.getCompileSourceRoots() );
+            this.testCompileSourceRootsBefore = new ArrayList<>( project.getTestCompileSourceRoots() );
+            this.propertiesBefore = (Properties) project.getProperties().clone();
+        }
+
+        /**
+         * Restores the outputs of a previous run of the execution with the same fingerprint.
+         *
+         * @return {@code true} if the outputs were restored and the execution must be skipped
+         */
+        public boolean restore()
+        {
+            Path manifestFile = entry.resolve( MANIFEST );
+            if ( !Files.isRegularFile( manifestFile ) )
+            {
+                return false;
+            }
+
+            Properties manifest = new Properties();
+            try
+            {
+                try ( InputStream in = Files.newInputStream( manifestFile ) )
+                {
+                    manifest.load( in );
+                }
+
+                Path files = entry.resolve( FILES );
+                for ( int i = 0; manifest.containsKey( "file." + i ); i++ )
+                {
+                    String path = manifest.getProperty( "file." + i );
+                    Path target = basedir.resolve( path );
+                    Files.createDirectories( target.getParent() );
+                    Files.copy( files.resolve( path ), target, StandardCopyOption.REPLACE_EXISTING );
+                }
+                for ( int i = 0; manifest.containsKey( "deleted." + i ); i++ )
+                {
+                    Files.deleteIfExists( basedir.resolve( manifest.getProperty( "deleted." + i ) ) );
+                }
+            }
+            catch ( IOException e )
+            {
+                logger.warn( "Unable to restore the outputs of " + mojoExecution + " from the build cache, running it: "
+                    + e.getMessage() );
+                return false;
+            }
+
+            String artifactFile = manifest.getProperty( "artifactFile" );
+            if ( artifactFile != null && project.getArtifact() != null )
+            {
+                project.getArtifact().setFile( basedir.resolve( artifactFile ).toFile() );
+            }
+            for ( int i = 0; manifest.containsKey( "attached." + i + ".file" ); i++ )
+            {
+                projectHelper.attachArtifact( project, manifest.getProperty( "attached." + i + ".type" ),
+                                              manifest.getProperty( "attached." + i + ".classifier" ),
+                                              basedir.resolve( manifest.getProperty( "attached." + i + ".file" ) )
+                                                  .toFile() );
+            }
+            for ( int i = 0; manifest.containsKey( "compileSourceRoot." + i ); i++ )
+            {
+                project.addCompileSourceRoot( basedir.resolve( manifest.getProperty( "compileSourceRoot." + i ) )
+                                                  .toString() );
+            }
+            for ( int i = 0; manifest.containsKey( "testCompileSourceRoot." + i ); i++ )
+            {
+                project.addTestCompileSourceRoot(
+                    basedir.resolve( manifest.getProperty( "testCompileSourceRoot." + i ) ).toString() );
+            }
+            for ( String key : manifest.stringPropertyNames() )
+            {
+                if ( key.startsWith( "property." ) )
+                {
+                    project.getProperties().setProperty( key.substring( "property.".length() ),
+                                                         manifest.getProperty( key ) );
+                }
+            }
+
+            logger.info( "Restored the outputs of " + mojoExecution + " from the build cache" );
+            return true;
+        }
+
+        /**
+         * Stores the outputs of the execution after it succeeded.
+         */
+        public void store()
+        {
+            if ( Files.exists( entry ) )
+            {
+                return;
+            }
+
+            Path tmp = entry.resolveSibling( entry.getFileName() + "." + UUID.randomUUID() + ".tmp" );
+            try
+            {
+                Properties manifest = new Properties();
+                if ( !recordProject( manifest ) )
+                {
+                    return;
+                }
+
+                Map<String, String> filesAfter = Files.isDirectory( buildDirectory )
+                    ? hashTree( basedir, buildDirectory, fileHashes ) : new TreeMap<>();
+                int count = 0;
+                for ( Map.Entry<String, String> file : filesAfter.entrySet() )
+                {
+                    if ( !file.getValue().equals( filesBefore.get( file.getKey() ) ) )
+                    {
+                        Path copy = tmp.resolve( FILES ).resolve( file.getKey() );
+                        Files.createDirectories( copy.getParent() );
+                        Files.copy( basedir.resolve( file.getKey() ), copy );
+                        manifest.setProperty( "file." + count++, file.getKey() );
+                    }
+                }
+                String buildPath = relativize( basedir, buildDirectory ) + '/';
+                count = 0;
+                for ( String file : filesBefore.keySet() )
+                {
+                    if ( file.startsWith( buildPath ) && !filesAfter.containsKey( file ) )
+                    {
+                        manifest.setProperty( "deleted." + count++, file );
+                    }
+                }
+
+                Files.createDirectories( tmp );
+                try ( OutputStream out = Files.newOutputStream( tmp.resolve( MANIFEST ) ) )
+                {
+                    manifest.store( out, mojoExecution.toString() );
+                }
+                Files.move( tmp, entry, StandardCopyOption.ATOMIC_MOVE );
+            }
+            catch ( IOException e )
+            {
+                logger.warn( "Unable to store the outputs of " + mojoExecution + " in the build cache: "
+                    + e.getMessage() );
+            }
+            finally
+            {
+                try
+                {
+                    deleteTree( tmp );
+                }
+                catch ( IOException e )
+                {
+                    logger.debug( "Unable to delete " + tmp, e );
+                }
+            }
+        }
+
+        /**
+         * Records the changes to the project, which must refer to files within the project directory.
+         *
+         * @return {@code false} if the changes cannot be restored
+         */
+        private boolean recordProject( Properties manifest )
+        {
+            File artifactFile = project.getArtifact() != null ? project.getArtifact().getFile() : null;
+            if ( artifactFile != null && !artifactFile.equals( artifactFileBefore ) )
+            {
+                if ( !isInProject( artifactFile ) )
+                {
+                    return false;
+                }
+                manifest.setProperty( "artifactFile", relativize( basedir, artifactFile.toPath() ) );
+            }
+
+            List<Artifact> attached = project.getAttachedArtifacts();
+            for ( int i = attachedArtifactsBefore; i < attached.size(); i++ )
+            {
+                Artifact artifact = attached.get( i );
+                if ( artifact.getFile() == null || !isInProject( artifact.getFile() ) )
+                {
+                    return false;
+                }
+                int n = i - attachedArtifactsBefore;
+                manifest.setProperty( "attached." + n + ".type", artifact.getType() );
+                if ( artifact.getClassifier() != null )
+                {
+                    manifest.setProperty( "attached." + n + ".classifier", artifact.getClassifier() );
+                }
+                manifest.setProperty( "attached." + n + ".file", relativize( basedir, artifact.getFile().toPath() ) );
+            }
+
+            if ( !recordSourceRoots( manifest, "compileSourceRoot.", compileSourceRootsBefore,
+                                     project.getCompileSourceRoots() )
+                || !recordSourceRoots( manifest, "testCompileSourceRoot.", testCompileSourceRootsBefore,
+                                       project.getTestCompileSourceRoots() ) )
+            {
+                return false;
+            }
+
+            for ( String key : project.getProperties().stringPropertyNames() )
+            {
+                String value = project.getProperties().getProperty( key );
+                if ( !value.equals( propertiesBefore.getProperty( key ) ) )
+                {
+                    manifest.setProperty( "property." + key, value );
+                }
+            }
+            return true;
+        }
+
+        private boolean recordSourceRoots( Properties manifest, String prefix, List<String> before,
+                                           List<String> after )
+        {
+            Set<String> existing = new HashSet<>( before );
+            int count = 0;
+            for ( String root : after )
+            {
+                if ( !existing.contains( root ) )
+                {
+                    if ( !isInProject( new File( root ) ) )
+                    {
+                        return false;
+                    }
+                    manifest.setProperty( prefix + count++, relativize( basedir, Paths.get( root ) ) );
+                }
+            }
+            return true;
+        }
+
+        private boolean isInProject( File file )
+        {
+            Path path = file.toPath().toAbsolutePath().normalize();
+            if ( path.startsWith( basedir ) )
+            {
+                return true;
+            }
+            logger.debug( "Not caching {}, it refers to {} outside the project directory", mojoExecution, file );
+            return false;
+        }
+    }
+
+    private static final class NullOutputStream
+        extends OutputStream
+    {
+        @Override
+        public void write( int b )
+        {
+        }
+
+        @Override
+        public void write( byte[] b, int off, int len )
+        {
+        }
+    }
+}
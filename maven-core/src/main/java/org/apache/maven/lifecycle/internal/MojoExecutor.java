@@ -25,8 +25,12 @@
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 
 import javax.inject.Inject;
 import javax.inject.Named;
@@ -36,6 +40,7 @@
 import org.apache.maven.artifact.resolver.filter.ArtifactFilter;
 import org.apache.maven.artifact.resolver.filter.CumulativeScopeArtifactFilter;
 import org.apache.maven.execution.ExecutionEvent;
+import org.apache.maven.execution.MavenExecutionRequest;
 import org.apache.maven.execution.MavenSession;
 import org.apache.maven.lifecycle.LifecycleExecutionException;
 import org.apache.maven.lifecycle.MissingProjectException;
@@ -49,6 +54,7 @@
 import org.apache.maven.plugin.PluginManagerException;
 import org.apache.maven.plugin.descriptor.MojoDescriptor;
 import org.apache.maven.project.MavenProject;
+import org.apache.maven.session.scope.internal.SessionScope;
 import org.codehaus.plexus.util.StringUtils;
 
 /**
@@ -71,20 +77,32 @@
     private final MavenPluginManager mavenPluginManager;
     private final LifecycleDependencyResolver lifeCycleDependencyResolver;
     private final ExecutionEventCatapult eventCatapult;
+    private final SessionScope sessionScope;
+    private final MojoExecutionCache mojoExecutionCache;
 
     @Inject
     public MojoExecutor(
             BuildPluginManager pluginManager,
             MavenPluginManager mavenPluginManager,
             LifecycleDependencyResolver lifeCycleDependencyResolver,
-            ExecutionEventCatapult eventCatapult )
+            ExecutionEventCatapult eventCatapult,
+            SessionScope sessionScope,
+            MojoExecutionCache mojoExecutionCache )
     {
         this.pluginManager = pluginManager;
         this.mavenPluginManager = mavenPluginManager;
         this.lifeCycleDependencyResolver = lifeCycleDependencyResolver;
         this.eventCatapult = eventCatapult;
+        this.sessionScope = sessionScope;
+        this.mojoExecutionCache = mojoExecutionCache;
     }
 
+    /**
+     * The pools running the parallel-safe mojo executions of the builds by their request, created on first use with
+     * the thread count of the build and shut down by {@link #shutdown(MavenSession)} when the build ends.
+     */
+    private final Map<MavenExecutionRequest, ForkJoinPool> pools = new ConcurrentHashMap<>();
+
     public DependencyContext newDependencyContext( MavenSession session, List<MojoExecution> mojoExecutions )
     {
         Set<String> scopesToCollect = new TreeSet<>();
@@ -148,22 +166,155 @@ public void execute( MavenSession session, List<MojoExecution> mojoExecutions, P
 
         PhaseRecorder phaseRecorder = new PhaseRecorder( session.getCurrentProject() );
 
-        for ( MojoExecution mojoExecution : mojoExecutions )
+        for ( int i = 0; i < mojoExecutions.size(); )
+        {
+            int end = getParallelGroupEnd( mojoExecutions, i );
+            if ( end - i > 1 && session.getRequest().getDegreeOfConcurrency() > 1 )
+            {
+                executeConcurrently( session, mojoExecutions.subList( i, end ), projectIndex, dependencyContext,
+                                     phaseRecorder );
+                i = end;
+            }
+            else
+            {
+                execute( session, mojoExecutions.get( i ), projectIndex, dependencyContext, phaseRecorder );
+                i++;
+            }
+        }
+    }
+
+    /**
+     * Finds the end of the group of executions starting at the given index that can run concurrently: adjacent
+     * {@link MojoExecution#isParallelSafe() parallel-safe} executions of the same phase that require the same
+     * dependencies.
+     *
+     * @return The index after the last execution of the group, at least {@code start + 1}
+     */
+    static int getParallelGroupEnd( List<MojoExecution> mojoExecutions, int start )
+    {
+        MojoExecution first = mojoExecutions.get( start );
+        int end = start + 1;
+        if ( first.isParallelSafe() )
         {
-            execute( session, mojoExecution, projectIndex, dependencyContext, phaseRecorder );
+            MojoDescriptor firstDescriptor = first.getMojoDescriptor();
+            while ( end < mojoExecutions.size() )
+            {
+                MojoExecution next = mojoExecutions.get( end );
+                MojoDescriptor nextDescriptor = next.getMojoDescriptor();
+                if ( !next.isParallelSafe() || !first.getLifecyclePhase().equals( next.getLifecyclePhase() )
+                    || !Objects.equals( firstDescriptor.getDependencyResolutionRequired(),
+                                        nextDescriptor.getDependencyResolutionRequired() )
+                    || !Objects.equals( firstDescriptor.getDependencyCollectionRequired(),
+                                        nextDescriptor.getDependencyCollectionRequired() ) )
+                {
+                    break;
+                }
+                end++;
+            }
         }
+        return end;
     }
 
     public void execute( MavenSession session, MojoExecution mojoExecution, ProjectIndex projectIndex,
                          DependencyContext dependencyContext, PhaseRecorder phaseRecorder )
         throws LifecycleExecutionException
     {
-        execute( session, mojoExecution, projectIndex, dependencyContext );
+        execute( session, mojoExecution, projectIndex, dependencyContext, true );
         phaseRecorder.observeExecution( mojoExecution );
     }
 
+    /**
+     * Shuts down the pool that ran the parallel-safe executions of the build of the session, if any.
+     */
+    public void shutdown( MavenSession session )
+    {
+        ForkJoinPool pool = pools.remove( session.getRequest() );
+        if ( pool != null )
+        {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Runs a group of parallel-safe executions on the fork-join pool of the build. The phases are recorded in plan
+     * order once the whole group has completed, up to the first failed execution, whose failure is then rethrown.
+     */
+    private void executeConcurrently( MavenSession session, List<MojoExecution> mojoExecutions,
+                                      ProjectIndex projectIndex, DependencyContext dependencyContext,
+                                      PhaseRecorder phaseRecorder )
+        throws LifecycleExecutionException
+    {
+        // the executions share their dependency requirements, resolve them before any of them reads the project
+        MojoDescriptor mojoDescriptor = mojoExecutions.get( 0 ).getMojoDescriptor();
+        CpuPermits.blocking( () -> ensureDependenciesAreResolved( mojoDescriptor, session, dependencyContext ) );
+
+        SessionScope.Memento memento = sessionScope.memento();
+        ClassLoader contextClassLoader = Thread.currentThread().getContextClassLoader();
+
+        // the executions of all projects share the threads of the build, instead of each project using its own
+        ForkJoinPool pool =
+            pools.computeIfAbsent( session.getRequest(), r -> new ForkJoinPool( r.getDegreeOfConcurrency() ) );
+
+        List<ForkJoinTask<Throwable>> tasks = new ArrayList<>( mojoExecutions.size() );
+        for ( MojoExecution mojoExecution : mojoExecutions )
+        {
+            tasks.add( pool.submit( () ->
+            {
+                Thread currentThread = Thread.currentThread();
+                ClassLoader originalClassLoader = currentThread.getContextClassLoader();
+                currentThread.setContextClassLoader( contextClassLoader );
+                sessionScope.enter( memento );
+                try
+                {
+                    execute( session, mojoExecution, projectIndex, dependencyContext, false );
+                    return null;
+                }
+                catch ( Throwable t )
+                {
+                    return t;
+                }
+                finally
+                {
+                    sessionScope.exit();
+                    currentThread.setContextClassLoader( originalClassLoader );
+                }
+            } ) );
+        }
+
+        Throwable failure = null;
+        for ( int i = 0; i < tasks.size(); i++ )
+        {
+            Throwable t = tasks.get( i ).join();
+            if ( failure == null )
+            {
+                if ( t == null )
+                {
+                    phaseRecorder.observeExecution( mojoExecutions.get( i ) );
+                }
+                failure = t;
+            }
+        }
+
+        if ( failure instanceof LifecycleExecutionException )
+        {
+            throw (LifecycleExecutionException) failure;
+        }
+        else if ( failure instanceof RuntimeException )
+        {
+            throw (RuntimeException) failure;
+        }
+        else if ( failure instanceof Error )
+        {
+            throw (Error) failure;
+        }
+        else if ( failure != null )
+        {
+            throw new LifecycleExecutionException( mojoExecutions.get( 0 ), session.getCurrentProject(), failure );
+        }
+    }
+
     private void execute( MavenSession session, MojoExecution mojoExecution, ProjectIndex projectIndex,
-                          DependencyContext dependencyContext )
+                          DependencyContext dependencyContext, boolean resolveDependencies )
         throws LifecycleExecutionException
     {
         MojoDescriptor mojoDescriptor = mojoExecution.getMojoDescriptor();
@@ -204,21 +355,37 @@ private void execute( MavenSession session, MojoExecution mojoExecution, Project
 
         List<MavenProject> forkedProjects = executeForkedExecutions( mojoExecution, session, projectIndex );
 
-        ensureDependenciesAreResolved( mojoDescriptor, session, dependencyContext );
+        if ( resolveDependencies )
+        {
+            // resolution mostly waits for downloads, let other builds use the CPU meanwhile
+            CpuPermits.blocking( () -> ensureDependenciesAreResolved( mojoDescriptor, session, dependencyContext ) );
+        }
 
         eventCatapult.fire( ExecutionEvent.Type.MojoStarted, session, mojoExecution );
 
         try
         {
+            long mojoStartTime = System.currentTimeMillis();
+            MojoExecutionCache.Record cacheRecord = mojoExecutionCache.begin( session, mojoExecution );
             try
             {
-                pluginManager.executeMojo( session, mojoExecution );
+                if ( cacheRecord == null || !cacheRecord.restore() )
+                {
+                    pluginManager.executeMojo( session, mojoExecution );
+
+                    if ( cacheRecord != null )
+                    {
+                        cacheRecord.store();
+                    }
+                }
             }
             catch ( MojoFailureException | PluginManagerException | PluginConfigurationException
                 | MojoExecutionException e )
             {
                 throw new LifecycleExecutionException( mojoExecution, session.getCurrentProject(), e );
             }
+            session.getBuildDurations().recordMojo( session.getCurrentProject(), mojoExecution,
+                                                    System.currentTimeMillis() - mojoStartTime );
 
             eventCatapult.fire( ExecutionEvent.Type.MojoSucceeded, session, mojoExecution );
         }
@@ -25,15 +25,25 @@
 import org.apache.maven.project.MavenProject;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
-import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.function.ToLongFunction;
 
 /**
  * <p>
  * Presents a view of the Dependency Graph that is suited for concurrent building.
  * </p>
+ * <p>
+ * The graph is indexed once on creation: every project of the build gets an integer id, and every project keeps an
+ * atomic counter of its unfinished upstream projects. Marking a project as finished only decrements the counters of
+ * its direct dependents, so the cost of scheduling is linear in the number of edges of the graph and the methods
+ * of this class can safely be called from any thread.
+ * </p>
  * <strong>NOTE:</strong> This class is not part of any public api and can be changed or deleted without prior notice.
  *
  * @since 3.0
@@ -46,12 +56,50 @@
 
     private final ProjectDependencyGraph projectDependencyGraph;
 
-    private final Set<MavenProject> finishedProjects = new HashSet<>();
+    private final MavenProject[] projects;
+
+    private final Map<MavenProject, Integer> ids;
+
+    private final ReadinessTracker tracker;
 
     public ConcurrencyDependencyGraph( ProjectBuildList projectBuilds, ProjectDependencyGraph projectDependencyGraph )
     {
         this.projectDependencyGraph = projectDependencyGraph;
         this.projectBuilds = projectBuilds;
+
+        ids = new HashMap<>( projectBuilds.size() * 2 );
+        List<MavenProject> projectList = new ArrayList<>( projectBuilds.size() );
+        for ( ProjectSegment projectBuild : projectBuilds )
+        {
+            if ( ids.putIfAbsent( projectBuild.getProject(), projectList.size() ) == null )
+            {
+                projectList.add( projectBuild.getProject() );
+            }
+        }
+        projects = projectList.toArray( new MavenProject[0] );
+
+        int[][] upstream = new int[projects.length][];
+        for ( int id = 0; id < projects.length; id++ )
+        {
+            upstream[id] = toIds( projectDependencyGraph.getUpstreamProjects( projects[id], false ) );
+        }
+        tracker = new ReadinessTracker( upstream );
+    }
+
+    private int[] toIds( List<MavenProject> mavenProjects )
+    {
+        int[] result = new int[mavenProjects.size()];
+        int size = 0;
+        for ( MavenProject mavenProject : mavenProjects )
+        {
+            Integer id = ids.get( mavenProject );
+            // projects outside of this build never finish, so they are not waited for
+            if ( id != null )
+            {
+                result[size++] = id;
+            }
+        }
+        return size == result.length ? result : Arrays.copyOf( result, size );
     }
 
     public int getNumberOfBuilds()
@@ -67,15 +115,15 @@ public int getNumberOfBuilds()
 
     public List<MavenProject> getRootSchedulableBuilds()
     {
-        Set<MavenProject> result = new LinkedHashSet<>();
-        for ( ProjectSegment projectBuild : projectBuilds )
+        List<MavenProject> result = new ArrayList<>();
+        for ( int id = 0; id < projects.length; id++ )
         {
-            if ( projectDependencyGraph.getUpstreamProjects( projectBuild.getProject(), false ).isEmpty() )
+            if ( tracker.isRoot( id ) )
             {
-                result.add( projectBuild.getProject() );
+                result.add( projects[id] );
             }
         }
-        return new ArrayList<>( result );
+        return result;
     }
 
     /**
@@ -86,22 +134,36 @@ public List<MavenProject> getRootSchedulableBuilds()
      */
     public List<MavenProject> markAsFinished( MavenProject mavenProject )
     {
-        finishedProjects.add( mavenProject );
-        return getSchedulableNewProcesses( mavenProject );
+        Integer id = ids.get( mavenProject );
+        if ( id == null )
+        {
+            return Collections.emptyList();
+        }
+        // schedule dependent projects, if all of their requirements are met
+        int[] readyIds = tracker.markAsFinished( id );
+        List<MavenProject> result = new ArrayList<>( readyIds.length );
+        for ( int readyId : readyIds )
+        {
+            result.add( projects[readyId] );
+        }
+        return result;
     }
 
-    private List<MavenProject> getSchedulableNewProcesses( MavenProject finishedProject )
+    /**
+     * Computes the critical path weight of every project in this build, i.e. the weight of the project itself plus the
+     * heaviest chain of downstream projects that cannot start before it has finished. Building the projects with the
+     * highest weight first keeps long dependency chains from starting late.
+     *
+     * @param weight The expected cost of building a single project, must not be negative
+     * @return The critical path weight of each project of this build
+     */
+    public Map<MavenProject, Long> getCriticalPathWeights( ToLongFunction<MavenProject> weight )
     {
-        List<MavenProject> result = new ArrayList<>();
-        // schedule dependent projects, if all of their requirements are met
-        for ( MavenProject dependentProject : projectDependencyGraph.getDownstreamProjects( finishedProject, false ) )
+        long[] weights = tracker.criticalPathWeights( id -> weight.applyAsLong( projects[id] ) );
+        Map<MavenProject, Long> result = new HashMap<>( projects.length * 2 );
+        for ( int id = 0; id < projects.length; id++ )
         {
-            final List<MavenProject> upstreamProjects =
-                projectDependencyGraph.getUpstreamProjects( dependentProject, false );
-            if ( finishedProjects.containsAll( upstreamProjects ) )
-            {
-                result.add( dependentProject );
-            }
+            result.put( projects[id], weights[id] );
         }
         return result;
     }
@@ -111,9 +173,7 @@ private List<MavenProject> getSchedulableNewProcesses( MavenProject finishedProj
      */
     public Set<MavenProject> getUnfinishedProjects()
     {
-        Set<MavenProject> unfinished = new HashSet<>( projectBuilds.getProjects() );
-        unfinished.removeAll( finishedProjects );
-        return unfinished;
+        return collectProjects( false );
     }
 
     /**
@@ -121,7 +181,20 @@ public Set<MavenProject> getUnfinishedProjects()
      */
     protected Set<MavenProject> getFinishedProjects()
     {
-        return finishedProjects;
+        return collectProjects( true );
+    }
+
+    private Set<MavenProject> collectProjects( boolean finished )
+    {
+        Set<MavenProject> result = new HashSet<>();
+        for ( int id = 0; id < projects.length; id++ )
+        {
+            if ( tracker.isFinished( id ) == finished )
+            {
+                result.add( projects[id] );
+            }
+        }
+        return result;
     }
 
     protected ProjectBuildList getProjectBuilds()
@@ -148,8 +221,15 @@ protected List<MavenProject> getDependencies( MavenProject p )
      */
     public List<MavenProject> getActiveDependencies( MavenProject p )
     {
-        List<MavenProject> activeDependencies = projectDependencyGraph.getUpstreamProjects( p, false );
-        activeDependencies.removeAll( finishedProjects );
+        List<MavenProject> activeDependencies =
+            new ArrayList<>( projectDependencyGraph.getUpstreamProjects( p, false ) );
+        activeDependencies.removeIf( this::isFinished );
         return activeDependencies;
     }
+
+    private boolean isFinished( MavenProject mavenProject )
+    {
+        Integer id = ids.get( mavenProject );
+        return id != null && tracker.isFinished( id );
+    }
 }
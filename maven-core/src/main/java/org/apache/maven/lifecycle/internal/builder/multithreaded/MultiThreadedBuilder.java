@@ -19,22 +19,39 @@
  * under the License.
  */
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.OptionalLong;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionService;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorCompletionService;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
 
 import javax.inject.Inject;
 import javax.inject.Named;
 import javax.inject.Singleton;
 
+import org.apache.maven.execution.BuildDurations;
 import org.apache.maven.execution.MavenSession;
 import org.apache.maven.lifecycle.internal.BuildThreadFactory;
+import org.apache.maven.lifecycle.internal.CpuPermits;
 import org.apache.maven.lifecycle.internal.LifecycleModuleBuilder;
 import org.apache.maven.lifecycle.internal.ProjectBuildList;
 import org.apache.maven.lifecycle.internal.ProjectSegment;
@@ -53,6 +70,31 @@
  * set with <code>-T</code> on the command-line) and the number of projects to build. As such, building a single project
  * will always result in a sequential build, regardless of the thread count.
  * </p>
+ * <p>
+ * By default projects are handed to the threads in the order in which they become ready. Setting the user property
+ * {@value #SCHEDULER_PROPERTY} to {@value #SCHEDULER_CRITICAL_PATH} instead starts the ready projects with the longest
+ * chain of downstream projects first, so that deep dependency chains do not leave threads idle at the end of the build.
+ * Chains are weighed by the build times of earlier builds when these are available from {@link BuildDurations}.
+ * </p>
+ * <p>
+ * Task segments (e.g. <code>clean install</code> followed by an aggregator goal) are built one after the other, with
+ * the whole reactor finishing a segment before the next one starts. Setting the user property
+ * {@value #PIPELINE_PROPERTY} to <code>true</code> removes this barrier: a project then starts its next task segment
+ * as soon as it and its upstream projects have finished the previous one, see {@link PipelinedDependencyGraph}.
+ * </p>
+ * <p>
+ * Setting the user property {@value #RELEASE_PHASE_PROPERTY} to a lifecycle phase, e.g. <code>compile</code> or
+ * <code>test-compile</code>, starts the downstream projects of a project as soon as it has finished that phase instead
+ * of waiting for its complete build. The downstream projects then use the build output directories of the project,
+ * like they would when the project is not packaged at all. Releasing projects at a phase cannot be combined with
+ * pipelined task segments.
+ * </p>
+ * <p>
+ * Setting the user property {@value #THREADS_PROPERTY} to {@value #THREADS_VIRTUAL} runs every ready project on its own
+ * virtual thread. The degree of concurrency then limits the number of builds holding a {@link CpuPermits CPU permit}
+ * instead of the number of threads, and builds give up their permit while resolving dependencies. On Java versions
+ * without virtual threads the builder falls back to the fixed thread pool.
+ * </p>
  * <strong>NOTE:</strong> This class is not part of any public api and can be changed or deleted without prior notice.
  *
  * @since 3.0
@@ -65,14 +107,60 @@
 public class MultiThreadedBuilder
     implements Builder
 {
+    /**
+     * User property selecting the order in which ready projects are scheduled.
+     */
+    public static final String SCHEDULER_PROPERTY = "maven.builder.scheduler";
+
+    /**
+     * Schedules ready projects in the order in which they become ready.
+     */
+    public static final String SCHEDULER_FIFO = "fifo";
+
+    /**
+     * Schedules ready projects by their critical path weight, heaviest first.
+     */
+    public static final String SCHEDULER_CRITICAL_PATH = "critical-path";
+
+    /**
+     * User property that, when {@code true}, lets projects continue with the next task segment without waiting for
+     * the whole reactor to finish the current one.
+     */
+    public static final String PIPELINE_PROPERTY = "maven.builder.pipelineTaskSegments";
+
+    /**
+     * User property naming a lifecycle phase, e.g. <code>compile</code>, after which the downstream projects of a
+     * project may start while the rest of its lifecycle continues.
+     */
+    public static final String RELEASE_PHASE_PROPERTY = "maven.builder.releasePhase";
+
+    /**
+     * User property selecting the kind of threads that run the project builds.
+     */
+    public static final String THREADS_PROPERTY = "maven.builder.threads";
+
+    /**
+     * Runs the project builds on a fixed pool of platform threads.
+     */
+    public static final String THREADS_PLATFORM = "platform";
+
+    /**
+     * Runs every project build on its own virtual thread, limited by CPU permits.
+     */
+    public static final String THREADS_VIRTUAL = "virtual";
+
     private final Logger logger = LoggerFactory.getLogger( getClass() );
 
     private final LifecycleModuleBuilder lifecycleModuleBuilder;
 
+    private final PhaseReleaseListener phaseReleaseListener;
+
     @Inject
-    public MultiThreadedBuilder( LifecycleModuleBuilder lifecycleModuleBuilder )
+    public MultiThreadedBuilder( LifecycleModuleBuilder lifecycleModuleBuilder,
+                                 PhaseReleaseListener phaseReleaseListener )
     {
         this.lifecycleModuleBuilder = lifecycleModuleBuilder;
+        this.phaseReleaseListener = phaseReleaseListener;
     }
 
     @Override
@@ -80,6 +168,7 @@ public void build( MavenSession session, ReactorContext reactorContext, ProjectB
                        List<TaskSegment> taskSegments, ReactorBuildStatus reactorBuildStatus )
         throws ExecutionException, InterruptedException
     {
+        String releasePhase = getReleasePhase( session );
         int nThreads = Math.min( session.getRequest().getDegreeOfConcurrency(), session.getProjects().size() );
         boolean parallel = nThreads >= 2;
         // Propagate the parallel flag to the root session and all of the cloned sessions in each project segment
@@ -88,83 +177,254 @@ public void build( MavenSession session, ReactorContext reactorContext, ProjectB
         {
             segment.getSession().setParallel( parallel );
         }
-        ExecutorService executor = Executors.newFixedThreadPool( nThreads, new BuildThreadFactory() );
-        CompletionService<ProjectSegment> service = new ExecutorCompletionService<>( executor );
+        boolean criticalPath = isCriticalPathScheduling( session );
+        ExecutorService executor = newVirtualThreadExecutor( session );
+        // virtual threads are cheap to block, the permits only limit the builds that actually run code
+        Semaphore cpuPermits = executor != null ? new Semaphore( nThreads, true ) : null;
+        int maxRunning = getMaxRunning( criticalPath, cpuPermits != null, nThreads );
+        if ( executor == null )
+        {
+            executor = Executors.newFixedThreadPool( nThreads, new BuildThreadFactory() );
+        }
+        // completed builds and builds that reached the release phase are both reported through this queue
+        BlockingQueue<Future<ProjectSegment>> completionQueue = new LinkedBlockingQueue<>();
+        CompletionService<ProjectSegment> service = new ExecutorCompletionService<>( executor, completionQueue );
 
         // Currently disabled
         ThreadOutputMuxer muxer = null; // new ThreadOutputMuxer( analyzer.getProjectBuilds(), System.out );
 
-        for ( TaskSegment taskSegment : taskSegments )
+        Function<ProjectSegment, Callable<ProjectSegment>> callables = projectBuild ->
+        {
+            Callable<ProjectSegment> callable =
+                createBuildCallable( session, projectBuild, reactorContext, projectBuild.getTaskSegment(), muxer,
+                                     releasePhase, completionQueue );
+            return cpuPermits != null ? () -> CpuPermits.run( cpuPermits, callable ) : callable;
+        };
+
+        if ( isPipelined( session ) )
         {
-            ProjectBuildList segmentProjectBuilds = projectBuilds.getByTaskSegment( taskSegment );
-            Map<MavenProject, ProjectSegment> projectBuildMap = projectBuilds.selectSegment( taskSegment );
             try
             {
-                ConcurrencyDependencyGraph analyzer =
-                    new ConcurrencyDependencyGraph( segmentProjectBuilds,
-                                                    session.getProjectDependencyGraph() );
-                multiThreadedProjectTaskSegmentBuild( analyzer, reactorContext, session, service, taskSegment,
-                                                      projectBuildMap, muxer );
-                if ( reactorContext.getReactorBuildStatus().isHalted() )
+                PipelinedDependencyGraph analyzer =
+                    new PipelinedDependencyGraph( projectBuilds, session.getProjectDependencyGraph() );
+                Queue<ProjectSegment> readyBuilds = new ArrayDeque<>();
+                if ( criticalPath )
                 {
-                    break;
+                    readyBuilds = newCriticalPathQueue( projectBuilds, analyzer.getCriticalPathWeights(
+                        newWeight( session, projectBuilds, ProjectSegment::getProject ) ) );
                 }
+                multiThreadedProjectBuild( analyzer.getRootSchedulableBuilds(), analyzer::markAsFinished,
+                                           analyzer.getNumberOfBuilds(), reactorContext, session, service, callables,
+                                           readyBuilds, maxRunning );
             }
             catch ( Exception e )
             {
                 session.getResult().addException( e );
-                break;
             }
+        }
+        else
+        {
+            for ( TaskSegment taskSegment : taskSegments )
+            {
+                ProjectBuildList segmentProjectBuilds = projectBuilds.getByTaskSegment( taskSegment );
+                Map<MavenProject, ProjectSegment> projectBuildMap = projectBuilds.selectSegment( taskSegment );
+                try
+                {
+                    ConcurrencyDependencyGraph analyzer =
+                        new ConcurrencyDependencyGraph( segmentProjectBuilds,
+                                                        session.getProjectDependencyGraph() );
+                    Queue<ProjectSegment> readyBuilds = new ArrayDeque<>();
+                    if ( criticalPath )
+                    {
+                        Map<MavenProject, Long> weights = analyzer.getCriticalPathWeights(
+                            newWeight( session, segmentProjectBuilds, Function.identity() ) );
+                        Map<ProjectSegment, Long> segmentWeights = new IdentityHashMap<>();
+                        projectBuildMap.forEach( ( project, segment ) -> segmentWeights.put( segment,
+                                                                                            weights.get( project ) ) );
+                        readyBuilds = newCriticalPathQueue( segmentProjectBuilds, segmentWeights );
+                    }
+                    // MNG-6170: Only schedule other modules from reactor if we have more modules to build than one.
+                    Function<ProjectSegment, List<ProjectSegment>> markAsFinished =
+                        analyzer.getNumberOfBuilds() > 1
+                            ? finished -> toProjectSegments( analyzer.markAsFinished( finished.getProject() ),
+                                                             projectBuildMap )
+                            : finished -> Collections.emptyList();
+                    multiThreadedProjectBuild( toProjectSegments( analyzer.getRootSchedulableBuilds(),
+                                                                  projectBuildMap ),
+                                               markAsFinished, analyzer.getNumberOfBuilds(), reactorContext, session,
+                                               service, callables, readyBuilds, maxRunning );
+                    if ( reactorContext.getReactorBuildStatus().isHalted() )
+                    {
+                        break;
+                    }
+                }
+                catch ( Exception e )
+                {
+                    session.getResult().addException( e );
+                    break;
+                }
 
+            }
         }
 
         executor.shutdown();
         executor.awaitTermination( Long.MAX_VALUE, TimeUnit.MILLISECONDS );
     }
 
-    private void multiThreadedProjectTaskSegmentBuild( ConcurrencyDependencyGraph analyzer,
-                                                       ReactorContext reactorContext, MavenSession rootSession,
-                                                       CompletionService<ProjectSegment> service,
-                                                       TaskSegment taskSegment,
-                                                       Map<MavenProject, ProjectSegment> projectBuildList,
-                                                       ThreadOutputMuxer muxer )
+    private boolean isPipelined( MavenSession session )
     {
+        return Boolean.parseBoolean( session.getUserProperties().getProperty( PIPELINE_PROPERTY ) );
+    }
 
-        // schedule independent projects
-        for ( MavenProject mavenProject : analyzer.getRootSchedulableBuilds() )
+    /**
+     * Creates an executor that starts a virtual thread per task if selected with {@value #THREADS_PROPERTY} and
+     * supported by the running JVM.
+     *
+     * @return The executor or {@code null} to use platform threads
+     */
+    private ExecutorService newVirtualThreadExecutor( MavenSession session )
+    {
+        String threads = session.getUserProperties().getProperty( THREADS_PROPERTY, THREADS_PLATFORM );
+        if ( THREADS_PLATFORM.equals( threads ) )
+        {
+            return null;
+        }
+        if ( !THREADS_VIRTUAL.equals( threads ) )
+        {
+            logger.warn( "Unknown value '" + threads + "' for " + THREADS_PROPERTY + ", using " + THREADS_PLATFORM
+                + " threads" );
+            return null;
+        }
+        try
+        {
+            // looked up reflectively, Maven itself runs on Java versions without virtual threads
+            return (ExecutorService) Executors.class.getMethod( "newVirtualThreadPerTaskExecutor" ).invoke( null );
+        }
+        catch ( ReflectiveOperationException | RuntimeException e )
+        {
+            logger.warn( "Virtual threads are not available on Java " + System.getProperty( "java.version" )
+                + ", using " + THREADS_PLATFORM + " threads" );
+            logger.debug( "Failed to create virtual thread executor", e );
+            return null;
+        }
+    }
+
+    private String getReleasePhase( MavenSession session )
+    {
+        String releasePhase = session.getUserProperties().getProperty( RELEASE_PHASE_PROPERTY );
+        if ( releasePhase != null && isPipelined( session ) )
+        {
+            // a released project would also release its own build in the next task segment
+            throw new IllegalArgumentException( RELEASE_PHASE_PROPERTY + " cannot be combined with "
+                + PIPELINE_PROPERTY );
+        }
+        if ( releasePhase != null && !phaseReleaseListener.isLifecyclePhase( releasePhase ) )
+        {
+            logger.warn( "Unknown lifecycle phase '" + releasePhase + "' for " + RELEASE_PHASE_PROPERTY
+                + ", downstream projects will wait for complete builds" );
+            return null;
+        }
+        return releasePhase;
+    }
+
+    /**
+     * @return The number of builds handed to the executor at the same time
+     */
+    static int getMaxRunning( boolean criticalPath, boolean virtualThreads, int nThreads )
+    {
+        // the FIFO scheduler hands everything to the executor right away, it queues in the same order. So do virtual
+        // threads: a build waiting for a CPU permit would otherwise count as running while permits are left unused,
+        // and the fair permits are granted in the order the builds were taken from the critical path queue.
+        return criticalPath && !virtualThreads ? nThreads : Integer.MAX_VALUE;
+    }
+
+    private boolean isCriticalPathScheduling( MavenSession session )
+    {
+        String scheduler = session.getUserProperties().getProperty( SCHEDULER_PROPERTY, SCHEDULER_FIFO );
+        if ( SCHEDULER_CRITICAL_PATH.equals( scheduler ) )
+        {
+            return true;
+        }
+        if ( !SCHEDULER_FIFO.equals( scheduler ) )
         {
-            ProjectSegment projectSegment = projectBuildList.get( mavenProject );
-            logger.debug( "Scheduling: " + projectSegment.getProject() );
-            Callable<ProjectSegment> cb =
-                createBuildCallable( rootSession, projectSegment, reactorContext, taskSegment, muxer );
-            service.submit( cb );
+            logger.warn( "Unknown value '" + scheduler + "' for " + SCHEDULER_PROPERTY + ", expected "
+                + SCHEDULER_FIFO + " or " + SCHEDULER_CRITICAL_PATH + ". Falling back to " + SCHEDULER_FIFO );
         }
+        return false;
+    }
+
+    private <T> ToLongFunction<T> newWeight( MavenSession session, ProjectBuildList projectBuilds,
+                                             Function<T, MavenProject> toProject )
+    {
+        // weigh projects by their build time in earlier builds, projects without history get the average
+        BuildDurations buildDurations = session.getBuildDurations();
+        long defaultWeight = Math.max( 1L, (long) projectBuilds.getProjects().stream()
+            .map( buildDurations::getPreviousProjectDuration )
+            .filter( OptionalLong::isPresent )
+            .mapToLong( OptionalLong::getAsLong )
+            .average()
+            .orElse( 1d ) );
+        return build -> buildDurations.getPreviousProjectDuration( toProject.apply( build ) ).orElse( defaultWeight );
+    }
+
+    private Queue<ProjectSegment> newCriticalPathQueue( ProjectBuildList projectBuilds,
+                                                        Map<ProjectSegment, Long> weights )
+    {
+        Map<ProjectSegment, Integer> buildOrder = new IdentityHashMap<>();
+        for ( ProjectSegment projectSegment : projectBuilds )
+        {
+            buildOrder.put( projectSegment, buildOrder.size() );
+        }
+        // heaviest first, ties keep the reactor order
+        Comparator<ProjectSegment> comparator =
+            Comparator.<ProjectSegment>comparingLong( weights::get ).reversed().thenComparing( buildOrder::get );
+        return new PriorityQueue<>( comparator );
+    }
+
+    private static List<ProjectSegment> toProjectSegments( List<MavenProject> projects,
+                                                           Map<MavenProject, ProjectSegment> projectBuildMap )
+    {
+        List<ProjectSegment> result = new ArrayList<>( projects.size() );
+        for ( MavenProject project : projects )
+        {
+            result.add( projectBuildMap.get( project ) );
+        }
+        return result;
+    }
+
+    private void multiThreadedProjectBuild( List<ProjectSegment> rootBuilds,
+                                            Function<ProjectSegment, List<ProjectSegment>> markAsFinished,
+                                            int numberOfBuilds, ReactorContext reactorContext,
+                                            MavenSession rootSession, CompletionService<ProjectSegment> service,
+                                            Function<ProjectSegment, Callable<ProjectSegment>> callables,
+                                            Queue<ProjectSegment> readyBuilds, int maxRunning )
+    {
+
+        // schedule independent projects
+        readyBuilds.addAll( rootBuilds );
+        int running = scheduleReadyBuilds( readyBuilds, maxRunning, service, callables );
 
         // for each finished project
-        for ( int i = 0; i < analyzer.getNumberOfBuilds(); i++ )
+        int finished = 0;
+        while ( finished < numberOfBuilds )
         {
             try
             {
-                ProjectSegment projectBuild = service.take().get();
+                Future<ProjectSegment> event = service.take();
+                ProjectSegment projectBuild = event.get();
+                if ( !( event instanceof PhaseReached ) )
+                {
+                    running--;
+                    finished++;
+                }
                 if ( reactorContext.getReactorBuildStatus().isHalted() )
                 {
                     break;
                 }
 
-                // MNG-6170: Only schedule other modules from reactor if we have more modules to build than one.
-                if ( analyzer.getNumberOfBuilds() > 1 )
-                {
-                    final List<MavenProject> newItemsThatCanBeBuilt =
-                        analyzer.markAsFinished( projectBuild.getProject() );
-                    for ( MavenProject mavenProject : newItemsThatCanBeBuilt )
-                    {
-                        ProjectSegment scheduledDependent = projectBuildList.get( mavenProject );
-                        logger.debug( "Scheduling: " + scheduledDependent );
-                        Callable<ProjectSegment> cb =
-                            createBuildCallable( rootSession, scheduledDependent, reactorContext, taskSegment, muxer );
-                        service.submit( cb );
-                    }
-                }
+                // a build that was released at its phase already scheduled its dependents, finishing it is a no-op
+                readyBuilds.addAll( markAsFinished.apply( projectBuild ) );
+                running += scheduleReadyBuilds( readyBuilds, maxRunning - running, service, callables );
             }
             catch ( InterruptedException e )
             {
@@ -180,10 +440,27 @@ private void multiThreadedProjectTaskSegmentBuild( ConcurrencyDependencyGraph an
         }
     }
 
+    private int scheduleReadyBuilds( Queue<ProjectSegment> readyBuilds, int freeSlots,
+                                     CompletionService<ProjectSegment> service,
+                                     Function<ProjectSegment, Callable<ProjectSegment>> callables )
+    {
+        int scheduled = 0;
+        while ( scheduled < freeSlots && !readyBuilds.isEmpty() )
+        {
+            ProjectSegment projectSegment = readyBuilds.poll();
+            logger.debug( "Scheduling: " + projectSegment );
+            service.submit( callables.apply( projectSegment ) );
+            scheduled++;
+        }
+        return scheduled;
+    }
+
     private Callable<ProjectSegment> createBuildCallable( final MavenSession rootSession,
                                                           final ProjectSegment projectBuild,
                                                           final ReactorContext reactorContext,
-                                                          final TaskSegment taskSegment, final ThreadOutputMuxer muxer )
+                                                          final TaskSegment taskSegment, final ThreadOutputMuxer muxer,
+                                                          final String releasePhase,
+                                                          final BlockingQueue<Future<ProjectSegment>> completionQueue )
     {
         return () ->
         {
@@ -191,6 +468,11 @@ private Callable<ProjectSegment> createBuildCallable( final MavenSession rootSes
             final String originalThreadName = currentThread.getName();
             currentThread.setName( "mvn-builder-" + projectBuild.getProject().getId() );
 
+            if ( releasePhase != null )
+            {
+                phaseReleaseListener.register( projectBuild.getProject(), releasePhase,
+                                               () -> completionQueue.add( new PhaseReached( projectBuild ) ) );
+            }
             try
             {
                 // muxer.associateThreadWithProjectSegment( projectBuild );
@@ -202,8 +484,24 @@ private Callable<ProjectSegment> createBuildCallable( final MavenSession rootSes
             }
             finally
             {
-                 currentThread.setName( originalThreadName );
+                if ( releasePhase != null )
+                {
+                    phaseReleaseListener.unregister( projectBuild.getProject() );
+                }
+                currentThread.setName( originalThreadName );
             }
         };
     }
+
+    /**
+     * Reported through the completion queue when a running build has reached the release phase.
+     */
+    private static final class PhaseReached
+        extends CompletableFuture<ProjectSegment>
+    {
+        PhaseReached( ProjectSegment projectBuild )
+        {
+            complete( projectBuild );
+        }
+    }
 }
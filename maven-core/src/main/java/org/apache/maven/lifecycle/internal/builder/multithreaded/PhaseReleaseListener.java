@@ -0,0 +1,205 @@
+package org.apache.maven.lifecycle.internal.builder.multithreaded;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.apache.maven.execution.MojoExecutionEvent;
+import org.apache.maven.execution.MojoExecutionListener;
+import org.apache.maven.execution.ProjectExecutionEvent;
+import org.apache.maven.execution.ProjectExecutionListener;
+import org.apache.maven.lifecycle.DefaultLifecycles;
+import org.apache.maven.lifecycle.Lifecycle;
+import org.apache.maven.plugin.MojoExecution;
+import org.apache.maven.project.MavenProject;
+
+/**
+ * Follows the lifecycle progress of the projects that the {@link MultiThreadedBuilder} releases at a phase. A
+ * registered project is released right before the first mojo execution of its build plan that is bound to a later
+ * phase of the same lifecycle, i.e. when all executions up to and including the release phase have succeeded. A
+ * released project may still be running its <code>package</code> phase while its downstream projects resolve it, the
+ * <code>ReactorReader</code> then uses its build output directories, see {@link #isPackaging(MavenProject)}.
+ * <strong>NOTE:</strong> This class is not part of any public api and can be changed or deleted without prior notice.
+ *
+ * @since 4.0.0
+ * @see MultiThreadedBuilder#RELEASE_PHASE_PROPERTY
+ */
+@Named
+@Singleton
+public class PhaseReleaseListener
+    implements ProjectExecutionListener, MojoExecutionListener
+{
+    private static final String PACKAGE_PHASE = "package";
+
+    private final DefaultLifecycles defaultLifeCycles;
+
+    private final Map<MavenProject, Registration> registrations = new ConcurrentHashMap<>();
+
+    @Inject
+    public PhaseReleaseListener( DefaultLifecycles defaultLifeCycles )
+    {
+        this.defaultLifeCycles = defaultLifeCycles;
+    }
+
+    /**
+     * @param phase The name of a phase
+     * @return {@code true} if the phase belongs to one of the known lifecycles
+     */
+    public boolean isLifecyclePhase( String phase )
+    {
+        return defaultLifeCycles.get( phase ) != null;
+    }
+
+    /**
+     * Starts following the given project, which is about to be built.
+     *
+     * @param project The project
+     * @param phase The lifecycle phase after which the project is released
+     * @param release Called once, from the building thread, when the project reaches the end of the phase
+     */
+    public void register( MavenProject project, String phase, Runnable release )
+    {
+        registrations.put( project, new Registration( defaultLifeCycles.get( phase ), phase, release ) );
+    }
+
+    /**
+     * Stops following the given project, usually because its build has ended.
+     *
+     * @param project The project
+     */
+    public void unregister( MavenProject project )
+    {
+        registrations.remove( project );
+    }
+
+    /**
+     * Tells whether the given project has been released and is running its <code>package</code> phase, so that its
+     * artifact is not complete yet.
+     *
+     * @param project The project
+     * @return {@code true} if the project is being packaged after its release
+     */
+    public boolean isPackaging( MavenProject project )
+    {
+        Registration registration = registrations.get( project );
+        return registration != null && registration.released.get() && registration.packaging;
+    }
+
+    @Override
+    public void beforeProjectExecution( ProjectExecutionEvent event )
+    {
+    }
+
+    @Override
+    public void beforeProjectLifecycleExecution( ProjectExecutionEvent event )
+    {
+        Registration registration = registrations.get( event.getProject() );
+        if ( registration != null )
+        {
+            registration.firstExecutionAfterPhase = findFirstExecutionAfterPhase( registration,
+                                                                                  event.getExecutionPlan() );
+        }
+    }
+
+    private MojoExecution findFirstExecutionAfterPhase( Registration registration, List<MojoExecution> executionPlan )
+    {
+        for ( MojoExecution mojoExecution : executionPlan )
+        {
+            String phase = mojoExecution.getLifecyclePhase();
+            if ( phase != null && registration.lifecycle.getPhases().indexOf( phase ) > registration.phaseIndex )
+            {
+                return mojoExecution;
+            }
+        }
+        // the project is released when its build ends
+        return null;
+    }
+
+    @Override
+    public void afterProjectExecutionSuccess( ProjectExecutionEvent event )
+    {
+    }
+
+    @Override
+    public void afterProjectExecutionFailure( ProjectExecutionEvent event )
+    {
+    }
+
+    @Override
+    public void beforeMojoExecution( MojoExecutionEvent event )
+    {
+        Registration registration = registrations.get( event.getProject() );
+        if ( registration == null )
+        {
+            return;
+        }
+        String phase = event.getExecution().getLifecyclePhase();
+        if ( phase != null )
+        {
+            // the executions of the build plan are ordered by phase, the first one of a later phase ends packaging
+            registration.packaging = PACKAGE_PHASE.equals( phase );
+        }
+        // forked executions are not part of the build plan and never match
+        if ( registration.firstExecutionAfterPhase == event.getExecution()
+            && registration.released.compareAndSet( false, true ) )
+        {
+            registration.release.run();
+        }
+    }
+
+    @Override
+    public void afterMojoExecutionSuccess( MojoExecutionEvent event )
+    {
+    }
+
+    @Override
+    public void afterExecutionFailure( MojoExecutionEvent event )
+    {
+    }
+
+    private static final class Registration
+    {
+        private final Lifecycle lifecycle;
+
+        private final int phaseIndex;
+
+        private final Runnable release;
+
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private volatile MojoExecution firstExecutionAfterPhase;
+
+        private volatile boolean packaging;
+
+        Registration( Lifecycle lifecycle, String phase, Runnable release )
+        {
+            this.lifecycle = lifecycle;
+            this.phaseIndex = lifecycle.getPhases().indexOf( phase );
+            this.release = release;
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package org.apache.maven.lifecycle.internal.builder.multithreaded;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import org.apache.maven.execution.ProjectDependencyGraph;
+import org.apache.maven.lifecycle.internal.ProjectBuildList;
+import org.apache.maven.lifecycle.internal.ProjectSegment;
+import org.apache.maven.lifecycle.internal.TaskSegment;
+import org.apache.maven.project.MavenProject;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.ToLongFunction;
+
+/**
+ * <p>
+ * Presents the project builds of all task segments as a single dependency graph, so that a project can continue with
+ * the next task segment without waiting for the whole reactor to finish the current one.
+ * </p>
+ * <p>
+ * A project build depends on
+ * </p>
+ * <ul>
+ * <li>the builds of its upstream projects in the same task segment,</li>
+ * <li>the most recent earlier build of the same project, which preserves the order of the task segments for every
+ * project, and</li>
+ * <li>the most recent earlier builds of its upstream projects that are not part of the same task segment.</li>
+ * </ul>
+ * <p>
+ * Aggregating task segments operate on the whole reactor, so their build waits for the most recent earlier build of
+ * every project, and every later build waits for the builds of the most recent aggregating task segment.
+ * </p>
+ * <strong>NOTE:</strong> This class is not part of any public api and can be changed or deleted without prior notice.
+ *
+ * @since 4.0.0
+ */
+public class PipelinedDependencyGraph
+{
+    private final ProjectSegment[] projectSegments;
+
+    private final Map<ProjectSegment, Integer> ids = new IdentityHashMap<>();
+
+    private final ReadinessTracker tracker;
+
+    public PipelinedDependencyGraph( ProjectBuildList projectBuilds, ProjectDependencyGraph projectDependencyGraph )
+    {
+        projectSegments = new ProjectSegment[projectBuilds.size()];
+        for ( int id = 0; id < projectBuilds.size(); id++ )
+        {
+            projectSegments[id] = projectBuilds.get( id );
+            ids.put( projectSegments[id], id );
+        }
+
+        int[][] upstream = new int[projectSegments.length][];
+        // the most recent build of every project in the task segments seen so far
+        Map<MavenProject, Integer> latest = new HashMap<>();
+        // the builds of the most recent aggregating task segment
+        Set<Integer> barrier = new LinkedHashSet<>();
+        int start = 0;
+        while ( start < projectSegments.length )
+        {
+            TaskSegment taskSegment = projectSegments[start].getTaskSegment();
+            int end = start;
+            Map<MavenProject, Integer> current = new HashMap<>();
+            // NOTE: There's no notion of taskSegment equality.
+            while ( end < projectSegments.length && projectSegments[end].getTaskSegment() == taskSegment )
+            {
+                current.put( projectSegments[end].getProject(), end );
+                end++;
+            }
+
+            for ( int id = start; id < end; id++ )
+            {
+                MavenProject project = projectSegments[id].getProject();
+                Set<Integer> upstreamIds = new LinkedHashSet<>();
+                if ( taskSegment.isAggregating() )
+                {
+                    upstreamIds.addAll( latest.values() );
+                }
+                else
+                {
+                    upstreamIds.addAll( barrier );
+                    addIfPresent( upstreamIds, latest.get( project ) );
+                }
+                for ( MavenProject upstreamProject : projectDependencyGraph.getUpstreamProjects( project, false ) )
+                {
+                    Integer upstreamId = current.get( upstreamProject );
+                    addIfPresent( upstreamIds, upstreamId != null ? upstreamId : latest.get( upstreamProject ) );
+                }
+                upstream[id] = upstreamIds.stream().mapToInt( Integer::intValue ).toArray();
+            }
+
+            if ( taskSegment.isAggregating() )
+            {
+                barrier = new LinkedHashSet<>( current.values() );
+            }
+            latest.putAll( current );
+            start = end;
+        }
+        tracker = new ReadinessTracker( upstream );
+    }
+
+    private static void addIfPresent( Set<Integer> ids, Integer id )
+    {
+        if ( id != null )
+        {
+            ids.add( id );
+        }
+    }
+
+    public int getNumberOfBuilds()
+    {
+        return projectSegments.length;
+    }
+
+    /**
+     * Gets all the builds that do not wait for any other build.
+     *
+     * @return A list of all the initial builds
+     */
+    public List<ProjectSegment> getRootSchedulableBuilds()
+    {
+        List<ProjectSegment> result = new ArrayList<>();
+        for ( int id = 0; id < projectSegments.length; id++ )
+        {
+            if ( tracker.isRoot( id ) )
+            {
+                result.add( projectSegments[id] );
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Marks the provided build as finished.
+     *
+     * @param projectSegment The build
+     * @return The list of builds that are eligible for starting now that the provided build is done
+     */
+    public List<ProjectSegment> markAsFinished( ProjectSegment projectSegment )
+    {
+        int[] readyIds = tracker.markAsFinished( ids.get( projectSegment ) );
+        List<ProjectSegment> result = new ArrayList<>( readyIds.length );
+        for ( int readyId : readyIds )
+        {
+            result.add( projectSegments[readyId] );
+        }
+        return result;
+    }
+
+    /**
+     * Computes the critical path weight of every build, across all task segments.
+     *
+     * @param weight The expected cost of a single build, must not be negative
+     * @return The critical path weight of each build
+     * @see ConcurrencyDependencyGraph#getCriticalPathWeights(ToLongFunction)
+     */
+    public Map<ProjectSegment, Long> getCriticalPathWeights( ToLongFunction<ProjectSegment> weight )
+    {
+        long[] weights = tracker.criticalPathWeights( id -> weight.applyAsLong( projectSegments[id] ) );
+        Map<ProjectSegment, Long> result = new IdentityHashMap<>();
+        for ( int id = 0; id < projectSegments.length; id++ )
+        {
+            result.put( projectSegments[id], weights[id] );
+        }
+        return result;
+    }
+}
@@ -0,0 +1,165 @@
+package org.apache.maven.lifecycle.internal.builder.multithreaded;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.function.IntToLongFunction;
+
+/**
+ * Int-indexed scheduling state shared by the dependency graphs of the multithreaded builder. Every build is identified
+ * by its index and keeps an atomic counter of its unfinished upstream builds, so marking a build as finished only
+ * touches its direct dependents and is safe to call from any thread.
+ * <strong>NOTE:</strong> This class is not part of any public api and can be changed or deleted without prior notice.
+ *
+ * @since 4.0.0
+ */
+final class ReadinessTracker
+{
+    private static final int[] NO_IDS = new int[0];
+
+    private final int[][] upstream;
+
+    private final int[][] downstream;
+
+    private final AtomicIntegerArray remainingUpstream;
+
+    private final AtomicIntegerArray finished;
+
+    /**
+     * @param upstream The ids of the direct upstream builds of each build, without duplicates
+     */
+    ReadinessTracker( int[][] upstream )
+    {
+        int size = upstream.length;
+        this.upstream = upstream;
+
+        int[] downstreamCounts = new int[size];
+        for ( int[] upstreamIds : upstream )
+        {
+            for ( int upstreamId : upstreamIds )
+            {
+                downstreamCounts[upstreamId]++;
+            }
+        }
+        downstream = new int[size][];
+        for ( int id = 0; id < size; id++ )
+        {
+            downstream[id] = downstreamCounts[id] == 0 ? NO_IDS : new int[downstreamCounts[id]];
+        }
+
+        int[] fill = new int[size];
+        remainingUpstream = new AtomicIntegerArray( size );
+        for ( int id = 0; id < size; id++ )
+        {
+            for ( int upstreamId : upstream[id] )
+            {
+                downstream[upstreamId][fill[upstreamId]++] = id;
+            }
+            remainingUpstream.set( id, upstream[id].length );
+        }
+        finished = new AtomicIntegerArray( size );
+    }
+
+    int size()
+    {
+        return upstream.length;
+    }
+
+    boolean isRoot( int id )
+    {
+        return upstream[id].length == 0;
+    }
+
+    boolean isFinished( int id )
+    {
+        return finished.get( id ) == 1;
+    }
+
+    /**
+     * Marks the given build as finished.
+     *
+     * @param id The build
+     * @return The ids of the builds that became ready, empty if the build was already finished
+     */
+    int[] markAsFinished( int id )
+    {
+        if ( !finished.compareAndSet( id, 0, 1 ) )
+        {
+            return NO_IDS;
+        }
+        int[] ready = new int[downstream[id].length];
+        int size = 0;
+        for ( int dependentId : downstream[id] )
+        {
+            if ( remainingUpstream.decrementAndGet( dependentId ) == 0 )
+            {
+                ready[size++] = dependentId;
+            }
+        }
+        return size == ready.length ? ready : Arrays.copyOf( ready, size );
+    }
+
+    /**
+     * Computes the weight of each build plus the heaviest chain of builds downstream of it.
+     *
+     * @param weight The expected cost of a single build, must not be negative
+     * @return The critical path weight of each build, indexed by id
+     */
+    long[] criticalPathWeights( IntToLongFunction weight )
+    {
+        int size = size();
+        // order the builds topologically, then walk in reverse so downstream weights are known before use
+        int[] order = new int[size];
+        int[] pending = new int[size];
+        int ordered = 0;
+        for ( int id = 0; id < size; id++ )
+        {
+            pending[id] = upstream[id].length;
+            if ( pending[id] == 0 )
+            {
+                order[ordered++] = id;
+            }
+        }
+        for ( int i = 0; i < ordered; i++ )
+        {
+            for ( int dependentId : downstream[order[i]] )
+            {
+                if ( --pending[dependentId] == 0 )
+                {
+                    order[ordered++] = dependentId;
+                }
+            }
+        }
+
+        long[] weights = new long[size];
+        for ( int i = ordered - 1; i >= 0; i-- )
+        {
+            int id = order[i];
+            long downstreamWeight = 0;
+            for ( int dependentId : downstream[id] )
+            {
+                downstreamWeight = Math.max( downstreamWeight, weights[dependentId] );
+            }
+            weights[id] = weight.applyAsLong( id ) + downstreamWeight;
+        }
+        return weights;
+    }
+}
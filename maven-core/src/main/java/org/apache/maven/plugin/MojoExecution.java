@@ -74,6 +74,12 @@
      */
     private Map<String, List<MojoExecution>> forkedExecutions = new LinkedHashMap<>();
 
+    /**
+     * Whether this execution may run concurrently with the adjacent parallel-safe executions of the same phase, as
+     * determined when the execution plan is calculated.
+     */
+    private boolean parallelSafe;
+
     public MojoExecution( Plugin plugin, String goal, String executionId )
     {
         this.plugin = plugin;
@@ -237,4 +243,14 @@ public void setForkedExecutions( String projectKey, List<MojoExecution> forkedEx
         this.forkedExecutions.put( projectKey, forkedExecutions );
     }
 
+    public boolean isParallelSafe()
+    {
+        return parallelSafe;
+    }
+
+    public void setParallelSafe( boolean parallelSafe )
+    {
+        this.parallelSafe = parallelSafe;
+    }
+
 }
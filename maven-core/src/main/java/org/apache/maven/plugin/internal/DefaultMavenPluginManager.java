@@ -75,6 +75,8 @@
 import org.codehaus.plexus.util.ReaderFactory;
 import org.codehaus.plexus.util.StringUtils;
 import org.codehaus.plexus.util.xml.Xpp3Dom;
+import org.codehaus.plexus.util.xml.Xpp3DomBuilder;
+import org.codehaus.plexus.util.xml.pull.XmlPullParserException;
 import org.eclipse.aether.RepositorySystemSession;
 import org.eclipse.aether.graph.DependencyFilter;
 import org.eclipse.aether.graph.DependencyNode;
@@ -147,6 +149,11 @@
     private final ExtensionDescriptorBuilder extensionDescriptorBuilder = new ExtensionDescriptorBuilder();
     private final PluginDescriptorBuilder builder = new PluginDescriptorBuilder();
 
+    private final SingleFlight descriptorFlights = new SingleFlight();
+    private final SingleFlight realmFlights = new SingleFlight();
+    private final SingleFlight artifactsFlights = new SingleFlight();
+    private final SingleFlight extensionFlights = new SingleFlight();
+
     @Inject
     public DefaultMavenPluginManager(
             PlexusContainer container,
@@ -172,26 +179,41 @@ public DefaultMavenPluginManager(
         this.pluginValidator = pluginValidator;
     }
 
-    public synchronized PluginDescriptor getPluginDescriptor( Plugin plugin, List<RemoteRepository> repositories,
-                                                             RepositorySystemSession session )
+    public PluginDescriptor getPluginDescriptor( Plugin plugin, List<RemoteRepository> repositories,
+                                                RepositorySystemSession session )
         throws PluginResolutionException, PluginDescriptorParsingException, InvalidPluginDescriptorException
     {
         PluginDescriptorCache.Key cacheKey = pluginDescriptorCache.createKey( plugin, repositories, session );
 
         PluginDescriptor pluginDescriptor = pluginDescriptorCache.get( cacheKey );
 
-        if ( pluginDescriptor == null )
+        while ( pluginDescriptor == null )
         {
-            org.eclipse.aether.artifact.Artifact artifact =
-                pluginDependenciesResolver.resolve( plugin, repositories, session );
+            SingleFlight.Flight flight = descriptorFlights.depart( cacheKey );
+            if ( flight == null )
+            {
+                pluginDescriptor = pluginDescriptorCache.get( cacheKey );
+                continue;
+            }
+
+            try ( SingleFlight.Flight f = flight )
+            {
+                pluginDescriptor = pluginDescriptorCache.get( cacheKey );
+                if ( pluginDescriptor == null )
+                {
+                    org.eclipse.aether.artifact.Artifact artifact =
+                        pluginDependenciesResolver.resolve( plugin, repositories, session );
 
-            Artifact pluginArtifact = RepositoryUtils.toArtifact( artifact );
+                    Artifact pluginArtifact = RepositoryUtils.toArtifact( artifact );
 
-            pluginDescriptor = extractPluginDescriptor( pluginArtifact, plugin );
+                    pluginDescriptor =
+                        extractPluginDescriptor( pluginArtifact, plugin, PluginDescriptorIndex.newInstance( session ) );
 
-            pluginDescriptor.setRequiredMavenVersion( artifact.getProperty( "requiredMavenVersion", null ) );
+                    pluginDescriptor.setRequiredMavenVersion( artifact.getProperty( "requiredMavenVersion", null ) );
 
-            pluginDescriptorCache.put( cacheKey, pluginDescriptor );
+                    pluginDescriptorCache.put( cacheKey, pluginDescriptor );
+                }
+            }
         }
 
         pluginDescriptor.setPlugin( plugin );
@@ -199,7 +221,8 @@ public synchronized PluginDescriptor getPluginDescriptor( Plugin plugin, List<Re
         return pluginDescriptor;
     }
 
-    private PluginDescriptor extractPluginDescriptor( Artifact pluginArtifact, Plugin plugin )
+    private PluginDescriptor extractPluginDescriptor( Artifact pluginArtifact, Plugin plugin,
+                                                      PluginDescriptorIndex index )
         throws PluginDescriptorParsingException, InvalidPluginDescriptorException
     {
         PluginDescriptor pluginDescriptor = null;
@@ -210,17 +233,32 @@ private PluginDescriptor extractPluginDescriptor( Artifact pluginArtifact, Plugi
         {
             if ( pluginFile.isFile() )
             {
-                try ( JarFile pluginJar = new JarFile( pluginFile, false ) )
-                {
-                    ZipEntry pluginDescriptorEntry = pluginJar.getEntry( getPluginDescriptorLocation() );
+                Xpp3Dom dom = index != null ? index.get( pluginArtifact ) : null;
 
-                    if ( pluginDescriptorEntry != null )
+                if ( dom == null )
+                {
+                    try ( JarFile pluginJar = new JarFile( pluginFile, false ) )
                     {
-                        InputStream is = pluginJar.getInputStream( pluginDescriptorEntry );
+                        ZipEntry pluginDescriptorEntry = pluginJar.getEntry( getPluginDescriptorLocation() );
 
-                        pluginDescriptor = parsePluginDescriptor( is, plugin, pluginFile.getAbsolutePath() );
+                        if ( pluginDescriptorEntry != null )
+                        {
+                            InputStream is = pluginJar.getInputStream( pluginDescriptorEntry );
+
+                            dom = parsePluginDescriptor( is, plugin, pluginFile.getAbsolutePath() );
+
+                            if ( index != null )
+                            {
+                                index.put( pluginArtifact, dom );
+                            }
+                        }
                     }
                 }
+
+                if ( dom != null )
+                {
+                    pluginDescriptor = buildPluginDescriptor( dom, plugin, pluginFile.getAbsolutePath() );
+                }
             }
             else
             {
@@ -230,7 +268,9 @@ private PluginDescriptor extractPluginDescriptor( Artifact pluginArtifact, Plugi
                 {
                     try ( InputStream is = new BufferedInputStream( new FileInputStream( pluginXml ) ) )
                     {
-                        pluginDescriptor = parsePluginDescriptor( is, plugin, pluginXml.getAbsolutePath() );
+                        Xpp3Dom dom = parsePluginDescriptor( is, plugin, pluginXml.getAbsolutePath() );
+
+                        pluginDescriptor = buildPluginDescriptor( dom, plugin, pluginXml.getAbsolutePath() );
                     }
                 }
             }
@@ -264,16 +304,29 @@ private String getPluginDescriptorLocation()
         return "META-INF/maven/plugin.xml";
     }
 
-    private PluginDescriptor parsePluginDescriptor( InputStream is, Plugin plugin, String descriptorLocation )
+    private Xpp3Dom parsePluginDescriptor( InputStream is, Plugin plugin, String descriptorLocation )
         throws PluginDescriptorParsingException
     {
         try
         {
             Reader reader = ReaderFactory.newXmlReader( is );
 
-            return builder.build( reader, descriptorLocation );
+            return Xpp3DomBuilder.build( reader );
+        }
+        catch ( IOException | XmlPullParserException e )
+        {
+            throw new PluginDescriptorParsingException( plugin, descriptorLocation, e );
+        }
+    }
+
+    private PluginDescriptor buildPluginDescriptor( Xpp3Dom dom, Plugin plugin, String descriptorLocation )
+        throws PluginDescriptorParsingException
+    {
+        try
+        {
+            return builder.build( descriptorLocation, new XmlPlexusConfiguration( dom ) );
         }
-        catch ( IOException | PlexusConfigurationException e )
+        catch ( PlexusConfigurationException e )
         {
             throw new PluginDescriptorParsingException( plugin, descriptorLocation, e );
         }
@@ -318,8 +371,8 @@ public void checkRequiredMavenVersion( PluginDescriptor pluginDescriptor )
         }
     }
 
-    public synchronized void setupPluginRealm( PluginDescriptor pluginDescriptor, MavenSession session,
-                                               ClassLoader parent, List<String> imports, DependencyFilter filter )
+    public void setupPluginRealm( PluginDescriptor pluginDescriptor, MavenSession session,
+                                  ClassLoader parent, List<String> imports, DependencyFilter filter )
         throws PluginResolutionException, PluginContainerException
     {
         Plugin plugin = pluginDescriptor.getPlugin();
@@ -360,8 +413,32 @@ public synchronized void setupPluginRealm( PluginDescriptor pluginDescriptor, Ma
                                                                         session.getRepositorySession() );
 
             PluginRealmCache.CacheRecord cacheRecord = pluginRealmCache.get( cacheKey );
+            boolean created = false;
+
+            while ( cacheRecord == null )
+            {
+                SingleFlight.Flight flight = realmFlights.depart( cacheKey );
+                if ( flight == null )
+                {
+                    cacheRecord = pluginRealmCache.get( cacheKey );
+                    continue;
+                }
+
+                try ( SingleFlight.Flight f = flight )
+                {
+                    cacheRecord = pluginRealmCache.get( cacheKey );
+                    if ( cacheRecord == null )
+                    {
+                        createPluginRealm( pluginDescriptor, session, parent, foreignImports, filter );
+
+                        cacheRecord = pluginRealmCache.put( cacheKey, pluginDescriptor.getClassRealm(),
+                                                            pluginDescriptor.getArtifacts() );
+                        created = true;
+                    }
+                }
+            }
 
-            if ( cacheRecord != null )
+            if ( !created )
             {
                 pluginDescriptor.setClassRealm( cacheRecord.getRealm() );
                 pluginDescriptor.setArtifacts( new ArrayList<>( cacheRecord.getArtifacts() ) );
@@ -370,13 +447,6 @@ public synchronized void setupPluginRealm( PluginDescriptor pluginDescriptor, Ma
                     componentDescriptor.setRealm( cacheRecord.getRealm() );
                 }
             }
-            else
-            {
-                createPluginRealm( pluginDescriptor, session, parent, foreignImports, filter );
-
-                cacheRecord =
-                    pluginRealmCache.put( cacheKey, pluginDescriptor.getClassRealm(), pluginDescriptor.getArtifacts() );
-            }
 
             pluginRealmCache.register( project, cacheKey, cacheRecord );
         }
@@ -814,88 +884,126 @@ public ExtensionRealmCache.CacheRecord setupExtensionsRealm( MavenProject projec
         }
 
         // resolve plugin artifacts
-        List<Artifact> artifacts;
         PluginArtifactsCache.Key cacheKey = pluginArtifactsCache.createKey( plugin, null, repositories, session );
-        PluginArtifactsCache.CacheRecord recordArtifacts;
-        try
-        {
-            recordArtifacts = pluginArtifactsCache.get( cacheKey );
-        }
-        catch ( PluginResolutionException e )
-        {
-            throw new PluginManagerException( plugin, e.getMessage(), e );
-        }
-        if ( recordArtifacts != null )
+        PluginArtifactsCache.CacheRecord recordArtifacts = getPluginArtifacts( cacheKey, plugin );
+        while ( recordArtifacts == null )
         {
-            artifacts = recordArtifacts.getArtifacts();
-        }
-        else
-        {
-            try
+            SingleFlight.Flight flight = artifactsFlights.depart( cacheKey );
+            if ( flight == null )
             {
-                artifacts = resolveExtensionArtifacts( plugin, repositories, session );
-                recordArtifacts = pluginArtifactsCache.put( cacheKey, artifacts );
+                recordArtifacts = getPluginArtifacts( cacheKey, plugin );
+                continue;
             }
-            catch ( PluginResolutionException e )
+
+            try ( SingleFlight.Flight f = flight )
             {
-                pluginArtifactsCache.put( cacheKey, e );
-                pluginArtifactsCache.register( project, cacheKey, recordArtifacts );
-                throw new PluginManagerException( plugin, e.getMessage(), e );
+                recordArtifacts = getPluginArtifacts( cacheKey, plugin );
+                if ( recordArtifacts == null )
+                {
+                    try
+                    {
+                        List<Artifact> resolved = resolveExtensionArtifacts( plugin, repositories, session );
+                        recordArtifacts = pluginArtifactsCache.put( cacheKey, resolved );
+                    }
+                    catch ( PluginResolutionException e )
+                    {
+                        pluginArtifactsCache.put( cacheKey, e );
+                        pluginArtifactsCache.register( project, cacheKey, recordArtifacts );
+                        throw new PluginManagerException( plugin, e.getMessage(), e );
+                    }
+                }
             }
         }
         pluginArtifactsCache.register( project, cacheKey, recordArtifacts );
+        List<Artifact> artifacts = recordArtifacts.getArtifacts();
 
         // create and cache extensions realms
         final ExtensionRealmCache.Key extensionKey = extensionRealmCache.createKey( artifacts );
         extensionRecord = extensionRealmCache.get( extensionKey );
-        if ( extensionRecord == null )
+        while ( extensionRecord == null )
         {
-            ClassRealm extensionRealm =
-                classRealmManager.createExtensionRealm( plugin, toAetherArtifacts( artifacts ) );
-
-            // TODO figure out how to use the same PluginDescriptor when running mojos
+            SingleFlight.Flight flight = extensionFlights.depart( extensionKey );
+            if ( flight == null )
+            {
+                extensionRecord = extensionRealmCache.get( extensionKey );
+                continue;
+            }
 
-            PluginDescriptor pluginDescriptor = null;
-            if ( plugin.isExtensions() && !artifacts.isEmpty() )
+            try ( SingleFlight.Flight f = flight )
             {
-                // ignore plugin descriptor parsing errors at this point
-                // these errors will reported during calculation of project build execution plan
-                try
+                extensionRecord = extensionRealmCache.get( extensionKey );
+                if ( extensionRecord == null )
                 {
-                    pluginDescriptor = extractPluginDescriptor( artifacts.get( 0 ), plugin );
-                }
-                catch ( PluginDescriptorParsingException | InvalidPluginDescriptorException e )
-                {
-                    // ignore, see above
+                    extensionRecord = createExtensionRealm( extensionKey, plugin, artifacts, session );
                 }
             }
+        }
+        extensionRealmCache.register( project, extensionKey, extensionRecord );
+        pluginRealms.put( pluginKey, extensionRecord );
 
-            discoverPluginComponents( extensionRealm, plugin, pluginDescriptor );
+        return extensionRecord;
+    }
 
-            ExtensionDescriptor extensionDescriptor = null;
-            Artifact extensionArtifact = artifacts.get( 0 );
+    private PluginArtifactsCache.CacheRecord getPluginArtifacts( PluginArtifactsCache.Key cacheKey, Plugin plugin )
+        throws PluginManagerException
+    {
+        try
+        {
+            return pluginArtifactsCache.get( cacheKey );
+        }
+        catch ( PluginResolutionException e )
+        {
+            throw new PluginManagerException( plugin, e.getMessage(), e );
+        }
+    }
+
+    private ExtensionRealmCache.CacheRecord createExtensionRealm( ExtensionRealmCache.Key extensionKey, Plugin plugin,
+                                                                  List<Artifact> artifacts,
+                                                                  RepositorySystemSession session )
+        throws PluginManagerException
+    {
+        ClassRealm extensionRealm =
+            classRealmManager.createExtensionRealm( plugin, toAetherArtifacts( artifacts ) );
+
+        // TODO figure out how to use the same PluginDescriptor when running mojos
+
+        PluginDescriptor pluginDescriptor = null;
+        if ( plugin.isExtensions() && !artifacts.isEmpty() )
+        {
+            // ignore plugin descriptor parsing errors at this point
+            // these errors will reported during calculation of project build execution plan
             try
             {
-                extensionDescriptor = extensionDescriptorBuilder.build( extensionArtifact.getFile() );
+                pluginDescriptor = extractPluginDescriptor( artifacts.get( 0 ), plugin,
+                                                            PluginDescriptorIndex.newInstance( session ) );
             }
-            catch ( IOException e )
+            catch ( PluginDescriptorParsingException | InvalidPluginDescriptorException e )
             {
-                String message = "Invalid extension descriptor for " + plugin.getId() + ": " + e.getMessage();
-                if ( logger.isDebugEnabled() )
-                {
-                    logger.error( message, e );
-                }
-                else
-                {
-                    logger.error( message );
-                }
+                // ignore, see above
             }
-            extensionRecord = extensionRealmCache.put( extensionKey, extensionRealm, extensionDescriptor, artifacts );
         }
-        extensionRealmCache.register( project, extensionKey, extensionRecord );
-        pluginRealms.put( pluginKey, extensionRecord );
 
-        return extensionRecord;
+        discoverPluginComponents( extensionRealm, plugin, pluginDescriptor );
+
+        ExtensionDescriptor extensionDescriptor = null;
+        Artifact extensionArtifact = artifacts.get( 0 );
+        try
+        {
+            extensionDescriptor = extensionDescriptorBuilder.build( extensionArtifact.getFile() );
+        }
+        catch ( IOException e )
+        {
+            String message = "Invalid extension descriptor for " + plugin.getId() + ": " + e.getMessage();
+            if ( logger.isDebugEnabled() )
+            {
+                logger.error( message, e );
+            }
+            else
+            {
+                logger.error( message );
+            }
+        }
+        return extensionRealmCache.put( extensionKey, extensionRealm, extensionDescriptor, artifacts );
     }
 
     private List<Artifact> resolveExtensionArtifacts( Plugin extensionPlugin, List<RemoteRepository> repositories,
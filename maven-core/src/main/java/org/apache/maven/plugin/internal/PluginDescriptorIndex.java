@@ -0,0 +1,183 @@
+package org.apache.maven.plugin.internal;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Properties;
+
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.feature.Features;
+import org.codehaus.plexus.util.xml.Xpp3Dom;
+import org.eclipse.aether.RepositorySystemSession;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import static org.apache.maven.internal.StoreUtils.readString;
+import static org.apache.maven.internal.StoreUtils.writeAtomically;
+import static org.apache.maven.internal.StoreUtils.writeString;
+
+/**
+ * Keeps the parsed <code>META-INF/maven/plugin.xml</code> of plugin jars in the local repository, so that later builds
+ * neither open the jar nor parse the XML. An entry is keyed by the coordinates of the plugin and only used while the
+ * path, size and modification time of the jar are unchanged. Entries are written in a compact binary form of the
+ * descriptor DOM, the descriptor itself is still built and validated on every use.
+ *
+ * @since 4.0.0
+ */
+final class PluginDescriptorIndex
+{
+    private static final int MAGIC = 0x4d504449;
+
+    private static final int FORMAT = 1;
+
+    private final Logger logger = LoggerFactory.getLogger( getClass() );
+
+    private final Path directory;
+
+    PluginDescriptorIndex( Path directory )
+    {
+        this.directory = directory;
+    }
+
+    /**
+     * @return The index of the local repository of the session or {@code null} if the index is disabled
+     */
+    static PluginDescriptorIndex newInstance( RepositorySystemSession session )
+    {
+        if ( session == null || session.getLocalRepository() == null )
+        {
+            return null;
+        }
+        Properties userProperties = new Properties();
+        userProperties.putAll( session.getUserProperties() );
+        if ( !Features.pluginDescriptorIndex( userProperties ).isActive() )
+        {
+            return null;
+        }
+        return new PluginDescriptorIndex(
+            session.getLocalRepository().getBasedir().toPath().resolve( ".cache" ).resolve( "plugin-descriptors" ) );
+    }
+
+    /**
+     * @return The descriptor DOM of the plugin jar or {@code null} if not indexed or the jar changed
+     */
+    Xpp3Dom get( Artifact pluginArtifact )
+    {
+        Path entry = entry( pluginArtifact );
+        if ( !Files.isRegularFile( entry ) )
+        {
+            return null;
+        }
+
+        File pluginFile = pluginArtifact.getFile();
+        try ( DataInputStream in = new DataInputStream( new BufferedInputStream( Files.newInputStream( entry ) ) ) )
+        {
+            if ( in.readInt() != MAGIC || in.readInt() != FORMAT
+                || !pluginFile.getAbsolutePath().equals( readString( in ) )
+                || in.readLong() != pluginFile.length() || in.readLong() != pluginFile.lastModified() )
+            {
+                return null;
+            }
+            return readDom( in );
+        }
+        catch ( IOException | RuntimeException e )
+        {
+            logger.debug( "Ignoring plugin descriptor index entry {}: {}", entry, e.getMessage() );
+            return null;
+        }
+    }
+
+    /**
+     * Stores the descriptor DOM of the plugin jar, failures to write are only logged.
+     */
+    void put( Artifact pluginArtifact, Xpp3Dom dom )
+    {
+        Path entry = entry( pluginArtifact );
+        File pluginFile = pluginArtifact.getFile();
+        try
+        {
+            writeAtomically( entry, out ->
+            {
+                out.writeInt( MAGIC );
+                out.writeInt( FORMAT );
+                writeString( out, pluginFile.getAbsolutePath() );
+                out.writeLong( pluginFile.length() );
+                out.writeLong( pluginFile.lastModified() );
+                writeDom( out, dom );
+            } );
+        }
+        catch ( IOException | RuntimeException e )
+        {
+            logger.debug( "Unable to write plugin descriptor index entry {}: {}", entry, e.getMessage() );
+        }
+    }
+
+    private Path entry( Artifact pluginArtifact )
+    {
+        return directory.resolve( pluginArtifact.getGroupId() ).resolve( pluginArtifact.getArtifactId() )
+            .resolve( pluginArtifact.getVersion() + ".bin" );
+    }
+
+    private static void writeDom( DataOutputStream out, Xpp3Dom dom )
+        throws IOException
+    {
+        writeString( out, dom.getName() );
+        writeString( out, dom.getValue() );
+
+        String[] attributeNames = dom.getAttributeNames();
+        out.writeInt( attributeNames.length );
+        for ( String name : attributeNames )
+        {
+            writeString( out, name );
+            writeString( out, dom.getAttribute( name ) );
+        }
+
+        out.writeInt( dom.getChildCount() );
+        for ( Xpp3Dom child : dom.getChildren() )
+        {
+            writeDom( out, child );
+        }
+    }
+
+    private static Xpp3Dom readDom( DataInputStream in )
+        throws IOException
+    {
+        Xpp3Dom dom = new Xpp3Dom( readString( in ) );
+        dom.setValue( readString( in ) );
+
+        for ( int i = in.readInt(); i > 0; i-- )
+        {
+            dom.setAttribute( readString( in ), readString( in ) );
+        }
+
+        for ( int i = in.readInt(); i > 0; i-- )
+        {
+            dom.addChild( readDom( in ) );
+        }
+        return dom;
+    }
+}
@@ -0,0 +1,100 @@
+package org.apache.maven.plugin.internal;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Coalesces concurrent setups of the same cache key: the first thread runs the setup while later threads wait for it
+ * to finish and then look the key up in the cache again. Setups of different keys run concurrently.
+ * <pre>
+ * Record record = cache.get( key );
+ * while ( record == null )
+ * {
+ *     Flight flight = flights.depart( key );
+ *     if ( flight == null )
+ *     {
+ *         record = cache.get( key ); // set up by another thread, or failed there and is retried
+ *         continue;
+ *     }
+ *     try ( Flight f = flight )
+ *     {
+ *         record = cache.get( key );
+ *         if ( record == null )
+ *         {
+ *             record = cache.put( key, setup() );
+ *         }
+ *     }
+ * }
+ * </pre>
+ *
+ * @since 4.0.0
+ */
+final class SingleFlight
+{
+
+    private final ConcurrentMap<Object, CompletableFuture<Void>> flights = new ConcurrentHashMap<>();
+
+    /**
+     * Starts the setup of the key, or waits for the running setup of the key by another thread.
+     *
+     * @return The flight that the caller must {@link Flight#close() close} once done, or {@code null} if the caller
+     *         waited for another thread
+     */
+    Flight depart( Object key )
+    {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        CompletableFuture<Void> running = flights.putIfAbsent( key, future );
+        if ( running != null )
+        {
+            running.join();
+            return null;
+        }
+        return new Flight( key, future );
+    }
+
+    /**
+     * The setup of a key by the current thread.
+     */
+    final class Flight
+        implements AutoCloseable
+    {
+        private final Object key;
+
+        private final CompletableFuture<Void> future;
+
+        Flight( Object key, CompletableFuture<Void> future )
+        {
+            this.key = key;
+            this.future = future;
+        }
+
+        @Override
+        public void close()
+        {
+            flights.remove( key, future );
+            future.complete( null );
+        }
+    }
+
+}
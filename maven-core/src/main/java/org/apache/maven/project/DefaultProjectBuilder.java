@@ -32,6 +32,11 @@
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 
 import javax.inject.Inject;
@@ -94,6 +99,12 @@
 public class DefaultProjectBuilder
     implements ProjectBuilder
 {
+    /**
+     * User property with the number of threads that read and build the reactor models. Defaults to <code>1</code>,
+     * which builds them sequentially on the calling thread.
+     */
+    public static final String PARALLELISM_PROPERTY = "maven.projectBuilder.parallelism";
+
     private final Logger logger = LoggerFactory.getLogger( getClass() );
     private final ModelBuilder modelBuilder;
     private final ModelProcessor modelProcessor;
@@ -385,23 +396,40 @@ public List<ProjectBuildingResult> build( List<File> pomFiles, boolean recursive
 
         Map<File, MavenProject> projectIndex = new HashMap<>( 256 );
 
-        // phase 1: get file Models from the reactor.
-        boolean noErrors =
-            build( results, interimResults, projectIndex, pomFiles, new LinkedHashSet<>(), true, recursive,
-                   config, poolBuilder );
-
-        ClassLoader oldContextClassLoader = Thread.currentThread().getContextClassLoader();
+        ExecutorService executor = newExecutor( request );
 
+        boolean noErrors;
         try
         {
-            // Phase 2: get effective models from the reactor
-            noErrors =
-                build( results, new ArrayList<>(), projectIndex, interimResults, request,
-                        new HashMap<>(), config.session ) && noErrors;
+            // phase 1: get file Models from the reactor.
+            noErrors = build( results, interimResults, projectIndex, pomFiles, recursive, config, poolBuilder,
+                              executor );
+
+            ClassLoader oldContextClassLoader = Thread.currentThread().getContextClassLoader();
+
+            try
+            {
+                // Phase 2: get effective models from the reactor
+                noErrors =
+                    build( results, new ArrayList<>(), projectIndex, interimResults, request,
+                            new ConcurrentHashMap<>(), config.session, config.modelInterner, executor ) && noErrors;
+            }
+            finally
+            {
+                Thread.currentThread().setContextClassLoader( oldContextClassLoader );
+            }
         }
         finally
         {
-            Thread.currentThread().setContextClassLoader( oldContextClassLoader );
+            if ( executor != null )
+            {
+                executor.shutdown();
+            }
+        }
+
+        if ( config.modelInterner != null )
+        {
+            logger.info( config.modelInterner.getStatistics() );
         }
 
         if ( Features.buildConsumer( request.getUserProperties() ).isActive() )
@@ -418,37 +446,164 @@ public List<ProjectBuildingResult> build( List<File> pomFiles, boolean recursive
         return results;
     }
 
+    /**
+     * Creates the executor that reads the reactor models concurrently, as configured by
+     * {@value #PARALLELISM_PROPERTY}.
+     *
+     * @return The executor or {@code null} to read the models on the calling thread
+     */
+    private ExecutorService newExecutor( ProjectBuildingRequest request )
+    {
+        int parallelism = 1;
+        String value = request.getUserProperties().getProperty( PARALLELISM_PROPERTY );
+        if ( value != null )
+        {
+            try
+            {
+                parallelism = Integer.parseInt( value.trim() );
+            }
+            catch ( NumberFormatException e )
+            {
+                logger.warn( "Invalid value '" + value + "' for " + PARALLELISM_PROPERTY
+                    + ", building the models sequentially" );
+            }
+        }
+        return parallelism > 1 ? Executors.newFixedThreadPool( parallelism ) : null;
+    }
+
+    /**
+     * Runs the tasks on the executor, or one after the other if there is none, and waits for all of them.
+     */
+    private static void runAll( ExecutorService executor, List<Runnable> tasks )
+    {
+        if ( executor == null || tasks.size() < 2 )
+        {
+            tasks.forEach( Runnable::run );
+            return;
+        }
+
+        List<Future<?>> futures = new ArrayList<>( tasks.size() );
+        for ( Runnable task : tasks )
+        {
+            futures.add( executor.submit( task ) );
+        }
+
+        RuntimeException failure = null;
+        for ( Future<?> future : futures )
+        {
+            try
+            {
+                future.get();
+            }
+            catch ( InterruptedException e )
+            {
+                Thread.currentThread().interrupt();
+                futures.forEach( f -> f.cancel( true ) );
+                throw new IllegalStateException( "Interrupted while building the reactor projects", e );
+            }
+            catch ( ExecutionException e )
+            {
+                if ( e.getCause() instanceof Error )
+                {
+                    throw (Error) e.getCause();
+                }
+                if ( failure == null )
+                {
+                    failure = e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause()
+                                    : new IllegalStateException( e.getCause() );
+                }
+            }
+        }
+        if ( failure != null )
+        {
+            throw failure;
+        }
+    }
+
+    /**
+     * Reads the file models of the reactor level by level, each level concurrently. The results are then collected
+     * depth-first in the order of the modules, just like a sequential traversal would.
+     */
     @SuppressWarnings( "checkstyle:parameternumber" )
     private boolean build( List<ProjectBuildingResult> results, List<InterimResult> interimResults,
-                           Map<File, MavenProject> projectIndex, List<File> pomFiles, Set<File> aggregatorFiles,
-                           boolean root, boolean recursive, InternalConfig config,
-                           ReactorModelPool.Builder poolBuilder )
+                           Map<File, MavenProject> projectIndex, List<File> pomFiles, boolean recursive,
+                           InternalConfig config, ReactorModelPool.Builder poolBuilder, ExecutorService executor )
     {
-        boolean noErrors = true;
-
+        List<FileModelNode> roots = new ArrayList<>( pomFiles.size() );
         for ( File pomFile : pomFiles )
         {
-            aggregatorFiles.add( pomFile );
+            roots.add( new FileModelNode( pomFile, true, Collections.emptySet() ) );
+        }
 
-            if ( !build( results, interimResults, projectIndex, pomFile, aggregatorFiles, root, recursive, config,
-                         poolBuilder ) )
+        List<FileModelNode> level = roots;
+        while ( !level.isEmpty() )
+        {
+            List<Runnable> tasks = new ArrayList<>( level.size() );
+            for ( FileModelNode node : level )
             {
+                tasks.add( () -> readFileModel( node, recursive, config ) );
+            }
+            runAll( executor, tasks );
+
+            List<FileModelNode> nextLevel = new ArrayList<>();
+            for ( FileModelNode node : level )
+            {
+                for ( File moduleFile : node.moduleFiles )
+                {
+                    FileModelNode module = new FileModelNode( moduleFile, false, node.aggregatorFiles );
+                    node.modules.add( module );
+                    nextLevel.add( module );
+                }
+            }
+            level = nextLevel;
+        }
+
+        return collect( results, interimResults, projectIndex, roots, recursive, poolBuilder );
+    }
+
+    private boolean collect( List<ProjectBuildingResult> results, List<InterimResult> interimResults,
+                             Map<File, MavenProject> projectIndex, List<FileModelNode> nodes, boolean recursive,
+                             ReactorModelPool.Builder poolBuilder )
+    {
+        boolean noErrors = true;
+
+        for ( FileModelNode node : nodes )
+        {
+            if ( node.failure != null )
+            {
+                results.add( node.failure );
+
                 noErrors = false;
+
+                continue;
             }
 
-            aggregatorFiles.remove( pomFile );
+            poolBuilder.put( node.model.getPomFile().toPath(), node.model );
+
+            interimResults.add( node.interimResult );
+
+            if ( recursive )
+            {
+                node.interimResult.modules = new ArrayList<>();
+
+                if ( !collect( results, node.interimResult.modules, projectIndex, node.modules, recursive,
+                               poolBuilder ) )
+                {
+                    noErrors = false;
+                }
+            }
+
+            projectIndex.put( node.pomFile, node.interimResult.listener.getProject() );
+
+            noErrors = noErrors && node.noErrors;
         }
 
         return noErrors;
     }
 
-    @SuppressWarnings( "checkstyle:parameternumber" )
-    private boolean build( List<ProjectBuildingResult> results, List<InterimResult> interimResults,
-                           Map<File, MavenProject> projectIndex, File pomFile, Set<File> aggregatorFiles,
-                           boolean isRoot, boolean recursive, InternalConfig config,
-                           ReactorModelPool.Builder poolBuilder )
+    private void readFileModel( FileModelNode node, boolean recursive, InternalConfig config )
     {
-        boolean noErrors = true;
+        File pomFile = node.pomFile;
 
         MavenProject project = new MavenProject();
         project.setFile( pomFile );
@@ -472,26 +627,25 @@ private boolean build( List<ProjectBuildingResult> results, List<InterimResult>
             result = e.getResult();
             if ( result == null || result.getFileModel() == null )
             {
-                 results.add( new DefaultProjectBuildingResult( e.getModelId(), pomFile, e.getProblems() ) );
+                 node.failure = new DefaultProjectBuildingResult( e.getModelId(), pomFile, e.getProblems() );
 
-                 return false;
+                 return;
             }
             // validation error, continue project building and delay failing to help IDEs
             // result.getProblems().addAll(e.getProblems()) ?
-            noErrors = false;
+            node.noErrors = false;
         }
 
+        // the file model is also the original model of the project, which plugins may change, so the reactor model
+        // pool gets a copy of its own
         Model model = result.getFileModel().clone();
 
-        poolBuilder.put( model.getPomFile().toPath(),  model );
-
-        InterimResult interimResult = new InterimResult( pomFile, request, result, listener, isRoot );
-        interimResults.add( interimResult );
+        node.model = model;
+        node.interimResult = new InterimResult( pomFile, request, result, listener, node.root );
 
         if ( recursive )
         {
             File basedir = pomFile.getParentFile();
-            List<File> moduleFiles = new ArrayList<>();
             for ( String module : model.getModules() )
             {
                 if ( StringUtils.isEmpty( module ) )
@@ -516,7 +670,7 @@ private boolean build( List<ProjectBuildingResult> results, List<InterimResult>
                                                  -1, null );
                     result.getProblems().add( problem );
 
-                    noErrors = false;
+                    node.noErrors = false;
 
                     continue;
                 }
@@ -538,10 +692,10 @@ private boolean build( List<ProjectBuildingResult> results, List<InterimResult>
                     moduleFile = new File( moduleFile.toURI().normalize() );
                 }
 
-                if ( aggregatorFiles.contains( moduleFile ) )
+                if ( node.aggregatorFiles.contains( moduleFile ) )
                 {
                     StringBuilder buffer = new StringBuilder( 256 );
-                    for ( File aggregatorFile : aggregatorFiles )
+                    for ( File aggregatorFile : node.aggregatorFiles )
                     {
                         buffer.append( aggregatorFile ).append( " -> " );
                     }
@@ -553,26 +707,49 @@ private boolean build( List<ProjectBuildingResult> results, List<InterimResult>
                                                  ModelProblem.Version.BASE, model, -1, -1, null );
                     result.getProblems().add( problem );
 
-                    noErrors = false;
+                    node.noErrors = false;
 
                     continue;
                 }
 
-                moduleFiles.add( moduleFile );
+                node.moduleFiles.add( moduleFile );
             }
+        }
+    }
+
+    /**
+     * A POM file of the reactor, read during the first phase.
+     */
+    private static class FileModelNode
+    {
+        final File pomFile;
 
-            interimResult.modules = new ArrayList<>();
+        final boolean root;
 
-            if ( !build( results, interimResult.modules, projectIndex, moduleFiles, aggregatorFiles, false,
-                         recursive, config, poolBuilder ) )
-            {
-                noErrors = false;
-            }
-        }
+        /**
+         * The chain of aggregators leading to this POM, including the POM itself.
+         */
+        final Set<File> aggregatorFiles;
 
-        projectIndex.put( pomFile, project );
+        final List<File> moduleFiles = new ArrayList<>();
 
-        return noErrors;
+        final List<FileModelNode> modules = new ArrayList<>();
+
+        Model model;
+
+        InterimResult interimResult;
+
+        ProjectBuildingResult failure;
+
+        boolean noErrors = true;
+
+        FileModelNode( File pomFile, boolean root, Set<File> aggregatorFiles )
+        {
+            this.pomFile = pomFile;
+            this.root = root;
+            this.aggregatorFiles = new LinkedHashSet<>( aggregatorFiles );
+            this.aggregatorFiles.add( pomFile );
+        }
     }
 
     static class InterimResult
@@ -590,6 +767,13 @@ private boolean build( List<ProjectBuildingResult> results, List<InterimResult>
 
         List<InterimResult> modules = Collections.emptyList();
 
+        /**
+         * The outcome of the second phase, failed if {@link #failed} is set.
+         */
+        ProjectBuildingResult projectBuildingResult;
+
+        boolean failed;
+
         InterimResult( File pomFile, ModelBuildingRequest request, ModelBuildingResult result,
                        DefaultModelBuildingListener listener, boolean root )
         {
@@ -602,69 +786,140 @@ private boolean build( List<ProjectBuildingResult> results, List<InterimResult>
 
     }
 
+    /**
+     * Builds the effective models level by level, each level concurrently once the reactor model pool is complete.
+     * The modules of an aggregator whose effective model failed are skipped. The results are collected depth-first,
+     * modules before their aggregator, just like a sequential traversal would.
+     */
+    @SuppressWarnings( "checkstyle:parameternumber" )
     private boolean build( List<ProjectBuildingResult> results, List<MavenProject> projects,
                            Map<File, MavenProject> projectIndex, List<InterimResult> interimResults,
                            ProjectBuildingRequest request, Map<File, Boolean> profilesXmls,
-                           RepositorySystemSession session )
+                           RepositorySystemSession session, ModelInterner modelInterner, ExecutorService executor )
     {
-        boolean noErrors = true;
+        ClassLoader contextClassLoader = Thread.currentThread().getContextClassLoader();
 
-        for ( InterimResult interimResult : interimResults )
+        List<InterimResult> level = interimResults;
+        while ( !level.isEmpty() )
         {
-            MavenProject project = interimResult.listener.getProject();
-            try
+            List<Runnable> tasks = new ArrayList<>( level.size() );
+            for ( InterimResult interimResult : level )
             {
-                ModelBuildingResult result = modelBuilder.build( interimResult.request, interimResult.result );
-
-                // 2nd pass of initialization: resolve and build parent if necessary
-                try
+                tasks.add( () ->
                 {
-                    initProject( project, projectIndex, true, result, profilesXmls, request );
-                }
-                catch ( InvalidArtifactRTException iarte )
+                    Thread currentThread = Thread.currentThread();
+                    ClassLoader originalClassLoader = currentThread.getContextClassLoader();
+                    currentThread.setContextClassLoader( contextClassLoader );
+                    try
+                    {
+                        buildEffectiveModel( interimResult, projectIndex, request, profilesXmls, session,
+                                             modelInterner );
+                    }
+                    finally
+                    {
+                        currentThread.setContextClassLoader( originalClassLoader );
+                    }
+                } );
+            }
+            runAll( executor, tasks );
+
+            List<InterimResult> nextLevel = new ArrayList<>();
+            for ( InterimResult interimResult : level )
+            {
+                if ( !interimResult.failed )
                 {
-                    result.getProblems().add( new DefaultModelProblem( null, ModelProblem.Severity.ERROR, null,
-                            result.getEffectiveModel(), -1, -1, iarte ) );
+                    nextLevel.addAll( interimResult.modules );
                 }
+            }
+            level = nextLevel;
+        }
 
-                List<MavenProject> modules = new ArrayList<>();
-                noErrors =
-                    build( results, modules, projectIndex, interimResult.modules, request, profilesXmls, session )
-                    && noErrors;
+        return collect( results, projects, interimResults );
+    }
 
-                projects.addAll( modules );
-                projects.add( project );
+    private boolean collect( List<ProjectBuildingResult> results, List<MavenProject> projects,
+                             List<InterimResult> interimResults )
+    {
+        boolean noErrors = true;
 
-                project.setExecutionRoot( interimResult.root );
-                project.setCollectedProjects( modules );
-                DependencyResolutionResult resolutionResult = null;
-                if ( request.isResolveDependencies() )
-                {
-                    resolutionResult = resolveDependencies( project, session );
-                }
+        for ( InterimResult interimResult : interimResults )
+        {
+            if ( interimResult.failed )
+            {
+                results.add( interimResult.projectBuildingResult );
+
+                noErrors = false;
 
-                results.add( new DefaultProjectBuildingResult( project, result.getProblems(), resolutionResult ) );
+                continue;
             }
-            catch ( ModelBuildingException e )
+
+            MavenProject project = interimResult.listener.getProject();
+
+            List<MavenProject> modules = new ArrayList<>();
+            noErrors = collect( results, modules, interimResult.modules ) && noErrors;
+
+            projects.addAll( modules );
+            projects.add( project );
+
+            project.setCollectedProjects( modules );
+
+            results.add( interimResult.projectBuildingResult );
+        }
+
+        return noErrors;
+    }
+
+    private void buildEffectiveModel( InterimResult interimResult, Map<File, MavenProject> projectIndex,
+                                      ProjectBuildingRequest request, Map<File, Boolean> profilesXmls,
+                                      RepositorySystemSession session, ModelInterner modelInterner )
+    {
+        MavenProject project = interimResult.listener.getProject();
+        try
+        {
+            ModelBuildingResult result = modelBuilder.build( interimResult.request, interimResult.result );
+
+            if ( modelInterner != null )
             {
-                DefaultProjectBuildingResult result = null;
-                if ( project == null || interimResult.result.getEffectiveModel() == null )
-                {
-                    result = new DefaultProjectBuildingResult( e.getModelId(), interimResult.pomFile, e.getProblems() );
-                }
-                else
-                {
-                    project.setModel( interimResult.result.getEffectiveModel() );
+                modelInterner.intern( result.getEffectiveModel() );
+            }
 
-                    result = new DefaultProjectBuildingResult( project, e.getProblems(), null );
-                }
-                results.add( result );
+            // 2nd pass of initialization: resolve and build parent if necessary
+            try
+            {
+                initProject( project, projectIndex, true, result, profilesXmls, request );
+            }
+            catch ( InvalidArtifactRTException iarte )
+            {
+                result.getProblems().add( new DefaultModelProblem( null, ModelProblem.Severity.ERROR, null,
+                        result.getEffectiveModel(), -1, -1, iarte ) );
+            }
 
-                noErrors = false;
+            project.setExecutionRoot( interimResult.root );
+            DependencyResolutionResult resolutionResult = null;
+            if ( request.isResolveDependencies() )
+            {
+                resolutionResult = resolveDependencies( project, session );
             }
+
+            interimResult.projectBuildingResult =
+                new DefaultProjectBuildingResult( project, result.getProblems(), resolutionResult );
         }
+        catch ( ModelBuildingException e )
+        {
+            DefaultProjectBuildingResult result = null;
+            if ( project == null || interimResult.result.getEffectiveModel() == null )
+            {
+                result = new DefaultProjectBuildingResult( e.getModelId(), interimResult.pomFile, e.getProblems() );
+            }
+            else
+            {
+                project.setModel( interimResult.result.getEffectiveModel() );
 
-        return noErrors;
+                result = new DefaultProjectBuildingResult( project, e.getProblems(), null );
+            }
+            interimResult.projectBuildingResult = result;
+            interimResult.failed = true;
+        }
     }
 
     @SuppressWarnings( "checkstyle:methodlength" )
@@ -914,63 +1169,74 @@ private void initParent( MavenProject project, Map<File, MavenProject> projects,
             MavenProject parent = projects.get( parentPomFile );
             if ( parent == null && buildParentIfNotExisting )
             {
-                //
-                // At this point the DefaultModelBuildingListener has fired and it populates the
-                // remote repositories with those found in the pom.xml, along with the existing externally
-                // defined repositories.
-                //
-                projectBuildingRequest.setRemoteRepositories( project.getRemoteArtifactRepositories() );
-                if ( parentPomFile != null )
+                parent = buildParent( project, parentPomFile, projectBuildingRequest );
+            }
+            project.setParent( parent );
+            if ( project.getParentFile() == null && parent != null )
+            {
+                project.setParentFile( parent.getFile() );
+            }
+        }
+    }
+
+    private MavenProject buildParent( MavenProject project, File parentPomFile,
+                                      ProjectBuildingRequest projectBuildingRequest )
+    {
+        // the request is shared by the reactor projects that are built concurrently
+        synchronized ( projectBuildingRequest )
+        {
+            //
+            // At this point the DefaultModelBuildingListener has fired and it populates the
+            // remote repositories with those found in the pom.xml, along with the existing externally
+            // defined repositories.
+            //
+            projectBuildingRequest.setRemoteRepositories( project.getRemoteArtifactRepositories() );
+            if ( parentPomFile != null )
+            {
+                project.setParentFile( parentPomFile );
+                try
                 {
-                    project.setParentFile( parentPomFile );
-                    try
+                    return build( parentPomFile, projectBuildingRequest ).getProject();
+                }
+                catch ( ProjectBuildingException e )
+                {
+                    // MNG-4488 where let invalid parents slide on by
+                    if ( logger.isDebugEnabled() )
                     {
-                        parent = build( parentPomFile, projectBuildingRequest ).getProject();
+                        // Message below is checked for in the MNG-2199 core IT.
+                        logger.warn( "Failed to build parent project for " + project.getId(), e );
                     }
-                    catch ( ProjectBuildingException e )
+                    else
                     {
-                        // MNG-4488 where let invalid parents slide on by
-                        if ( logger.isDebugEnabled() )
-                        {
-                            // Message below is checked for in the MNG-2199 core IT.
-                            logger.warn( "Failed to build parent project for " + project.getId(), e );
-                        }
-                        else
-                        {
-                            // Message below is checked for in the MNG-2199 core IT.
-                            logger.warn( "Failed to build parent project for " + project.getId() );
-                        }
+                        // Message below is checked for in the MNG-2199 core IT.
+                        logger.warn( "Failed to build parent project for " + project.getId() );
                     }
                 }
-                else
+            }
+            else
+            {
+                Artifact parentArtifact = project.getParentArtifact();
+                try
                 {
-                    Artifact parentArtifact = project.getParentArtifact();
-                    try
+                    return build( parentArtifact, projectBuildingRequest ).getProject();
+                }
+                catch ( ProjectBuildingException e )
+                {
+                    // MNG-4488 where let invalid parents slide on by
+                    if ( logger.isDebugEnabled() )
                     {
-                        parent = build( parentArtifact, projectBuildingRequest ).getProject();
+                        // Message below is checked for in the MNG-2199 core IT.
+                        logger.warn( "Failed to build parent project for " + project.getId(), e );
                     }
-                    catch ( ProjectBuildingException e )
+                    else
                     {
-                        // MNG-4488 where let invalid parents slide on by
-                        if ( logger.isDebugEnabled() )
-                        {
-                            // Message below is checked for in the MNG-2199 core IT.
-                            logger.warn( "Failed to build parent project for " + project.getId(), e );
-                        }
-                        else
-                        {
-                            // Message below is checked for in the MNG-2199 core IT.
-                            logger.warn( "Failed to build parent project for " + project.getId() );
-                        }
+                        // Message below is checked for in the MNG-2199 core IT.
+                        logger.warn( "Failed to build parent project for " + project.getId() );
                     }
                 }
             }
-            project.setParent( parent );
-            if ( project.getParentFile() == null && parent != null )
-            {
-                project.setParentFile( parent.getFile() );
-            }
         }
+        return null;
     }
 
     private static String inheritedGroupId( final ModelBuildingResult result, final int modelIndex )
@@ -1023,12 +1289,15 @@ private static String inheritedVersion( final ModelBuildingResult result, final
 
         private final TransformerContextBuilder transformerContextBuilder;
 
+        private final ModelInterner modelInterner;
+
         InternalConfig( ProjectBuildingRequest request, ReactorModelPool modelPool,
                         TransformerContextBuilder transformerContextBuilder )
         {
             this.request = request;
             this.modelPool = modelPool;
             this.transformerContextBuilder = transformerContextBuilder;
+            this.modelInterner = ModelInterner.newInstance( request );
 
             session =
                 LegacyLocalRepositoryManager.overlay( request.getLocalRepository(), request.getRepositorySession(),
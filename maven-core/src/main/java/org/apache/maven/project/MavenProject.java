@@ -319,9 +319,13 @@ else if ( ".".equals( path ) )
                     path = new File( getBasedir(), path ).getAbsolutePath();
                 }
 
-                if ( !paths.contains( path ) )
+                // parallel-safe mojo executions of a project may add their source roots concurrently
+                synchronized ( paths )
                 {
-                    paths.add( path );
+                    if ( !paths.contains( path ) )
+                    {
+                        paths.add( path );
+                    }
                 }
             }
         }
@@ -932,16 +936,19 @@ public Map<String, List<String>> getInjectedProfileIds()
     public void addAttachedArtifact( Artifact artifact )
         throws DuplicateArtifactAttachmentException
     {
-        // if already there we remove it and add again
-        int index = attachedArtifacts.indexOf( artifact );
-        if ( index >= 0 )
-        {
-            LOGGER.warn( "artifact '{}' already attached, replacing previous instance", artifact );
-            attachedArtifacts.set( index, artifact );
-        }
-        else
+        synchronized ( attachedArtifacts )
         {
-            attachedArtifacts.add( artifact );
+            // if already there we remove it and add again
+            int index = attachedArtifacts.indexOf( artifact );
+            if ( index >= 0 )
+            {
+                LOGGER.warn( "artifact '{}' already attached, replacing previous instance", artifact );
+                attachedArtifacts.set( index, artifact );
+            }
+            else
+            {
+                attachedArtifacts.add( artifact );
+            }
         }
     }
 
@@ -0,0 +1,352 @@
+package org.apache.maven.project;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.maven.feature.Features;
+import org.apache.maven.model.Build;
+import org.apache.maven.model.ConfigurationContainer;
+import org.apache.maven.model.Dependency;
+import org.apache.maven.model.DependencyManagement;
+import org.apache.maven.model.Exclusion;
+import org.apache.maven.model.Extension;
+import org.apache.maven.model.Model;
+import org.apache.maven.model.Parent;
+import org.apache.maven.model.Plugin;
+import org.apache.maven.model.PluginExecution;
+import org.apache.maven.model.PluginManagement;
+import org.apache.maven.model.ReportPlugin;
+import org.apache.maven.model.ReportSet;
+import org.apache.maven.model.Reporting;
+import org.apache.maven.model.Repository;
+import org.codehaus.plexus.util.xml.Xpp3Dom;
+
+/**
+ * Shares the equal strings and plugin configurations of the effective models of the reactor projects, which are
+ * mostly inherited from the same parents. The coordinates, properties and repositories of a model are replaced by
+ * the first equal string seen. A plugin configuration is replaced by a shared copy of the first equal configuration,
+ * the copy uses the shared strings. Only whole configurations are shared, since an element knows its parent.
+ * <p>
+ * The effective models are not supposed to be modified after they are built, Maven copies a plugin configuration
+ * before it merges it into the configuration of a mojo execution. The interner lives as long as the project building
+ * of the reactor and is safe to use from the threads that build the projects.
+ */
+final class ModelInterner
+{
+    /**
+     * The estimated size of a string without its characters.
+     */
+    private static final int STRING_SIZE = 40;
+
+    /**
+     * The estimated size of a configuration element without its strings.
+     */
+    private static final int ELEMENT_SIZE = 96;
+
+    private static final int KILOBYTE = 1024;
+
+    private final ConcurrentMap<String, String> strings = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<Xpp3Dom, Xpp3Dom> configurations = new ConcurrentHashMap<>();
+
+    private final LongAdder sharedStrings = new LongAdder();
+
+    private final LongAdder sharedConfigurations = new LongAdder();
+
+    private final LongAdder sharedElements = new LongAdder();
+
+    private final LongAdder savedBytes = new LongAdder();
+
+    /**
+     * @return The interner or {@code null} if the models are not interned
+     */
+    static ModelInterner newInstance( ProjectBuildingRequest request )
+    {
+        return Features.modelInterning( request.getUserProperties() ).isActive() ? new ModelInterner() : null;
+    }
+
+    void intern( Model model )
+    {
+        if ( model == null )
+        {
+            return;
+        }
+
+        model.setModelVersion( intern( model.getModelVersion() ) );
+        model.setGroupId( intern( model.getGroupId() ) );
+        model.setArtifactId( intern( model.getArtifactId() ) );
+        model.setVersion( intern( model.getVersion() ) );
+        model.setPackaging( intern( model.getPackaging() ) );
+
+        Parent parent = model.getParent();
+        if ( parent != null )
+        {
+            parent.setGroupId( intern( parent.getGroupId() ) );
+            parent.setArtifactId( intern( parent.getArtifactId() ) );
+            parent.setVersion( intern( parent.getVersion() ) );
+            parent.setRelativePath( intern( parent.getRelativePath() ) );
+        }
+
+        intern( model.getProperties() );
+        internDependencies( model.getDependencies() );
+        DependencyManagement dependencyManagement = model.getDependencyManagement();
+        if ( dependencyManagement != null )
+        {
+            internDependencies( dependencyManagement.getDependencies() );
+        }
+        internRepositories( model.getRepositories() );
+        internRepositories( model.getPluginRepositories() );
+
+        Build build = model.getBuild();
+        if ( build != null )
+        {
+            internPlugins( build.getPlugins() );
+            PluginManagement pluginManagement = build.getPluginManagement();
+            if ( pluginManagement != null )
+            {
+                internPlugins( pluginManagement.getPlugins() );
+            }
+            for ( Extension extension : build.getExtensions() )
+            {
+                extension.setGroupId( intern( extension.getGroupId() ) );
+                extension.setArtifactId( intern( extension.getArtifactId() ) );
+                extension.setVersion( intern( extension.getVersion() ) );
+            }
+        }
+
+        Reporting reporting = model.getReporting();
+        if ( reporting != null )
+        {
+            for ( ReportPlugin plugin : reporting.getPlugins() )
+            {
+                plugin.setGroupId( intern( plugin.getGroupId() ) );
+                plugin.setArtifactId( intern( plugin.getArtifactId() ) );
+                plugin.setVersion( intern( plugin.getVersion() ) );
+                plugin.setInherited( intern( plugin.getInherited() ) );
+                internConfiguration( plugin );
+                for ( ReportSet reportSet : plugin.getReportSets() )
+                {
+                    reportSet.setId( intern( reportSet.getId() ) );
+                    reportSet.setInherited( intern( reportSet.getInherited() ) );
+                    internStrings( reportSet.getReports() );
+                    internConfiguration( reportSet );
+                }
+            }
+        }
+    }
+
+    /**
+     * @return A summary of the shared strings and configurations and the estimated memory they saved
+     */
+    String getStatistics()
+    {
+        return "Shared " + sharedStrings.sum() + " strings and " + sharedConfigurations.sum()
+            + " plugin configurations with " + sharedElements.sum() + " elements of the reactor models, about "
+            + ( savedBytes.sum() / KILOBYTE ) + " KB";
+    }
+
+    private void internDependencies( List<Dependency> dependencies )
+    {
+        for ( Dependency dependency : dependencies )
+        {
+            dependency.setGroupId( intern( dependency.getGroupId() ) );
+            dependency.setArtifactId( intern( dependency.getArtifactId() ) );
+            dependency.setVersion( intern( dependency.getVersion() ) );
+            dependency.setType( intern( dependency.getType() ) );
+            dependency.setClassifier( intern( dependency.getClassifier() ) );
+            dependency.setScope( intern( dependency.getScope() ) );
+            dependency.setOptional( intern( dependency.getOptional() ) );
+            for ( Exclusion exclusion : dependency.getExclusions() )
+            {
+                exclusion.setGroupId( intern( exclusion.getGroupId() ) );
+                exclusion.setArtifactId( intern( exclusion.getArtifactId() ) );
+            }
+        }
+    }
+
+    private void internRepositories( List<Repository> repositories )
+    {
+        for ( Repository repository : repositories )
+        {
+            repository.setId( intern( repository.getId() ) );
+            repository.setName( intern( repository.getName() ) );
+            repository.setUrl( intern( repository.getUrl() ) );
+            repository.setLayout( intern( repository.getLayout() ) );
+        }
+    }
+
+    private void internPlugins( List<Plugin> plugins )
+    {
+        for ( Plugin plugin : plugins )
+        {
+            plugin.setGroupId( intern( plugin.getGroupId() ) );
+            plugin.setArtifactId( intern( plugin.getArtifactId() ) );
+            plugin.setVersion( intern( plugin.getVersion() ) );
+            plugin.setExtensions( intern( plugin.getExtensions() ) );
+            plugin.setInherited( intern( plugin.getInherited() ) );
+            internConfiguration( plugin );
+            internDependencies( plugin.getDependencies() );
+            for ( PluginExecution execution : plugin.getExecutions() )
+            {
+                execution.setId( intern( execution.getId() ) );
+                execution.setPhase( intern( execution.getPhase() ) );
+                execution.setInherited( intern( execution.getInherited() ) );
+                internStrings( execution.getGoals() );
+                internConfiguration( execution );
+            }
+        }
+    }
+
+    private void intern( Properties properties )
+    {
+        List<Map.Entry<Object, Object>> entries = new ArrayList<>( properties.entrySet() );
+        for ( Map.Entry<Object, Object> entry : entries )
+        {
+            if ( entry.getKey() instanceof String && entry.getValue() instanceof String )
+            {
+                String key = (String) entry.getKey();
+                String value = (String) entry.getValue();
+                String sharedKey = intern( key );
+                String sharedValue = intern( value );
+                if ( sharedKey != key )
+                {
+                    // a key is only replaced with its entry
+                    properties.remove( key );
+                    properties.put( sharedKey, sharedValue );
+                }
+                else if ( sharedValue != value )
+                {
+                    properties.put( key, sharedValue );
+                }
+            }
+        }
+    }
+
+    private void internStrings( List<String> values )
+    {
+        for ( ListIterator<String> it = values.listIterator(); it.hasNext(); )
+        {
+            String value = it.next();
+            String shared = intern( value );
+            if ( shared != value )
+            {
+                it.set( shared );
+            }
+        }
+    }
+
+    private void internConfiguration( ConfigurationContainer container )
+    {
+        if ( !( container.getConfiguration() instanceof Xpp3Dom ) )
+        {
+            return;
+        }
+
+        Xpp3Dom configuration = (Xpp3Dom) container.getConfiguration();
+        Xpp3Dom shared = configurations.get( configuration );
+        if ( shared == null )
+        {
+            Xpp3Dom copy = copy( configuration );
+            shared = configurations.putIfAbsent( copy, copy );
+            if ( shared == null )
+            {
+                // the first of its kind, nothing is saved
+                container.setConfiguration( copy );
+                return;
+            }
+        }
+
+        if ( shared != configuration )
+        {
+            container.setConfiguration( shared );
+            sharedConfigurations.increment();
+            count( configuration );
+        }
+    }
+
+    /**
+     * Copies a configuration with the shared strings.
+     */
+    private Xpp3Dom copy( Xpp3Dom dom )
+    {
+        Xpp3Dom copy = new Xpp3Dom( intern( dom.getName() ) );
+        copy.setValue( intern( dom.getValue() ) );
+        copy.setInputLocation( dom.getInputLocation() );
+        for ( String name : dom.getAttributeNames() )
+        {
+            copy.setAttribute( intern( name ), intern( dom.getAttribute( name ) ) );
+        }
+        for ( Xpp3Dom child : dom.getChildren() )
+        {
+            copy.addChild( copy( child ) );
+        }
+        return copy;
+    }
+
+    /**
+     * Adds the elements of a configuration that is no longer used to the statistics.
+     */
+    private void count( Xpp3Dom dom )
+    {
+        sharedElements.increment();
+        savedBytes.add( ELEMENT_SIZE + size( dom.getName() ) + size( dom.getValue() ) );
+        for ( String name : dom.getAttributeNames() )
+        {
+            savedBytes.add( size( name ) + size( dom.getAttribute( name ) ) );
+        }
+        for ( Xpp3Dom child : dom.getChildren() )
+        {
+            count( child );
+        }
+    }
+
+    private String intern( String value )
+    {
+        if ( value == null )
+        {
+            return null;
+        }
+
+        String shared = strings.putIfAbsent( value, value );
+        if ( shared == null )
+        {
+            return value;
+        }
+        if ( shared != value )
+        {
+            sharedStrings.increment();
+            savedBytes.add( size( value ) );
+        }
+        return shared;
+    }
+
+    private static int size( String value )
+    {
+        return value != null ? STRING_SIZE + 2 * value.length() : 0;
+    }
+}
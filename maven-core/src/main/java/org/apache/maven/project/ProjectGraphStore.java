@@ -0,0 +1,237 @@
+package org.apache.maven.project;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.apache.maven.model.Dependency;
+import org.apache.maven.model.Extension;
+import org.apache.maven.model.Parent;
+import org.apache.maven.model.Plugin;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import static org.apache.maven.internal.StoreUtils.sha256;
+import static org.apache.maven.internal.StoreUtils.writeAtomically;
+
+/**
+ * Keeps the graph of a reactor computed by the {@link ProjectSorter} between builds. An entry belongs to the ordered
+ * ids of the projects and records for every project a signature of the coordinates its edges are derived from, i.e.
+ * its parent, dependencies, build plugins with their dependencies and build extensions, along with the edges, the
+ * project references and the build order. Projects are referred to by their index in the reactor.
+ *
+ * @since 4.0.0
+ */
+final class ProjectGraphStore
+{
+    private static final int MAGIC = 0x4d504753;
+
+    private static final int FORMAT = 1;
+
+    private final Logger logger = LoggerFactory.getLogger( getClass() );
+
+    private final Path entryFile;
+
+    private final List<String> ids;
+
+    ProjectGraphStore( Path directory, List<String> ids )
+    {
+        this.entryFile = directory.resolve( sha256( String.join( "\n", ids ) ) + ".bin" );
+        this.ids = ids;
+    }
+
+    /**
+     * The graph of a reactor.
+     */
+    static final class Entry
+    {
+        final String[] signatures;
+
+        final int[][] edges;
+
+        final int[][] references;
+
+        final int[] order;
+
+        final boolean conflicts;
+
+        /**
+         * @param signatures The signatures of the projects
+         * @param edges The targets of the edges of every project
+         * @param references The referenced projects of every project
+         * @param order The projects in the build order
+         * @param conflicts Whether edges were dropped to avoid cycles, which makes the edges of a project depend on
+         *            the edges of the others
+         */
+        Entry( String[] signatures, int[][] edges, int[][] references, int[] order, boolean conflicts )
+        {
+            this.signatures = signatures;
+            this.edges = edges;
+            this.references = references;
+            this.order = order;
+            this.conflicts = conflicts;
+        }
+    }
+
+    /**
+     * @return The stored graph of the reactor or {@code null} if none
+     */
+    Entry read()
+    {
+        if ( !Files.isRegularFile( entryFile ) )
+        {
+            return null;
+        }
+
+        try ( DataInputStream in =
+            new DataInputStream( new BufferedInputStream( Files.newInputStream( entryFile ) ) ) )
+        {
+            if ( in.readInt() != MAGIC || in.readInt() != FORMAT || in.readInt() != ids.size() )
+            {
+                return null;
+            }
+            String[] signatures = new String[ids.size()];
+            for ( int i = 0; i < signatures.length; i++ )
+            {
+                if ( !ids.get( i ).equals( in.readUTF() ) )
+                {
+                    return null;
+                }
+                signatures[i] = in.readUTF();
+            }
+            int[][] edges = new int[signatures.length][];
+            int[][] references = new int[signatures.length][];
+            for ( int i = 0; i < signatures.length; i++ )
+            {
+                edges[i] = readIndices( in );
+                references[i] = readIndices( in );
+            }
+            int[] order = readIndices( in );
+            boolean conflicts = in.readBoolean();
+            return new Entry( signatures, edges, references, order, conflicts );
+        }
+        catch ( IOException | RuntimeException e )
+        {
+            logger.debug( "Ignoring reactor graph cache entry {}: {}", entryFile, e.getMessage() );
+            return null;
+        }
+    }
+
+    /**
+     * Stores the graph of the reactor, failures to write are only logged.
+     */
+    void write( Entry entry )
+    {
+        try
+        {
+            writeAtomically( entryFile, out ->
+            {
+                out.writeInt( MAGIC );
+                out.writeInt( FORMAT );
+                out.writeInt( ids.size() );
+                for ( int i = 0; i < ids.size(); i++ )
+                {
+                    out.writeUTF( ids.get( i ) );
+                    out.writeUTF( entry.signatures[i] );
+                }
+                for ( int i = 0; i < ids.size(); i++ )
+                {
+                    writeIndices( out, entry.edges[i] );
+                    writeIndices( out, entry.references[i] );
+                }
+                writeIndices( out, entry.order );
+                out.writeBoolean( entry.conflicts );
+            } );
+        }
+        catch ( IOException | RuntimeException e )
+        {
+            logger.debug( "Unable to write reactor graph cache entry {}: {}", entryFile, e.getMessage() );
+        }
+    }
+
+    /**
+     * @return A digest of the coordinates the edges of the project are derived from
+     */
+    static String signature( MavenProject project )
+    {
+        StringBuilder buffer = new StringBuilder();
+        Parent parent = project.getModel().getParent();
+        if ( parent != null )
+        {
+            append( buffer, "parent", parent.getGroupId(), parent.getArtifactId(), parent.getVersion() );
+        }
+        for ( Dependency dependency : project.getDependencies() )
+        {
+            append( buffer, "dependency", dependency.getGroupId(), dependency.getArtifactId(),
+                    dependency.getVersion() );
+        }
+        for ( Plugin plugin : project.getBuildPlugins() )
+        {
+            append( buffer, "plugin", plugin.getGroupId(), plugin.getArtifactId(), plugin.getVersion() );
+            for ( Dependency dependency : plugin.getDependencies() )
+            {
+                append( buffer, "plugin-dependency", dependency.getGroupId(), dependency.getArtifactId(),
+                        dependency.getVersion() );
+            }
+        }
+        for ( Extension extension : project.getBuildExtensions() )
+        {
+            append( buffer, "extension", extension.getGroupId(), extension.getArtifactId(), extension.getVersion() );
+        }
+        return sha256( buffer.toString() );
+    }
+
+    private static void append( StringBuilder buffer, String kind, String groupId, String artifactId, String version )
+    {
+        buffer.append( kind ).append( ' ' ).append( groupId ).append( ':' ).append( artifactId ).append( ':' )
+            .append( version ).append( '\n' );
+    }
+
+    private static void writeIndices( DataOutputStream out, int[] indices )
+        throws IOException
+    {
+        out.writeInt( indices.length );
+        for ( int index : indices )
+        {
+            out.writeInt( index );
+        }
+    }
+
+    private int[] readIndices( DataInputStream in )
+        throws IOException
+    {
+        int[] indices = new int[in.readInt()];
+        for ( int i = 0; i < indices.length; i++ )
+        {
+            indices[i] = in.readInt();
+            if ( indices[i] < 0 || indices[i] >= ids.size() )
+            {
+                throw new IOException( "Invalid project index " + indices[i] );
+            }
+        }
+        return indices;
+    }
+}
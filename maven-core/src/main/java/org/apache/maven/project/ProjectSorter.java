@@ -19,6 +19,9 @@
  * under the License.
  */
 
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
@@ -48,6 +51,11 @@
 
     private Map<String, MavenProject> projectMap;
 
+    /**
+     * Whether edges had to be dropped to avoid cycles.
+     */
+    private boolean edgeConflicts;
+
     /**
      * Sort a list of projects.
      * <ul>
@@ -73,6 +81,67 @@
     // that seems to work fine. We need to take versions and lifecycle into account.
     public ProjectSorter( Collection<MavenProject> projects )
         throws CycleDetectedException, DuplicateProjectException
+    {
+        this( projects, null );
+    }
+
+    /**
+     * Sorts a list of projects like {@link #ProjectSorter(Collection)} and keeps the graph in the given directory for
+     * later builds. When the projects of the reactor are the same, the stored graph is reused as far as the
+     * coordinates of the parents, dependencies, plugins and extensions of the projects are unchanged: the edges of the
+     * changed projects are computed again and the projects sorted, or, if no project changed, the stored build order
+     * is used as well.
+     *
+     * @param projects The projects to sort
+     * @param graphDirectory The directory to keep the graph in, may be {@code null} to always compute the graph
+     * @throws DuplicateProjectException if any projects are duplicated by id
+     * @since 4.0.0
+     */
+    public ProjectSorter( Collection<MavenProject> projects, Path graphDirectory )
+        throws CycleDetectedException, DuplicateProjectException
+    {
+        Map<String, Map<String, Vertex>> vertexMap = addVertices( projects );
+
+        if ( graphDirectory == null )
+        {
+            addEdges( vertexMap, dag.getVertices() );
+            sort( TopologicalSorter.sort( dag ) );
+            return;
+        }
+
+        List<Vertex> vertices = dag.getVertices();
+        List<String> ids = vertices.stream().map( Vertex::getLabel ).collect( Collectors.toList() );
+        String[] signatures = new String[vertices.size()];
+        for ( int i = 0; i < signatures.length; i++ )
+        {
+            signatures[i] = ProjectGraphStore.signature( projectMap.get( ids.get( i ) ) );
+        }
+
+        ProjectGraphStore store = new ProjectGraphStore( graphDirectory, ids );
+        ProjectGraphStore.Entry entry = store.read();
+        if ( entry != null && !entry.conflicts && restore( entry, signatures, vertexMap ) )
+        {
+            if ( !Arrays.equals( signatures, entry.signatures ) )
+            {
+                store.write( newEntry( signatures ) );
+            }
+            return;
+        }
+
+        if ( entry != null )
+        {
+            // the stored graph did not apply, start over
+            vertexMap = addVertices( projects );
+            vertices = dag.getVertices();
+        }
+        edgeConflicts = false;
+        addEdges( vertexMap, vertices );
+        sort( TopologicalSorter.sort( dag ) );
+        store.write( newEntry( signatures ) );
+    }
+
+    private Map<String, Map<String, Vertex>> addVertices( Collection<MavenProject> projects )
+        throws DuplicateProjectException
     {
         dag = new DAG();
 
@@ -101,7 +170,13 @@ public ProjectSorter( Collection<MavenProject> projects )
             vertices.put( project.getVersion(), dag.addVertex( projectId ) );
         }
 
-        for ( Vertex projectVertex : dag.getVertices() )
+        return vertexMap;
+    }
+
+    private void addEdges( Map<String, Map<String, Vertex>> vertexMap, Collection<Vertex> projectVertices )
+        throws CycleDetectedException
+    {
+        for ( Vertex projectVertex : projectVertices )
         {
             String projectId = projectVertex.getLabel();
 
@@ -141,12 +216,91 @@ public ProjectSorter( Collection<MavenProject> projects )
                          extension.getArtifactId(), extension.getVersion(), false, true );
             }
         }
+    }
+
+    /**
+     * Adds the stored edges of the unchanged projects and computes the edges of the changed ones.
+     *
+     * @return {@code false} if edges of changed projects had to be dropped to avoid cycles, the edges of the other
+     *         projects may then differ as well
+     */
+    private boolean restore( ProjectGraphStore.Entry entry, String[] signatures,
+                             Map<String, Map<String, Vertex>> vertexMap )
+    {
+        List<Vertex> vertices = dag.getVertices();
+        List<Vertex> changed = new ArrayList<>();
+        for ( int i = 0; i < signatures.length; i++ )
+        {
+            Vertex vertex = vertices.get( i );
+            if ( !signatures[i].equals( entry.signatures[i] ) )
+            {
+                changed.add( vertex );
+                continue;
+            }
+            for ( int target : entry.edges[i] )
+            {
+                // the stored edges are free of cycles
+                vertex.addEdgeTo( vertices.get( target ) );
+                vertices.get( target ).addEdgeFrom( vertex );
+            }
+            MavenProject project = projectMap.get( vertex.getLabel() );
+            for ( int target : entry.references[i] )
+            {
+                project.addProjectReference( projectMap.get( vertices.get( target ).getLabel() ) );
+            }
+        }
+
+        if ( changed.isEmpty() )
+        {
+            sort( Arrays.stream( entry.order ).mapToObj( i -> vertices.get( i ).getLabel() )
+                .collect( Collectors.toList() ) );
+            return true;
+        }
+
+        edgeConflicts = false;
+        try
+        {
+            addEdges( vertexMap, changed );
+        }
+        catch ( CycleDetectedException e )
+        {
+            return false;
+        }
+        if ( edgeConflicts )
+        {
+            return false;
+        }
+        sort( TopologicalSorter.sort( dag ) );
+        return true;
+    }
 
-        List<String> sortedProjectLabels = TopologicalSorter.sort( dag );
+    private ProjectGraphStore.Entry newEntry( String[] signatures )
+    {
+        List<Vertex> vertices = dag.getVertices();
+        Map<String, Integer> indices = new HashMap<>( vertices.size() * 2 );
+        for ( int i = 0; i < vertices.size(); i++ )
+        {
+            indices.put( vertices.get( i ).getLabel(), i );
+        }
+
+        int[][] edges = new int[vertices.size()][];
+        int[][] references = new int[vertices.size()][];
+        for ( int i = 0; i < vertices.size(); i++ )
+        {
+            edges[i] = vertices.get( i ).getChildLabels().stream().mapToInt( indices::get ).toArray();
+            references[i] = projectMap.get( vertices.get( i ).getLabel() ).getProjectReferences().values().stream()
+                .map( ProjectSorter::getId ).filter( indices::containsKey ).mapToInt( indices::get ).toArray();
+        }
+        int[] order = sortedProjects.stream().map( ProjectSorter::getId ).mapToInt( indices::get ).toArray();
+        return new ProjectGraphStore.Entry( signatures, edges, references, order, edgeConflicts );
+    }
 
+    private void sort( List<String> sortedProjectLabels )
+    {
         this.sortedProjects = sortedProjectLabels.stream().map( id -> projectMap.get( id ) )
                 .collect( Collectors.collectingAndThen( Collectors.toList(), Collections::unmodifiableList ) );
     }
+
     @SuppressWarnings( "checkstyle:parameternumber" )
     private void addEdge( Map<String, MavenProject> projectMap, Map<String, Map<String, Vertex>> vertexMap,
                           MavenProject project, Vertex projectVertex, String groupId, String artifactId,
@@ -195,6 +349,7 @@ private void addEdge( Vertex fromVertex, Vertex toVertex, MavenProject fromProje
         if ( force && toVertex.getChildren().contains( fromVertex ) )
         {
             dag.removeEdge( toVertex, fromVertex );
+            edgeConflicts = true;
         }
 
         try
@@ -207,6 +362,7 @@ private void addEdge( Vertex fromVertex, Vertex toVertex, MavenProject fromProje
             {
                 throw e;
             }
+            edgeConflicts = true;
         }
     }
 
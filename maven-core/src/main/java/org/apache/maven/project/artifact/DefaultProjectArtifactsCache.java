@@ -19,15 +19,19 @@
  * under the License.
  */
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Deque;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
 import java.util.concurrent.ConcurrentHashMap;
 
 import javax.inject.Named;
@@ -36,13 +40,21 @@
 import org.apache.maven.RepositoryUtils;
 import org.apache.maven.artifact.Artifact;
 import org.apache.maven.lifecycle.LifecycleExecutionException;
+import org.apache.maven.model.Dependency;
+import org.apache.maven.model.Exclusion;
 import org.apache.maven.project.MavenProject;
 import org.eclipse.aether.RepositorySystemSession;
 import org.eclipse.aether.repository.LocalRepository;
 import org.eclipse.aether.repository.RemoteRepository;
 import org.eclipse.aether.repository.WorkspaceRepository;
 
+import static org.apache.maven.internal.StoreUtils.sha256;
+
 /**
+ * Caches the resolved artifacts of projects for the session. With the feature
+ * {@link org.apache.maven.feature.Features#projectArtifactsCache(java.util.Properties) projectArtifactsCache} the
+ * artifacts are also kept in the local repository for later sessions, see {@link ProjectArtifactsStore}.
+ *
  * @author Igor Fedorenko
  * @author Benjamin Bentmann
  * @author Anton Tanasenko
@@ -136,6 +148,50 @@ public CacheKey( MavenProject project, List<RemoteRepository> repositories,
             this.hashCode = hash;
         }
 
+        Set<String> getDependencyArtifacts()
+        {
+            return dependencyArtifacts;
+        }
+
+        String getWorkspaceKey()
+        {
+            if ( workspace == null )
+            {
+                return "";
+            }
+            Object key = workspace.getKey();
+            if ( key instanceof Collection )
+            {
+                Set<String> ids = new TreeSet<>();
+                for ( Object id : (Collection<?>) key )
+                {
+                    ids.add( String.valueOf( id ) );
+                }
+                key = ids;
+            }
+            return workspace.getContentType() + ":" + key;
+        }
+
+        List<RemoteRepository> getRepositories()
+        {
+            return repositories;
+        }
+
+        Set<String> getCollect()
+        {
+            return collect;
+        }
+
+        Set<String> getResolve()
+        {
+            return resolve;
+        }
+
+        boolean isAggregating()
+        {
+            return aggregating;
+        }
+
         @Override
         public String toString()
         {
@@ -175,22 +231,186 @@ public boolean equals( Object o )
         }
     }
 
+    /**
+     * A cache key that can also be looked up in the {@link ProjectArtifactsStore}.
+     */
+    static class PersistentCacheKey
+        extends CacheKey
+    {
+        /**
+         * The system properties that activate the profiles of the POMs of the dependencies, besides the user
+         * properties.
+         */
+        private static final String[] ACTIVATION_PROPERTIES = { "java.version", "os.name", "os.arch", "os.version" };
+
+        private final ProjectArtifactsStore store;
+
+        private final String digest;
+
+        private final Set<String> reactorIds;
+
+        PersistentCacheKey( MavenProject project, List<RemoteRepository> repositories,
+            Collection<String> scopesToCollect, Collection<String> scopesToResolve, boolean aggregating,
+            RepositorySystemSession session, ProjectArtifactsStore store, String modelDigest, Set<String> reactorIds )
+        {
+            super( project, repositories, scopesToCollect, scopesToResolve, aggregating, session );
+            this.store = store;
+            this.reactorIds = reactorIds;
+
+            StringBuilder buffer = new StringBuilder();
+            buffer.append( toString() ).append( '\n' );
+            for ( String dependencyArtifact : getDependencyArtifacts() )
+            {
+                buffer.append( dependencyArtifact ).append( '\n' );
+            }
+            buffer.append( getWorkspaceKey() ).append( '\n' );
+            for ( RemoteRepository repository : getRepositories() )
+            {
+                buffer.append( repository.getId() ).append( ' ' ).append( repository.getUrl() ).append( '\n' );
+            }
+            buffer.append( new TreeSet<>( getCollect() ) ).append( new TreeSet<>( getResolve() ) );
+            buffer.append( isAggregating() ).append( '\n' );
+            for ( String name : ACTIVATION_PROPERTIES )
+            {
+                buffer.append( name ).append( '=' ).append( session.getSystemProperties().get( name ) ).append( '\n' );
+            }
+            buffer.append( new TreeMap<>( session.getUserProperties() ) ).append( '\n' );
+            buffer.append( modelDigest );
+            this.digest = sha256( buffer.toString() );
+        }
+
+        String getDigest()
+        {
+            return digest;
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return super.hashCode();
+        }
+
+        @Override
+        public boolean equals( Object o )
+        {
+            return o instanceof PersistentCacheKey && digest.equals( ( (PersistentCacheKey) o ).digest )
+                && super.equals( o );
+        }
+    }
+
     protected final Map<Key, CacheRecord> cache = new ConcurrentHashMap<>();
 
     @Override
     public Key createKey( MavenProject project, Collection<String> scopesToCollect,
         Collection<String> scopesToResolve, boolean aggregating, RepositorySystemSession session )
     {
+        ProjectArtifactsStore store = ProjectArtifactsStore.newInstance( session );
+        if ( store != null )
+        {
+            Set<String> reactorIds = new HashSet<>();
+            String modelDigest = modelDigest( project, reactorIds );
+            if ( modelDigest != null )
+            {
+                return new PersistentCacheKey( project, project.getRemoteProjectRepositories(), scopesToCollect,
+                    scopesToResolve, aggregating, session, store, modelDigest, reactorIds );
+            }
+        }
         return new CacheKey( project, project.getRemoteProjectRepositories(), scopesToCollect, scopesToResolve,
             aggregating, session );
     }
 
+    /**
+     * Describes the dependencies and the dependency management of the project and of the reactor projects it refers
+     * to, directly or indirectly.
+     *
+     * @param reactorIds Receives the <code>groupId:artifactId:version</code> of the referenced reactor projects
+     * @return The description or {@code null} if a dependency has a version range, the version ranges of transitive
+     *         dependencies are only known after the resolution, see {@link #putWithVersionRanges(Key, Set)}
+     */
+    private static String modelDigest( MavenProject project, Set<String> reactorIds )
+    {
+        // ordered by id, the order in which the references are visited is not stable
+        Map<String, String> descriptions = new TreeMap<>();
+        Deque<MavenProject> projects = new ArrayDeque<>();
+        projects.add( project );
+        while ( !projects.isEmpty() )
+        {
+            MavenProject current = projects.remove();
+            if ( current == null || descriptions.containsKey( current.getId() ) )
+            {
+                continue;
+            }
+            if ( current != project )
+            {
+                reactorIds.add( current.getGroupId() + ':' + current.getArtifactId() + ':' + current.getVersion() );
+            }
+
+            StringBuilder buffer = new StringBuilder();
+            if ( !appendDependencies( buffer, current.getDependencies() ) )
+            {
+                return null;
+            }
+            buffer.append( "--\n" );
+            if ( current.getDependencyManagement() != null
+                && !appendDependencies( buffer, current.getDependencyManagement().getDependencies() ) )
+            {
+                return null;
+            }
+            descriptions.put( current.getId(), buffer.toString() );
+            projects.addAll( current.getProjectReferences().values() );
+        }
+
+        StringBuilder buffer = new StringBuilder();
+        for ( Map.Entry<String, String> description : descriptions.entrySet() )
+        {
+            buffer.append( description.getKey() ).append( '\n' ).append( description.getValue() );
+        }
+        return sha256( buffer.toString() );
+    }
+
+    private static boolean appendDependencies( StringBuilder buffer, List<Dependency> dependencies )
+    {
+        for ( Dependency dependency : dependencies )
+        {
+            String version = dependency.getVersion();
+            if ( version != null && ( version.startsWith( "[" ) || version.startsWith( "(" ) ) )
+            {
+                return false;
+            }
+            buffer.append( dependency.getManagementKey() ).append( ':' ).append( version ).append( ':' )
+                .append( dependency.getScope() ).append( ':' ).append( dependency.isOptional() ).append( ':' )
+                .append( dependency.getSystemPath() );
+            for ( Exclusion exclusion : dependency.getExclusions() )
+            {
+                buffer.append( ' ' ).append( exclusion.getGroupId() ).append( ':' )
+                    .append( exclusion.getArtifactId() );
+            }
+            buffer.append( '\n' );
+        }
+        return true;
+    }
+
     @Override
     public CacheRecord get( Key key )
         throws LifecycleExecutionException
     {
         CacheRecord cacheRecord = cache.get( key );
 
+        if ( cacheRecord == null && key instanceof PersistentCacheKey )
+        {
+            PersistentCacheKey persistentKey = (PersistentCacheKey) key;
+            Set<Artifact> projectArtifacts = persistentKey.store.get( persistentKey.getDigest() );
+            if ( projectArtifacts != null )
+            {
+                CacheRecord record = new CacheRecord( Collections.unmodifiableSet( projectArtifacts ) );
+                cacheRecord = cache.putIfAbsent( key, record );
+                if ( cacheRecord == null )
+                {
+                    cacheRecord = record;
+                }
+            }
+        }
+
         if ( cacheRecord != null && cacheRecord.getException() != null )
         {
             throw cacheRecord.getException();
@@ -201,6 +421,20 @@ public CacheRecord get( Key key )
 
     @Override
     public CacheRecord put( Key key, Set<Artifact> projectArtifacts )
+    {
+        return put( key, projectArtifacts, true );
+    }
+
+    /**
+     * Caches the artifacts for the session only, the store would keep the versions selected from the ranges.
+     */
+    @Override
+    public CacheRecord putWithVersionRanges( Key key, Set<Artifact> projectArtifacts )
+    {
+        return put( key, projectArtifacts, false );
+    }
+
+    private CacheRecord put( Key key, Set<Artifact> projectArtifacts, boolean persistent )
     {
         Objects.requireNonNull( projectArtifacts, "projectArtifacts cannot be null" );
 
@@ -211,6 +445,12 @@ public CacheRecord put( Key key, Set<Artifact> projectArtifacts )
 
         cache.put( key, record );
 
+        if ( persistent && key instanceof PersistentCacheKey )
+        {
+            PersistentCacheKey persistentKey = (PersistentCacheKey) key;
+            persistentKey.store.put( persistentKey.getDigest(), record.getArtifacts(), persistentKey.reactorIds );
+        }
+
         return record;
     }
 
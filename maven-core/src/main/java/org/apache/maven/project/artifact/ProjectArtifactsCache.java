@@ -86,6 +86,17 @@ Key createKey( MavenProject project, Collection<String> scopesToCollect, Collect
 
     CacheRecord put( Key key, Set<Artifact> pluginArtifacts );
 
+    /**
+     * Caches the artifacts of a dependency graph with version ranges. The versions selected from the ranges change
+     * with the repository metadata, so implementations that keep artifacts beyond the session should not keep these.
+     *
+     * @since 4.0.0
+     */
+    default CacheRecord putWithVersionRanges( Key key, Set<Artifact> projectArtifacts )
+    {
+        return put( key, projectArtifacts );
+    }
+
     CacheRecord put( Key key, LifecycleExecutionException e );
 
     void flush();
@@ -0,0 +1,297 @@
+package org.apache.maven.project.artifact;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+
+import org.apache.maven.RepositoryUtils;
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.artifact.handler.ArtifactHandler;
+import org.apache.maven.feature.Features;
+import org.eclipse.aether.RepositorySystemSession;
+import org.eclipse.aether.artifact.ArtifactProperties;
+import org.eclipse.aether.repository.RepositoryPolicy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import static org.apache.maven.internal.StoreUtils.readString;
+import static org.apache.maven.internal.StoreUtils.writeAtomically;
+import static org.apache.maven.internal.StoreUtils.writeString;
+
+/**
+ * Keeps the resolved dependencies of projects in the local repository, so that later builds skip the collection and
+ * resolution of unchanged dependency graphs. An entry is keyed by a digest of the cache key and of the dependencies and
+ * dependency management of the project and of the reactor projects it refers to. It is only used while the size and
+ * modification time of every resolved file and of the POM next to it are unchanged. Files of reactor projects are not
+ * recorded, the caller points the artifacts of reactor projects to their current files anyway.
+ * <p>
+ * Graphs with snapshots, with version ranges or with unresolved dependencies are not stored. Since the profiles of the
+ * POMs of the dependencies may be activated by the JDK, the OS or properties, the key also covers the corresponding
+ * system properties and the user properties. The store is bypassed when updates are forced.
+ *
+ * @since 4.0.0
+ */
+final class ProjectArtifactsStore
+{
+    private static final int MAGIC = 0x4d504144;
+
+    private static final int FORMAT = 2;
+
+    private final Logger logger = LoggerFactory.getLogger( getClass() );
+
+    private final Path directory;
+
+    ProjectArtifactsStore( Path directory )
+    {
+        this.directory = directory;
+    }
+
+    /**
+     * @return The store in the local repository of the session or {@code null} if the store is disabled
+     */
+    static ProjectArtifactsStore newInstance( RepositorySystemSession session )
+    {
+        if ( session == null || session.getLocalRepository() == null
+            || RepositoryPolicy.UPDATE_POLICY_ALWAYS.equals( session.getUpdatePolicy() ) )
+        {
+            return null;
+        }
+        Properties userProperties = new Properties();
+        userProperties.putAll( session.getUserProperties() );
+        if ( !Features.projectArtifactsCache( userProperties ).isActive() )
+        {
+            return null;
+        }
+        return new ProjectArtifactsStore(
+            session.getLocalRepository().getBasedir().toPath().resolve( ".cache" ).resolve( "project-artifacts" ) );
+    }
+
+    /**
+     * @param digest The digest of the cache key
+     * @return The resolved artifacts or {@code null} if not stored or a file changed
+     */
+    Set<Artifact> get( String digest )
+    {
+        Path entry = entry( digest );
+        if ( !Files.isRegularFile( entry ) )
+        {
+            return null;
+        }
+
+        try ( DataInputStream in = new DataInputStream( new BufferedInputStream( Files.newInputStream( entry ) ) ) )
+        {
+            if ( in.readInt() != MAGIC || in.readInt() != FORMAT )
+            {
+                return null;
+            }
+            int count = in.readInt();
+            Set<Artifact> artifacts = new LinkedHashSet<>( count * 2 );
+            for ( int i = 0; i < count; i++ )
+            {
+                Artifact artifact = readArtifact( in );
+                if ( artifact == null )
+                {
+                    logger.debug( "Ignoring project artifacts cache entry {}, a file changed", entry );
+                    return null;
+                }
+                artifacts.add( artifact );
+            }
+            return artifacts;
+        }
+        catch ( IOException | RuntimeException e )
+        {
+            logger.debug( "Ignoring project artifacts cache entry {}: {}", entry, e.getMessage() );
+            return null;
+        }
+    }
+
+    /**
+     * Stores the resolved artifacts unless the graph has snapshots or unresolved dependencies, failures to write are
+     * only logged.
+     *
+     * @param digest The digest of the cache key
+     * @param artifacts The resolved artifacts
+     * @param reactorIds The <code>groupId:artifactId:version</code> of the reactor projects the project refers to
+     */
+    void put( String digest, Collection<Artifact> artifacts, Set<String> reactorIds )
+    {
+        for ( Artifact artifact : artifacts )
+        {
+            if ( !isReactorArtifact( artifact, reactorIds ) && ( artifact.isSnapshot() || artifact.getFile() == null ) )
+            {
+                return;
+            }
+        }
+
+        Path entry = entry( digest );
+        try
+        {
+            writeAtomically( entry, out ->
+            {
+                out.writeInt( MAGIC );
+                out.writeInt( FORMAT );
+                out.writeInt( artifacts.size() );
+                for ( Artifact artifact : artifacts )
+                {
+                    writeArtifact( out, artifact, isReactorArtifact( artifact, reactorIds ) );
+                }
+            } );
+        }
+        catch ( IOException | RuntimeException e )
+        {
+            logger.debug( "Unable to write project artifacts cache entry {}: {}", entry, e.getMessage() );
+        }
+    }
+
+    private Path entry( String digest )
+    {
+        return directory.resolve( digest.substring( 0, 2 ) ).resolve( digest + ".bin" );
+    }
+
+    private static boolean isReactorArtifact( Artifact artifact, Set<String> reactorIds )
+    {
+        return reactorIds.contains(
+            artifact.getGroupId() + ':' + artifact.getArtifactId() + ':' + artifact.getBaseVersion() );
+    }
+
+    private static void writeArtifact( DataOutputStream out, Artifact artifact, boolean reactor )
+        throws IOException
+    {
+        ArtifactHandler handler = artifact.getArtifactHandler();
+        writeString( out, artifact.getGroupId() );
+        writeString( out, artifact.getArtifactId() );
+        writeString( out, artifact.getVersion() );
+        writeString( out, artifact.getType() );
+        writeString( out, artifact.getClassifier() );
+        writeString( out, artifact.getScope() );
+        out.writeBoolean( artifact.isOptional() );
+        writeString( out, handler.getExtension() );
+        writeString( out, handler.getLanguage() );
+        out.writeBoolean( handler.isIncludesDependencies() );
+        out.writeBoolean( handler.isAddedToClasspath() );
+
+        List<String> trail = artifact.getDependencyTrail();
+        out.writeInt( trail != null ? trail.size() : -1 );
+        if ( trail != null )
+        {
+            for ( String id : trail )
+            {
+                writeString( out, id );
+            }
+        }
+
+        File file = artifact.getFile();
+        writeString( out, file != null ? file.getAbsolutePath() : null );
+        out.writeBoolean( reactor );
+        if ( !reactor )
+        {
+            writeStamp( out, file );
+            writeStamp( out, pomFile( artifact, file ) );
+        }
+    }
+
+    private static Artifact readArtifact( DataInputStream in )
+        throws IOException
+    {
+        String groupId = readString( in );
+        String artifactId = readString( in );
+        String version = readString( in );
+        String type = readString( in );
+        String classifier = readString( in );
+        String scope = readString( in );
+        boolean optional = in.readBoolean();
+        String extension = readString( in );
+
+        Map<String, String> properties = new HashMap<>();
+        properties.put( ArtifactProperties.TYPE, type );
+        String language = readString( in );
+        if ( language != null )
+        {
+            properties.put( ArtifactProperties.LANGUAGE, language );
+        }
+        properties.put( ArtifactProperties.INCLUDES_DEPENDENCIES, Boolean.toString( in.readBoolean() ) );
+        properties.put( ArtifactProperties.CONSTITUTES_BUILD_PATH, Boolean.toString( in.readBoolean() ) );
+
+        int trailSize = in.readInt();
+        List<String> trail = null;
+        if ( trailSize >= 0 )
+        {
+            trail = new ArrayList<>( trailSize );
+            for ( int i = 0; i < trailSize; i++ )
+            {
+                trail.add( readString( in ) );
+            }
+        }
+
+        String path = readString( in );
+        File file = path != null ? new File( path ) : null;
+        if ( !in.readBoolean() && !( readStamp( in, file ) && readStamp( in, pomFile( artifactId, version, file ) ) ) )
+        {
+            return null;
+        }
+
+        Artifact artifact = RepositoryUtils.toArtifact(
+            new org.eclipse.aether.artifact.DefaultArtifact( groupId, artifactId, classifier, extension, version,
+                                                             properties, file ) );
+        artifact.setScope( scope );
+        artifact.setOptional( optional );
+        artifact.setDependencyTrail( trail );
+        return artifact;
+    }
+
+    private static File pomFile( Artifact artifact, File file )
+    {
+        return pomFile( artifact.getArtifactId(), artifact.getVersion(), file );
+    }
+
+    private static File pomFile( String artifactId, String version, File file )
+    {
+        return file != null ? new File( file.getParentFile(), artifactId + '-' + version + ".pom" ) : null;
+    }
+
+    private static void writeStamp( DataOutputStream out, File file )
+        throws IOException
+    {
+        out.writeLong( file != null ? file.length() : -1L );
+        out.writeLong( file != null ? file.lastModified() : -1L );
+    }
+
+    private static boolean readStamp( DataInputStream in, File file )
+        throws IOException
+    {
+        long length = in.readLong();
+        long lastModified = in.readLong();
+        return file != null ? file.length() == length && file.lastModified() == lastModified : length < 0;
+    }
+}
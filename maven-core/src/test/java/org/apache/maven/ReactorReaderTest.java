@@ -0,0 +1,124 @@
+package org.apache.maven;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+
+import org.apache.maven.artifact.DefaultArtifact;
+import org.apache.maven.artifact.handler.DefaultArtifactHandler;
+import org.apache.maven.execution.DefaultMavenExecutionRequest;
+import org.apache.maven.execution.DefaultMavenExecutionResult;
+import org.apache.maven.execution.MavenSession;
+import org.apache.maven.lifecycle.internal.builder.multithreaded.PhaseReleaseListener;
+import org.apache.maven.model.Build;
+import org.apache.maven.model.Model;
+import org.apache.maven.project.MavenProject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ReactorReaderTest
+{
+    @TempDir
+    Path tempDir;
+
+    private final PhaseReleaseListener phaseReleaseListener = mock( PhaseReleaseListener.class );
+
+    private MavenProject project;
+
+    private ReactorReader reactorReader;
+
+    @BeforeEach
+    public void setUp()
+    {
+        Build build = new Build();
+        build.setDirectory( tempDir.resolve( "target" ).toString() );
+        build.setOutputDirectory( tempDir.resolve( "target/classes" ).toString() );
+        build.setTestOutputDirectory( tempDir.resolve( "target/test-classes" ).toString() );
+        build.setFinalName( "upstream-1.0" );
+        Model model = new Model();
+        model.setGroupId( "org.apache.maven.its" );
+        model.setArtifactId( "upstream" );
+        model.setVersion( "1.0" );
+        model.setBuild( build );
+        project = new MavenProject( model );
+        project.setArtifact( new DefaultArtifact( "org.apache.maven.its", "upstream", "1.0", null, "jar", null,
+                                                  new DefaultArtifactHandler( "jar" ) ) );
+        DefaultArtifactHandler testJarHandler = new DefaultArtifactHandler( "test-jar" );
+        testJarHandler.setExtension( "jar" );
+        project.addAttachedArtifact( new DefaultArtifact( "org.apache.maven.its", "upstream", "1.0", null, "test-jar",
+                                                          "tests", testJarHandler ) );
+
+        MavenSession session = new MavenSession( null, new DefaultMavenExecutionRequest(),
+                                                 new DefaultMavenExecutionResult(),
+                                                 Collections.singletonList( project ) );
+        session.setAllProjects( session.getProjects() );
+        reactorReader = new ReactorReader( session, phaseReleaseListener );
+    }
+
+    @Test
+    public void testReleasedProjectBeingPackagedResolvesToOutputDirectory()
+    {
+        project.addLifecyclePhase( "compile" );
+        project.addLifecyclePhase( "test-compile" );
+        project.addLifecyclePhase( "package" );
+        when( phaseReleaseListener.isPackaging( project ) ).thenReturn( true );
+
+        assertEquals( new File( project.getBuild().getOutputDirectory() ), reactorReader.findArtifact( jar() ) );
+        assertEquals( new File( project.getBuild().getTestOutputDirectory() ),
+                      reactorReader.findArtifact( testJar() ) );
+    }
+
+    @Test
+    public void testTestJarOfProjectReleasedBeforeTestCompileFallsThrough()
+        throws Exception
+    {
+        // a jar of an earlier build is still on disk
+        File packagedArtifactFile = new File( project.getBuild().getDirectory(), "upstream-1.0.jar" );
+        Files.createDirectories( packagedArtifactFile.getParentFile().toPath() );
+        Files.createFile( packagedArtifactFile.toPath() );
+        project.addLifecyclePhase( "compile" );
+        project.addLifecyclePhase( "package" );
+        when( phaseReleaseListener.isPackaging( project ) ).thenReturn( true );
+
+        // there are no test classes yet, the packaging project is resolved like any other
+        assertEquals( packagedArtifactFile, reactorReader.findArtifact( testJar() ) );
+        assertEquals( new File( project.getBuild().getOutputDirectory() ), reactorReader.findArtifact( jar() ) );
+    }
+
+    private static org.eclipse.aether.artifact.Artifact jar()
+    {
+        return new org.eclipse.aether.artifact.DefaultArtifact( "org.apache.maven.its:upstream:jar:1.0" )
+            .setProperties( Collections.singletonMap( "type", "jar" ) );
+    }
+
+    private static org.eclipse.aether.artifact.Artifact testJar()
+    {
+        return new org.eclipse.aether.artifact.DefaultArtifact( "org.apache.maven.its:upstream:jar:tests:1.0" )
+            .setProperties( Collections.singletonMap( "type", "test-jar" ) );
+    }
+}
@@ -0,0 +1,99 @@
+package org.apache.maven.execution;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import org.apache.maven.model.Build;
+import org.apache.maven.project.MavenProject;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.OptionalLong;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+public class DefaultBuildDurationRepositoryTest
+{
+    private final DefaultBuildDurationRepository repository = new DefaultBuildDurationRepository();
+
+    @TempDir
+    Path buildDirectory;
+
+    @Test
+    public void missingFileYieldsEmptyHistory()
+    {
+        BuildDurations durations = repository.loadBuildDurations( rootProject() );
+
+        assertThat( durations.getPreviousDurations().isEmpty(), is( true ) );
+    }
+
+    @Test
+    public void persistedDurationsAreLoadedAsPreviousDurations()
+    {
+        MavenProject rootProject = rootProject();
+        MavenProject moduleA = project( "module-a" );
+        MavenProject moduleB = project( "module-b" );
+
+        BuildDurations first = new BuildDurations();
+        first.recordProject( moduleA, 100 );
+        first.recordProject( moduleB, 200 );
+        repository.persistBuildDurations( rootProject, first );
+
+        BuildDurations second = repository.loadBuildDurations( rootProject );
+        assertThat( second.getPreviousProjectDuration( moduleA ), is( OptionalLong.of( 100 ) ) );
+        assertThat( second.getCurrentProjectDuration( moduleA ), is( OptionalLong.empty() ) );
+
+        // only module-a is built again, module-b keeps its history
+        second.recordProject( moduleA, 150 );
+        repository.persistBuildDurations( rootProject, second );
+
+        BuildDurations third = repository.loadBuildDurations( rootProject );
+        assertThat( third.getPreviousProjectDuration( moduleA ), is( OptionalLong.of( 150 ) ) );
+        assertThat( third.getPreviousProjectDuration( moduleB ), is( OptionalLong.of( 200 ) ) );
+    }
+
+    @Test
+    public void projectsWithoutHistoryHaveNoPreviousDuration()
+    {
+        BuildDurations durations = new BuildDurations( Collections.singletonMap( "example:module-a", 10L ) );
+
+        assertThat( durations.getPreviousProjectDuration( project( "module-a" ) ), is( OptionalLong.of( 10 ) ) );
+        assertThat( durations.getPreviousProjectDuration( project( "module-b" ) ), is( OptionalLong.empty() ) );
+    }
+
+    private MavenProject rootProject()
+    {
+        Build build = new Build();
+        build.setDirectory( buildDirectory.toString() );
+        MavenProject rootProject = project( "root" );
+        rootProject.setBuild( build );
+        return rootProject;
+    }
+
+    private static MavenProject project( String artifactId )
+    {
+        MavenProject project = new MavenProject();
+        project.setGroupId( "example" );
+        project.setArtifactId( artifactId );
+        return project;
+    }
+}
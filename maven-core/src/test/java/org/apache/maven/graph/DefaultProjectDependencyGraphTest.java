@@ -14,7 +14,9 @@
  */
 package org.apache.maven.graph;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 import org.apache.maven.execution.ProjectDependencyGraph;
@@ -25,6 +27,7 @@
 import org.junit.jupiter.api.Test;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 /**
  * @author Kristian Rosenvold
@@ -144,6 +147,40 @@ public void testGetUpstreamProjects()
         assertEquals( aProject, downstreamProjects.get( 0 ) );
     }
 
+    @Test
+    public void testTransitiveUpstreamProjectsOfLongChain()
+        throws CycleDetectedException, DuplicateProjectException
+    {
+        List<MavenProject> projects = new ArrayList<>();
+        projects.add( aProject );
+        for ( int i = 1; i < 2000; i++ )
+        {
+            projects.add( createProject( Arrays.asList( toDependency( projects.get( i - 1 ) ),
+                                                        toDependency( projects.get( i / 2 ) ) ), "chain" + i ) );
+        }
+        Collections.reverse( projects );
+        ProjectDependencyGraph graph = new DefaultProjectDependencyGraph( projects );
+
+        List<MavenProject> sortedProjects = graph.getSortedProjects();
+        MavenProject last = sortedProjects.get( sortedProjects.size() - 1 );
+        assertEquals( sortedProjects.subList( 0, sortedProjects.size() - 1 ),
+                      graph.getUpstreamProjects( last, true ) );
+        assertEquals( sortedProjects.subList( 1, sortedProjects.size() ),
+                      graph.getDownstreamProjects( aProject, true ) );
+        assertEquals( 2, graph.getUpstreamProjects( last, false ).size() );
+    }
+
+    @Test
+    public void testProjectListsAreImmutable()
+        throws CycleDetectedException, DuplicateProjectException
+    {
+        ProjectDependencyGraph graph = threeProjectsDependingOnASingle();
+        assertThrows( UnsupportedOperationException.class,
+                      () -> graph.getDownstreamProjects( aProject, true ).clear() );
+        assertThrows( UnsupportedOperationException.class,
+                      () -> graph.getUpstreamProjects( depender1, false ).clear() );
+    }
+
     private ProjectDependencyGraph threeProjectsDependingOnASingle()
         throws CycleDetectedException, DuplicateProjectException
     {
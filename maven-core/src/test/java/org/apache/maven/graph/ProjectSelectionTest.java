@@ -0,0 +1,119 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.maven.graph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.maven.model.Dependency;
+import org.apache.maven.project.MavenProject;
+import org.junit.jupiter.api.Test;
+
+import static org.apache.maven.graph.DefaultProjectDependencyGraphTest.toDependency;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+public class ProjectSelectionTest
+{
+    private final MavenProject a = createProject( "org.apache", "a" );
+
+    private final MavenProject b = createProject( "org.apache", "b", a );
+
+    private final MavenProject c = createProject( "org.apache", "c", b );
+
+    private final MavenProject d = createProject( "org.apache", "d", a );
+
+    private final MavenProject e = createProject( "org.apache", "e" );
+
+    private final MavenProject f = createProject( "org.apache", "f", e, c );
+
+    @Test
+    public void testSortInBuildOrder()
+        throws Exception
+    {
+        ProjectSelection selection = new ProjectSelection( new DefaultProjectDependencyGraph( Arrays.asList( f, e,
+                                                                                                      d, c, b, a ) ) );
+        MavenProject outsider = createProject( "org.apache", "outsider" );
+
+        assertEquals( Arrays.asList( outsider, a, c, f ), selection.sort( Arrays.asList( f, a, outsider, c, a ) ) );
+    }
+
+    @Test
+    public void testAlsoMake()
+        throws Exception
+    {
+        ProjectSelection selection = new ProjectSelection( new DefaultProjectDependencyGraph( Arrays.asList( a, b, c,
+                                                                                                      d, e, f ) ) );
+        List<MavenProject> selected = Collections.singletonList( c );
+
+        assertEquals( Arrays.asList( a, b, c ), selection.alsoMake( selected, true, false ) );
+        assertEquals( Arrays.asList( c, f ), selection.alsoMake( selected, false, true ) );
+        // the upstream projects of the dependents, like e, are not part of the selection
+        assertEquals( Arrays.asList( a, b, c, f ), selection.alsoMake( selected, true, true ) );
+    }
+
+    @Test
+    public void testAlsoMakeOfLongChain()
+        throws Exception
+    {
+        List<MavenProject> projects = new ArrayList<>();
+        projects.add( createProject( "org.apache", "p0" ) );
+        for ( int i = 1; i < 5000; i++ )
+        {
+            projects.add( createProject( "org.apache", "p" + i, projects.get( i - 1 ) ) );
+        }
+        ProjectSelection selection = new ProjectSelection( new DefaultProjectDependencyGraph( projects ) );
+
+        List<MavenProject> selected = new ArrayList<>();
+        for ( int i = 0; i < projects.size(); i += 10 )
+        {
+            selected.add( projects.get( i ) );
+        }
+
+        assertEquals( projects, selection.alsoMake( selected, true, true ) );
+        assertEquals( projects.subList( 0, 4991 ), selection.alsoMake( selected, true, false ) );
+    }
+
+    @Test
+    public void testIndexFindsFirstMatchingProject()
+    {
+        MavenProject other = createProject( "org.example", "a" );
+        ProjectSelection.Index index = new ProjectSelection.Index( Arrays.asList( other, a, b ) );
+
+        assertSame( other, index.find( ":a", null ) );
+        assertSame( a, index.find( "org.apache:a", null ) );
+        assertSame( b, index.find( ":b", null ) );
+        assertNull( index.find( "org.example:b", null ) );
+        assertNull( index.find( "b", null ) );
+    }
+
+    private static MavenProject createProject( String groupId, String artifactId, MavenProject... dependencies )
+    {
+        MavenProject result = new MavenProject();
+        result.setGroupId( groupId );
+        result.setArtifactId( artifactId );
+        result.setVersion( "1.0" );
+        List<Dependency> list = new ArrayList<>();
+        for ( MavenProject dependency : dependencies )
+        {
+            list.add( toDependency( dependency ) );
+        }
+        result.setDependencies( list );
+        return result;
+    }
+}
@@ -0,0 +1,96 @@
+package org.apache.maven.internal;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class StoreUtilsTest
+{
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testSha256()
+    {
+        assertEquals( "e3b0c44298fc1c149afbf4c8996fb92427ae41e4649b934ca495991b7852b855", StoreUtils.sha256( "" ) );
+        assertEquals( "0001ff", StoreUtils.toHex( new byte[] { 0, 1, -1 } ) );
+    }
+
+    @Test
+    public void testStringsRoundTrip()
+        throws Exception
+    {
+        // longer than writeUTF() allows
+        String longValue = String.join( "", Collections.nCopies( 70000, "é" ) );
+        Path entry = tempDir.resolve( "a" ).resolve( "entry.bin" );
+
+        StoreUtils.writeAtomically( entry, out ->
+        {
+            StoreUtils.writeString( out, null );
+            StoreUtils.writeString( out, "" );
+            StoreUtils.writeString( out, longValue );
+        } );
+
+        try ( DataInputStream in = new DataInputStream( Files.newInputStream( entry ) ) )
+        {
+            assertNull( StoreUtils.readString( in ) );
+            assertEquals( "", StoreUtils.readString( in ) );
+            assertEquals( longValue, StoreUtils.readString( in ) );
+        }
+    }
+
+    @Test
+    public void testFailedWriteKeepsEntry()
+        throws Exception
+    {
+        Path entry = tempDir.resolve( "entry.bin" );
+        StoreUtils.writeAtomically( entry, out -> out.writeInt( 1 ) );
+
+        assertThrows( IOException.class, () -> StoreUtils.writeAtomically( entry, out ->
+        {
+            out.writeInt( 2 );
+            throw new IOException( "failed" );
+        } ) );
+
+        try ( DataInputStream in = new DataInputStream( Files.newInputStream( entry ) ) )
+        {
+            assertEquals( 1, in.readInt() );
+        }
+        try ( Stream<Path> files = Files.list( tempDir ) )
+        {
+            assertFalse( files.anyMatch( file -> file.toString().endsWith( ".tmp" ) ) );
+        }
+        assertTrue( Files.exists( entry ) );
+    }
+}
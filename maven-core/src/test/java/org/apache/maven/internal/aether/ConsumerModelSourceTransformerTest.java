@@ -23,7 +23,9 @@
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.Properties;
 
+import org.apache.maven.feature.Features;
 import org.apache.maven.model.Model;
 import org.apache.maven.model.building.TransformerContext;
 import org.junit.jupiter.api.Test;
@@ -46,6 +48,28 @@ public void transform() throws Exception
         }
     }
 
+    @Test
+    public void transformInThread() throws Exception
+    {
+        Path beforePomFile = Paths.get( "src/test/resources/projects/transform/before.pom").toAbsolutePath();
+        Path afterPomFile = Paths.get( "src/test/resources/projects/transform/after.pom").toAbsolutePath();
+
+        TransformerContext context = new NoTransformerContext()
+        {
+            @Override
+            public String getUserProperty( String key )
+            {
+                return Features.transformThread( new Properties() ).propertyName().equals( key ) ? "true" : null;
+            }
+        };
+
+        try( InputStream expected = Files.newInputStream( afterPomFile );
+             InputStream result = transformer.transform( beforePomFile, context ) )
+        {
+            XmlAssert.assertThat( result ).and( expected ).areIdentical();
+        }
+    }
+
     private static class NoTransformerContext implements TransformerContext
     {
         @Override
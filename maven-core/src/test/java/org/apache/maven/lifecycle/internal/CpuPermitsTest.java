@@ -0,0 +1,138 @@
+package org.apache.maven.lifecycle.internal;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CpuPermitsTest
+{
+    private static final long TIMEOUT_SECONDS = 10;
+
+    private static final long NOT_STARTED_MILLIS = 200;
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    @AfterEach
+    public void tearDown()
+    {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testTaskHoldsPermit()
+        throws Exception
+    {
+        Semaphore permits = new Semaphore( 2 );
+
+        assertEquals( 1, CpuPermits.run( permits, permits::availablePermits ).intValue() );
+        assertEquals( 2, permits.availablePermits() );
+    }
+
+    @Test
+    public void testPermitReleasedOnFailure()
+    {
+        Semaphore permits = new Semaphore( 1 );
+
+        assertThrows( IOException.class, () -> CpuPermits.run( permits, () ->
+        {
+            throw new IOException( "failed" );
+        } ) );
+        assertEquals( 1, permits.availablePermits() );
+    }
+
+    @Test
+    public void testTasksLimitedByPermits()
+        throws Exception
+    {
+        Semaphore permits = new Semaphore( 1 );
+        CountDownLatch firstStarted = new CountDownLatch( 1 );
+        CountDownLatch firstDone = new CountDownLatch( 1 );
+        CountDownLatch secondStarted = new CountDownLatch( 1 );
+
+        Future<?> first = executor.submit( () -> CpuPermits.run( permits, () ->
+        {
+            firstStarted.countDown();
+            return firstDone.await( TIMEOUT_SECONDS, TimeUnit.SECONDS );
+        } ) );
+        assertTrue( firstStarted.await( TIMEOUT_SECONDS, TimeUnit.SECONDS ) );
+        Future<?> second = executor.submit( () -> CpuPermits.run( permits, () ->
+        {
+            secondStarted.countDown();
+            return null;
+        } ) );
+
+        assertFalse( secondStarted.await( NOT_STARTED_MILLIS, TimeUnit.MILLISECONDS ) );
+        firstDone.countDown();
+        assertTrue( secondStarted.await( TIMEOUT_SECONDS, TimeUnit.SECONDS ) );
+        first.get( TIMEOUT_SECONDS, TimeUnit.SECONDS );
+        second.get( TIMEOUT_SECONDS, TimeUnit.SECONDS );
+        assertEquals( 1, permits.availablePermits() );
+    }
+
+    @Test
+    public void testBlockingReleasesAndReacquiresPermit()
+        throws Exception
+    {
+        Semaphore permits = new Semaphore( 1 );
+        int[] availableWhileBlocking = new int[1];
+        boolean[] otherTaskRan = new boolean[1];
+
+        int availableAfterBlocking = CpuPermits.run( permits, () ->
+        {
+            CpuPermits.blocking( () ->
+            {
+                availableWhileBlocking[0] = permits.availablePermits();
+                // another build gets the only permit while this one waits
+                otherTaskRan[0] = executor.submit( () -> CpuPermits.run( permits, () -> true ) )
+                    .get( TIMEOUT_SECONDS, TimeUnit.SECONDS );
+            } );
+            return permits.availablePermits();
+        } );
+
+        assertEquals( 1, availableWhileBlocking[0] );
+        assertTrue( otherTaskRan[0] );
+        assertEquals( 0, availableAfterBlocking );
+        assertEquals( 1, permits.availablePermits() );
+    }
+
+    @Test
+    public void testBlockingWithoutPermit()
+    {
+        boolean[] ran = new boolean[1];
+
+        CpuPermits.blocking( () -> ran[0] = true );
+
+        assertTrue( ran[0] );
+    }
+}
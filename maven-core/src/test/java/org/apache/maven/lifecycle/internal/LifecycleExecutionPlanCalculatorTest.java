@@ -15,6 +15,9 @@
  * the License.
  */
 
+import java.util.Arrays;
+import java.util.Collections;
+
 import org.apache.maven.AbstractCoreMavenComponentTestCase;
 import org.apache.maven.execution.MavenSession;
 import org.apache.maven.lifecycle.MavenExecutionPlan;
@@ -23,9 +26,14 @@
 import org.apache.maven.lifecycle.internal.stub.PluginPrefixResolverStub;
 import org.apache.maven.lifecycle.internal.stub.PluginVersionResolverStub;
 import org.apache.maven.lifecycle.internal.stub.ProjectDependencyGraphStub;
+import org.apache.maven.plugin.MojoExecution;
+import org.apache.maven.plugin.descriptor.MojoDescriptor;
+import org.apache.maven.plugin.descriptor.PluginDescriptor;
 import org.junit.jupiter.api.Test;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 /**
  * @author Kristian Rosenvold
@@ -60,6 +68,61 @@ public void testCalculateExecutionPlanWithGoalTasks()
         assertEquals( 3, executionPlan2.size() );
     }
 
+    @Test
+    public void testMarkParallelSafeExecutions()
+    {
+        DefaultLifecycleExecutionPlanCalculator lifecycleExecutionPlanCalculator =
+            (DefaultLifecycleExecutionPlanCalculator) createExecutionPlaceCalculator( createMojoDescriptorCreator() );
+        MavenSession session = ProjectDependencyGraphStub.getMavenSession( ProjectDependencyGraphStub.A );
+        session.getUserProperties().setProperty( DefaultLifecycleExecutionPlanCalculator.PARALLEL_EXECUTIONS_PROPERTY,
+                                                 "maven-checkstyle-plugin:check, "
+                                                     + "org.apache.rat:apache-rat-plugin:check@rat,"
+                                                     + "maven-enforcer-plugin:enforce,maven-antrun-plugin:run,"
+                                                     + "maven-assembly-plugin:single,maven-pmd-plugin:check" );
+
+        MojoExecution checkstyle = createMojoExecution( "maven-checkstyle-plugin", "check", "default" );
+        MojoExecution rat = createMojoExecution( "apache-rat-plugin", "check", "rat" );
+        rat.getMojoDescriptor().getPluginDescriptor().setGroupId( "org.apache.rat" );
+        MojoExecution otherRat = createMojoExecution( "apache-rat-plugin", "check", "other" );
+        otherRat.getMojoDescriptor().getPluginDescriptor().setGroupId( "org.apache.rat" );
+        MojoExecution undeclared = createMojoExecution( "maven-jar-plugin", "jar", "default" );
+        MojoExecution notThreadSafe = createMojoExecution( "maven-enforcer-plugin", "enforce", "default" );
+        notThreadSafe.getMojoDescriptor().setThreadSafe( false );
+        MojoExecution forking = createMojoExecution( "maven-antrun-plugin", "run", "default" );
+        forking.setForkedExecutions( "org.apache:A:1.0", Collections.singletonList( checkstyle ) );
+        MojoExecution aggregator = createMojoExecution( "maven-assembly-plugin", "single", "default" );
+        aggregator.getMojoDescriptor().setAggregator( true );
+        MojoExecution unbound = createMojoExecution( "maven-pmd-plugin", "check", "default" );
+        unbound.setLifecyclePhase( null );
+
+        lifecycleExecutionPlanCalculator.markParallelSafeExecutions(
+            session, Arrays.asList( checkstyle, rat, otherRat, undeclared, notThreadSafe, forking, aggregator,
+                                    unbound ) );
+
+        assertTrue( checkstyle.isParallelSafe() );
+        assertTrue( rat.isParallelSafe() );
+        assertFalse( otherRat.isParallelSafe() );
+        assertFalse( undeclared.isParallelSafe() );
+        assertFalse( notThreadSafe.isParallelSafe() );
+        assertFalse( forking.isParallelSafe() );
+        assertFalse( aggregator.isParallelSafe() );
+        assertFalse( unbound.isParallelSafe() );
+    }
+
+    private static MojoExecution createMojoExecution( String artifactId, String goal, String executionId )
+    {
+        PluginDescriptor pluginDescriptor = new PluginDescriptor();
+        pluginDescriptor.setGroupId( "org.apache.maven.plugins" );
+        pluginDescriptor.setArtifactId( artifactId );
+        MojoDescriptor mojoDescriptor = new MojoDescriptor();
+        mojoDescriptor.setGoal( goal );
+        mojoDescriptor.setThreadSafe( true );
+        mojoDescriptor.setPluginDescriptor( pluginDescriptor );
+        MojoExecution mojoExecution = new MojoExecution( mojoDescriptor, executionId );
+        mojoExecution.setLifecyclePhase( "verify" );
+        return mojoExecution;
+    }
+
     // Maybe also make one with LifeCycleTasks
 
     public static LifecycleExecutionPlanCalculator createExecutionPlaceCalculator( MojoDescriptorCreator mojoDescriptorCreator )
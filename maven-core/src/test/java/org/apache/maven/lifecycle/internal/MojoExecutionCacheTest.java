@@ -0,0 +1,181 @@
+package org.apache.maven.lifecycle.internal;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.maven.plugin.MojoExecution;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Properties;
+
+import org.apache.maven.artifact.DefaultArtifact;
+import org.apache.maven.artifact.handler.DefaultArtifactHandler;
+import org.apache.maven.execution.MavenSession;
+import org.apache.maven.plugin.MojoExecution;
+import org.apache.maven.plugin.descriptor.MojoDescriptor;
+import org.apache.maven.plugin.descriptor.PluginDescriptor;
+import org.apache.maven.project.MavenProject;
+import org.apache.maven.project.MavenProjectHelper;
+import org.eclipse.aether.DefaultRepositorySystemSession;
+import org.eclipse.aether.RepositorySystemSession;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class MojoExecutionCacheTest
+{
+    @TempDir
+    Path tempDir;
+
+    private final MavenProjectHelper projectHelper = mock( MavenProjectHelper.class );
+
+    private final MojoExecutionCache cache = new MojoExecutionCache( projectHelper );
+
+    private final Properties userProperties = new Properties();
+
+    private final RepositorySystemSession repositorySession = new DefaultRepositorySystemSession();
+
+    @Test
+    public void testRestoresOutputsOfUnchangedExecution()
+        throws Exception
+    {
+        userProperties.setProperty( MojoExecutionCache.EXECUTIONS_PROPERTY, "generator-plugin:generate" );
+        userProperties.setProperty( MojoExecutionCache.DIRECTORY_PROPERTY, tempDir.resolve( "cache" ).toString() );
+        Path basedir = tempDir.resolve( "project" );
+        Files.createDirectories( basedir.resolve( "src" ) );
+        Files.write( basedir.resolve( "pom.xml" ), "<project/>".getBytes( StandardCharsets.UTF_8 ) );
+        Files.write( basedir.resolve( "src/schema.xsd" ), "v1".getBytes( StandardCharsets.UTF_8 ) );
+        Path output = basedir.resolve( "target/generated/Schema.java" );
+
+        MavenProject project = newProject( basedir );
+        MojoExecutionCache.Record record = cache.begin( newSession( project ), newMojoExecution() );
+        assertNotNull( record );
+        assertFalse( record.restore() );
+
+        // what the mojo does
+        Files.createDirectories( output.getParent() );
+        Files.write( output, "class Schema {}".getBytes( StandardCharsets.UTF_8 ) );
+        project.addCompileSourceRoot( output.getParent().toString() );
+        DefaultArtifact sources = new DefaultArtifact( "test", "project", "1.0", null, "jar", "schema",
+                                                       new DefaultArtifactHandler( "jar" ) );
+        sources.setFile( output.toFile() );
+        project.addAttachedArtifact( sources );
+        project.getProperties().setProperty( "schema.version", "1" );
+        record.store();
+
+        deleteTree( basedir.resolve( "target" ) );
+        project = newProject( basedir );
+        assertTrue( cache.begin( newSession( project ), newMojoExecution() ).restore() );
+        assertEquals( "class Schema {}", new String( Files.readAllBytes( output ), StandardCharsets.UTF_8 ) );
+        assertTrue( project.getCompileSourceRoots().contains( output.getParent().toString() ) );
+        assertEquals( "1", project.getProperties().getProperty( "schema.version" ) );
+        verify( projectHelper ).attachArtifact( project, "jar", "schema", output.toFile() );
+
+        deleteTree( basedir.resolve( "target" ) );
+        Files.write( basedir.resolve( "src/schema.xsd" ), "v2".getBytes( StandardCharsets.UTF_8 ) );
+        assertFalse( cache.begin( newSession( newProject( basedir ) ), newMojoExecution() ).restore() );
+    }
+
+    @Test
+    public void testSameSizeRewriteWithinBuildIsNoticed()
+        throws Exception
+    {
+        userProperties.setProperty( MojoExecutionCache.EXECUTIONS_PROPERTY, "generator-plugin:generate" );
+        userProperties.setProperty( MojoExecutionCache.DIRECTORY_PROPERTY, tempDir.resolve( "cache" ).toString() );
+        Path basedir = tempDir.resolve( "project" );
+        Files.createDirectories( basedir.resolve( "src" ) );
+        Files.write( basedir.resolve( "pom.xml" ), "<project/>".getBytes( StandardCharsets.UTF_8 ) );
+        Path schema = basedir.resolve( "src/schema.xsd" );
+        Files.write( schema, "v1".getBytes( StandardCharsets.UTF_8 ) );
+        FileTime modified = Files.getLastModifiedTime( schema );
+
+        MavenProject project = newProject( basedir );
+        MojoExecutionCache.Record record = cache.begin( newSession( project ), newMojoExecution() );
+        Files.createDirectories( basedir.resolve( "target" ) );
+        Files.write( basedir.resolve( "target/Schema.java" ), "class Schema {}".getBytes( StandardCharsets.UTF_8 ) );
+        record.store();
+        deleteTree( basedir.resolve( "target" ) );
+
+        // an earlier mojo of the same build rewrites the file within the granularity of the file system
+        Files.write( schema, "v2".getBytes( StandardCharsets.UTF_8 ) );
+        Files.setLastModifiedTime( schema, modified );
+        assertFalse( cache.begin( newSession( newProject( basedir ) ), newMojoExecution() ).restore() );
+    }
+
+    @Test
+    public void testOnlyDeclaredExecutionsAreCached()
+    {
+        MavenProject project = newProject( tempDir );
+        assertNull( cache.begin( newSession( project ), newMojoExecution() ) );
+
+        userProperties.setProperty( MojoExecutionCache.EXECUTIONS_PROPERTY, "generator-plugin:generate@other" );
+        assertNull( cache.begin( newSession( project ), newMojoExecution() ) );
+    }
+
+    private MavenSession newSession( MavenProject project )
+    {
+        MavenSession session = mock( MavenSession.class );
+        when( session.getCurrentProject() ).thenReturn( project );
+        when( session.getUserProperties() ).thenReturn( userProperties );
+        when( session.getRepositorySession() ).thenReturn( repositorySession );
+        return session;
+    }
+
+    private static MavenProject newProject( Path basedir )
+    {
+        MavenProject project = new MavenProject();
+        project.setGroupId( "test" );
+        project.setArtifactId( "project" );
+        project.setVersion( "1.0" );
+        project.setFile( basedir.resolve( "pom.xml" ).toFile() );
+        project.getBuild().setDirectory( basedir.resolve( "target" ).toString() );
+        project.setArtifact( new DefaultArtifact( "test", "project", "1.0", null, "jar", null,
+                                                  new DefaultArtifactHandler( "jar" ) ) );
+        return project;
+    }
+
+    private static MojoExecution newMojoExecution()
+    {
+        PluginDescriptor pluginDescriptor = new PluginDescriptor();
+        pluginDescriptor.setGroupId( "test" );
+        pluginDescriptor.setArtifactId( "generator-plugin" );
+        pluginDescriptor.setVersion( "1.0" );
+        MojoDescriptor mojoDescriptor = new MojoDescriptor();
+        mojoDescriptor.setGoal( "generate" );
+        mojoDescriptor.setPluginDescriptor( pluginDescriptor );
+        return new MojoExecution( mojoDescriptor, "default" );
+    }
+
+    private static void deleteTree( Path directory )
+        throws Exception
+    {
+        Files.walk( directory ).map( Path::toFile ).sorted( ( a, b ) -> b.compareTo( a ) ).forEach( File::delete );
+    }
+}
@@ -0,0 +1,275 @@
+package org.apache.maven.lifecycle.internal;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.google.inject.Key;
+import org.apache.maven.execution.MavenSession;
+import org.apache.maven.lifecycle.LifecycleExecutionException;
+import org.apache.maven.lifecycle.internal.stub.ProjectDependencyGraphStub;
+import org.apache.maven.plugin.BuildPluginManager;
+import org.apache.maven.plugin.MavenPluginManager;
+import org.apache.maven.plugin.MojoExecution;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.descriptor.MojoDescriptor;
+import org.apache.maven.plugin.descriptor.PluginDescriptor;
+import org.apache.maven.project.MavenProject;
+import org.apache.maven.session.scope.internal.SessionScope;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+public class MojoExecutorTest
+{
+    private static final long TIMEOUT_SECONDS = 10;
+
+    private final BuildPluginManager pluginManager = mock( BuildPluginManager.class );
+
+    private final SessionScope sessionScope = new SessionScope();
+
+    private final MojoExecutor mojoExecutor =
+        new MojoExecutor( pluginManager, mock( MavenPluginManager.class ), mock( LifecycleDependencyResolver.class ),
+                          mock( ExecutionEventCatapult.class ), sessionScope, mock( MojoExecutionCache.class ) );
+
+    private final MavenSession session = ProjectDependencyGraphStub.getMavenSession( new MavenProject() );
+
+    @BeforeEach
+    public void setUp()
+    {
+        session.getRequest().setDegreeOfConcurrency( 2 );
+    }
+
+    @AfterEach
+    public void tearDown()
+    {
+        mojoExecutor.shutdown( session );
+    }
+
+    @Test
+    public void testParallelGroupEnd()
+    {
+        List<MojoExecution> executions = Arrays.asList( execution( "generate-sources", true, null ),
+                                                        execution( "generate-sources", true, null ),
+                                                        execution( "generate-sources", true, null ),
+                                                        execution( "compile", false, "compile" ),
+                                                        execution( "verify", true, "runtime" ),
+                                                        execution( "verify", true, "test" ),
+                                                        execution( "verify", true, "test" ) );
+
+        assertEquals( 3, MojoExecutor.getParallelGroupEnd( executions, 0 ) );
+        assertEquals( 3, MojoExecutor.getParallelGroupEnd( executions, 1 ) );
+        assertEquals( 4, MojoExecutor.getParallelGroupEnd( executions, 3 ) );
+        // different dependency requirements would race on the artifact filter of the project
+        assertEquals( 5, MojoExecutor.getParallelGroupEnd( executions, 4 ) );
+        assertEquals( 7, MojoExecutor.getParallelGroupEnd( executions, 5 ) );
+    }
+
+    @Test
+    public void testConcurrentExecutionsRunInSessionScope()
+        throws Exception
+    {
+        List<MojoExecution> executions = Arrays.asList( execution( "generate-sources", true, null ),
+                                                        execution( "generate-sources", true, null ),
+                                                        execution( "generate-sources", true, null ) );
+        AtomicInteger inScope = new AtomicInteger();
+        doAnswer( invocation ->
+        {
+            if ( sessionScope.scope( Key.get( MavenSession.class ), null ).get() == session )
+            {
+                inScope.incrementAndGet();
+            }
+            return null;
+        } ).when( pluginManager ).executeMojo( any(), any() );
+
+        execute( executions );
+
+        assertEquals( 3, inScope.get() );
+        assertTrue( session.getCurrentProject().hasLifecyclePhase( "generate-sources" ) );
+    }
+
+    @Test
+    public void testConcurrentExecutionsShareThreadsOfBuild()
+        throws Exception
+    {
+        List<MojoExecution> executions = Arrays.asList( execution( "generate-sources", true, null ),
+                                                        execution( "generate-sources", true, null ),
+                                                        execution( "generate-sources", true, null ),
+                                                        execution( "generate-sources", true, null ) );
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        Set<Thread> threads = ConcurrentHashMap.newKeySet();
+        doAnswer( invocation ->
+        {
+            threads.add( Thread.currentThread() );
+            maxRunning.accumulateAndGet( running.incrementAndGet(), Math::max );
+            Thread.sleep( 50 );
+            running.decrementAndGet();
+            return null;
+        } ).when( pluginManager ).executeMojo( any(), any() );
+
+        execute( executions );
+        execute( executions );
+
+        // the thread count of the build limits the concurrent executions, whose threads are reused
+        assertTrue( maxRunning.get() <= 2, "at most 2 concurrent executions, was " + maxRunning.get() );
+        assertTrue( threads.size() <= 2, "at most 2 threads, was " + threads.size() );
+
+        // the pool is gone once the build ended
+        mojoExecutor.shutdown( session );
+        threads.forEach( thread -> assertTrue( waitForEnd( thread ), thread.getName() ) );
+    }
+
+    @Test
+    public void testSequentialWithThreadCountOfOne()
+        throws Exception
+    {
+        session.getRequest().setDegreeOfConcurrency( 1 );
+        Thread caller = Thread.currentThread();
+        Set<Thread> threads = ConcurrentHashMap.newKeySet();
+        AtomicInteger executed = new AtomicInteger();
+        doAnswer( invocation ->
+        {
+            threads.add( Thread.currentThread() );
+            executed.incrementAndGet();
+            throw new MojoExecutionException( "failed" );
+        } ).when( pluginManager ).executeMojo( any(), any() );
+
+        assertThrows( LifecycleExecutionException.class, () -> execute(
+            Arrays.asList( execution( "generate-sources", true, null ), execution( "generate-sources", true, null ) ) ) );
+
+        // the first failure stops the build like for any other executions
+        assertEquals( 1, executed.get() );
+        assertEquals( Collections.singleton( caller ), threads );
+    }
+
+    @Test
+    public void testFirstFailureInPlanOrderIsRethrown()
+        throws Exception
+    {
+        MojoExecution first = execution( "generate-sources", true, null );
+        MojoExecution second = execution( "generate-sources", true, null );
+        MojoExecution third = execution( "generate-sources", true, null );
+        CountDownLatch thirdFailed = new CountDownLatch( 1 );
+        AtomicInteger executed = new AtomicInteger();
+        doAnswer( invocation ->
+        {
+            executed.incrementAndGet();
+            MojoExecution mojoExecution = invocation.getArgument( 1 );
+            if ( mojoExecution == first )
+            {
+                // fails after the third execution if the pool runs them concurrently
+                thirdFailed.await( 1, TimeUnit.SECONDS );
+                throw new MojoExecutionException( "first" );
+            }
+            if ( mojoExecution == third )
+            {
+                thirdFailed.countDown();
+                throw new MojoExecutionException( "third" );
+            }
+            return null;
+        } ).when( pluginManager ).executeMojo( any(), any() );
+
+        LifecycleExecutionException e =
+            assertThrows( LifecycleExecutionException.class, () -> execute( Arrays.asList( first, second, third ) ) );
+
+        assertEquals( "first", e.getCause().getMessage() );
+        // the failure is only reported once the whole group has completed
+        assertEquals( 3, executed.get() );
+        assertFalse( session.getCurrentProject().hasLifecyclePhase( "generate-sources" ) );
+    }
+
+    @Test
+    public void testRuntimeFailurePropagatesUnwrapped()
+        throws Exception
+    {
+        MojoExecution failing = execution( "generate-sources", true, null );
+        IllegalStateException failure = new IllegalStateException( "failed" );
+        doAnswer( invocation ->
+        {
+            if ( invocation.getArgument( 1 ) == failing )
+            {
+                throw failure;
+            }
+            return null;
+        } ).when( pluginManager ).executeMojo( any(), any() );
+
+        IllegalStateException e = assertThrows( IllegalStateException.class, () -> execute(
+            Arrays.asList( execution( "generate-sources", true, null ), failing ) ) );
+
+        assertSame( failure, e );
+        assertTrue( session.getCurrentProject().hasLifecyclePhase( "generate-sources" ) );
+    }
+
+    private static boolean waitForEnd( Thread thread )
+    {
+        try
+        {
+            thread.join( TimeUnit.SECONDS.toMillis( TIMEOUT_SECONDS ) );
+        }
+        catch ( InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+        }
+        return !thread.isAlive();
+    }
+
+    private void execute( List<MojoExecution> executions )
+        throws LifecycleExecutionException
+    {
+        sessionScope.enter();
+        try
+        {
+            sessionScope.seed( MavenSession.class, session );
+            mojoExecutor.execute( session, executions, new ProjectIndex( session.getProjects() ) );
+        }
+        finally
+        {
+            sessionScope.exit();
+        }
+    }
+
+    private static MojoExecution execution( String phase, boolean parallelSafe, String dependencyResolution )
+    {
+        PluginDescriptor pluginDescriptor = new PluginDescriptor();
+        pluginDescriptor.setGroupId( "org.apache.maven.plugins" );
+        pluginDescriptor.setArtifactId( "maven-test-plugin" );
+        MojoDescriptor mojoDescriptor = new MojoDescriptor();
+        mojoDescriptor.setGoal( "test" );
+        mojoDescriptor.setPluginDescriptor( pluginDescriptor );
+        mojoDescriptor.setDependencyResolutionRequired( dependencyResolution );
+        MojoExecution mojoExecution = new MojoExecution( mojoDescriptor );
+        mojoExecution.setLifecyclePhase( phase );
+        mojoExecution.setParallelSafe( parallelSafe );
+        return mojoExecution;
+    }
+}
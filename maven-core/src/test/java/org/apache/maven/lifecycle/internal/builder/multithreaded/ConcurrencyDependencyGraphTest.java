@@ -14,16 +14,32 @@
  * the License.
  */
 
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
+import org.apache.maven.execution.MavenSession;
 import org.apache.maven.execution.ProjectDependencyGraph;
 import org.apache.maven.lifecycle.internal.ProjectBuildList;
+import org.apache.maven.lifecycle.internal.ProjectSegment;
+import org.apache.maven.lifecycle.internal.TaskSegment;
 import org.apache.maven.lifecycle.internal.stub.ProjectDependencyGraphStub;
 import org.apache.maven.project.MavenProject;
 import org.junit.jupiter.api.Test;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class ConcurrencyDependencyGraphTest {
 
@@ -83,4 +99,154 @@ public void testGraph() throws Exception {
         // waiting for C
         assertEquals( 1, activeDependenciesX.size() );
     }
+
+    @Test
+    public void testCriticalPathWeights() throws Exception {
+
+        ProjectBuildList projectBuildList = ProjectDependencyGraphStub.getProjectBuildList(
+                ProjectDependencyGraphStub.getMavenSession() );
+
+        ConcurrencyDependencyGraph graph =
+                new ConcurrencyDependencyGraph( projectBuildList, new ProjectDependencyGraphStub() );
+
+        Map<MavenProject, Long> weights = graph.getCriticalPathWeights( project -> 1L );
+        assertEquals( 6, weights.size() );
+        // A -> B/C -> X/Y/Z
+        assertEquals( 3L, weights.get( ProjectDependencyGraphStub.A ) );
+        assertEquals( 2L, weights.get( ProjectDependencyGraphStub.B ) );
+        assertEquals( 2L, weights.get( ProjectDependencyGraphStub.C ) );
+        assertEquals( 1L, weights.get( ProjectDependencyGraphStub.X ) );
+
+        // a heavy leaf pulls its upstream chain forward
+        weights = graph.getCriticalPathWeights( project -> project == ProjectDependencyGraphStub.Z ? 10L : 1L );
+        assertEquals( 12L, weights.get( ProjectDependencyGraphStub.A ) );
+        assertEquals( 2L, weights.get( ProjectDependencyGraphStub.B ) );
+        assertEquals( 11L, weights.get( ProjectDependencyGraphStub.C ) );
+    }
+
+    @Test
+    public void testLargeGraph() {
+
+        SyntheticGraph projectDependencyGraph = new SyntheticGraph( 5000 );
+        ProjectBuildList projectBuildList = projectDependencyGraph.getProjectBuildList();
+
+        assertTimeoutPreemptively( Duration.ofSeconds( 10 ), () -> {
+            ConcurrencyDependencyGraph graph =
+                    new ConcurrencyDependencyGraph( projectBuildList, projectDependencyGraph );
+
+            Set<MavenProject> scheduled = new HashSet<>();
+            Deque<MavenProject> ready = new ArrayDeque<>( graph.getRootSchedulableBuilds() );
+            while ( !ready.isEmpty() ) {
+                MavenProject project = ready.poll();
+                assertTrue( scheduled.add( project ), "scheduled twice: " + project );
+                assertEquals( 0, graph.getActiveDependencies( project ).size() );
+                ready.addAll( graph.markAsFinished( project ) );
+            }
+
+            assertEquals( 5000, scheduled.size() );
+            assertEquals( 0, graph.getUnfinishedProjects().size() );
+        } );
+    }
+
+    @Test
+    public void testLargeGraphFinishedConcurrently() throws Exception {
+
+        SyntheticGraph projectDependencyGraph = new SyntheticGraph( 5000 );
+        ConcurrencyDependencyGraph graph =
+                new ConcurrencyDependencyGraph( projectDependencyGraph.getProjectBuildList(), projectDependencyGraph );
+
+        Set<MavenProject> scheduled = Collections.synchronizedSet( new HashSet<>() );
+        CountDownLatch remaining = new CountDownLatch( 5000 );
+        ExecutorService executor = Executors.newFixedThreadPool( 8 );
+        try {
+            for ( MavenProject project : graph.getRootSchedulableBuilds() ) {
+                finish( executor, graph, project, scheduled, remaining );
+            }
+            assertTrue( remaining.await( 10, TimeUnit.SECONDS ) );
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals( 5000, scheduled.size() );
+        assertEquals( 0, graph.getUnfinishedProjects().size() );
+    }
+
+    private static void finish( ExecutorService executor, ConcurrencyDependencyGraph graph, MavenProject project,
+                                Set<MavenProject> scheduled, CountDownLatch remaining ) {
+        executor.execute( () -> {
+            if ( scheduled.add( project ) ) {
+                for ( MavenProject dependent : graph.markAsFinished( project ) ) {
+                    finish( executor, graph, dependent, scheduled, remaining );
+                }
+                remaining.countDown();
+            }
+        } );
+    }
+
+    /**
+     * A reactor of synthetic projects in which every project depends on up to three earlier projects.
+     * Transitive queries are not needed by the graph under test and return the direct neighbours only.
+     */
+    static class SyntheticGraph implements ProjectDependencyGraph {
+
+        private final List<MavenProject> projects = new ArrayList<>();
+
+        private final List<List<MavenProject>> upstream = new ArrayList<>();
+
+        private final List<List<MavenProject>> downstream = new ArrayList<>();
+
+        SyntheticGraph( int size ) {
+            for ( int i = 0; i < size; i++ ) {
+                MavenProject project = new MavenProject();
+                project.setGroupId( "synthetic" );
+                project.setArtifactId( "project-" + i );
+                projects.add( project );
+                upstream.add( new ArrayList<>() );
+                downstream.add( new ArrayList<>() );
+            }
+            for ( int i = 1; i < size; i++ ) {
+                Set<Integer> dependencies = new HashSet<>();
+                dependencies.add( i - 1 );
+                dependencies.add( i / 2 );
+                if ( i >= 7 ) {
+                    dependencies.add( i - 7 );
+                }
+                for ( int dependency : dependencies ) {
+                    upstream.get( i ).add( projects.get( dependency ) );
+                    downstream.get( dependency ).add( projects.get( i ) );
+                }
+            }
+        }
+
+        ProjectBuildList getProjectBuildList() {
+            MavenSession session = ProjectDependencyGraphStub.getMavenSession();
+            session.setProjectDependencyGraph( this );
+            TaskSegment taskSegment = new TaskSegment( false );
+            List<ProjectSegment> segments = new ArrayList<>();
+            for ( MavenProject project : projects ) {
+                segments.add( new ProjectSegment( project, taskSegment, session.clone() ) );
+            }
+            return new ProjectBuildList( segments );
+        }
+
+        public List<MavenProject> getAllProjects() {
+            return projects;
+        }
+
+        public List<MavenProject> getSortedProjects() {
+            return projects;
+        }
+
+        public List<MavenProject> getDownstreamProjects( MavenProject project, boolean transitive ) {
+            return new ArrayList<>( downstream.get( index( project ) ) );
+        }
+
+        public List<MavenProject> getUpstreamProjects( MavenProject project, boolean transitive ) {
+            return new ArrayList<>( upstream.get( index( project ) ) );
+        }
+
+        private int index( MavenProject project ) {
+            return Integer.parseInt( project.getArtifactId().substring( "project-".length() ) );
+        }
+    }
 }
@@ -0,0 +1,207 @@
+package org.apache.maven.lifecycle.internal.builder.multithreaded;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.maven.execution.MavenSession;
+import org.apache.maven.execution.MojoExecutionEvent;
+import org.apache.maven.execution.ProjectExecutionEvent;
+import org.apache.maven.lifecycle.internal.GoalTask;
+import org.apache.maven.lifecycle.internal.LifecycleModuleBuilder;
+import org.apache.maven.lifecycle.internal.ProjectBuildList;
+import org.apache.maven.lifecycle.internal.ProjectIndex;
+import org.apache.maven.lifecycle.internal.ProjectSegment;
+import org.apache.maven.lifecycle.internal.ReactorBuildStatus;
+import org.apache.maven.lifecycle.internal.ReactorContext;
+import org.apache.maven.lifecycle.internal.TaskSegment;
+import org.apache.maven.lifecycle.internal.stub.DefaultLifecyclesStub;
+import org.apache.maven.lifecycle.internal.stub.ProjectDependencyGraphStub;
+import org.apache.maven.model.Plugin;
+import org.apache.maven.plugin.MojoExecution;
+import org.apache.maven.project.MavenProject;
+import org.junit.jupiter.api.Test;
+
+import static org.apache.maven.lifecycle.internal.stub.ProjectDependencyGraphStub.A;
+import static org.apache.maven.lifecycle.internal.stub.ProjectDependencyGraphStub.B;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeFalse;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+public class MultiThreadedBuilderTest
+{
+    private static final long TIMEOUT_SECONDS = 10;
+
+    private final MavenSession session = ProjectDependencyGraphStub.getMavenSession();
+
+    private final PhaseReleaseListener listener =
+        new PhaseReleaseListener( DefaultLifecyclesStub.createDefaultLifecycles() );
+
+    private final LifecycleModuleBuilder lifecycleModuleBuilder = mock( LifecycleModuleBuilder.class );
+
+    private final Map<MavenProject, AtomicInteger> builds = new ConcurrentHashMap<>();
+
+    @Test
+    public void testDownstreamStartsAtReleasePhase()
+        throws Exception
+    {
+        session.getRequest().setDegreeOfConcurrency( 2 );
+        session.getUserProperties().setProperty( MultiThreadedBuilder.RELEASE_PHASE_PROPERTY, "compile" );
+        MojoExecution compile = createExecution( "compile", "compile" );
+        MojoExecution test = createExecution( "test", "test" );
+        CountDownLatch downstreamStarted = new CountDownLatch( 1 );
+        boolean[] startedWhileUpstreamRunning = new boolean[1];
+        doAnswer( invocation ->
+        {
+            MavenProject project = invocation.getArgument( 3 );
+            builds.computeIfAbsent( project, p -> new AtomicInteger() ).incrementAndGet();
+            if ( project == A )
+            {
+                listener.beforeProjectLifecycleExecution(
+                    new ProjectExecutionEvent( session, A, Arrays.asList( compile, test ) ) );
+                listener.beforeMojoExecution( new MojoExecutionEvent( session, A, compile, null ) );
+                // releases B, which depends on A, while A is still testing
+                listener.beforeMojoExecution( new MojoExecutionEvent( session, A, test, null ) );
+                startedWhileUpstreamRunning[0] = downstreamStarted.await( TIMEOUT_SECONDS, TimeUnit.SECONDS );
+            }
+            else if ( project == B )
+            {
+                downstreamStarted.countDown();
+            }
+            return null;
+        } ).when( lifecycleModuleBuilder ).buildProject( any(), any(), any(), any(), any() );
+
+        TaskSegment taskSegment = new TaskSegment( false, new GoalTask( "install" ) );
+        build( Collections.singletonList( taskSegment ) );
+
+        assertTrue( startedWhileUpstreamRunning[0] );
+        // the release is no build completion, every project is built once and the builder waits for all of them
+        assertEquals( session.getProjects().size(), builds.size() );
+        builds.values().forEach( count -> assertEquals( 1, count.get() ) );
+        assertTrue( session.getResult().getExceptions().isEmpty() );
+    }
+
+    @Test
+    public void testReleasePhaseRejectedWithPipelinedTaskSegments()
+    {
+        session.getRequest().setDegreeOfConcurrency( 2 );
+        session.getUserProperties().setProperty( MultiThreadedBuilder.RELEASE_PHASE_PROPERTY, "compile" );
+        session.getUserProperties().setProperty( MultiThreadedBuilder.PIPELINE_PROPERTY, "true" );
+
+        TaskSegment taskSegment = new TaskSegment( false, new GoalTask( "install" ) );
+        assertThrows( IllegalArgumentException.class, () -> build( Collections.singletonList( taskSegment ) ) );
+        assertTrue( builds.isEmpty() );
+    }
+
+    @Test
+    public void testVirtualThreadsFallBackToPlatformThreads()
+        throws Exception
+    {
+        assumeFalse( hasVirtualThreads(), "the running JVM supports virtual threads" );
+        session.getRequest().setDegreeOfConcurrency( 2 );
+        session.getUserProperties().setProperty( MultiThreadedBuilder.THREADS_PROPERTY,
+                                                 MultiThreadedBuilder.THREADS_VIRTUAL );
+        Set<Thread> threads = ConcurrentHashMap.newKeySet();
+        doAnswer( invocation ->
+        {
+            MavenProject project = invocation.getArgument( 3 );
+            builds.computeIfAbsent( project, p -> new AtomicInteger() ).incrementAndGet();
+            threads.add( Thread.currentThread() );
+            return null;
+        } ).when( lifecycleModuleBuilder ).buildProject( any(), any(), any(), any(), any() );
+
+        build( Collections.singletonList( new TaskSegment( false, new GoalTask( "install" ) ) ) );
+
+        assertEquals( session.getProjects().size(), builds.size() );
+        assertTrue( session.getResult().getExceptions().isEmpty() );
+        // the builds ran on the fixed pool of platform threads, whose names are restored after every build
+        assertFalse( threads.isEmpty() );
+        threads.forEach( thread -> assertTrue( thread.getName().startsWith( "BuilderThread-" ), thread.getName() ) );
+    }
+
+    @Test
+    public void testMaxRunning()
+    {
+        assertEquals( Integer.MAX_VALUE, MultiThreadedBuilder.getMaxRunning( false, false, 4 ) );
+        // the critical path queue keeps the ready builds until a thread is free
+        assertEquals( 4, MultiThreadedBuilder.getMaxRunning( true, false, 4 ) );
+        // with virtual threads only the CPU permits limit the concurrency
+        assertEquals( Integer.MAX_VALUE, MultiThreadedBuilder.getMaxRunning( true, true, 4 ) );
+        assertEquals( Integer.MAX_VALUE, MultiThreadedBuilder.getMaxRunning( false, true, 4 ) );
+    }
+
+    private static boolean hasVirtualThreads()
+    {
+        try
+        {
+            Executors.class.getMethod( "newVirtualThreadPerTaskExecutor" );
+            return true;
+        }
+        catch ( NoSuchMethodException e )
+        {
+            return false;
+        }
+    }
+
+    private void build( List<TaskSegment> taskSegments )
+        throws Exception
+    {
+        List<ProjectSegment> segments = new ArrayList<>();
+        for ( TaskSegment taskSegment : taskSegments )
+        {
+            for ( MavenProject project : session.getProjects() )
+            {
+                segments.add( new ProjectSegment( project, taskSegment, session.clone() ) );
+            }
+        }
+        ReactorBuildStatus reactorBuildStatus = new ReactorBuildStatus( session.getProjectDependencyGraph() );
+        ReactorContext reactorContext =
+            new ReactorContext( session.getResult(), new ProjectIndex( session.getProjects() ),
+                                getClass().getClassLoader(), reactorBuildStatus, null );
+
+        new MultiThreadedBuilder( lifecycleModuleBuilder, listener ).build( session, reactorContext,
+                                                                            new ProjectBuildList( segments ),
+                                                                            taskSegments, reactorBuildStatus );
+    }
+
+    private static MojoExecution createExecution( String goal, String phase )
+    {
+        Plugin plugin = new Plugin();
+        plugin.setArtifactId( "maven-" + goal + "-plugin" );
+        MojoExecution execution = new MojoExecution( plugin, goal, "default-" + goal );
+        execution.setLifecyclePhase( phase );
+        return execution;
+    }
+}
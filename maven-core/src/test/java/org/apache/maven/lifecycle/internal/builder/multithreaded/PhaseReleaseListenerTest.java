@@ -0,0 +1,147 @@
+package org.apache.maven.lifecycle.internal.builder.multithreaded;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.maven.execution.MavenSession;
+import org.apache.maven.execution.MojoExecutionEvent;
+import org.apache.maven.execution.ProjectExecutionEvent;
+import org.apache.maven.lifecycle.internal.stub.DefaultLifecyclesStub;
+import org.apache.maven.lifecycle.internal.stub.ProjectDependencyGraphStub;
+import org.apache.maven.model.Plugin;
+import org.apache.maven.plugin.MojoExecution;
+import org.apache.maven.project.MavenProject;
+import org.junit.jupiter.api.Test;
+
+import static org.apache.maven.lifecycle.internal.stub.ProjectDependencyGraphStub.A;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PhaseReleaseListenerTest
+{
+    private final MavenSession session = ProjectDependencyGraphStub.getMavenSession();
+
+    private final PhaseReleaseListener listener =
+        new PhaseReleaseListener( DefaultLifecyclesStub.createDefaultLifecycles() );
+
+    private final List<MojoExecution> executionPlan = new ArrayList<>();
+
+    private final AtomicInteger releases = new AtomicInteger();
+
+    @Test
+    public void testReleasedBeforeFirstExecutionAfterPhase()
+    {
+        MojoExecution resources = addExecution( "resources", "process-resources" );
+        MojoExecution compile = addExecution( "compile", "compile" );
+        MojoExecution test = addExecution( "test", "test" );
+        MojoExecution jar = addExecution( "jar", "package" );
+        start( "compile" );
+
+        execute( resources );
+        execute( compile );
+        assertEquals( 0, releases.get() );
+
+        execute( test );
+        assertEquals( 1, releases.get() );
+
+        execute( jar );
+        assertEquals( 1, releases.get() );
+    }
+
+    @Test
+    public void testForkedExecutionsDoNotRelease()
+    {
+        addExecution( "compile", "compile" );
+        addExecution( "test", "test" );
+        start( "compile" );
+
+        // a forked execution of the same goal and phase is a different execution
+        execute( createExecution( "test", "test" ) );
+        assertEquals( 0, releases.get() );
+    }
+
+    @Test
+    public void testPackagingAfterRelease()
+    {
+        MojoExecution compile = addExecution( "compile", "compile" );
+        MojoExecution test = addExecution( "test", "test" );
+        MojoExecution jar = addExecution( "jar", "package" );
+        MojoExecution install = addExecution( "install", "install" );
+        start( "compile" );
+
+        execute( compile );
+        execute( test );
+        assertFalse( listener.isPackaging( A ) );
+
+        execute( jar );
+        assertTrue( listener.isPackaging( A ) );
+
+        execute( install );
+        assertFalse( listener.isPackaging( A ) );
+
+        execute( jar );
+        listener.unregister( A );
+        assertFalse( listener.isPackaging( A ) );
+    }
+
+    @Test
+    public void testNotPackagingBeforeRelease()
+    {
+        MojoExecution jar = addExecution( "jar", "package" );
+        addExecution( "install", "install" );
+        start( "package" );
+
+        // the downstream projects wait for the artifact
+        execute( jar );
+        assertEquals( 0, releases.get() );
+        assertFalse( listener.isPackaging( A ) );
+    }
+
+    private MojoExecution addExecution( String goal, String phase )
+    {
+        MojoExecution execution = createExecution( goal, phase );
+        executionPlan.add( execution );
+        return execution;
+    }
+
+    private static MojoExecution createExecution( String goal, String phase )
+    {
+        Plugin plugin = new Plugin();
+        plugin.setArtifactId( "maven-" + goal + "-plugin" );
+        MojoExecution execution = new MojoExecution( plugin, goal, "default-" + goal );
+        execution.setLifecyclePhase( phase );
+        return execution;
+    }
+
+    private void start( String releasePhase )
+    {
+        listener.register( A, releasePhase, releases::incrementAndGet );
+        listener.beforeProjectLifecycleExecution( new ProjectExecutionEvent( session, A, executionPlan ) );
+    }
+
+    private void execute( MojoExecution execution )
+    {
+        listener.beforeMojoExecution( new MojoExecutionEvent( session, A, execution, null ) );
+    }
+}
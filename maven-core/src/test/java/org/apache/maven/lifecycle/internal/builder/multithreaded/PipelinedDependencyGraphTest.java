@@ -0,0 +1,128 @@
+package org.apache.maven.lifecycle.internal.builder.multithreaded;
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.maven.execution.MavenSession;
+import org.apache.maven.lifecycle.internal.GoalTask;
+import org.apache.maven.lifecycle.internal.ProjectBuildList;
+import org.apache.maven.lifecycle.internal.ProjectSegment;
+import org.apache.maven.lifecycle.internal.TaskSegment;
+import org.apache.maven.lifecycle.internal.stub.ProjectDependencyGraphStub;
+import org.apache.maven.project.MavenProject;
+import org.junit.jupiter.api.Test;
+
+import static org.apache.maven.lifecycle.internal.stub.ProjectDependencyGraphStub.A;
+import static org.apache.maven.lifecycle.internal.stub.ProjectDependencyGraphStub.B;
+import static org.apache.maven.lifecycle.internal.stub.ProjectDependencyGraphStub.C;
+import static org.apache.maven.lifecycle.internal.stub.ProjectDependencyGraphStub.X;
+import static org.apache.maven.lifecycle.internal.stub.ProjectDependencyGraphStub.Y;
+import static org.apache.maven.lifecycle.internal.stub.ProjectDependencyGraphStub.Z;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PipelinedDependencyGraphTest
+{
+    private final MavenSession session = ProjectDependencyGraphStub.getMavenSession();
+
+    private final List<ProjectSegment> segments = new ArrayList<>();
+
+    @Test
+    public void testAggregatorWaitsForWholeReactor()
+    {
+        // install for all projects, an aggregator goal on A, deploy for all projects
+        PipelinedDependencyGraph graph = newGraph( new TaskSegment( false, new GoalTask( "install" ) ),
+                                                   new TaskSegment( true, new GoalTask( "aggr" ) ),
+                                                   new TaskSegment( false, new GoalTask( "deploy" ) ) );
+
+        assertEquals( 13, graph.getNumberOfBuilds() );
+        assertEquals( Arrays.asList( segments.get( 0 ) ), graph.getRootSchedulableBuilds() );
+
+        assertEquals( Arrays.asList( segments.get( 1 ), segments.get( 2 ) ),
+                      graph.markAsFinished( segments.get( 0 ) ) );
+        assertEquals( Arrays.asList( segments.get( 4 ) ), graph.markAsFinished( segments.get( 1 ) ) );
+        assertEquals( Arrays.asList( segments.get( 3 ), segments.get( 5 ) ),
+                      graph.markAsFinished( segments.get( 2 ) ) );
+        assertTrue( graph.markAsFinished( segments.get( 3 ) ).isEmpty() );
+        assertTrue( graph.markAsFinished( segments.get( 4 ) ).isEmpty() );
+
+        // the last install of the reactor releases the aggregator, which releases the deploy of A
+        assertEquals( Arrays.asList( segments.get( 6 ) ), graph.markAsFinished( segments.get( 5 ) ) );
+        assertEquals( Arrays.asList( segments.get( 7 ) ), graph.markAsFinished( segments.get( 6 ) ) );
+    }
+
+    @Test
+    public void testProjectsWaitForAggregatorTheyDoNotDependOn()
+    {
+        // install for all projects, an aggregator goal on Z which no other project depends on, deploy for all projects
+        PipelinedDependencyGraph graph = newGraph( Z, new TaskSegment( false, new GoalTask( "install" ) ),
+                                                   new TaskSegment( true, new GoalTask( "aggr" ) ),
+                                                   new TaskSegment( false, new GoalTask( "deploy" ) ) );
+
+        assertEquals( Arrays.asList( segments.get( 1 ), segments.get( 2 ) ),
+                      graph.markAsFinished( segments.get( 0 ) ) );
+        assertEquals( Arrays.asList( segments.get( 4 ) ), graph.markAsFinished( segments.get( 1 ) ) );
+        assertEquals( Arrays.asList( segments.get( 3 ), segments.get( 5 ) ),
+                      graph.markAsFinished( segments.get( 2 ) ) );
+        assertTrue( graph.markAsFinished( segments.get( 3 ) ).isEmpty() );
+        assertTrue( graph.markAsFinished( segments.get( 4 ) ).isEmpty() );
+        assertEquals( Arrays.asList( segments.get( 6 ) ), graph.markAsFinished( segments.get( 5 ) ) );
+
+        // no deploy starts before the aggregator goal has finished
+        assertEquals( Arrays.asList( segments.get( 7 ) ), graph.markAsFinished( segments.get( 6 ) ) );
+        assertEquals( Arrays.asList( segments.get( 8 ), segments.get( 9 ) ),
+                      graph.markAsFinished( segments.get( 7 ) ) );
+    }
+
+    @Test
+    public void testProjectsContinueWithoutBarrier()
+    {
+        PipelinedDependencyGraph graph = newGraph( new TaskSegment( false, new GoalTask( "install" ) ),
+                                                   new TaskSegment( false, new GoalTask( "deploy" ) ) );
+
+        // A has no upstream projects, it can deploy right after its own install
+        List<ProjectSegment> ready = graph.markAsFinished( segments.get( 0 ) );
+        assertEquals( Arrays.asList( segments.get( 1 ), segments.get( 2 ), segments.get( 6 ) ), ready );
+
+        // B deploys once its own install and the deploy of A have finished, while X, Y and Z are still installing
+        assertEquals( Arrays.asList( segments.get( 4 ) ), graph.markAsFinished( segments.get( 1 ) ) );
+        assertEquals( Arrays.asList( segments.get( 7 ) ), graph.markAsFinished( segments.get( 6 ) ) );
+
+        // finishing twice does not release anything again
+        assertTrue( graph.markAsFinished( segments.get( 6 ) ).isEmpty() );
+    }
+
+    private PipelinedDependencyGraph newGraph( TaskSegment... taskSegments )
+    {
+        return newGraph( A, taskSegments );
+    }
+
+    private PipelinedDependencyGraph newGraph( MavenProject aggregator, TaskSegment... taskSegments )
+    {
+        for ( TaskSegment taskSegment : taskSegments )
+        {
+            List<MavenProject> projects =
+                taskSegment.isAggregating() ? Arrays.asList( aggregator ) : Arrays.asList( A, B, C, X, Y, Z );
+            for ( MavenProject project : projects )
+            {
+                segments.add( new ProjectSegment( project, taskSegment, session.clone() ) );
+            }
+        }
+        return new PipelinedDependencyGraph( new ProjectBuildList( segments ), new ProjectDependencyGraphStub() );
+    }
+}
@@ -0,0 +1,67 @@
+package org.apache.maven.plugin.internal;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+import java.io.File;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.artifact.DefaultArtifact;
+import org.apache.maven.artifact.handler.DefaultArtifactHandler;
+import org.codehaus.plexus.util.StringUtils;
+import org.codehaus.plexus.util.xml.Xpp3Dom;
+import org.codehaus.plexus.util.xml.Xpp3DomBuilder;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class PluginDescriptorIndexTest
+{
+    @Test
+    public void testIndexedUntilJarChanges( @TempDir Path tempDir )
+        throws Exception
+    {
+        File jar = Files.write( tempDir.resolve( "maven-it-plugin-0.1.jar" ), new byte[] { 1, 2, 3 } ).toFile();
+        jar.setLastModified( 1000 );
+        Artifact plugin = new DefaultArtifact( "org.apache.maven.its.plugins", "maven-it-plugin", "0.1", "compile",
+                "jar", null, new DefaultArtifactHandler( "ignore" ) );
+        plugin.setFile( jar );
+
+        Xpp3Dom dom = Xpp3DomBuilder.build( new StringReader(
+            "<plugin><groupId>org.apache.maven.its.plugins</groupId><mojos><mojo><goal>touch</goal>"
+                + "<description>" + StringUtils.repeat( "long ", 20000 ) + "</description>"
+                + "<configuration><file implementation=\"java.io.File\">${basedir}</file></configuration>"
+                + "</mojo></mojos></plugin>" ) );
+
+        PluginDescriptorIndex index = new PluginDescriptorIndex( tempDir.resolve( "index" ) );
+        assertNull( index.get( plugin ) );
+
+        index.put( plugin, dom );
+        assertEquals( dom, new PluginDescriptorIndex( tempDir.resolve( "index" ) ).get( plugin ) );
+
+        jar.setLastModified( 2000 );
+        assertNull( index.get( plugin ) );
+    }
+}
@@ -0,0 +1,95 @@
+package org.apache.maven.plugin.internal;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class SingleFlightTest
+{
+    @Test
+    public void testCoalescesSetupsOfSameKey()
+        throws Exception
+    {
+        SingleFlight flights = new SingleFlight();
+        Map<String, String> cache = new ConcurrentHashMap<>();
+        AtomicInteger setups = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch( 1 );
+
+        ExecutorService executor = Executors.newFixedThreadPool( 8 );
+        try
+        {
+            List<Future<String>> results = new ArrayList<>();
+            for ( int i = 0; i < 16; i++ )
+            {
+                String key = "plugin-" + ( i % 2 );
+                results.add( executor.submit( () ->
+                {
+                    start.await();
+                    String value = cache.get( key );
+                    while ( value == null )
+                    {
+                        SingleFlight.Flight flight = flights.depart( key );
+                        if ( flight == null )
+                        {
+                            value = cache.get( key );
+                            continue;
+                        }
+                        try ( SingleFlight.Flight f = flight )
+                        {
+                            value = cache.get( key );
+                            if ( value == null )
+                            {
+                                setups.incrementAndGet();
+                                Thread.sleep( 50 );
+                                value = "realm of " + key;
+                                cache.put( key, value );
+                            }
+                        }
+                    }
+                    return value;
+                } ) );
+            }
+            start.countDown();
+
+            for ( int i = 0; i < results.size(); i++ )
+            {
+                assertEquals( "realm of plugin-" + ( i % 2 ), results.get( i ).get( 10, TimeUnit.SECONDS ) );
+            }
+            assertEquals( 2, setups.get() );
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+    }
+}
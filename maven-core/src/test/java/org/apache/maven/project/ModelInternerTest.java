@@ -0,0 +1,113 @@
+package org.apache.maven.project;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.Map;
+
+import org.apache.maven.model.Build;
+import org.apache.maven.model.Dependency;
+import org.apache.maven.model.Model;
+import org.apache.maven.model.Plugin;
+import org.codehaus.plexus.util.xml.Xpp3Dom;
+import org.junit.jupiter.api.Test;
+
+public class ModelInternerTest
+{
+    private static Model createModel( String artifactId, String source )
+    {
+        Model model = new Model();
+        model.setGroupId( new String( "org.apache.maven" ) );
+        model.setArtifactId( artifactId );
+        model.getProperties().setProperty( new String( "encoding" ), new String( "UTF-8" ) );
+
+        Dependency dependency = new Dependency();
+        dependency.setGroupId( new String( "junit" ) );
+        dependency.setArtifactId( new String( "junit" ) );
+        model.addDependency( dependency );
+
+        Xpp3Dom configuration = new Xpp3Dom( "configuration" );
+        Xpp3Dom child = new Xpp3Dom( new String( "source" ) );
+        child.setValue( source );
+        configuration.addChild( child );
+        Plugin plugin = new Plugin();
+        plugin.setArtifactId( new String( "maven-compiler-plugin" ) );
+        plugin.setConfiguration( configuration );
+        Build build = new Build();
+        build.addPlugin( plugin );
+        model.setBuild( build );
+        return model;
+    }
+
+    private static Xpp3Dom getConfiguration( Model model )
+    {
+        return (Xpp3Dom) model.getBuild().getPlugins().get( 0 ).getConfiguration();
+    }
+
+    @Test
+    public void testEqualValuesAreShared()
+    {
+        ModelInterner interner = new ModelInterner();
+        Model first = createModel( "first", new String( "1.8" ) );
+        Model second = createModel( "second", new String( "1.8" ) );
+
+        interner.intern( first );
+        interner.intern( second );
+
+        assertSame( first.getGroupId(), second.getGroupId() );
+        assertSame( first.getDependencies().get( 0 ).getGroupId(), second.getDependencies().get( 0 ).getGroupId() );
+        assertSame( first.getDependencies().get( 0 ).getGroupId(),
+                    first.getDependencies().get( 0 ).getArtifactId() );
+        assertSame( first.getBuild().getPlugins().get( 0 ).getArtifactId(),
+                    second.getBuild().getPlugins().get( 0 ).getArtifactId() );
+
+        Map.Entry<Object, Object> firstProperty = first.getProperties().entrySet().iterator().next();
+        Map.Entry<Object, Object> secondProperty = second.getProperties().entrySet().iterator().next();
+        assertSame( firstProperty.getKey(), secondProperty.getKey() );
+        assertSame( firstProperty.getValue(), secondProperty.getValue() );
+
+        assertSame( getConfiguration( first ), getConfiguration( second ) );
+        assertNull( getConfiguration( first ).getParent() );
+        assertEquals( "1.8", getConfiguration( second ).getChild( "source" ).getValue() );
+        assertEquals( "Shared 7 strings and 1 plugin configurations with 2 elements of the reactor models, about 0 KB",
+                      interner.getStatistics() );
+    }
+
+    @Test
+    public void testDifferentConfigurationsAreNotShared()
+    {
+        ModelInterner interner = new ModelInterner();
+        Model first = createModel( "first", "1.8" );
+        Model second = createModel( "second", "11" );
+
+        interner.intern( first );
+        interner.intern( second );
+
+        assertNotSame( getConfiguration( first ), getConfiguration( second ) );
+        assertEquals( "1.8", getConfiguration( first ).getChild( "source" ).getValue() );
+        assertEquals( "11", getConfiguration( second ).getChild( "source" ).getValue() );
+        assertSame( getConfiguration( first ).getChild( "source" ).getName(),
+                    getConfiguration( second ).getChild( "source" ).getName() );
+    }
+}
@@ -23,6 +23,7 @@
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Properties;
@@ -320,6 +321,34 @@ public void testBuildProperties()
         assertEquals( 1, project.getResources().size() );
     }
 
+    @Test
+    public void testParallelBuildKeepsModuleOrder()
+            throws Exception
+    {
+        File file = getProject( "parallel-modules" );
+        MavenSession mavenSession = createMavenSession( null );
+
+        for ( String parallelism : new String[] { "1", "4" } )
+        {
+            ProjectBuildingRequest configuration = new DefaultProjectBuildingRequest();
+            configuration.setRepositorySession( mavenSession.getRepositorySession() );
+            Properties userProperties = new Properties();
+            userProperties.setProperty( DefaultProjectBuilder.PARALLELISM_PROPERTY, parallelism );
+            configuration.setUserProperties( userProperties );
+
+            List<ProjectBuildingResult> results =
+                projectBuilder.build( Collections.singletonList( file ), true, configuration );
+
+            List<String> artifactIds = new ArrayList<>();
+            for ( ProjectBuildingResult result : results )
+            {
+                artifactIds.add( result.getProject().getArtifactId() );
+            }
+            assertEquals( Arrays.asList( "a", "c", "b", "root" ), artifactIds );
+            assertEquals( 3, results.get( 3 ).getProject().getCollectedProjects().size() );
+        }
+    }
+
     @Test
     public void testPropertyInPluginManagementGroupId()
             throws Exception
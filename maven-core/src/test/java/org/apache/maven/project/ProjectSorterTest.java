@@ -24,7 +24,9 @@
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 
@@ -35,7 +37,9 @@
 import org.apache.maven.model.Parent;
 import org.apache.maven.model.Plugin;
 import org.apache.maven.model.PluginManagement;
+import org.codehaus.plexus.util.dag.CycleDetectedException;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 /**
  * Test sorting projects by dependencies.
@@ -365,4 +369,67 @@ public void testDependencyPrecedesProjectThatUsesUnresolvedDependencyVersion()
         assertEquals( usingProject, projects.get( 1 ) );
     }
 
+    @Test
+    public void testStoredGraph( @TempDir Path graphDirectory )
+        throws Exception
+    {
+        List<MavenProject> projects = createChain( null, "a" );
+        assertEquals( Arrays.asList( "a", "b", "c" ), artifactIds( new ProjectSorter( projects, graphDirectory ) ) );
+
+        // unchanged
+        projects = createChain( null, "a" );
+        ProjectSorter sorter = new ProjectSorter( projects, graphDirectory );
+        assertEquals( Arrays.asList( "a", "b", "c" ), artifactIds( sorter ) );
+        assertEquals( Collections.singletonList( "group:a:1.0" ), sorter.getDependencies( "group:b:1.0" ) );
+        assertEquals( Collections.singletonList( "group:c:1.0" ), sorter.getDependents( "group:b:1.0" ) );
+        assertEquals( Collections.singleton( "group:b:1.0" ), projects.get( 0 ).getProjectReferences().keySet() );
+
+        // b no longer depends on a, but a on c
+        projects = createChain( "c", null );
+        sorter = new ProjectSorter( projects, graphDirectory );
+        assertEquals( Arrays.asList( "b", "c", "a" ), artifactIds( sorter ) );
+        assertEquals( artifactIds( new ProjectSorter( createChain( "c", null ) ) ), artifactIds( sorter ) );
+        assertEquals( Collections.singleton( "group:c:1.0" ), projects.get( 2 ).getProjectReferences().keySet() );
+    }
+
+    @Test
+    public void testStoredGraphDetectsNewCycle( @TempDir Path graphDirectory )
+        throws Exception
+    {
+        new ProjectSorter( createChain( null, "a" ), graphDirectory );
+
+        assertThrows( CycleDetectedException.class,
+                      () -> new ProjectSorter( createChain( null, "c" ), graphDirectory ) );
+    }
+
+    /**
+     * Creates the projects c, b and a, where c depends on b and a and b depend on the given projects, if any.
+     */
+    private List<MavenProject> createChain( String aDependency, String bDependency )
+    {
+        MavenProject a = createProject( "group", "a", "1.0" );
+        MavenProject b = createProject( "group", "b", "1.0" );
+        MavenProject c = createProject( "group", "c", "1.0" );
+        c.getModel().addDependency( createDependency( b ) );
+        if ( bDependency != null )
+        {
+            b.getModel().addDependency( createDependency( "group", bDependency, "1.0" ) );
+        }
+        if ( aDependency != null )
+        {
+            a.getModel().addDependency( createDependency( "group", aDependency, "1.0" ) );
+        }
+        return Arrays.asList( c, b, a );
+    }
+
+    private static List<String> artifactIds( ProjectSorter sorter )
+    {
+        List<String> artifactIds = new ArrayList<>();
+        for ( MavenProject project : sorter.getSortedProjects() )
+        {
+            artifactIds.add( project.getArtifactId() );
+        }
+        return artifactIds;
+    }
+
 }
@@ -19,15 +19,33 @@
  * under the License.
  */
 
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Set;
 
 import org.apache.maven.artifact.Artifact;
 import org.apache.maven.artifact.DefaultArtifact;
+import org.apache.maven.artifact.handler.DefaultArtifactHandler;
+import org.apache.maven.model.Dependency;
+import org.apache.maven.model.Model;
+import org.apache.maven.project.MavenProject;
+import org.eclipse.aether.DefaultRepositorySystemSession;
+import org.eclipse.aether.internal.impl.SimpleLocalRepositoryManagerFactory;
+import org.eclipse.aether.repository.LocalRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 public class DefaultProjectArtifactsCacheTest
 {
 
@@ -69,4 +87,146 @@ public void testProjectDependencyOrder() throws Exception
         assertArrayEquals( reversedArtifacts.toArray( new Artifact[0] ),
                            cache.get( project2 ).getArtifacts().toArray( new Artifact[0] ) );
     }
+
+    @Test
+    public void testPersistentCache( @TempDir Path localRepo )
+        throws Exception
+    {
+        DefaultRepositorySystemSession session = newSession( localRepo );
+        MavenProject project = newProject( "1.0" );
+        List<String> scopes = Collections.singletonList( "compile" );
+
+        File jar = install( localRepo, "dep", "2.0" );
+        Artifact artifact = new DefaultArtifact( "g", "dep", "2.0", "compile", "jar", null,
+                                                 new DefaultArtifactHandler( "jar" ) );
+        artifact.setFile( jar );
+        artifact.setDependencyTrail( Arrays.asList( project.getId(), artifact.getId() ) );
+
+        ProjectArtifactsCache.Key key = cache.createKey( project, scopes, scopes, false, session );
+        cache.put( key, Collections.singleton( artifact ) );
+
+        // a later session
+        ProjectArtifactsCache later = new DefaultProjectArtifactsCache();
+        ProjectArtifactsCache.CacheRecord record =
+            later.get( later.createKey( newProject( "1.0" ), scopes, scopes, false, session ) );
+        assertNotNull( record );
+        Artifact restored = record.getArtifacts().iterator().next();
+        assertEquals( artifact.getId(), restored.getId() );
+        assertEquals( "compile", restored.getScope() );
+        assertEquals( jar, restored.getFile() );
+        assertEquals( artifact.getDependencyTrail(), restored.getDependencyTrail() );
+
+        // other dependencies
+        later = new DefaultProjectArtifactsCache();
+        assertNull( later.get( later.createKey( newProject( "1.1" ), scopes, scopes, false, session ) ) );
+
+        // the jar changed
+        Files.write( jar.toPath(), new byte[] { 1, 2, 3 } );
+        later = new DefaultProjectArtifactsCache();
+        assertNull( later.get( later.createKey( newProject( "1.0" ), scopes, scopes, false, session ) ) );
+    }
+
+    @Test
+    public void testSnapshotsNotPersisted( @TempDir Path localRepo )
+        throws Exception
+    {
+        DefaultRepositorySystemSession session = newSession( localRepo );
+        List<String> scopes = Collections.singletonList( "compile" );
+
+        Artifact artifact = new DefaultArtifact( "g", "dep", "2.0-SNAPSHOT", "compile", "jar", null,
+                                                 new DefaultArtifactHandler( "jar" ) );
+        artifact.setFile( install( localRepo, "dep", "2.0-SNAPSHOT" ) );
+
+        cache.put( cache.createKey( newProject( "2.0-SNAPSHOT" ), scopes, scopes, false, session ),
+                   Collections.singleton( artifact ) );
+
+        ProjectArtifactsCache later = new DefaultProjectArtifactsCache();
+        assertNull( later.get( later.createKey( newProject( "2.0-SNAPSHOT" ), scopes, scopes, false, session ) ) );
+    }
+
+    @Test
+    public void testVersionRangesNotPersisted( @TempDir Path localRepo )
+        throws Exception
+    {
+        DefaultRepositorySystemSession session = newSession( localRepo );
+        List<String> scopes = Collections.singletonList( "compile" );
+
+        // a transitive dependency selected from a range
+        Artifact artifact = new DefaultArtifact( "g", "dep", "2.0", "compile", "jar", null,
+                                                 new DefaultArtifactHandler( "jar" ) );
+        artifact.setFile( install( localRepo, "dep", "2.0" ) );
+
+        ProjectArtifactsCache.Key key = cache.createKey( newProject( "1.0" ), scopes, scopes, false, session );
+        cache.putWithVersionRanges( key, Collections.singleton( artifact ) );
+        assertNotNull( cache.get( key ) );
+
+        ProjectArtifactsCache later = new DefaultProjectArtifactsCache();
+        assertNull( later.get( later.createKey( newProject( "1.0" ), scopes, scopes, false, session ) ) );
+    }
+
+    @Test
+    public void testActivationPropertiesInKey( @TempDir Path localRepo )
+        throws Exception
+    {
+        DefaultRepositorySystemSession session = newSession( localRepo );
+        session.setSystemProperty( "java.version", "1.8.0" );
+        List<String> scopes = Collections.singletonList( "compile" );
+
+        Artifact artifact = new DefaultArtifact( "g", "dep", "2.0", "compile", "jar", null,
+                                                 new DefaultArtifactHandler( "jar" ) );
+        artifact.setFile( install( localRepo, "dep", "2.0" ) );
+        cache.put( cache.createKey( newProject( "1.0" ), scopes, scopes, false, session ),
+                   Collections.singleton( artifact ) );
+
+        // other system properties do not matter
+        session.setSystemProperty( "user.dir", "elsewhere" );
+        ProjectArtifactsCache later = new DefaultProjectArtifactsCache();
+        assertNotNull( later.get( later.createKey( newProject( "1.0" ), scopes, scopes, false, session ) ) );
+
+        // the profiles of the dependencies may activate on another JDK
+        session.setSystemProperty( "java.version", "11.0.1" );
+        later = new DefaultProjectArtifactsCache();
+        assertNull( later.get( later.createKey( newProject( "1.0" ), scopes, scopes, false, session ) ) );
+
+        // or by a user property
+        session.setSystemProperty( "java.version", "1.8.0" );
+        session.setUserProperty( "flavor", "spicy" );
+        later = new DefaultProjectArtifactsCache();
+        assertNull( later.get( later.createKey( newProject( "1.0" ), scopes, scopes, false, session ) ) );
+    }
+
+    private static DefaultRepositorySystemSession newSession( Path localRepo )
+        throws Exception
+    {
+        DefaultRepositorySystemSession session = new DefaultRepositorySystemSession();
+        session.setLocalRepositoryManager(
+            new SimpleLocalRepositoryManagerFactory().newInstance( session, new LocalRepository( localRepo.toFile() ) ) );
+        session.setUserProperty( "maven.experimental.projectartifactscache", "true" );
+        return session;
+    }
+
+    private static MavenProject newProject( String dependencyVersion )
+    {
+        Model model = new Model();
+        model.setGroupId( "g" );
+        model.setArtifactId( "a" );
+        model.setVersion( "1" );
+        Dependency dependency = new Dependency();
+        dependency.setGroupId( "g" );
+        dependency.setArtifactId( "dep" );
+        dependency.setVersion( dependencyVersion );
+        model.addDependency( dependency );
+
+        MavenProject project = new MavenProject( model );
+        project.setRemoteArtifactRepositories( new ArrayList<>() );
+        return project;
+    }
+
+    private static File install( Path localRepo, String artifactId, String version )
+        throws Exception
+    {
+        Path directory = Files.createDirectories( localRepo.resolve( "g" ).resolve( artifactId ).resolve( version ) );
+        Files.write( directory.resolve( artifactId + "-" + version + ".pom" ), new byte[] { 1 } );
+        return Files.write( directory.resolve( artifactId + "-" + version + ".jar" ), new byte[] { 1 } ).toFile();
+    }
 }
@@ -0,0 +1,138 @@
+package org.apache.maven.cli;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.maven.execution.MavenExecutionRequest;
+import org.apache.maven.plugin.ExtensionRealmCache;
+import org.apache.maven.plugin.PluginArtifactsCache;
+import org.apache.maven.plugin.PluginDescriptorCache;
+import org.apache.maven.plugin.PluginRealmCache;
+import org.apache.maven.project.ProjectRealmCache;
+import org.apache.maven.project.artifact.ProjectArtifactsCache;
+import org.codehaus.plexus.PlexusContainer;
+import org.codehaus.plexus.classworlds.realm.ClassRealm;
+import org.codehaus.plexus.component.repository.exception.ComponentLookupException;
+import org.slf4j.Logger;
+
+/**
+ * Decides which caches of the container a {@link MavenDaemon daemon} can keep from one build to the next. The plugin,
+ * extension and project realms and the plugin descriptors and artifacts are kept as long as the jars of the realms and
+ * the settings and toolchains files are unchanged. The resolved dependencies of the reactor projects depend on the
+ * POMs and on snapshots in the local repository, they are flushed before every build.
+ */
+final class DaemonCaches
+{
+    private static final String[] REALM_PREFIXES = { "plugin>", "extension>", "project>" };
+
+    private Map<File, String> fingerprints = Collections.emptyMap();
+
+    /**
+     * Flushes the caches that are stale, called before a build.
+     */
+    void validate( PlexusContainer container, Logger logger )
+        throws ComponentLookupException
+    {
+        container.lookup( ProjectArtifactsCache.class ).flush();
+
+        for ( Map.Entry<File, String> entry : fingerprints.entrySet() )
+        {
+            if ( !entry.getValue().equals( fingerprint( entry.getKey() ) ) )
+            {
+                logger.debug( "Flushing plugin caches of the daemon, {} changed", entry.getKey() );
+                container.lookup( PluginRealmCache.class ).flush();
+                container.lookup( PluginDescriptorCache.class ).flush();
+                container.lookup( PluginArtifactsCache.class ).flush();
+                container.lookup( ExtensionRealmCache.class ).flush();
+                container.lookup( ProjectRealmCache.class ).flush();
+                break;
+            }
+        }
+        fingerprints = Collections.emptyMap();
+    }
+
+    /**
+     * Remembers the state of the files behind the caches, called after a build.
+     */
+    void record( CliRequest cliRequest )
+    {
+        Map<File, String> files = new HashMap<>();
+
+        MavenExecutionRequest request = cliRequest.request;
+        for ( File file : new File[] { request.getUserSettingsFile(), request.getGlobalSettingsFile(),
+            request.getUserToolchainsFile(), request.getGlobalToolchainsFile() } )
+        {
+            if ( file != null )
+            {
+                files.put( file, fingerprint( file ) );
+            }
+        }
+
+        if ( cliRequest.classWorld != null )
+        {
+            for ( ClassRealm realm : cliRequest.classWorld.getRealms() )
+            {
+                if ( isCachedRealm( realm.getId() ) )
+                {
+                    for ( URL url : realm.getURLs() )
+                    {
+                        if ( "file".equals( url.getProtocol() ) )
+                        {
+                            try
+                            {
+                                File file = new File( url.toURI() );
+                                files.put( file, fingerprint( file ) );
+                            }
+                            catch ( URISyntaxException | IllegalArgumentException e )
+                            {
+                                // not a plain file, cannot be validated
+                            }
+                        }
+                    }
+                }
+            }
+        }
+
+        fingerprints = files;
+    }
+
+    private static boolean isCachedRealm( String id )
+    {
+        for ( String prefix : REALM_PREFIXES )
+        {
+            if ( id.startsWith( prefix ) )
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String fingerprint( File file )
+    {
+        return file.exists() ? file.lastModified() + ":" + file.length() : "";
+    }
+}
@@ -176,6 +176,12 @@
 
     private CLIManager cliManager;
 
+    private DaemonCaches daemonCaches;
+
+    private DefaultPlexusContainer daemonContainer;
+
+    private String daemonContainerKey;
+
     public MavenCli()
     {
         this( null );
@@ -196,6 +202,12 @@ public static void main( String[] args )
 
     public static int main( String[] args, ClassWorld classWorld )
     {
+        String daemonSocket = System.getProperty( MavenDaemon.SOCKET_PROPERTY );
+        if ( daemonSocket != null )
+        {
+            return new MavenDaemon( new File( daemonSocket ).toPath(), classWorld ).run();
+        }
+
         MavenCli cli = new MavenCli();
 
         MessageUtils.systemInstall();
@@ -303,6 +315,10 @@ public int doMain( CliRequest cliRequest )
             populateRequest( cliRequest );
             encryption( cliRequest );
             repository( cliRequest );
+            if ( daemonCaches != null )
+            {
+                daemonCaches.validate( localContainer, slf4jLogger );
+            }
             return execute( cliRequest );
         }
         catch ( ExitException e )
@@ -328,13 +344,56 @@ public int doMain( CliRequest cliRequest )
         }
         finally
         {
-            if ( localContainer != null )
+            if ( daemonCaches != null )
+            {
+                daemonCaches.record( cliRequest );
+            }
+            else if ( localContainer != null )
             {
                 localContainer.dispose();
             }
         }
     }
 
+    /**
+     * Keeps the container and its caches from one {@link #doMain(CliRequest)} to the next, as long as the core
+     * extensions and the extension class path stay the same.
+     */
+    void enableDaemonMode()
+    {
+        daemonCaches = new DaemonCaches();
+    }
+
+    /**
+     * Disposes the container that is kept in daemon mode.
+     */
+    void disposeDaemonContainer()
+    {
+        if ( daemonContainer != null )
+        {
+            ClassWorld world = daemonContainer.getContainerRealm().getWorld();
+            daemonContainer.dispose();
+            daemonContainer = null;
+            daemonContainerKey = null;
+
+            // the next container sets up the realms of the core extensions again
+            for ( ClassRealm realm : new ArrayList<>( world.getRealms() ) )
+            {
+                if ( realm.getId().equals( "maven.ext" ) || realm.getId().startsWith( "coreExtension>" ) )
+                {
+                    try
+                    {
+                        world.disposeRealm( realm.getId() );
+                    }
+                    catch ( NoSuchRealmException ignored )
+                    {
+                        // can't happen
+                    }
+                }
+            }
+        }
+    }
+
     void initialize( CliRequest cliRequest )
         throws ExitException
     {
@@ -652,6 +711,30 @@ void properties( CliRequest cliRequest )
 
     PlexusContainer container( CliRequest cliRequest )
         throws Exception
+    {
+        if ( daemonCaches == null )
+        {
+            return createContainer( cliRequest );
+        }
+
+        File extensionsFile = new File( cliRequest.multiModuleProjectDirectory, EXTENSIONS_FILENAME );
+        String key = extensionsFile.getAbsolutePath() + ':' + extensionsFile.lastModified() + ':'
+            + extensionsFile.length() + ':' + parseExtClasspath( cliRequest );
+        if ( daemonContainer != null && key.equals( daemonContainerKey ) )
+        {
+            Thread.currentThread().setContextClassLoader( daemonContainer.getContainerRealm() );
+            initContainer( daemonContainer, cliRequest );
+            return daemonContainer;
+        }
+
+        disposeDaemonContainer();
+        daemonContainer = createContainer( cliRequest );
+        daemonContainerKey = key;
+        return daemonContainer;
+    }
+
+    private DefaultPlexusContainer createContainer( CliRequest cliRequest )
+        throws Exception
     {
         if ( cliRequest.classWorld == null )
         {
@@ -710,6 +793,26 @@ protected void configure()
 
         customizeContainer( container );
 
+        initContainer( container, cliRequest );
+
+        maven = container.lookup( Maven.class );
+
+        executionRequestPopulator = container.lookup( MavenExecutionRequestPopulator.class );
+
+        modelProcessor = createModelProcessor( container );
+
+        configurationProcessors = container.lookupMap( ConfigurationProcessor.class );
+
+        toolchainsBuilder = container.lookup( ToolchainsBuilder.class );
+
+        dispatcher = (DefaultSecDispatcher) container.lookup( SecDispatcher.class, "maven" );
+
+        return container;
+    }
+
+    private void initContainer( DefaultPlexusContainer container, CliRequest cliRequest )
+        throws ComponentLookupException
+    {
         container.getLoggerManager().setThresholds( cliRequest.request.getLoggingLevel() );
 
         eventSpyDispatcher = container.lookup( EventSpyDispatcher.class );
@@ -725,20 +828,6 @@ protected void configure()
 
         // refresh logger in case container got customized by spy
         slf4jLogger = slf4jLoggerFactory.getLogger( this.getClass().getName() );
-
-        maven = container.lookup( Maven.class );
-
-        executionRequestPopulator = container.lookup( MavenExecutionRequestPopulator.class );
-
-        modelProcessor = createModelProcessor( container );
-
-        configurationProcessors = container.lookupMap( ConfigurationProcessor.class );
-
-        toolchainsBuilder = container.lookup( ToolchainsBuilder.class );
-
-        dispatcher = (DefaultSecDispatcher) container.lookup( SecDispatcher.class, "maven" );
-
-        return container;
     }
 
     private List<CoreExtensionEntry> loadCoreExtensions( CliRequest cliRequest, ClassRealm containerRealm,
@@ -0,0 +1,325 @@
+package org.apache.maven.cli;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.channels.Channels;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.Properties;
+
+import org.codehaus.plexus.classworlds.ClassWorld;
+
+/**
+ * Runs builds in a resident JVM on behalf of {@link MavenDaemonClient clients} that connect over a Unix-domain socket.
+ * The class world, the container and the caches of plugin realms and descriptors survive from one build to the next,
+ * see {@link DaemonCaches} for when they are flushed. A daemon is started like a regular <code>mvn</code> invocation
+ * with the system property {@value #SOCKET_PROPERTY} set to the path of the socket, runs one build at a time and runs
+ * until it is stopped.
+ * <p>
+ * A client sends the number of arguments, the arguments, the working directory and the multi-module project directory
+ * as modified UTF-8 strings. The daemon answers with frames of standard output and standard error, each a type byte, a
+ * length and the bytes, followed by the exit code.
+ *
+ * @since 4.0.0
+ */
+public class MavenDaemon
+{
+    public static final String SOCKET_PROPERTY = "maven.daemon.socket";
+
+    static final int EXIT = 0;
+
+    static final int STDOUT = 1;
+
+    static final int STDERR = 2;
+
+    private final Path socket;
+
+    private final ClassWorld classWorld;
+
+    private final MavenCli cli;
+
+    private volatile ServerSocketChannel server;
+
+    public MavenDaemon( Path socket, ClassWorld classWorld )
+    {
+        this.socket = socket.toAbsolutePath();
+        this.classWorld = classWorld != null
+            ? classWorld
+            : new ClassWorld( "plexus.core", Thread.currentThread().getContextClassLoader() );
+        this.cli = new MavenCli( this.classWorld );
+        this.cli.enableDaemonMode();
+    }
+
+    /**
+     * Accepts and runs builds until the daemon is {@link #stop() stopped}.
+     *
+     * @return The exit code of the daemon
+     */
+    public int run()
+    {
+        try
+        {
+            server = bind();
+        }
+        catch ( IOException e )
+        {
+            System.err.println( "Unable to listen on " + socket + ": " + e.getMessage() );
+            return 1;
+        }
+
+        Thread shutdownHook = new Thread( this::deleteSocket );
+        Runtime.getRuntime().addShutdownHook( shutdownHook );
+        System.out.println( "Maven daemon listening on " + socket );
+        try
+        {
+            while ( true )
+            {
+                SocketChannel channel;
+                try
+                {
+                    channel = server.accept();
+                }
+                catch ( ClosedChannelException e )
+                {
+                    return 0;
+                }
+                catch ( IOException e )
+                {
+                    System.err.println( "Unable to accept a client: " + e.getMessage() );
+                    return 1;
+                }
+
+                try ( SocketChannel client = channel )
+                {
+                    serve( client );
+                }
+                catch ( IOException e )
+                {
+                    System.err.println( "Lost connection to client: " + e.getMessage() );
+                }
+            }
+        }
+        finally
+        {
+            stop();
+            cli.disposeDaemonContainer();
+            deleteSocket();
+            try
+            {
+                Runtime.getRuntime().removeShutdownHook( shutdownHook );
+            }
+            catch ( IllegalStateException e )
+            {
+                // shutting down already
+            }
+        }
+    }
+
+    /**
+     * Stops accepting builds, a running build completes.
+     */
+    public void stop()
+    {
+        ServerSocketChannel channel = server;
+        if ( channel != null )
+        {
+            try
+            {
+                channel.close();
+            }
+            catch ( IOException e )
+            {
+                // closed anyway
+            }
+        }
+    }
+
+    private ServerSocketChannel bind()
+        throws IOException
+    {
+        if ( Files.exists( socket ) )
+        {
+            boolean listening;
+            try ( SocketChannel channel = UnixDomainSockets.connect( socket ) )
+            {
+                listening = true;
+            }
+            catch ( IOException e )
+            {
+                listening = false;
+            }
+            if ( listening )
+            {
+                throw new IOException( "Another daemon is listening on the socket" );
+            }
+            // a stale socket of a daemon that was killed
+            Files.delete( socket );
+        }
+        Files.createDirectories( socket.getParent() );
+
+        ServerSocketChannel channel = UnixDomainSockets.bind( socket );
+        try
+        {
+            // other users must not run builds with the permissions of this user
+            Files.setPosixFilePermissions( socket, PosixFilePermissions.fromString( "rw-------" ) );
+        }
+        catch ( UnsupportedOperationException e )
+        {
+            // not a POSIX file system
+        }
+        return channel;
+    }
+
+    private void deleteSocket()
+    {
+        try
+        {
+            Files.deleteIfExists( socket );
+        }
+        catch ( IOException e )
+        {
+            // the next daemon deletes it
+        }
+    }
+
+    private void serve( SocketChannel channel )
+        throws IOException
+    {
+        DataInputStream in = new DataInputStream( new BufferedInputStream( Channels.newInputStream( channel ) ) );
+        DataOutputStream out = new DataOutputStream( new BufferedOutputStream( Channels.newOutputStream( channel ) ) );
+
+        String[] args = new String[in.readInt()];
+        for ( int i = 0; i < args.length; i++ )
+        {
+            args[i] = in.readUTF();
+        }
+        String workingDirectory = in.readUTF();
+        String multiModuleProjectDirectory = in.readUTF();
+
+        PrintStream stdout = new PrintStream( new FrameOutputStream( out, STDOUT ), true );
+        PrintStream stderr = new PrintStream( new FrameOutputStream( out, STDERR ), true );
+        int exitCode;
+        try
+        {
+            exitCode = build( args, workingDirectory, multiModuleProjectDirectory, stdout, stderr );
+        }
+        finally
+        {
+            stdout.flush();
+            stderr.flush();
+        }
+
+        synchronized ( out )
+        {
+            out.writeByte( EXIT );
+            out.writeInt( exitCode );
+            out.flush();
+        }
+    }
+
+    /**
+     * Runs a single build with the output redirected to the client. The system properties are restored afterwards,
+     * since the command line of a build sets some of them.
+     */
+    int build( String[] args, String workingDirectory, String multiModuleProjectDirectory, PrintStream stdout,
+               PrintStream stderr )
+    {
+        PrintStream oldout = System.out;
+        PrintStream olderr = System.err;
+        Properties systemProperties = (Properties) System.getProperties().clone();
+        ClassLoader contextClassLoader = Thread.currentThread().getContextClassLoader();
+        try
+        {
+            System.setOut( stdout );
+            System.setErr( stderr );
+
+            CliRequest cliRequest = new CliRequest( args, classWorld );
+            cliRequest.workingDirectory = workingDirectory;
+            cliRequest.multiModuleProjectDirectory = new File( multiModuleProjectDirectory ).getAbsoluteFile();
+
+            return cli.doMain( cliRequest );
+        }
+        finally
+        {
+            Thread.currentThread().setContextClassLoader( contextClassLoader );
+            System.setProperties( systemProperties );
+            System.setOut( oldout );
+            System.setErr( olderr );
+        }
+    }
+
+    /**
+     * Writes each chunk of output as a frame.
+     */
+    private static class FrameOutputStream
+        extends OutputStream
+    {
+        private final DataOutputStream out;
+
+        private final int type;
+
+        FrameOutputStream( DataOutputStream out, int type )
+        {
+            this.out = out;
+            this.type = type;
+        }
+
+        @Override
+        public void write( int b )
+            throws IOException
+        {
+            write( new byte[] { (byte) b }, 0, 1 );
+        }
+
+        @Override
+        public void write( byte[] b, int off, int len )
+            throws IOException
+        {
+            synchronized ( out )
+            {
+                out.writeByte( type );
+                out.writeInt( len );
+                out.write( b, off, len );
+            }
+        }
+
+        @Override
+        public void flush()
+            throws IOException
+        {
+            synchronized ( out )
+            {
+                out.flush();
+            }
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package org.apache.maven.cli;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.channels.Channels;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Forwards a build to a {@link MavenDaemon} and relays its output. The client only depends on the JDK, so that it
+ * starts quickly:
+ * <pre>
+ * java -Dmaven.daemon.socket=&lt;path&gt; -cp maven-embedder.jar org.apache.maven.cli.MavenDaemonClient [options]
+ * </pre>
+ *
+ * @since 4.0.0
+ */
+public class MavenDaemonClient
+{
+    public static void main( String[] args )
+    {
+        String socket = System.getProperty( MavenDaemon.SOCKET_PROPERTY );
+        if ( socket == null )
+        {
+            System.err.println( "-D" + MavenDaemon.SOCKET_PROPERTY + " system property is not set." );
+            System.exit( 1 );
+        }
+
+        String workingDirectory = System.getProperty( "user.dir" );
+        String multiModuleProjectDirectory =
+            System.getProperty( MavenCli.MULTIMODULE_PROJECT_DIRECTORY, workingDirectory );
+
+        int exitCode;
+        try
+        {
+            exitCode = run( Paths.get( socket ), args, workingDirectory, multiModuleProjectDirectory, System.out,
+                            System.err );
+        }
+        catch ( IOException e )
+        {
+            System.err.println( "Unable to run the build in the Maven daemon at " + socket + ": " + e.getMessage() );
+            exitCode = 1;
+        }
+        System.exit( exitCode );
+    }
+
+    /**
+     * Runs a build in the daemon.
+     *
+     * @return The exit code of the build
+     * @throws IOException If the daemon cannot be reached or disconnects during the build
+     */
+    static int run( Path socket, String[] args, String workingDirectory, String multiModuleProjectDirectory,
+                    PrintStream stdout, PrintStream stderr )
+        throws IOException
+    {
+        try ( SocketChannel channel = UnixDomainSockets.connect( socket ) )
+        {
+            DataOutputStream out =
+                new DataOutputStream( new BufferedOutputStream( Channels.newOutputStream( channel ) ) );
+            out.writeInt( args.length );
+            for ( String arg : args )
+            {
+                out.writeUTF( arg );
+            }
+            out.writeUTF( workingDirectory );
+            out.writeUTF( multiModuleProjectDirectory );
+            out.flush();
+
+            DataInputStream in = new DataInputStream( new BufferedInputStream( Channels.newInputStream( channel ) ) );
+            while ( true )
+            {
+                int type = in.readByte();
+                if ( type == MavenDaemon.EXIT )
+                {
+                    return in.readInt();
+                }
+                byte[] bytes = new byte[in.readInt()];
+                in.readFully( bytes );
+                PrintStream target = type == MavenDaemon.STDERR ? stderr : stdout;
+                target.write( bytes );
+                target.flush();
+            }
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package org.apache.maven.cli;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.net.ProtocolFamily;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Path;
+
+/**
+ * Opens Unix-domain socket channels. The channels are available as of Java 16 and are looked up reflectively, since
+ * Maven itself still runs on Java 8.
+ */
+final class UnixDomainSockets
+{
+    private UnixDomainSockets()
+    {
+    }
+
+    static boolean isSupported()
+    {
+        try
+        {
+            Class.forName( "java.net.UnixDomainSocketAddress" );
+            return true;
+        }
+        catch ( ClassNotFoundException e )
+        {
+            return false;
+        }
+    }
+
+    static ServerSocketChannel bind( Path path )
+        throws IOException
+    {
+        ServerSocketChannel channel = (ServerSocketChannel) open( ServerSocketChannel.class );
+        try
+        {
+            channel.bind( address( path ) );
+            return channel;
+        }
+        catch ( IOException | RuntimeException e )
+        {
+            channel.close();
+            throw e;
+        }
+    }
+
+    static SocketChannel connect( Path path )
+        throws IOException
+    {
+        SocketChannel channel = (SocketChannel) open( SocketChannel.class );
+        try
+        {
+            channel.connect( address( path ) );
+            return channel;
+        }
+        catch ( IOException | RuntimeException e )
+        {
+            channel.close();
+            throw e;
+        }
+    }
+
+    private static Object open( Class<?> channelType )
+        throws IOException
+    {
+        try
+        {
+            ProtocolFamily unix = StandardProtocolFamily.valueOf( "UNIX" );
+            return channelType.getMethod( "open", ProtocolFamily.class ).invoke( null, unix );
+        }
+        catch ( InvocationTargetException e )
+        {
+            throw e.getCause() instanceof IOException ? (IOException) e.getCause() : new IOException( e.getCause() );
+        }
+        catch ( ReflectiveOperationException | IllegalArgumentException e )
+        {
+            throw new IOException( "Unix-domain sockets require Java 16 or later", e );
+        }
+    }
+
+    private static SocketAddress address( Path path )
+        throws IOException
+    {
+        try
+        {
+            return (SocketAddress) Class.forName( "java.net.UnixDomainSocketAddress" )
+                .getMethod( "of", Path.class ).invoke( null, path );
+        }
+        catch ( ReflectiveOperationException e )
+        {
+            throw new IOException( "Unix-domain sockets require Java 16 or later", e );
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package org.apache.maven.cli;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.apache.maven.plugin.ExtensionRealmCache;
+import org.apache.maven.plugin.PluginArtifactsCache;
+import org.apache.maven.plugin.PluginDescriptorCache;
+import org.apache.maven.plugin.PluginRealmCache;
+import org.apache.maven.project.ProjectRealmCache;
+import org.apache.maven.project.artifact.ProjectArtifactsCache;
+import org.codehaus.plexus.PlexusContainer;
+import org.codehaus.plexus.classworlds.ClassWorld;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.Logger;
+
+public class DaemonCachesTest
+{
+    @TempDir
+    Path tempDir;
+
+    private final PlexusContainer container = mock( PlexusContainer.class );
+
+    private final PluginRealmCache pluginRealmCache = mock( PluginRealmCache.class );
+
+    private final PluginDescriptorCache pluginDescriptorCache = mock( PluginDescriptorCache.class );
+
+    private final PluginArtifactsCache pluginArtifactsCache = mock( PluginArtifactsCache.class );
+
+    private final ExtensionRealmCache extensionRealmCache = mock( ExtensionRealmCache.class );
+
+    private final ProjectRealmCache projectRealmCache = mock( ProjectRealmCache.class );
+
+    private final ProjectArtifactsCache projectArtifactsCache = mock( ProjectArtifactsCache.class );
+
+    private final DaemonCaches daemonCaches = new DaemonCaches();
+
+    private File settings;
+
+    private File toolchains;
+
+    private File pluginJar;
+
+    private CliRequest cliRequest;
+
+    @BeforeEach
+    public void setUp()
+        throws Exception
+    {
+        when( container.lookup( PluginRealmCache.class ) ).thenReturn( pluginRealmCache );
+        when( container.lookup( PluginDescriptorCache.class ) ).thenReturn( pluginDescriptorCache );
+        when( container.lookup( PluginArtifactsCache.class ) ).thenReturn( pluginArtifactsCache );
+        when( container.lookup( ExtensionRealmCache.class ) ).thenReturn( extensionRealmCache );
+        when( container.lookup( ProjectRealmCache.class ) ).thenReturn( projectRealmCache );
+        when( container.lookup( ProjectArtifactsCache.class ) ).thenReturn( projectArtifactsCache );
+
+        settings = write( "settings.xml", "<settings/>" );
+        toolchains = write( "toolchains.xml", "<toolchains/>" );
+        pluginJar = write( "plugin.jar", "classes" );
+
+        ClassWorld classWorld = new ClassWorld();
+        classWorld.newRealm( "plugin>org.apache.maven.plugins:maven-test-plugin:1.0", null )
+            .addURL( pluginJar.toURI().toURL() );
+        cliRequest = new CliRequest( new String[0], classWorld );
+        cliRequest.request.setUserSettingsFile( settings );
+        cliRequest.request.setUserToolchainsFile( toolchains );
+    }
+
+    @Test
+    public void testUnchangedFilesKeepCaches()
+        throws Exception
+    {
+        daemonCaches.record( cliRequest );
+        daemonCaches.validate( container, mock( Logger.class ) );
+
+        verifyKept();
+        // the resolved dependencies of the reactor are always flushed
+        verify( projectArtifactsCache ).flush();
+    }
+
+    @Test
+    public void testChangedSettingsFlushCaches()
+        throws Exception
+    {
+        daemonCaches.record( cliRequest );
+        touch( settings, "<settings><offline>true</offline></settings>" );
+        daemonCaches.validate( container, mock( Logger.class ) );
+
+        verifyFlushed();
+    }
+
+    @Test
+    public void testChangedToolchainsFlushCaches()
+        throws Exception
+    {
+        daemonCaches.record( cliRequest );
+        touch( toolchains, "<toolchains><toolchain/></toolchains>" );
+        daemonCaches.validate( container, mock( Logger.class ) );
+
+        verifyFlushed();
+    }
+
+    @Test
+    public void testChangedRealmJarFlushesCaches()
+        throws Exception
+    {
+        daemonCaches.record( cliRequest );
+        touch( pluginJar, "other classes" );
+        daemonCaches.validate( container, mock( Logger.class ) );
+
+        verifyFlushed();
+    }
+
+    @Test
+    public void testChangeIsOnlyFlushedOnce()
+        throws Exception
+    {
+        daemonCaches.record( cliRequest );
+        touch( settings, "<settings><offline>true</offline></settings>" );
+        daemonCaches.validate( container, mock( Logger.class ) );
+        daemonCaches.record( cliRequest );
+        daemonCaches.validate( container, mock( Logger.class ) );
+
+        verify( pluginRealmCache ).flush();
+        verify( pluginDescriptorCache ).flush();
+        verify( extensionRealmCache ).flush();
+    }
+
+    private void verifyFlushed()
+    {
+        verify( pluginRealmCache ).flush();
+        verify( pluginDescriptorCache ).flush();
+        verify( pluginArtifactsCache ).flush();
+        verify( extensionRealmCache ).flush();
+        verify( projectRealmCache ).flush();
+    }
+
+    private void verifyKept()
+    {
+        verify( pluginRealmCache, never() ).flush();
+        verify( pluginDescriptorCache, never() ).flush();
+        verify( pluginArtifactsCache, never() ).flush();
+        verify( extensionRealmCache, never() ).flush();
+        verify( projectRealmCache, never() ).flush();
+    }
+
+    private File write( String name, String content )
+        throws IOException
+    {
+        return Files.write( tempDir.resolve( name ), content.getBytes( StandardCharsets.UTF_8 ) ).toFile();
+    }
+
+    private static void touch( File file, String content )
+        throws IOException
+    {
+        long lastModified = file.lastModified();
+        Files.write( file.toPath(), content.getBytes( StandardCharsets.UTF_8 ) );
+        // the size changes too, but do not rely on the timestamp granularity of the file system alone
+        file.setLastModified( lastModified + 2000 );
+    }
+}
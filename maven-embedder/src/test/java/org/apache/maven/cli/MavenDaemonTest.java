@@ -0,0 +1,93 @@
+package org.apache.maven.cli;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class MavenDaemonTest
+{
+    @Test
+    public void testForwardsBuildsAndOutput( @TempDir Path tempDir )
+        throws Exception
+    {
+        assumeTrue( UnixDomainSockets.isSupported() );
+
+        Path socket = tempDir.resolve( "daemon.sock" );
+        MavenDaemon daemon = new MavenDaemon( socket, null )
+        {
+            @Override
+            int build( String[] args, String workingDirectory, String multiModuleProjectDirectory,
+                       PrintStream stdout, PrintStream stderr )
+            {
+                stdout.println( String.join( " ", args ) + " in " + workingDirectory );
+                stderr.println( "root " + multiModuleProjectDirectory );
+                return args.length;
+            }
+        };
+        CompletableFuture<Integer> running = CompletableFuture.supplyAsync( daemon::run );
+        try
+        {
+            for ( int build = 0; build < 2; build++ )
+            {
+                ByteArrayOutputStream stdout = new ByteArrayOutputStream();
+                ByteArrayOutputStream stderr = new ByteArrayOutputStream();
+                int exitCode = -1;
+                for ( int attempt = 0; exitCode < 0; attempt++ )
+                {
+                    try
+                    {
+                        exitCode = MavenDaemonClient.run( socket, new String[] { "-B", "verify" }, "/work", "/root",
+                                                          new PrintStream( stdout ), new PrintStream( stderr ) );
+                    }
+                    catch ( IOException e )
+                    {
+                        // the daemon is still starting up
+                        assertTrue( attempt < 500, e.getMessage() );
+                        Thread.sleep( 10 );
+                    }
+                }
+
+                assertEquals( 2, exitCode );
+                assertEquals( "-B verify in /work" + System.lineSeparator(),
+                              new String( stdout.toByteArray(), StandardCharsets.UTF_8 ) );
+                assertEquals( "root /root" + System.lineSeparator(),
+                              new String( stderr.toByteArray(), StandardCharsets.UTF_8 ) );
+            }
+        }
+        finally
+        {
+            daemon.stop();
+        }
+        assertEquals( 0, running.get( 10, TimeUnit.SECONDS ) );
+    }
+}
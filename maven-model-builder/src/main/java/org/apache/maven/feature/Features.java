@@ -38,6 +38,60 @@ public static Feature buildConsumer( Properties userProperties )
         return new Feature( userProperties, "maven.experimental.buildconsumer", "true" );
     }
 
+    public static Feature buildDurationHistory( Properties userProperties )
+    {
+        return new Feature( userProperties, "maven.experimental.buildhistory", "false" );
+    }
+
+    /**
+     * Persists the effective models of reactor projects, by default in <code>~/.m2/model-cache</code> or else in the
+     * directory given by the user property <code>maven.modelBuilder.cacheDirectory</code>.
+     */
+    public static Feature effectiveModelCache( Properties userProperties )
+    {
+        return new Feature( userProperties, "maven.experimental.modelcache", "false" );
+    }
+
+    /**
+     * Keeps the parsed descriptors of plugins in the local repository, in <code>.cache/plugin-descriptors</code>.
+     */
+    public static Feature pluginDescriptorIndex( Properties userProperties )
+    {
+        return new Feature( userProperties, "maven.experimental.plugindescriptorindex", "false" );
+    }
+
+    /**
+     * Keeps the resolved dependencies of projects in the local repository, in <code>.cache/project-artifacts</code>.
+     */
+    public static Feature projectArtifactsCache( Properties userProperties )
+    {
+        return new Feature( userProperties, "maven.experimental.projectartifactscache", "false" );
+    }
+
+    /**
+     * Keeps the sorted graph of the reactor between builds, in <code>~/.m2/reactor-graph</code>.
+     */
+    public static Feature reactorGraphCache( Properties userProperties )
+    {
+        return new Feature( userProperties, "maven.experimental.reactorgraphcache", "false" );
+    }
+
+    /**
+     * Shares the equal strings and plugin configurations of the effective models of the reactor projects.
+     */
+    public static Feature modelInterning( Properties userProperties )
+    {
+        return new Feature( userProperties, "maven.experimental.modelinterning", "false" );
+    }
+
+    /**
+     * Transforms the POMs on a separate thread that streams the result, instead of buffering it on the calling thread.
+     */
+    public static Feature transformThread( Properties userProperties )
+    {
+        return new Feature( userProperties, "maven.experimental.transformthread", "false" );
+    }
+
     /**
      * Represents some feature
      *
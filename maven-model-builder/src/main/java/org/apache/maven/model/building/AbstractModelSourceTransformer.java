@@ -19,6 +19,8 @@
  * under the License.
  */
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
@@ -27,6 +29,7 @@
 import java.io.PipedOutputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.Properties;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
 
@@ -40,6 +43,7 @@
 import javax.xml.transform.sax.TransformerHandler;
 import javax.xml.transform.stream.StreamResult;
 
+import org.apache.maven.feature.Features;
 import org.apache.maven.model.transform.sax.AbstractSAXFilter;
 import org.apache.maven.model.transform.sax.CommentRenormalizer;
 import org.apache.maven.model.transform.sax.Factories;
@@ -49,7 +53,9 @@
 import org.xml.sax.ext.LexicalHandler;
 
 /**
- * Offers a transformation implementation based on PipelineStreams.
+ * Offers a transformation implementation that runs the SAXFilter on the calling thread and buffers the result, or
+ * with the feature {@link Features#transformThread(Properties)}, on a separate thread that streams the result through
+ * PipelineStreams.
  * Subclasses are responsible for providing the right SAXFilter.
  *
  * @author Robert Scholte
@@ -87,10 +93,76 @@ protected TransformerHandler getTransformerHandler( Path pomFile )
     public final InputStream transform( Path pomFile, TransformerContext context )
         throws IOException, org.apache.maven.model.building.TransformerException
     {
-        final TransformerHandler transformerHandler = getTransformerHandler( pomFile );
+        if ( isTransformThread( context ) )
+        {
+            return transformInThread( pomFile, context );
+        }
+
+        TransformBuffer buffer = new TransformBuffer( (int) Math.min( Files.size( pomFile ), Integer.MAX_VALUE ) );
+        Transformation transformation = newTransformation( pomFile, context, filterOutputStream( buffer, pomFile ) );
+
+        // Like with a transform thread, a failure surfaces when the stream is closed, so that the reader reports
+        // where the output broke off
+        IOExceptionHandler eh = new IOExceptionHandler();
+        try
+        {
+            transformation.run();
+        }
+        catch ( TransformerException | IOException | RuntimeException e )
+        {
+            eh.uncaughtException( Thread.currentThread(), e );
+        }
+
+        return new FailureAwareInputStream( buffer.toInputStream(), eh );
+    }
+
+    private static boolean isTransformThread( TransformerContext context )
+    {
+        // the context only offers single user properties, so pass on the one the feature is named after
+        Properties userProperties = new Properties();
+        String name = Features.transformThread( userProperties ).propertyName();
+        String value = context.getUserProperty( name );
+        if ( value != null )
+        {
+            userProperties.setProperty( name, value );
+        }
+        return Features.transformThread( userProperties ).isActive();
+    }
 
+    private InputStream transformInThread( Path pomFile, TransformerContext context )
+        throws IOException, org.apache.maven.model.building.TransformerException
+    {
         final PipedOutputStream pout = new PipedOutputStream();
-        OutputStream out = filterOutputStream( pout, pomFile );
+        final Transformation transformation =
+            newTransformation( pomFile, context, filterOutputStream( pout, pomFile ) );
+
+        IOExceptionHandler eh = new IOExceptionHandler();
+
+        // Ensure pipedStreams are connected before the transformThread starts!!
+        final PipedInputStream pipedInputStream = new PipedInputStream( pout );
+
+        Thread transformThread = new Thread( () ->
+        {
+            try ( PipedOutputStream pos = pout )
+            {
+                transformation.run();
+            }
+            catch ( TransformerException | IOException e )
+            {
+                eh.uncaughtException( Thread.currentThread(), e );
+            }
+        }, "TransformThread-" + TRANSFORM_THREAD_COUNTER.incrementAndGet() );
+        transformThread.setUncaughtExceptionHandler( eh );
+        transformThread.setDaemon( true );
+        transformThread.start();
+
+        return new FailureAwareInputStream( pipedInputStream, eh );
+    }
+
+    private Transformation newTransformation( Path pomFile, TransformerContext context, OutputStream out )
+        throws IOException, org.apache.maven.model.building.TransformerException
+    {
+        final TransformerHandler transformerHandler = getTransformerHandler( pomFile );
 
         final javax.xml.transform.Result result;
         final Consumer<LexicalHandler> lexConsumer;
@@ -142,30 +214,43 @@ public void error( SAXParseException exception )
             throw new org.apache.maven.model.building.TransformerException( e );
         }
 
-        final SAXSource transformSource =
-            new SAXSource( filter, new org.xml.sax.InputSource( Files.newInputStream( pomFile ) ) );
-
-        IOExceptionHandler eh = new IOExceptionHandler();
+        final InputStream input = Files.newInputStream( pomFile );
 
-        // Ensure pipedStreams are connected before the transformThread starts!!
-        final PipedInputStream pipedInputStream = new PipedInputStream( pout );
-
-        Thread transformThread = new Thread( () ->
+        return () ->
         {
-            try ( PipedOutputStream pos = pout )
+            try ( InputStream in = input )
             {
-                transformerFactory.newTransformer().transform( transformSource, result );
+                transformerFactory.newTransformer().transform(
+                    new SAXSource( filter, new org.xml.sax.InputSource( in ) ), result );
             }
-            catch ( TransformerException | IOException e )
-            {
-                eh.uncaughtException( Thread.currentThread(), e );
-            }
-        }, "TransformThread-" + TRANSFORM_THREAD_COUNTER.incrementAndGet() );
-        transformThread.setUncaughtExceptionHandler( eh );
-        transformThread.setDaemon( true );
-        transformThread.start();
+            out.flush();
+        };
+    }
 
-        return new ThreadAwareInputStream( pipedInputStream, eh );
+    /**
+     * Runs the filters of a POM and writes the result.
+     */
+    private interface Transformation
+    {
+        void run()
+            throws TransformerException, IOException;
+    }
+
+    /**
+     * Holds the transformed POM, read without copying the bytes.
+     */
+    private static class TransformBuffer
+        extends ByteArrayOutputStream
+    {
+        TransformBuffer( int size )
+        {
+            super( size );
+        }
+
+        InputStream toInputStream()
+        {
+            return new ByteArrayInputStream( buf, 0, count );
+        }
     }
 
     private static class IOExceptionHandler
@@ -214,12 +299,12 @@ public void close()
         }
     }
 
-    private class ThreadAwareInputStream
+    private class FailureAwareInputStream
         extends FilterInputStream
     {
         final IOExceptionHandler h;
 
-        protected ThreadAwareInputStream( InputStream in, IOExceptionHandler h )
+        protected FailureAwareInputStream( InputStream in, IOExceptionHandler h )
         {
             super( in );
             this.h = h;
@@ -75,7 +75,7 @@ protected OutputStream filterOutputStream( OutputStream outputStream, Path pomFi
                 public void write( byte[] b, int off, int len )
                     throws IOException
                 {
-                    super.write( b, off, len );
+                    this.out.write( b, off, len );
                     xmlFilterListener.write( pomFile, b, off, len );
                 }
             };
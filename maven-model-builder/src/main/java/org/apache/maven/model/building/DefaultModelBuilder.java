@@ -27,10 +27,10 @@
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.List;
@@ -514,7 +514,7 @@ private void activateFileModel( final ModelBuildingRequest request, final Defaul
 
     @SuppressWarnings( "checkstyle:methodlength" )
     private Model readEffectiveModel( final ModelBuildingRequest request, final DefaultModelBuildingResult result,
-                          DefaultModelProblemCollector problems )
+                          DefaultModelProblemCollector problems, PersistentModelCache persistentCache )
         throws ModelBuildingException
     {
         Model inputModel =
@@ -545,6 +545,13 @@ private Model readEffectiveModel( final ModelBuildingRequest request, final Defa
 
         List<Model> lineage = new ArrayList<>();
 
+        // the inherited models of the parent, reused by the children that share it
+        InheritedLineages inheritedLineages = null;
+        InheritedLineages.Key lineageKey = null;
+        InheritedLineages.Lineage inheritedLineage = null;
+        List<InheritedLineages.Ancestor> ancestors = new ArrayList<>();
+        int problemCount = -1;
+
         for ( ModelData currentData = resultData; ; )
         {
             String modelId = currentData.getId();
@@ -590,16 +597,45 @@ private Model readEffectiveModel( final ModelBuildingRequest request, final Defa
 
             lineage.add( tmpModel );
 
+            if ( currentData != resultData )
+            {
+                ancestors.add( new InheritedLineages.Ancestor( modelId, currentData.getSource(), rawModel,
+                                                               result.getActivePomProfiles( modelId ), tmpModel ) );
+                if ( hasFileActivation( rawModel ) )
+                {
+                    // activated by files relative to the child
+                    inheritedLineages = null;
+                }
+            }
+
             if ( currentData == superData )
             {
                 break;
             }
 
+            if ( persistentCache != null )
+            {
+                persistentCache.addLineage( currentData.getSource() );
+            }
+
             configureResolver( request.getModelResolver(), tmpModel, problems );
 
             ModelData parentData =
                 readParent( currentData.getModel(), currentData.getSource(), request, result, problems );
 
+            if ( currentData == resultData && parentData != null && request.getModelCache() != null )
+            {
+                inheritedLineages = getInheritedLineages( request.getModelCache(), parentData.getSource() );
+                lineageKey = new InheritedLineages.Key( profileActivationContext, request.getValidationLevel() );
+                inheritedLineage = inheritedLineages.get( lineageKey );
+                if ( inheritedLineage != null )
+                {
+                    reuseLineage( inheritedLineage, lineage, request, result, problems, persistentCache );
+                    break;
+                }
+                problemCount = problems.getProblems().size();
+            }
+
             if ( parentData == null )
             {
                 currentData = superData;
@@ -624,16 +660,44 @@ else if ( !parentIds.add( parentData.getId() ) )
             }
         }
 
+        if ( inheritedLineages != null && inheritedLineage == null
+            && problems.getProblems().size() != problemCount )
+        {
+            // the problems of the parents would only be reported for the first child
+            inheritedLineages = null;
+        }
+
         problems.setSource( result.getRawModel() );
         checkPluginVersions( lineage, request, problems );
 
         // inheritance assembly
-        assembleInheritance( lineage, request, problems );
+        if ( inheritedLineage != null )
+        {
+            Model inheritedModel = inheritedLineage.getInheritedModel().clone();
+            assembleInheritance( Arrays.asList( lineage.get( 0 ), inheritedModel ), request, problems );
+        }
+        else if ( inheritedLineages != null )
+        {
+            for ( int i = 1; i < lineage.size(); i++ )
+            {
+                // keep the models before the assembly for the checks of the children
+                lineage.set( i, lineage.get( i ).clone() );
+            }
+            problemCount = problems.getProblems().size();
+            assembleInheritance( lineage, request, problems );
+            if ( problems.getProblems().size() == problemCount )
+            {
+                inheritedLineages.put( lineageKey,
+                                       new InheritedLineages.Lineage( ancestors, lineage.get( 1 ).clone() ) );
+            }
+        }
+        else
+        {
+            assembleInheritance( lineage, request, problems );
+        }
 
         Model resultModel = lineage.get( 0 );
 
-        // consider caching inherited model
-
         problems.setSource( resultModel );
         problems.setRootModel( resultModel );
 
@@ -651,6 +715,59 @@ else if ( !parentIds.add( parentData.getId() ) )
         return resultModel;
     }
 
+    private static InheritedLineages getInheritedLineages( ModelCache modelCache, Source parentSource )
+    {
+        InheritedLineages inheritedLineages = fromCache( modelCache, parentSource, ModelCacheTag.INHERITED );
+        if ( inheritedLineages == null )
+        {
+            inheritedLineages = new InheritedLineages();
+            modelCache.put( parentSource, ModelCacheTag.INHERITED, inheritedLineages );
+        }
+        return inheritedLineages;
+    }
+
+    /**
+     * Records the ancestors of a cached lineage in the result like reading them would, and appends their models to
+     * the lineage for the checks.
+     */
+    private void reuseLineage( InheritedLineages.Lineage inheritedLineage, List<Model> lineage,
+                               ModelBuildingRequest request, DefaultModelBuildingResult result,
+                               DefaultModelProblemCollector problems, PersistentModelCache persistentCache )
+    {
+        for ( InheritedLineages.Ancestor ancestor : inheritedLineage.getAncestors() )
+        {
+            String modelId = ancestor.getModelId();
+            result.addModelId( modelId );
+
+            Model rawModel = ancestor.newRawModel();
+            result.setRawModel( modelId, rawModel );
+            result.setActivePomProfiles( modelId, ancestor.getActiveProfiles( rawModel ) );
+
+            lineage.add( ancestor.getModel() );
+
+            if ( ancestor.getSource() != null )
+            {
+                if ( persistentCache != null )
+                {
+                    persistentCache.addLineage( ancestor.getSource() );
+                }
+                configureResolver( request.getModelResolver(), ancestor.getModel(), problems );
+            }
+        }
+    }
+
+    private static boolean hasFileActivation( Model rawModel )
+    {
+        for ( Profile profile : rawModel.getProfiles() )
+        {
+            if ( profile.getActivation() != null && profile.getActivation().getFile() != null )
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
     private Map<String, Activation> getInterpolatedActivations( Model rawModel,
                                                                 DefaultProfileActivationContext context,
                                                                 DefaultModelProblemCollector problems )
@@ -717,7 +834,13 @@ private ModelBuildingResult build( final ModelBuildingRequest request, final Mod
         DefaultModelProblemCollector problems = new DefaultModelProblemCollector( result );
 
         // phase 2
-        Model resultModel = readEffectiveModel( request, result, problems );
+        PersistentModelCache persistentCache = PersistentModelCache.newInstance( request );
+        if ( persistentCache != null && persistentCache.restore( result ) )
+        {
+            return restored( request, result, problems );
+        }
+
+        Model resultModel = readEffectiveModel( request, result, problems, persistentCache );
         problems.setSource( resultModel );
         problems.setRootModel( resultModel );
 
@@ -741,6 +864,10 @@ private ModelBuildingResult build( final ModelBuildingRequest request, final Mod
         }
 
         // dependency management import
+        if ( persistentCache != null )
+        {
+            persistentCache.addImports( resultModel );
+        }
         importDependencyManagement( resultModel, request, problems, imports );
 
         // dependency management injection
@@ -768,6 +895,31 @@ private ModelBuildingResult build( final ModelBuildingRequest request, final Mod
             throw problems.newModelBuildingException();
         }
 
+        if ( persistentCache != null )
+        {
+            persistentCache.store( result, modelProcessor );
+        }
+
+        return result;
+    }
+
+    private ModelBuildingResult restored( ModelBuildingRequest request, DefaultModelBuildingResult result,
+                                          DefaultModelProblemCollector problems )
+        throws ModelBuildingException
+    {
+        Model resultModel = result.getEffectiveModel();
+        problems.setSource( resultModel );
+        problems.setRootModel( resultModel );
+
+        configureResolver( request.getModelResolver(), resultModel, problems, true );
+
+        fireEvent( resultModel, request, problems, ModelBuildingEventCatapult.BUILD_EXTENSIONS_ASSEMBLED );
+
+        if ( hasModelErrors( problems ) )
+        {
+            throw problems.newModelBuildingException();
+        }
+
         return result;
     }
 
@@ -1882,7 +2034,7 @@ public Source getSource( String groupId, String artifactId )
         public void putSource( String groupId, String artifactId, Source source )
         {
             mappedSources.computeIfAbsent( new DefaultTransformerContext.GAKey( groupId, artifactId ),
-                    k -> new HashSet<>() ).add( source );
+                    k -> ConcurrentHashMap.newKeySet() ).add( source );
         }
 
     }
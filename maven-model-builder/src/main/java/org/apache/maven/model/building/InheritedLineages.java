@@ -0,0 +1,242 @@
+package org.apache.maven.model.building;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.maven.building.Source;
+import org.apache.maven.model.Model;
+import org.apache.maven.model.Profile;
+import org.apache.maven.model.profile.ProfileActivationContext;
+
+/**
+ * The inherited models of a parent, i.e. the parent with the models of its own parents and the super model assembled
+ * into it, before interpolation. Since profile activation depends on the build request, a parent can have several
+ * inherited models, one per {@link Key}. The holder is stored in the {@link ModelCache} under the source of the
+ * parent, so that the children sharing a parent only assemble its lineage once.
+ *
+ * @since 4.0.0
+ */
+final class InheritedLineages
+{
+    private final ConcurrentMap<Key, Lineage> lineages = new ConcurrentHashMap<>();
+
+    Lineage get( Key key )
+    {
+        return lineages.get( key );
+    }
+
+    void put( Key key, Lineage lineage )
+    {
+        lineages.putIfAbsent( key, lineage );
+    }
+
+    /**
+     * The inputs of profile activation and model normalization, beside the models themselves.
+     */
+    static final class Key
+    {
+        private final Map<String, String> userProperties;
+
+        private final Map<String, String> systemProperties;
+
+        private final List<String> activeProfileIds;
+
+        private final List<String> inactiveProfileIds;
+
+        private final int validationLevel;
+
+        private final int hashCode;
+
+        Key( ProfileActivationContext context, int validationLevel )
+        {
+            this.userProperties = new HashMap<>( context.getUserProperties() );
+            this.systemProperties = new HashMap<>( context.getSystemProperties() );
+            this.activeProfileIds = new ArrayList<>( context.getActiveProfileIds() );
+            this.inactiveProfileIds = new ArrayList<>( context.getInactiveProfileIds() );
+            this.validationLevel = validationLevel;
+            this.hashCode = Objects.hash( userProperties, systemProperties, activeProfileIds, inactiveProfileIds,
+                                          validationLevel );
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return hashCode;
+        }
+
+        @Override
+        public boolean equals( Object obj )
+        {
+            if ( this == obj )
+            {
+                return true;
+            }
+            if ( !( obj instanceof Key ) )
+            {
+                return false;
+            }
+            Key that = (Key) obj;
+            return validationLevel == that.validationLevel && userProperties.equals( that.userProperties )
+                && systemProperties.equals( that.systemProperties )
+                && activeProfileIds.equals( that.activeProfileIds )
+                && inactiveProfileIds.equals( that.inactiveProfileIds );
+        }
+    }
+
+    /**
+     * The models of a lineage, from the parent up to the super model. The models are shared and must not be modified.
+     */
+    static final class Lineage
+    {
+        private final List<Ancestor> ancestors;
+
+        private final Model inheritedModel;
+
+        /**
+         * @param ancestors The ancestors, their raw models are copied
+         * @param inheritedModel The parent with its lineage assembled into it
+         */
+        Lineage( List<Ancestor> ancestors, Model inheritedModel )
+        {
+            List<Ancestor> copies = new ArrayList<>( ancestors.size() );
+            for ( Ancestor ancestor : ancestors )
+            {
+                copies.add( new Ancestor( ancestor ) );
+            }
+            this.ancestors = Collections.unmodifiableList( copies );
+            this.inheritedModel = inheritedModel;
+        }
+
+        /**
+         * @return The ancestors, from the parent up to the super model
+         */
+        List<Ancestor> getAncestors()
+        {
+            return ancestors;
+        }
+
+        /**
+         * @return The parent with its lineage assembled into it
+         */
+        Model getInheritedModel()
+        {
+            return inheritedModel;
+        }
+    }
+
+    /**
+     * An ancestor of a lineage.
+     */
+    static final class Ancestor
+    {
+        private final String modelId;
+
+        private final Source source;
+
+        private final Model rawModel;
+
+        private final List<String> activeProfileIds;
+
+        private final Model model;
+
+        /**
+         * @param modelId The id of the model
+         * @param source The source of the model, {@code null} for the super model
+         * @param rawModel The raw model
+         * @param activeProfiles The active profiles of the raw model
+         * @param model The model with the active profiles injected, before inheritance assembly
+         */
+        Ancestor( String modelId, Source source, Model rawModel, List<Profile> activeProfiles, Model model )
+        {
+            this.modelId = modelId;
+            this.source = source;
+            this.rawModel = rawModel;
+            this.activeProfileIds = new ArrayList<>( activeProfiles.size() );
+            for ( Profile profile : activeProfiles )
+            {
+                activeProfileIds.add( profile.getId() );
+            }
+            this.model = model;
+        }
+
+        /**
+         * Copies the ancestor with its raw model, which the result of the build owns.
+         */
+        private Ancestor( Ancestor ancestor )
+        {
+            this.modelId = ancestor.modelId;
+            this.source = ancestor.source;
+            this.rawModel = ancestor.rawModel.clone();
+            this.activeProfileIds = ancestor.activeProfileIds;
+            this.model = ancestor.model;
+        }
+
+        String getModelId()
+        {
+            return modelId;
+        }
+
+        Source getSource()
+        {
+            return source;
+        }
+
+        Model getModel()
+        {
+            return model;
+        }
+
+        /**
+         * @return A copy of the raw model
+         */
+        Model newRawModel()
+        {
+            return rawModel.clone();
+        }
+
+        /**
+         * @return The active profiles of the given copy of the raw model
+         */
+        List<Profile> getActiveProfiles( Model rawModelCopy )
+        {
+            List<Profile> profiles = new ArrayList<>( activeProfileIds.size() );
+            for ( String id : activeProfileIds )
+            {
+                for ( Profile profile : rawModelCopy.getProfiles() )
+                {
+                    if ( id.equals( profile.getId() ) )
+                    {
+                        profiles.add( profile );
+                        break;
+                    }
+                }
+            }
+            return profiles;
+        }
+    }
+}
@@ -159,4 +159,36 @@ public Model fromCache( Model data )
             return intoCache( data );
         }
     };
+
+    /**
+     * The tag used for the inherited models of a parent
+     * @since 4.0.0
+     */
+    ModelCacheTag<InheritedLineages> INHERITED = new ModelCacheTag<InheritedLineages>()
+    {
+        @Override
+        public String getName()
+        {
+            return "inherited";
+        }
+
+        @Override
+        public Class<InheritedLineages> getType()
+        {
+            return InheritedLineages.class;
+        }
+
+        @Override
+        public InheritedLineages intoCache( InheritedLineages data )
+        {
+            // shared, the lineages copy the models themselves
+            return data;
+        }
+
+        @Override
+        public InheritedLineages fromCache( InheritedLineages data )
+        {
+            return data;
+        }
+    };
 }
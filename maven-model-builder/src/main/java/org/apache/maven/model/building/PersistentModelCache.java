@@ -0,0 +1,624 @@
+package org.apache.maven.model.building;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InvalidClassException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.apache.maven.building.FileSource;
+import org.apache.maven.building.Source;
+import org.apache.maven.feature.Features;
+import org.apache.maven.model.Activation;
+import org.apache.maven.model.Dependency;
+import org.apache.maven.model.DependencyManagement;
+import org.apache.maven.model.Model;
+import org.apache.maven.model.Parent;
+import org.apache.maven.model.Plugin;
+import org.apache.maven.model.Profile;
+import org.apache.maven.model.io.ModelReader;
+import org.apache.maven.model.resolution.ModelResolver;
+import org.apache.maven.model.resolution.UnresolvableModelException;
+
+/**
+ * Persists the effective models of reactor projects between builds, so that unchanged projects skip the lineage
+ * assembly, interpolation, injections and validation of the second phase. An entry is only reused when none of the
+ * POMs that went into it changed, i.e. the project itself, its parents, its imported BOMs and their parents, and when
+ * the build request and the values of the properties that the POMs refer to are the same.
+ * <p>
+ * Entries are written for two-phase builds of POM files only, and only when the model was built without any problem,
+ * does not use build extensions, does not activate profiles by the existence of files and does not import BOMs that
+ * import further BOMs themselves. The cache is enabled with
+ * {@link Features#effectiveModelCache(Properties)}, the user property {@value #DIRECTORY_PROPERTY} overrides the
+ * default directory <code>~/.m2/model-cache</code>.
+ *
+ * @since 4.0.0
+ */
+final class PersistentModelCache
+{
+    static final String DIRECTORY_PROPERTY = "maven.modelBuilder.cacheDirectory";
+
+    private static final String FORMAT = "1";
+
+    private static final Pattern EXPRESSION = Pattern.compile( "\\$\\{([^${}]+)}" );
+
+    private final ModelBuildingRequest request;
+
+    private final File pomFile;
+
+    private final Path entryFile;
+
+    private final List<Source> lineage = new ArrayList<>();
+
+    private final List<Dependency> imports = new ArrayList<>();
+
+    private boolean cacheable = true;
+
+    private PersistentModelCache( ModelBuildingRequest request, File pomFile, Path entryFile )
+    {
+        this.request = request;
+        this.pomFile = pomFile;
+        this.entryFile = entryFile;
+    }
+
+    /**
+     * Creates the cache for the second phase of the given request.
+     *
+     * @param request The model building request, must not be {@code null}.
+     * @return The cache or {@code null} if it is disabled or does not apply to the request.
+     */
+    static PersistentModelCache newInstance( ModelBuildingRequest request )
+    {
+        if ( !request.isTwoPhaseBuilding() || !( request.getModelSource() instanceof FileModelSource )
+            || !Features.effectiveModelCache( request.getUserProperties() ).isActive() )
+        {
+            return null;
+        }
+
+        String directory = request.getUserProperties().getProperty( DIRECTORY_PROPERTY );
+        if ( directory == null )
+        {
+            String userHome = request.getSystemProperties().getProperty( "user.home" );
+            if ( userHome == null )
+            {
+                return null;
+            }
+            directory = Paths.get( userHome, ".m2", "model-cache" ).toString();
+        }
+
+        File pomFile = ( (FileModelSource) request.getModelSource() ).getFile().getAbsoluteFile();
+        Path entryFile = Paths.get( directory, hex( digest( pomFile.getPath().getBytes( StandardCharsets.UTF_8 ) ) ) );
+        return new PersistentModelCache( request, pomFile, entryFile );
+    }
+
+    /**
+     * Records a model of the parent lineage, from the project up to its root parent.
+     */
+    void addLineage( Source source )
+    {
+        if ( source instanceof FileSource )
+        {
+            lineage.add( source );
+        }
+        else
+        {
+            cacheable = false;
+        }
+    }
+
+    /**
+     * Records the BOMs that the model is about to import.
+     */
+    void addImports( Model model )
+    {
+        DependencyManagement depMgmt = model.getDependencyManagement();
+        if ( depMgmt != null )
+        {
+            for ( Dependency dependency : depMgmt.getDependencies() )
+            {
+                if ( "pom".equals( dependency.getType() ) && "import".equals( dependency.getScope() ) )
+                {
+                    imports.add( dependency.clone() );
+                }
+            }
+        }
+    }
+
+    /**
+     * Fills the result from a valid entry, i.e. with the models and the active profiles of the lineage.
+     *
+     * @param result The result of the first phase, must not be {@code null}.
+     * @return {@code true} if the result has been restored, {@code false} if there is no valid entry.
+     */
+    boolean restore( DefaultModelBuildingResult result )
+    {
+        Entry entry = read();
+        if ( entry == null || !entry.fingerprint.equals( fingerprint() ) )
+        {
+            return false;
+        }
+        for ( Map.Entry<String, String> input : entry.inputs.entrySet() )
+        {
+            if ( !input.getValue().equals( hash( Paths.get( input.getKey() ) ) ) )
+            {
+                return false;
+            }
+        }
+        for ( Map.Entry<String, String> property : entry.properties.entrySet() )
+        {
+            if ( !property.getValue().equals( propertyValue( property.getKey() ) ) )
+            {
+                return false;
+            }
+        }
+
+        for ( int i = 0; i < entry.modelIds.size(); i++ )
+        {
+            String modelId = entry.modelIds.get( i );
+            Model rawModel = entry.rawModels.get( i );
+            List<String> profileIds = entry.activeProfileIds.get( i );
+            List<Profile> activeProfiles = new ArrayList<>( profileIds.size() );
+            for ( Profile profile : rawModel.getProfiles() )
+            {
+                if ( profileIds.contains( profile.getId() ) )
+                {
+                    activeProfiles.add( profile );
+                }
+            }
+            result.addModelId( modelId );
+            result.setRawModel( modelId, rawModel );
+            result.setActivePomProfiles( modelId, activeProfiles );
+        }
+        result.setEffectiveModel( entry.effectiveModel );
+        return true;
+    }
+
+    /**
+     * Writes an entry for the result of a successful build, unless the result cannot be reused safely.
+     *
+     * @param result The result of the second phase, must not be {@code null}.
+     * @param modelReader The reader for the POMs of the imported BOMs and their parents, must not be {@code null}.
+     */
+    void store( ModelBuildingResult result, ModelReader modelReader )
+    {
+        Model effectiveModel = result.getEffectiveModel();
+        if ( !cacheable || !result.getProblems().isEmpty() || usesExtensions( effectiveModel ) )
+        {
+            return;
+        }
+
+        Entry entry = new Entry();
+        entry.fingerprint = fingerprint();
+
+        List<Path> inputs = new ArrayList<>();
+        inputs.add( pomFile.toPath() );
+        for ( Source source : lineage )
+        {
+            inputs.add( ( (FileSource) source ).getFile().toPath() );
+        }
+        TreeSet<String> propertyNames = new TreeSet<>();
+        ModelResolver modelResolver = request.getModelResolver();
+        if ( !imports.isEmpty() )
+        {
+            if ( modelResolver == null )
+            {
+                return;
+            }
+            Set<File> seen = new HashSet<>();
+            for ( Dependency dependency : imports )
+            {
+                if ( !addImportLineage( modelResolver.newCopy(), modelReader, dependency, inputs, seen,
+                                        propertyNames ) )
+                {
+                    return;
+                }
+            }
+        }
+        Path extensions = getExtensionsFile();
+        if ( extensions != null )
+        {
+            inputs.add( extensions );
+        }
+
+        for ( Path input : inputs )
+        {
+            try
+            {
+                byte[] content = Files.readAllBytes( input );
+                entry.inputs.put( input.toString(), hex( digest( content ) ) );
+                Matcher matcher = EXPRESSION.matcher( new String( content, StandardCharsets.UTF_8 ) );
+                while ( matcher.find() )
+                {
+                    propertyNames.add( matcher.group( 1 ).trim() );
+                }
+            }
+            catch ( NoSuchFileException e )
+            {
+                entry.inputs.put( input.toString(), "" );
+            }
+            catch ( IOException e )
+            {
+                return;
+            }
+        }
+
+        for ( String modelId : result.getModelIds() )
+        {
+            Model rawModel = result.getRawModel( modelId );
+            if ( !addActivationProperties( rawModel, propertyNames ) )
+            {
+                return;
+            }
+            List<String> profileIds = new ArrayList<>();
+            for ( Profile profile : result.getActivePomProfiles( modelId ) )
+            {
+                profileIds.add( profile.getId() );
+            }
+            entry.modelIds.add( modelId );
+            // the clones replace the merging lists of the model builder with plain, serializable lists
+            entry.rawModels.add( rawModel.clone() );
+            entry.activeProfileIds.add( profileIds );
+        }
+        if ( propertyNames.contains( "maven.build.timestamp" ) )
+        {
+            return;
+        }
+        for ( String name : propertyNames )
+        {
+            entry.properties.put( name, propertyValue( name ) );
+        }
+        entry.effectiveModel = effectiveModel.clone();
+
+        write( entry );
+    }
+
+    /**
+     * Adds the POM of an imported BOM and the POMs of its parents to the inputs. The lineage of a BOM is followed
+     * the same way as the one of the project, nested imports are not, so BOMs that import other BOMs are refused.
+     *
+     * @return {@code false} if the BOM or one of its parents cannot be tracked.
+     */
+    private static boolean addImportLineage( ModelResolver modelResolver, ModelReader modelReader,
+                                             Dependency dependency, List<Path> inputs, Set<File> seen,
+                                             TreeSet<String> propertyNames )
+    {
+        Map<String, Object> options = Collections.singletonMap( ModelReader.IS_STRICT, Boolean.FALSE );
+        try
+        {
+            Source source = modelResolver.resolveModel( dependency );
+            while ( source != null )
+            {
+                if ( !( source instanceof FileSource ) )
+                {
+                    return false;
+                }
+                File file = ( (FileSource) source ).getFile();
+                if ( !seen.add( file.getAbsoluteFile() ) )
+                {
+                    return true;
+                }
+                inputs.add( file.toPath() );
+
+                Model model = modelReader.read( file, options );
+                if ( hasImports( model.getDependencyManagement() )
+                    || !addActivationProperties( model, propertyNames ) )
+                {
+                    return false;
+                }
+                for ( Profile profile : model.getProfiles() )
+                {
+                    if ( hasImports( profile.getDependencyManagement() ) )
+                    {
+                        return false;
+                    }
+                }
+
+                Parent parent = model.getParent();
+                source = parent != null ? modelResolver.resolveModel( parent.clone() ) : null;
+            }
+            return true;
+        }
+        catch ( UnresolvableModelException | IOException e )
+        {
+            return false;
+        }
+    }
+
+    private static boolean hasImports( DependencyManagement depMgmt )
+    {
+        if ( depMgmt != null )
+        {
+            for ( Dependency dependency : depMgmt.getDependencies() )
+            {
+                if ( "pom".equals( dependency.getType() ) && "import".equals( dependency.getScope() ) )
+                {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static boolean usesExtensions( Model model )
+    {
+        if ( model.getBuild() == null )
+        {
+            return false;
+        }
+        if ( !model.getBuild().getExtensions().isEmpty() )
+        {
+            return true;
+        }
+        for ( Plugin plugin : model.getBuild().getPlugins() )
+        {
+            if ( plugin.isExtensions() )
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean addActivationProperties( Model rawModel, TreeSet<String> propertyNames )
+    {
+        for ( Profile profile : rawModel.getProfiles() )
+        {
+            Activation activation = profile.getActivation();
+            if ( activation == null )
+            {
+                continue;
+            }
+            if ( activation.getFile() != null )
+            {
+                return false;
+            }
+            if ( activation.getProperty() != null && activation.getProperty().getName() != null )
+            {
+                String name = activation.getProperty().getName().trim();
+                propertyNames.add( name.startsWith( "!" ) ? name.substring( 1 ) : name );
+            }
+            if ( activation.getJdk() != null )
+            {
+                propertyNames.add( "java.version" );
+            }
+            if ( activation.getOs() != null )
+            {
+                propertyNames.add( "os.name" );
+                propertyNames.add( "os.arch" );
+                propertyNames.add( "os.version" );
+            }
+        }
+        return true;
+    }
+
+    private Path getExtensionsFile()
+    {
+        String rootDirectory = request.getSystemProperties().getProperty( "maven.multiModuleProjectDirectory" );
+        return rootDirectory != null ? Paths.get( rootDirectory, ".mvn", "extensions.xml" ) : null;
+    }
+
+    private String propertyValue( String name )
+    {
+        return request.getUserProperties().getProperty( name ) + '\u0000'
+            + request.getSystemProperties().getProperty( name );
+    }
+
+    private String fingerprint()
+    {
+        MessageDigest digest = newDigest();
+        try ( ObjectOutputStream out = new ObjectOutputStream( new DigestOutputStream( nullOutputStream(), digest ) ) )
+        {
+            out.writeUTF( FORMAT );
+            out.writeUTF( Objects.toString( DefaultModelBuilder.class.getPackage().getImplementationVersion() ) );
+            out.writeInt( request.getValidationLevel() );
+            out.writeBoolean( request.isProcessPlugins() );
+            out.writeBoolean( request.isLocationTracking() );
+            out.writeObject( new ArrayList<>( request.getActiveProfileIds() ) );
+            out.writeObject( new ArrayList<>( request.getInactiveProfileIds() ) );
+            for ( Profile profile : request.getProfiles() )
+            {
+                out.writeObject( profile.clone() );
+            }
+        }
+        catch ( IOException e )
+        {
+            throw new IllegalStateException( e );
+        }
+        return hex( digest.digest() );
+    }
+
+    private Entry read()
+    {
+        try ( ObjectInputStream in = new EntryInputStream( new BufferedInputStream(
+            Files.newInputStream( entryFile ) ) ) )
+        {
+            return (Entry) in.readObject();
+        }
+        catch ( IOException | ClassNotFoundException | ClassCastException e )
+        {
+            // missing, outdated or corrupt entries are rebuilt
+            return null;
+        }
+    }
+
+    private void write( Entry entry )
+    {
+        try
+        {
+            Files.createDirectories( entryFile.getParent() );
+            Path tmp = Files.createTempFile( entryFile.getParent(), entryFile.getFileName().toString(), ".tmp" );
+            try
+            {
+                try ( ObjectOutputStream out = new ObjectOutputStream( new BufferedOutputStream(
+                    Files.newOutputStream( tmp ) ) ) )
+                {
+                    out.writeObject( entry );
+                }
+                Files.move( tmp, entryFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE );
+            }
+            finally
+            {
+                Files.deleteIfExists( tmp );
+            }
+        }
+        catch ( IOException e )
+        {
+            // the cache is an optimization only, the next build will try again
+        }
+    }
+
+    private static String hash( Path file )
+    {
+        try
+        {
+            return hex( digest( Files.readAllBytes( file ) ) );
+        }
+        catch ( NoSuchFileException e )
+        {
+            return "";
+        }
+        catch ( IOException e )
+        {
+            return null;
+        }
+    }
+
+    private static byte[] digest( byte[] content )
+    {
+        return newDigest().digest( content );
+    }
+
+    private static MessageDigest newDigest()
+    {
+        try
+        {
+            return MessageDigest.getInstance( "SHA-1" );
+        }
+        catch ( NoSuchAlgorithmException e )
+        {
+            throw new IllegalStateException( e );
+        }
+    }
+
+    private static String hex( byte[] bytes )
+    {
+        StringBuilder buffer = new StringBuilder( bytes.length * 2 );
+        for ( byte b : bytes )
+        {
+            buffer.append( Character.forDigit( ( b >> 4 ) & 0xF, 16 ) ).append( Character.forDigit( b & 0xF, 16 ) );
+        }
+        return buffer.toString();
+    }
+
+    private static OutputStream nullOutputStream()
+    {
+        return new OutputStream()
+        {
+            @Override
+            public void write( int b )
+            {
+            }
+
+            @Override
+            public void write( byte[] b, int off, int len )
+            {
+            }
+        };
+    }
+
+    /**
+     * The persisted form of a result.
+     */
+    static final class Entry
+        implements Serializable
+    {
+        private static final long serialVersionUID = 1L;
+
+        String fingerprint;
+
+        final Map<String, String> inputs = new LinkedHashMap<>();
+
+        final Map<String, String> properties = new HashMap<>();
+
+        final List<String> modelIds = new ArrayList<>();
+
+        final List<Model> rawModels = new ArrayList<>();
+
+        final List<List<String>> activeProfileIds = new ArrayList<>();
+
+        Model effectiveModel;
+    }
+
+    /**
+     * Only deserializes the classes that make up an entry.
+     */
+    private static final class EntryInputStream
+        extends ObjectInputStream
+    {
+        EntryInputStream( InputStream in )
+            throws IOException
+        {
+            super( in );
+        }
+
+        @Override
+        protected Class<?> resolveClass( ObjectStreamClass desc )
+            throws IOException, ClassNotFoundException
+        {
+            String name = desc.getName();
+            if ( !name.startsWith( "java." ) && !name.startsWith( "[" ) && !name.startsWith( "org.apache.maven.model." )
+                && !name.equals( "org.codehaus.plexus.util.xml.Xpp3Dom" ) )
+            {
+                throw new InvalidClassException( name, "Unexpected class in model cache entry" );
+            }
+            return super.resolveClass( desc );
+        }
+    }
+}
@@ -36,10 +36,7 @@
 import org.apache.maven.model.path.UrlNormalizer;
 import org.codehaus.plexus.interpolation.AbstractValueSource;
 import org.codehaus.plexus.interpolation.InterpolationPostProcessor;
-import org.codehaus.plexus.interpolation.MapBasedValueSource;
-import org.codehaus.plexus.interpolation.ObjectBasedValueSource;
 import org.codehaus.plexus.interpolation.PrefixAwareRecursionInterceptor;
-import org.codehaus.plexus.interpolation.PrefixedObjectValueSource;
 import org.codehaus.plexus.interpolation.PrefixedValueSourceWrapper;
 import org.codehaus.plexus.interpolation.RecursionInterceptor;
 import org.codehaus.plexus.interpolation.ValueSource;
@@ -85,6 +82,8 @@
     private final PathTranslator pathTranslator;
     private final UrlNormalizer urlNormalizer;
 
+    private final ModelExpressions modelExpressions = new ModelExpressions();
+
     @Inject
     public AbstractStringBasedModelInterpolator( PathTranslator pathTranslator, UrlNormalizer urlNormalizer )
     {
@@ -98,13 +97,13 @@ protected List<ValueSource> createValueSources( final Model model, final File pr
     {
         Properties modelProperties = model.getProperties();
 
-        ValueSource modelValueSource1 = new PrefixedObjectValueSource( PROJECT_PREFIXES, model, false );
+        ValueSource modelValueSource1 = modelExpressions.newValueSource( model, PROJECT_PREFIXES );
         if ( config.getValidationLevel() >= ModelBuildingRequest.VALIDATION_LEVEL_MAVEN_2_0 )
         {
             modelValueSource1 = new ProblemDetectingValueSource( modelValueSource1, "pom.", "project.", problems );
         }
 
-        ValueSource modelValueSource2 = new ObjectBasedValueSource( model );
+        ValueSource modelValueSource2 = modelExpressions.newValueSource( model, null );
         if ( config.getValidationLevel() >= ModelBuildingRequest.VALIDATION_LEVEL_MAVEN_2_0 )
         {
             modelValueSource2 = new ProblemDetectingValueSource( modelValueSource2, "", "project.", problems );
@@ -147,8 +146,6 @@ public Object getValue( String expression )
 
         valueSources.add( modelValueSource1 );
 
-        valueSources.add( new MapBasedValueSource( config.getUserProperties() ) );
-
         // Overwrite existing values in model properties. Otherwise it's not possible
         // to define the version via command line: mvn -Drevision=6.5.7 ...
         if ( config.getSystemProperties().containsKey( REVISION_PROPERTY ) )
@@ -163,16 +160,29 @@ public Object getValue( String expression )
         {
             modelProperties.put( SHA1_PROPERTY, config.getSystemProperties().get( SHA1_PROPERTY ) );
         }
-        valueSources.add( new MapBasedValueSource( modelProperties ) );
-
-        valueSources.add( new MapBasedValueSource( config.getSystemProperties() ) );
 
+        // user properties, model properties, system properties and environment variables in a single lookup
+        final Properties userProperties = config.getUserProperties();
+        final Properties systemProperties = config.getSystemProperties();
         valueSources.add( new AbstractValueSource( false )
         {
             @Override
             public Object getValue( String expression )
             {
-                return config.getSystemProperties().getProperty( "env." + expression );
+                Object value = userProperties.get( expression );
+                if ( value == null )
+                {
+                    value = modelProperties.get( expression );
+                }
+                if ( value == null )
+                {
+                    value = systemProperties.get( expression );
+                }
+                if ( value == null )
+                {
+                    value = systemProperties.getProperty( "env." + expression );
+                }
+                return value;
             }
         } );
 
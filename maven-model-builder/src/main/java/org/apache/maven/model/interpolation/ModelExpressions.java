@@ -0,0 +1,413 @@
+package org.apache.maven.model.interpolation;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Array;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+
+import org.codehaus.plexus.interpolation.AbstractValueSource;
+import org.codehaus.plexus.interpolation.ValueSource;
+
+/**
+ * Evaluates expressions like <code>build.plugins[0].artifactId</code> or <code>properties(foo)</code> against an
+ * object the way {@link org.codehaus.plexus.interpolation.ObjectBasedValueSource} does, but parses every distinct
+ * expression only once into a chain of steps. The steps look up the getters of a class once and call them through
+ * generated functions afterwards. The interpolator shares its instance between all models it interpolates.
+ *
+ * @since 4.0.0
+ */
+final class ModelExpressions
+{
+    /**
+     * Limits the number of compiled expressions, further expressions are compiled on every use.
+     */
+    private static final int MAX_EXPRESSIONS = 10000;
+
+    private static final Expression NULL = root -> null;
+
+    private static final MethodType GETTER_TYPE = MethodType.methodType( Object.class, Object.class );
+
+    private static final Function<Object, Object> NO_GETTER = value -> null;
+
+    private final ConcurrentMap<String, Expression> expressions = new ConcurrentHashMap<>();
+
+    private final ClassValue<ConcurrentMap<String, Function<Object, Object>>> getters =
+        new ClassValue<ConcurrentMap<String, Function<Object, Object>>>()
+        {
+            @Override
+            protected ConcurrentMap<String, Function<Object, Object>> computeValue( Class<?> type )
+            {
+                return new ConcurrentHashMap<>();
+            }
+        };
+
+    /**
+     * Creates a value source for the expressions that start with one of the prefixes, or for all expressions if no
+     * prefixes are given. The prefix is removed before the expression is evaluated.
+     */
+    ValueSource newValueSource( final Object root, final List<String> prefixes )
+    {
+        return new AbstractValueSource( false )
+        {
+            @Override
+            public Object getValue( String expression )
+            {
+                String realExpression = expression;
+                if ( prefixes != null )
+                {
+                    realExpression = null;
+                    for ( String prefix : prefixes )
+                    {
+                        if ( expression.startsWith( prefix ) )
+                        {
+                            realExpression = expression.substring( prefix.length() );
+                            break;
+                        }
+                    }
+                    if ( realExpression == null )
+                    {
+                        return null;
+                    }
+                }
+                return evaluate( realExpression, root );
+            }
+        };
+    }
+
+    Object evaluate( String expression, Object root )
+    {
+        Expression compiled = expressions.get( expression );
+        if ( compiled == null )
+        {
+            compiled = compile( expression );
+            if ( expressions.size() < MAX_EXPRESSIONS )
+            {
+                expressions.putIfAbsent( expression, compiled );
+            }
+        }
+        return compiled.evaluate( root );
+    }
+
+    int size()
+    {
+        return expressions.size();
+    }
+
+    /**
+     * Parses an expression with the grammar of the reflective extractor of plexus-interpolation. An expression that
+     * cannot be parsed always evaluates to <code>null</code>.
+     */
+    private Expression compile( String expression )
+    {
+        if ( expression == null || expression.trim().isEmpty()
+            || !Character.isJavaIdentifierStart( expression.charAt( 0 ) ) )
+        {
+            return NULL;
+        }
+
+        List<Step> steps = new ArrayList<>();
+        int length = expression.length();
+        int index = -1;
+        while ( index < length )
+        {
+            char c = index < 0 ? '.' : expression.charAt( index );
+            int start = index + 1;
+            if ( c == '.' )
+            {
+                int end = start;
+                while ( end < length && Character.isJavaIdentifierPart( expression.charAt( end ) ) )
+                {
+                    end++;
+                }
+                if ( end <= start )
+                {
+                    return NULL;
+                }
+                steps.add( new PropertyStep( expression.substring( start, end ) ) );
+                index = end;
+            }
+            else if ( c == '[' || c == '(' )
+            {
+                int end = expression.indexOf( c == '[' ? ']' : ')', start );
+                if ( end <= start )
+                {
+                    return NULL;
+                }
+                String token = expression.substring( start, end );
+                if ( c == '[' )
+                {
+                    try
+                    {
+                        steps.add( new IndexStep( Integer.parseInt( token ) ) );
+                    }
+                    catch ( NumberFormatException e )
+                    {
+                        return NULL;
+                    }
+                }
+                else
+                {
+                    steps.add( value -> value instanceof Map ? ( (Map<?, ?>) value ).get( token ) : null );
+                }
+                index = end + 1;
+            }
+            else
+            {
+                return NULL;
+            }
+        }
+
+        Step[] chain = steps.toArray( new Step[0] );
+        return root ->
+        {
+            Object value = root;
+            for ( int i = 0; value != null && i < chain.length; i++ )
+            {
+                value = chain[i].apply( value );
+            }
+            return value;
+        };
+    }
+
+    private Function<Object, Object> getGetter( Class<?> type, String property )
+    {
+        ConcurrentMap<String, Function<Object, Object>> functions = getters.get( type );
+        Function<Object, Object> getter = functions.get( property );
+        if ( getter == null )
+        {
+            getter = findGetter( type, property );
+            functions.putIfAbsent( property, getter );
+        }
+        return getter;
+    }
+
+    private static Function<Object, Object> findGetter( Class<?> type, String property )
+    {
+        String name = Character.toTitleCase( property.charAt( 0 ) ) + property.substring( 1 );
+        Method method = findPublicMethod( type, "get" + name );
+        if ( method == null )
+        {
+            method = findPublicMethod( type, "is" + name );
+        }
+        if ( method == null )
+        {
+            return NO_GETTER;
+        }
+        Function<Object, Object> getter = newGetter( method );
+        if ( getter != null )
+        {
+            return getter;
+        }
+        final Method reflective = method;
+        return value ->
+        {
+            try
+            {
+                return reflective.invoke( value );
+            }
+            catch ( ReflectiveOperationException | RuntimeException e )
+            {
+                // like a missing value
+                return null;
+            }
+        };
+    }
+
+    /**
+     * Generates a function that calls the getter directly, if the class of the getter is visible to this class.
+     */
+    @SuppressWarnings( "unchecked" )
+    private static Function<Object, Object> newGetter( Method method )
+    {
+        Class<?> owner = method.getDeclaringClass();
+        try
+        {
+            if ( Class.forName( owner.getName(), false, ModelExpressions.class.getClassLoader() ) != owner )
+            {
+                return null;
+            }
+            MethodHandle target = MethodHandles.publicLookup().unreflect( method );
+            CallSite site = LambdaMetafactory.metafactory( MethodHandles.lookup(), "apply",
+                                                           MethodType.methodType( Function.class ), GETTER_TYPE,
+                                                           target, MethodType.methodType( Object.class, owner ) );
+            return (Function<Object, Object>) site.getTarget().invokeWithArguments();
+        }
+        catch ( Exception | LinkageError e )
+        {
+            return null;
+        }
+        catch ( Throwable e )
+        {
+            throw new IllegalStateException( e );
+        }
+    }
+
+    /**
+     * Finds a public method without parameters that is declared by a public class or interface, so that it can also
+     * be called on instances of classes that are not public.
+     */
+    private static Method findPublicMethod( Class<?> type, String name )
+    {
+        if ( type == null )
+        {
+            return null;
+        }
+        if ( Modifier.isPublic( type.getModifiers() ) )
+        {
+            try
+            {
+                Method method = type.getMethod( name );
+                if ( Modifier.isPublic( method.getDeclaringClass().getModifiers() ) )
+                {
+                    return method;
+                }
+            }
+            catch ( NoSuchMethodException e )
+            {
+                return null;
+            }
+        }
+        for ( Class<?> iface : type.getInterfaces() )
+        {
+            Method method = findPublicMethod( iface, name );
+            if ( method != null )
+            {
+                return method;
+            }
+        }
+        return findPublicMethod( type.getSuperclass(), name );
+    }
+
+    /**
+     * A compiled expression.
+     */
+    private interface Expression
+    {
+        Object evaluate( Object root );
+    }
+
+    /**
+     * One step of a compiled expression, never called with <code>null</code>.
+     */
+    private interface Step
+    {
+        Object apply( Object value );
+    }
+
+    /**
+     * Calls a getter, remembers the getter of the last class it was called on.
+     */
+    private final class PropertyStep
+        implements Step
+    {
+        private final String property;
+
+        private volatile Getter last;
+
+        PropertyStep( String property )
+        {
+            this.property = property;
+        }
+
+        @Override
+        public Object apply( Object value )
+        {
+            Class<?> type = value.getClass();
+            Getter getter = last;
+            if ( getter == null || getter.type != type )
+            {
+                getter = new Getter( type, getGetter( type, property ) );
+                last = getter;
+            }
+            try
+            {
+                return getter.function.apply( value );
+            }
+            catch ( RuntimeException e )
+            {
+                // like a missing value
+                return null;
+            }
+        }
+    }
+
+    /**
+     * The getter of a property in a class.
+     */
+    private static final class Getter
+    {
+        final Class<?> type;
+
+        final Function<Object, Object> function;
+
+        Getter( Class<?> type, Function<Object, Object> function )
+        {
+            this.type = type;
+            this.function = function;
+        }
+    }
+
+    /**
+     * Gets an element of a list or an array.
+     */
+    private static final class IndexStep
+        implements Step
+    {
+        private final int index;
+
+        IndexStep( int index )
+        {
+            this.index = index;
+        }
+
+        @Override
+        public Object apply( Object value )
+        {
+            try
+            {
+                if ( value instanceof List )
+                {
+                    return ( (List<?>) value ).get( index );
+                }
+                if ( value.getClass().isArray() )
+                {
+                    return Array.get( value, index );
+                }
+            }
+            catch ( IndexOutOfBoundsException e )
+            {
+                // like a missing value
+            }
+            return null;
+        }
+    }
+}
@@ -1,9 +1,19 @@
 package org.apache.maven.model.building;
 
-  import static org.junit.jupiter.api.Assertions.assertNotNull;
+  import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.stream.Stream;
 
 /*
  * Licensed to the Apache Software Foundation (ASF) under one
@@ -24,6 +34,8 @@
  * under the License.
  */
 
+import org.apache.maven.building.Source;
+import org.apache.maven.model.BuildBase;
 import org.apache.maven.model.Dependency;
 import org.apache.maven.model.Model;
 import org.apache.maven.model.Parent;
@@ -31,7 +43,9 @@
 import org.apache.maven.model.resolution.InvalidRepositoryException;
 import org.apache.maven.model.resolution.ModelResolver;
 import org.apache.maven.model.resolution.UnresolvableModelException;
+import org.codehaus.plexus.util.xml.Xpp3Dom;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 /**
  * @author Guillaume Nodet
@@ -157,4 +171,288 @@ public void testBuildRawModel()
         Result<? extends Model> res = builder.buildRawModel( new File( getClass().getResource("/poms/factory/simple.xml" ).getFile() ), ModelBuildingRequest.VALIDATION_LEVEL_MINIMAL, false);
         assertNotNull( res.get() );
     }
+
+    @Test
+    public void testPersistentModelCache( @TempDir Path tempDir )
+            throws Exception
+    {
+        Path cacheDir = tempDir.resolve( "cache" );
+        Path parentPom = tempDir.resolve( "pom.xml" );
+        Path childPom = tempDir.resolve( "child/pom.xml" );
+        Files.createDirectories( childPom.getParent() );
+        writePom( parentPom, "<groupId>thegroup</groupId><artifactId>parent</artifactId><version>1</version>"
+            + "<packaging>pom</packaging><properties><name>one</name></properties>" );
+        writePom( childPom, "<parent><groupId>thegroup</groupId><artifactId>parent</artifactId><version>1</version>"
+            + "</parent><artifactId>child</artifactId><description>${name} ${flavor}</description>" );
+
+        Properties userProperties = new Properties();
+        userProperties.setProperty( "maven.experimental.modelcache", "true" );
+        userProperties.setProperty( PersistentModelCache.DIRECTORY_PROPERTY, cacheDir.toString() );
+        userProperties.setProperty( "flavor", "plain" );
+
+        assertEquals( "one plain", buildTwoPhases( childPom, userProperties ).getDescription() );
+        Path entry;
+        try ( Stream<Path> entries = Files.list( cacheDir ) )
+        {
+            entry = entries.filter( p -> !p.toString().endsWith( ".tmp" ) ).findFirst().get();
+        }
+
+        // an entry is reused as long as its inputs are unchanged
+        Files.setLastModifiedTime( entry, FileTime.fromMillis( 0 ) );
+        Model cached = buildTwoPhases( childPom, userProperties );
+        assertEquals( "one plain", cached.getDescription() );
+        assertEquals( "thegroup", cached.getGroupId() );
+        assertEquals( childPom.toFile().getAbsoluteFile(), cached.getPomFile() );
+        assertEquals( 0, Files.getLastModifiedTime( entry ).toMillis() );
+
+        writePom( parentPom, "<groupId>thegroup</groupId><artifactId>parent</artifactId><version>1</version>"
+            + "<packaging>pom</packaging><properties><name>two</name></properties>" );
+        assertEquals( "two plain", buildTwoPhases( childPom, userProperties ).getDescription() );
+
+        userProperties.setProperty( "flavor", "spicy" );
+        assertEquals( "two spicy", buildTwoPhases( childPom, userProperties ).getDescription() );
+    }
+
+    @Test
+    public void testPersistentModelCacheTracksParentsOfImports( @TempDir Path tempDir )
+            throws Exception
+    {
+        Path cacheDir = tempDir.resolve( "cache" );
+        Path bomParentPom = tempDir.resolve( "boms/bom-parent.xml" );
+        Path projectPom = tempDir.resolve( "project/pom.xml" );
+        Files.createDirectories( bomParentPom.getParent() );
+        Files.createDirectories( projectPom.getParent() );
+        writePom( tempDir.resolve( "boms/bom.xml" ), "<parent><groupId>thegroup</groupId>"
+            + "<artifactId>bom-parent</artifactId><version>1</version><relativePath/></parent>"
+            + "<artifactId>bom</artifactId><packaging>pom</packaging>" );
+        writeManagingPom( bomParentPom, "bom-parent", "1" );
+        writePom( projectPom, "<groupId>thegroup</groupId><artifactId>project</artifactId><version>1</version>"
+            + "<dependencyManagement><dependencies><dependency><groupId>thegroup</groupId><artifactId>bom</artifactId>"
+            + "<version>1</version><type>pom</type><scope>import</scope></dependency></dependencies>"
+            + "</dependencyManagement><dependencies><dependency><groupId>thegroup</groupId><artifactId>lib</artifactId>"
+            + "</dependency></dependencies>" );
+
+        Properties userProperties = new Properties();
+        userProperties.setProperty( "maven.experimental.modelcache", "true" );
+        userProperties.setProperty( PersistentModelCache.DIRECTORY_PROPERTY, cacheDir.toString() );
+        ModelResolver resolver = new DirectoryModelResolver( bomParentPom.getParent() );
+
+        assertEquals( "1", buildTwoPhases( projectPom, userProperties, resolver ).getDependencies().get( 0 )
+            .getVersion() );
+        try ( Stream<Path> entries = Files.list( cacheDir ) )
+        {
+            assertEquals( 1, entries.count() );
+        }
+
+        // the parent of the BOM is an input of the entry
+        writeManagingPom( bomParentPom, "bom-parent", "2" );
+        assertEquals( "2", buildTwoPhases( projectPom, userProperties, resolver ).getDependencies().get( 0 )
+            .getVersion() );
+    }
+
+    @Test
+    public void testPersistentModelCacheSkipsNestedImports( @TempDir Path tempDir )
+            throws Exception
+    {
+        Path cacheDir = tempDir.resolve( "cache" );
+        Path projectPom = tempDir.resolve( "project/pom.xml" );
+        Files.createDirectories( tempDir.resolve( "boms" ) );
+        Files.createDirectories( projectPom.getParent() );
+        writePom( tempDir.resolve( "boms/bom.xml" ), "<groupId>thegroup</groupId><artifactId>bom</artifactId>"
+            + "<version>1</version><packaging>pom</packaging><dependencyManagement><dependencies><dependency>"
+            + "<groupId>thegroup</groupId><artifactId>nested</artifactId><version>1</version><type>pom</type>"
+            + "<scope>import</scope></dependency></dependencies></dependencyManagement>" );
+        writeManagingPom( tempDir.resolve( "boms/nested.xml" ), "nested", "1" );
+        writePom( projectPom, "<groupId>thegroup</groupId><artifactId>project</artifactId><version>1</version>"
+            + "<dependencyManagement><dependencies><dependency><groupId>thegroup</groupId><artifactId>bom</artifactId>"
+            + "<version>1</version><type>pom</type><scope>import</scope></dependency></dependencies>"
+            + "</dependencyManagement><dependencies><dependency><groupId>thegroup</groupId><artifactId>lib</artifactId>"
+            + "</dependency></dependencies>" );
+
+        Properties userProperties = new Properties();
+        userProperties.setProperty( "maven.experimental.modelcache", "true" );
+        userProperties.setProperty( PersistentModelCache.DIRECTORY_PROPERTY, cacheDir.toString() );
+
+        ModelResolver resolver = new DirectoryModelResolver( tempDir.resolve( "boms" ) );
+        Model model = buildTwoPhases( projectPom, userProperties, resolver );
+        assertEquals( "1", model.getDependencies().get( 0 ).getVersion() );
+        // the nested import is no input of an entry, so the model is not persisted
+        assertFalse( Files.exists( cacheDir ) );
+    }
+
+    @Test
+    public void testInheritedLineageIsShared( @TempDir Path tempDir )
+            throws Exception
+    {
+        Path parentPom = tempDir.resolve( "pom.xml" );
+        writePom( parentPom, "<groupId>thegroup</groupId><artifactId>parent</artifactId><version>1</version>"
+            + "<packaging>pom</packaging><properties><name>one</name></properties><profiles><profile><id>extra</id>"
+            + "<activation><property><name>extra</name></property></activation>"
+            + "<properties><name>two</name></properties></profile></profiles>" );
+        Path firstPom = tempDir.resolve( "first/pom.xml" );
+        Path secondPom = tempDir.resolve( "second/pom.xml" );
+        for ( Path pom : new Path[] { firstPom, secondPom } )
+        {
+            Files.createDirectories( pom.getParent() );
+            writePom( pom, "<parent><groupId>thegroup</groupId><artifactId>parent</artifactId><version>1</version>"
+                + "</parent><artifactId>" + pom.getParent().getFileName() + "</artifactId>"
+                + "<description>${name}</description>" );
+        }
+
+        MapModelCache modelCache = new MapModelCache();
+        Properties userProperties = new Properties();
+        assertEquals( "one", build( firstPom, userProperties, modelCache ).getEffectiveModel().getDescription() );
+        assertNotNull( modelCache.get( new FileModelSource( parentPom.toFile() ), "inherited" ) );
+
+        ModelBuildingResult second = build( secondPom, userProperties, modelCache );
+        assertEquals( "one", second.getEffectiveModel().getDescription() );
+        assertEquals( "second", second.getEffectiveModel().getArtifactId() );
+        assertEquals( "thegroup", second.getEffectiveModel().getGroupId() );
+        assertEquals( 3, second.getModelIds().size() );
+        assertEquals( "parent", second.getRawModel( second.getModelIds().get( 1 ) ).getArtifactId() );
+
+        // the profile of the parent is activated
+        userProperties.setProperty( "extra", "true" );
+        second = build( secondPom, userProperties, modelCache );
+        assertEquals( "two", second.getEffectiveModel().getDescription() );
+        assertEquals( "extra",
+                      second.getActivePomProfiles( second.getModelIds().get( 1 ) ).get( 0 ).getId() );
+    }
+
+    @Test
+    public void testCachedRawModelsAreNotChanged( @TempDir Path tempDir )
+            throws Exception
+    {
+        Path parentPom = tempDir.resolve( "pom.xml" );
+        writePom( parentPom, "<groupId>thegroup</groupId><artifactId>parent</artifactId><version>1</version>"
+            + "<packaging>pom</packaging><profiles><profile><id>out</id><activation><activeByDefault>true"
+            + "</activeByDefault></activation><build><plugins><plugin><artifactId>the-plugin</artifactId>"
+            + "<configuration><out>${project.artifactId}</out></configuration></plugin></plugins></build></profile>"
+            + "</profiles>" );
+        Path childPom = tempDir.resolve( "child/pom.xml" );
+        Files.createDirectories( childPom.getParent() );
+        writePom( childPom, "<parent><groupId>thegroup</groupId><artifactId>parent</artifactId><version>1</version>"
+            + "</parent><artifactId>child</artifactId>" );
+
+        // the reactor order, the profile of the parent is injected and interpolated for the parent first
+        MapModelCache modelCache = new MapModelCache();
+        assertEquals( "parent", getOut( build( parentPom, new Properties(), modelCache ).getEffectiveModel() ) );
+        ModelBuildingResult child = build( childPom, new Properties(), modelCache );
+        assertEquals( "child", getOut( child.getEffectiveModel() ) );
+
+        Model rawParent = child.getRawModel( child.getModelIds().get( 1 ) );
+        assertEquals( "${project.artifactId}", getOut( rawParent.getProfiles().get( 0 ).getBuild() ) );
+    }
+
+    private static String getOut( BuildBase build )
+    {
+        Xpp3Dom configuration = (Xpp3Dom) build.getPlugins().get( 0 ).getConfiguration();
+        return configuration.getChild( "out" ).getValue();
+    }
+
+    private static String getOut( Model model )
+    {
+        return getOut( model.getBuild() );
+    }
+
+    private static ModelBuildingResult build( Path pomFile, Properties userProperties, ModelCache modelCache )
+            throws Exception
+    {
+        DefaultModelBuildingRequest request = new DefaultModelBuildingRequest();
+        request.setModelSource( new FileModelSource( pomFile.toFile() ) );
+        request.setModelResolver( new BaseModelResolver() );
+        request.setModelCache( modelCache );
+        request.setUserProperties( userProperties );
+        request.setSystemProperties( new Properties() );
+        return new DefaultModelBuilderFactory().newInstance().build( request );
+    }
+
+    static class MapModelCache implements ModelCache
+    {
+        private final Map<Object, Object> entries = new HashMap<>();
+
+        @Override
+        public void put( Source path, String tag, Object data )
+        {
+            entries.put( path + "|" + tag, data );
+        }
+
+        @Override
+        public Object get( Source path, String tag )
+        {
+            return entries.get( path + "|" + tag );
+        }
+
+        @Override
+        public void put( String groupId, String artifactId, String version, String tag, Object data )
+        {
+            entries.put( groupId + ':' + artifactId + ':' + version + "|" + tag, data );
+        }
+
+        @Override
+        public Object get( String groupId, String artifactId, String version, String tag )
+        {
+            return entries.get( groupId + ':' + artifactId + ':' + version + "|" + tag );
+        }
+    }
+
+    private static void writePom( Path file, String content )
+            throws Exception
+    {
+        Files.write( file, ( "<project><modelVersion>4.0.0</modelVersion>" + content + "</project>" )
+            .getBytes( StandardCharsets.UTF_8 ) );
+    }
+
+    private static void writeManagingPom( Path file, String artifactId, String libVersion )
+            throws Exception
+    {
+        writePom( file, "<groupId>thegroup</groupId><artifactId>" + artifactId + "</artifactId><version>1</version>"
+            + "<packaging>pom</packaging><dependencyManagement><dependencies><dependency><groupId>thegroup</groupId>"
+            + "<artifactId>lib</artifactId><version>" + libVersion + "</version></dependency></dependencies>"
+            + "</dependencyManagement>" );
+    }
+
+    private static Model buildTwoPhases( Path pomFile, Properties userProperties )
+            throws Exception
+    {
+        return buildTwoPhases( pomFile, userProperties, new BaseModelResolver() );
+    }
+
+    private static Model buildTwoPhases( Path pomFile, Properties userProperties, ModelResolver modelResolver )
+            throws Exception
+    {
+        ModelBuilder builder = new DefaultModelBuilderFactory().newInstance();
+        DefaultModelBuildingRequest request = new DefaultModelBuildingRequest();
+        request.setModelSource( new FileModelSource( pomFile.toFile() ) );
+        request.setModelResolver( modelResolver );
+        request.setTwoPhaseBuilding( true );
+        request.setUserProperties( userProperties );
+        request.setSystemProperties( new Properties() );
+        return builder.build( request, builder.build( request ) ).getEffectiveModel();
+    }
+
+    /**
+     * Resolves the POMs of a directory by their artifactId.
+     */
+    static class DirectoryModelResolver extends BaseModelResolver
+    {
+        private final Path directory;
+
+        DirectoryModelResolver( Path directory )
+        {
+            this.directory = directory;
+        }
+
+        @Override
+        public ModelSource resolveModel( Parent parent )
+        {
+            return new FileModelSource( directory.resolve( parent.getArtifactId() + ".xml" ).toFile() );
+        }
+
+        @Override
+        public ModelSource resolveModel( Dependency dependency )
+        {
+            return new FileModelSource( directory.resolve( dependency.getArtifactId() + ".xml" ).toFile() );
+        }
+    }
 }
@@ -0,0 +1,108 @@
+package org.apache.maven.model.interpolation;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.apache.maven.model.Activation;
+import org.apache.maven.model.Build;
+import org.apache.maven.model.Model;
+import org.apache.maven.model.Plugin;
+import org.apache.maven.model.Profile;
+import org.codehaus.plexus.interpolation.ObjectBasedValueSource;
+import org.codehaus.plexus.interpolation.ValueSource;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class ModelExpressionsTest
+{
+    private static final String[] EXPRESSIONS = { "artifactId", "build.plugins[0].artifactId",
+        "build.plugins[1].version", "build.plugins[2].version", "build.plugins[x]", "build.plugins[]",
+        "build.plugins[0", "properties(foo)", "properties(bar)", "properties()", "properties(foo", "artifactId(foo)",
+        "profiles[0].activation.activeByDefault", "profiles[0].activation.jdk", "profiles.empty", "missing",
+        "missing.artifactId", "build.", "build..finalName", "build.finalName!", "1build", "", " ", "class.simpleName" };
+
+    private static Model newModel()
+    {
+        Model model = new Model();
+        model.setArtifactId( "test" );
+        model.getProperties().setProperty( "foo", "bar" );
+
+        Plugin first = new Plugin();
+        first.setArtifactId( "first" );
+        Plugin second = new Plugin();
+        second.setVersion( "2.0" );
+        Build build = new Build();
+        build.setPlugins( Arrays.asList( first, second ) );
+        model.setBuild( build );
+
+        Activation activation = new Activation();
+        activation.setActiveByDefault( true );
+        Profile profile = new Profile();
+        profile.setActivation( activation );
+        model.setProfiles( Collections.singletonList( profile ) );
+        return model;
+    }
+
+    @Test
+    public void testSameValuesAsReflection()
+    {
+        Model model = newModel();
+        ValueSource reflective = new ObjectBasedValueSource( model );
+        ValueSource compiled = new ModelExpressions().newValueSource( model, null );
+
+        for ( String expression : EXPRESSIONS )
+        {
+            assertEquals( reflective.getValue( expression ), compiled.getValue( expression ), expression );
+        }
+        assertEquals( "bar", compiled.getValue( "properties(foo)" ) );
+        assertEquals( Boolean.TRUE, compiled.getValue( "profiles[0].activation.activeByDefault" ) );
+    }
+
+    @Test
+    public void testPrefixes()
+    {
+        ValueSource compiled =
+            new ModelExpressions().newValueSource( newModel(), Arrays.asList( "pom.", "project." ) );
+
+        assertEquals( "test", compiled.getValue( "project.artifactId" ) );
+        assertEquals( "test", compiled.getValue( "pom.artifactId" ) );
+        assertNull( compiled.getValue( "artifactId" ) );
+        assertNull( compiled.getValue( "project." ) );
+    }
+
+    @Test
+    public void testExpressionsSharedBetweenModels()
+    {
+        ModelExpressions expressions = new ModelExpressions();
+        Model other = newModel();
+        other.setArtifactId( "other" );
+        other.getBuild().setPlugins( Collections.emptyList() );
+
+        assertEquals( "first", expressions.evaluate( "build.plugins[0].artifactId", newModel() ) );
+        assertNull( expressions.evaluate( "build.plugins[0].artifactId", other ) );
+        assertEquals( "test", expressions.evaluate( "artifactId", newModel() ) );
+        assertEquals( "other", expressions.evaluate( "artifactId", other ) );
+        assertEquals( 2, expressions.size() );
+    }
+}
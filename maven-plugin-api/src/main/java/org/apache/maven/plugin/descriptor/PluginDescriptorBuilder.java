@@ -49,7 +49,14 @@ public PluginDescriptor build( Reader reader, String source )
         return build( source, buildConfiguration( reader ) );
     }
 
-    private PluginDescriptor build( String source, PlexusConfiguration c )
+    /**
+     * Builds a plugin descriptor from its already parsed XML.
+     *
+     * @param source The location of the descriptor, may be {@code null}
+     * @param c The root of the descriptor
+     * @since 4.0.0
+     */
+    public PluginDescriptor build( String source, PlexusConfiguration c )
         throws PlexusConfigurationException
     {
         PluginDescriptor pluginDescriptor = new PluginDescriptor();
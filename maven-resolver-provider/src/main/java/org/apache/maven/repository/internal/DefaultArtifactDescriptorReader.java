@@ -19,11 +19,18 @@
  * under the License.
  */
 
+import java.util.ArrayList;
 import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
 
 import javax.inject.Inject;
 import javax.inject.Named;
@@ -51,6 +58,8 @@
 import org.eclipse.aether.impl.RepositoryEventDispatcher;
 import org.eclipse.aether.impl.VersionRangeResolver;
 import org.eclipse.aether.impl.VersionResolver;
+import org.eclipse.aether.repository.ArtifactRepository;
+import org.eclipse.aether.repository.RemoteRepository;
 import org.eclipse.aether.repository.WorkspaceReader;
 import org.eclipse.aether.repository.WorkspaceRepository;
 import org.eclipse.aether.resolution.ArtifactDescriptorException;
@@ -84,6 +93,10 @@ public class DefaultArtifactDescriptorReader implements ArtifactDescriptorReader
     private final RepositoryEventDispatcher repositoryEventDispatcher;
     private final ModelBuilder modelBuilder;
 
+    private final ConcurrentMap<LoadKey, CompletableFuture<LoadResult>> loads = new ConcurrentHashMap<>();
+    private final LongAdder descriptorLoads = new LongAdder();
+    private final LongAdder coalescedLoads = new LongAdder();
+
     @Inject
     public DefaultArtifactDescriptorReader(
             RemoteRepositoryManager remoteRepositoryManager,
@@ -128,9 +141,83 @@ public ArtifactDescriptorResult readArtifactDescriptor( RepositorySystemSession
         return result;
     }
 
+    /**
+     * @return The number of descriptors loaded, i.e. whose versions and POM were resolved and whose model was built
+     * @since 4.0.0
+     */
+    public long getDescriptorLoadCount()
+    {
+        return descriptorLoads.sum();
+    }
+
+    /**
+     * @return The number of descriptor reads that waited for the concurrent load of the same descriptor instead of
+     *         loading it again
+     * @since 4.0.0
+     */
+    public long getCoalescedLoadCount()
+    {
+        return coalescedLoads.sum();
+    }
+
+    /**
+     * Loads the model of the requested artifact, unless the same descriptor is being loaded for the session by another
+     * thread, in which case that result is shared. The repository events of a load are only dispatched once, to the
+     * repository listener that the coalesced reads share.
+     */
     private Model loadPom( RepositorySystemSession session, ArtifactDescriptorRequest request,
                            ArtifactDescriptorResult result )
         throws ArtifactDescriptorException
+    {
+        LoadKey key = new LoadKey( session, request, getPolicy( session, request.getArtifact(), request ) );
+        CompletableFuture<LoadResult> load = new CompletableFuture<>();
+        CompletableFuture<LoadResult> running = loads.putIfAbsent( key, load );
+        if ( running != null )
+        {
+            coalescedLoads.increment();
+            LoadResult loaded;
+            try
+            {
+                loaded = running.join();
+            }
+            catch ( CompletionException e )
+            {
+                if ( e.getCause() instanceof Error )
+                {
+                    throw (Error) e.getCause();
+                }
+                throw (RuntimeException) e.getCause();
+            }
+            return loaded.copyTo( result );
+        }
+
+        descriptorLoads.increment();
+        try
+        {
+            Model model = doLoadPom( session, request, result );
+            load.complete( new LoadResult( model, result, false ) );
+            return model;
+        }
+        catch ( ArtifactDescriptorException e )
+        {
+            load.complete( new LoadResult( null, result, true ) );
+            throw e;
+        }
+        catch ( RuntimeException | Error e )
+        {
+            // the waiting reads fail the same way instead of blocking forever
+            load.completeExceptionally( e );
+            throw e;
+        }
+        finally
+        {
+            loads.remove( key, load );
+        }
+    }
+
+    private Model doLoadPom( RepositorySystemSession session, ArtifactDescriptorRequest request,
+                             ArtifactDescriptorResult result )
+        throws ArtifactDescriptorException
     {
         RequestTrace trace = RequestTrace.newChild( request.getTrace(), request );
 
@@ -340,4 +427,105 @@ private int getPolicy( RepositorySystemSession session, Artifact a, ArtifactDesc
         return policy.getPolicy( session, new ArtifactDescriptorPolicyRequest( a, request.getRequestContext() ) );
     }
 
+    /**
+     * Identifies a descriptor load. Sessions derived from one another share their data, which is compared by identity.
+     * Derived sessions may differ in what changes the outcome of a load or who gets its events, so the descriptor
+     * policy, the offline mode and the repository listener are compared as well.
+     */
+    private static final class LoadKey
+    {
+        private final Object sessionData;
+
+        private final Artifact artifact;
+
+        private final List<RemoteRepository> repositories;
+
+        private final String context;
+
+        private final int policy;
+
+        private final boolean offline;
+
+        private final Object repositoryListener;
+
+        private final int hashCode;
+
+        LoadKey( RepositorySystemSession session, ArtifactDescriptorRequest request, int policy )
+        {
+            sessionData = session.getData();
+            artifact = request.getArtifact();
+            repositories = request.getRepositories();
+            context = request.getRequestContext();
+            this.policy = policy;
+            offline = session.isOffline();
+            repositoryListener = session.getRepositoryListener();
+            hashCode = Objects.hash( System.identityHashCode( sessionData ), artifact, repositories, context, policy,
+                                     offline, System.identityHashCode( repositoryListener ) );
+        }
+
+        @Override
+        public boolean equals( Object obj )
+        {
+            if ( this == obj )
+            {
+                return true;
+            }
+            if ( !( obj instanceof LoadKey ) )
+            {
+                return false;
+            }
+            LoadKey that = (LoadKey) obj;
+            return sessionData == that.sessionData && artifact.equals( that.artifact )
+                && repositories.equals( that.repositories ) && Objects.equals( context, that.context )
+                && policy == that.policy && offline == that.offline && repositoryListener == that.repositoryListener;
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return hashCode;
+        }
+    }
+
+    /**
+     * The outcome of a descriptor load, to be shared with the reads that waited for it.
+     */
+    private static final class LoadResult
+    {
+        private final Model model;
+
+        private final Artifact artifact;
+
+        private final ArtifactRepository repository;
+
+        private final List<Artifact> relocations;
+
+        private final List<Exception> exceptions;
+
+        private final boolean failed;
+
+        LoadResult( Model model, ArtifactDescriptorResult result, boolean failed )
+        {
+            this.model = model;
+            this.artifact = result.getArtifact();
+            this.repository = result.getRepository();
+            this.relocations = new ArrayList<>( result.getRelocations() );
+            this.exceptions = new ArrayList<>( result.getExceptions() );
+            this.failed = failed;
+        }
+
+        Model copyTo( ArtifactDescriptorResult result )
+            throws ArtifactDescriptorException
+        {
+            result.setArtifact( artifact );
+            result.setRepository( repository );
+            relocations.forEach( result::addRelocation );
+            exceptions.forEach( result::addException );
+            if ( failed )
+            {
+                throw new ArtifactDescriptorException( result );
+            }
+            return model;
+        }
+    }
 }
@@ -19,13 +19,12 @@
  * under the License.
  */
 
-import java.util.Map;
 import java.util.Objects;
-import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.maven.building.Source;
 import org.apache.maven.model.building.ModelCache;
 import org.eclipse.aether.RepositorySystemSession;
+import org.eclipse.aether.util.ConfigUtils;
 
 /**
  * A model builder cache backed by the repository system cache.
@@ -38,28 +37,50 @@
 
     private static final String KEY = DefaultModelCache.class.getName();
 
-    private final Map<Object, Object> cache;
+    /**
+     * The configuration property for the maximum number of entries of the cache, the least recently used entries are
+     * evicted beyond it. The cache is unbounded if not positive, which is the default.
+     *
+     * @since 4.0.0
+     */
+    public static final String CONFIG_PROP_MAX_SIZE = "maven.modelCache.maxSize";
+
+    /**
+     * The configuration property whether the cached models may be reclaimed by the garbage collector when memory runs
+     * low, defaults to {@code false}.
+     *
+     * @since 4.0.0
+     */
+    public static final String CONFIG_PROP_SOFT_VALUES = "maven.modelCache.softValues";
+
+    private final ModelCacheStore cache;
 
     public static ModelCache newInstance( RepositorySystemSession session )
     {
-        Map<Object, Object> cache;
+        ModelCacheStore cache;
         if ( session.getCache() == null )
         {
-            cache = new ConcurrentHashMap<>();
+            cache = newStore( session );
         }
         else
         {
-            cache = ( Map ) session.getCache().get( session, KEY );
+            cache = (ModelCacheStore) session.getCache().get( session, KEY );
             if ( cache == null )
             {
-                cache = new ConcurrentHashMap<>();
+                cache = newStore( session );
                 session.getCache().put( session, KEY, cache );
             }
         }
         return new DefaultModelCache( cache );
     }
 
-    private DefaultModelCache( Map<Object, Object> cache )
+    private static ModelCacheStore newStore( RepositorySystemSession session )
+    {
+        return new ModelCacheStore( ConfigUtils.getInteger( session, 0, CONFIG_PROP_MAX_SIZE ),
+                                    ConfigUtils.getBoolean( session, false, CONFIG_PROP_SOFT_VALUES ) );
+    }
+
+    private DefaultModelCache( ModelCacheStore cache )
     {
         this.cache = cache;
     }
@@ -94,6 +115,33 @@ protected void put( Object key, Object data )
         cache.put( key, data );
     }
 
+    /**
+     * @return The number of lookups that found an entry, across all instances of the session
+     * @since 4.0.0
+     */
+    public long getHitCount()
+    {
+        return cache.getHitCount();
+    }
+
+    /**
+     * @return The number of lookups that found no entry, across all instances of the session
+     * @since 4.0.0
+     */
+    public long getMissCount()
+    {
+        return cache.getMissCount();
+    }
+
+    /**
+     * @return The number of entries evicted to stay within the maximum size or reclaimed by the garbage collector
+     * @since 4.0.0
+     */
+    public long getEvictionCount()
+    {
+        return cache.getEvictionCount();
+    }
+
     static class GavCacheKey
     {
 
@@ -21,6 +21,7 @@
 
 import org.apache.maven.artifact.repository.metadata.Versioning;
 import org.apache.maven.artifact.repository.metadata.io.xpp3.MetadataXpp3Reader;
+import org.eclipse.aether.RepositoryCache;
 import org.eclipse.aether.RepositoryEvent;
 import org.eclipse.aether.RepositoryEvent.EventType;
 import org.eclipse.aether.RepositorySystemSession;
@@ -34,12 +35,14 @@
 import org.eclipse.aether.repository.ArtifactRepository;
 import org.eclipse.aether.repository.RemoteRepository;
 import org.eclipse.aether.repository.WorkspaceReader;
+import org.eclipse.aether.repository.WorkspaceRepository;
 import org.eclipse.aether.resolution.MetadataRequest;
 import org.eclipse.aether.resolution.MetadataResult;
 import org.eclipse.aether.resolution.VersionRangeRequest;
 import org.eclipse.aether.resolution.VersionRangeResolutionException;
 import org.eclipse.aether.resolution.VersionRangeResult;
 import org.eclipse.aether.spi.synccontext.SyncContextFactory;
+import org.eclipse.aether.util.ConfigUtils;
 import org.eclipse.aether.version.InvalidVersionSpecificationException;
 import org.eclipse.aether.version.Version;
 import org.eclipse.aether.version.VersionConstraint;
@@ -49,6 +52,7 @@
 import javax.inject.Named;
 import javax.inject.Singleton;
 
+import java.io.File;
 import java.io.FileInputStream;
 import java.io.InputStream;
 import java.util.ArrayList;
@@ -57,6 +61,7 @@
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * @author Benjamin Bentmann
@@ -74,6 +79,9 @@
     private final RepositoryEventDispatcher repositoryEventDispatcher;
     private final VersionScheme versionScheme;
 
+    private final LongAdder cacheHits = new LongAdder();
+    private final LongAdder cacheMisses = new LongAdder();
+
     @Inject
     public DefaultVersionRangeResolver( MetadataResolver metadataResolver,
                                         SyncContextFactory syncContextFactory,
@@ -110,6 +118,21 @@ public VersionRangeResult resolveVersionRange( RepositorySystemSession session,
         }
         else
         {
+            Key cacheKey = null;
+            RepositoryCache cache = session.getCache();
+            if ( cache != null && !ConfigUtils.getBoolean( session, false, "aether.versionRangeResolver.noCache" ) )
+            {
+                cacheKey = new Key( session, request );
+
+                Object obj = cache.get( session, cacheKey );
+                if ( obj instanceof Record )
+                {
+                    cacheHits.increment();
+                    return ( (Record) obj ).toResult( result );
+                }
+                cacheMisses.increment();
+            }
+
             Map<String, ArtifactRepository> versionIndex = getVersions( session, result, request );
 
             List<Version> versions = new ArrayList<>();
@@ -132,11 +155,41 @@ public VersionRangeResult resolveVersionRange( RepositorySystemSession session,
 
             Collections.sort( versions );
             result.setVersions( versions );
+
+            if ( cacheKey != null && isSafelyCacheable( session, request ) )
+            {
+                cache.put( session, cacheKey, new Record( result ) );
+            }
         }
 
         return result;
     }
 
+    /**
+     * @return The number of range resolutions answered from the session cache
+     * @since 4.0.0
+     */
+    public long getCacheHitCount()
+    {
+        return cacheHits.sum();
+    }
+
+    /**
+     * @return The number of range resolutions that read the metadata since the session cache had no result
+     * @since 4.0.0
+     */
+    public long getCacheMissCount()
+    {
+        return cacheMisses.sum();
+    }
+
+    private boolean isSafelyCacheable( RepositorySystemSession session, VersionRangeRequest request )
+    {
+        // the versions in the workspace/reactor are in flux
+        WorkspaceReader workspace = session.getWorkspaceReader();
+        return workspace == null || workspace.findVersions( request.getArtifact() ).isEmpty();
+    }
+
     private Map<String, ArtifactRepository> getVersions( RepositorySystemSession session, VersionRangeResult result,
                                                          VersionRangeRequest request )
     {
@@ -238,4 +291,101 @@ private void invalidMetadata( RepositorySystemSession session, RequestTrace trac
         repositoryEventDispatcher.dispatch( event.build() );
     }
 
-}
\ No newline at end of file
+    private static class Key
+    {
+
+        private final String groupId;
+
+        private final String artifactId;
+
+        private final String version;
+
+        private final String context;
+
+        private final File localRepo;
+
+        private final WorkspaceRepository workspace;
+
+        private final List<RemoteRepository> repositories;
+
+        private final int hashCode;
+
+        Key( RepositorySystemSession session, VersionRangeRequest request )
+        {
+            groupId = request.getArtifact().getGroupId();
+            artifactId = request.getArtifact().getArtifactId();
+            version = request.getArtifact().getVersion();
+            context = request.getRequestContext();
+            localRepo = session.getLocalRepository().getBasedir();
+            WorkspaceReader reader = session.getWorkspaceReader();
+            workspace = ( reader != null ) ? reader.getRepository() : null;
+            repositories = new ArrayList<>( request.getRepositories() );
+
+            int hash = 17;
+            hash = hash * 31 + groupId.hashCode();
+            hash = hash * 31 + artifactId.hashCode();
+            hash = hash * 31 + version.hashCode();
+            hash = hash * 31 + localRepo.hashCode();
+            hash = hash * 31 + repositories.hashCode();
+            hashCode = hash;
+        }
+
+        @Override
+        public boolean equals( Object obj )
+        {
+            if ( obj == this )
+            {
+                return true;
+            }
+            else if ( obj == null || !getClass().equals( obj.getClass() ) )
+            {
+                return false;
+            }
+
+            Key that = (Key) obj;
+            return artifactId.equals( that.artifactId ) && groupId.equals( that.groupId )
+                && version.equals( that.version ) && Objects.equals( context, that.context )
+                && localRepo.equals( that.localRepo ) && Objects.equals( workspace, that.workspace )
+                && repositories.equals( that.repositories );
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return hashCode;
+        }
+
+    }
+
+    private static class Record
+    {
+        final List<Version> versions;
+
+        final Map<Version, ArtifactRepository> repositories;
+
+        final List<Exception> exceptions;
+
+        Record( VersionRangeResult result )
+        {
+            versions = new ArrayList<>( result.getVersions() );
+            repositories = new HashMap<>();
+            for ( Version version : versions )
+            {
+                repositories.put( version, result.getRepository( version ) );
+            }
+            exceptions = new ArrayList<>( result.getExceptions() );
+        }
+
+        VersionRangeResult toResult( VersionRangeResult result )
+        {
+            result.setVersions( new ArrayList<>( versions ) );
+            for ( Version version : versions )
+            {
+                result.setRepository( version, repositories.get( version ) );
+            }
+            exceptions.forEach( result::addException );
+            return result;
+        }
+    }
+
+}
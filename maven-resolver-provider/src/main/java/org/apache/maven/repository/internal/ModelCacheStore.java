@@ -0,0 +1,184 @@
+package org.apache.maven.repository.internal;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+import java.lang.ref.SoftReference;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Holds the entries of a {@link DefaultModelCache} for a repository session. The store is unbounded unless a maximum
+ * number of entries is given, in which case the least recently used entries are evicted. Values can also be held
+ * through soft references, so that the garbage collector reclaims them before running out of memory.
+ *
+ * @since 4.0.0
+ */
+final class ModelCacheStore
+{
+
+    private static final float LOAD_FACTOR = 0.75f;
+
+    private final Map<Object, Object> entries;
+
+    private final boolean softValues;
+
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * @param maxSize The maximum number of entries, unbounded if not positive
+     * @param softValues Whether the garbage collector may reclaim values
+     */
+    ModelCacheStore( int maxSize, boolean softValues )
+    {
+        this.softValues = softValues;
+        if ( maxSize > 0 )
+        {
+            entries = new LinkedHashMap<Object, Object>( 16, LOAD_FACTOR, true )
+            {
+                private static final long serialVersionUID = 1L;
+
+                @Override
+                protected boolean removeEldestEntry( Map.Entry<Object, Object> eldest )
+                {
+                    if ( size() > maxSize )
+                    {
+                        evictions.increment();
+                        return true;
+                    }
+                    return false;
+                }
+            };
+        }
+        else
+        {
+            entries = new ConcurrentHashMap<>();
+        }
+    }
+
+    Object get( Object key )
+    {
+        Object value;
+        if ( entries instanceof ConcurrentHashMap )
+        {
+            value = entries.get( key );
+        }
+        else
+        {
+            synchronized ( entries )
+            {
+                value = entries.get( key );
+            }
+        }
+
+        if ( value instanceof SoftReference )
+        {
+            Object reference = value;
+            value = ( (SoftReference<?>) reference ).get();
+            if ( value == null )
+            {
+                // reclaimed by the garbage collector
+                evictions.increment();
+                remove( key, reference );
+            }
+        }
+
+        if ( value != null )
+        {
+            hits.increment();
+        }
+        else
+        {
+            misses.increment();
+        }
+        return value;
+    }
+
+    void put( Object key, Object value )
+    {
+        Object entry = softValues ? new SoftReference<>( value ) : value;
+        if ( entries instanceof ConcurrentHashMap )
+        {
+            entries.put( key, entry );
+        }
+        else
+        {
+            synchronized ( entries )
+            {
+                entries.put( key, entry );
+            }
+        }
+    }
+
+    private void remove( Object key, Object entry )
+    {
+        if ( entries instanceof ConcurrentHashMap )
+        {
+            entries.remove( key, entry );
+        }
+        else
+        {
+            synchronized ( entries )
+            {
+                entries.remove( key, entry );
+            }
+        }
+    }
+
+    int size()
+    {
+        if ( entries instanceof ConcurrentHashMap )
+        {
+            return entries.size();
+        }
+        synchronized ( entries )
+        {
+            return entries.size();
+        }
+    }
+
+    long getHitCount()
+    {
+        return hits.sum();
+    }
+
+    long getMissCount()
+    {
+        return misses.sum();
+    }
+
+    long getEvictionCount()
+    {
+        return evictions.sum();
+    }
+
+    @Override
+    public String toString()
+    {
+        return "ModelCacheStore{size=" + size() + ", hits=" + getHitCount() + ", misses=" + getMissCount()
+            + ", evictions=" + getEvictionCount() + '}';
+    }
+}
@@ -20,19 +20,38 @@
  */
 
 import java.lang.reflect.Field;
-
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.aether.DefaultRepositorySystemSession;
 import org.eclipse.aether.RepositoryEvent;
 import org.eclipse.aether.RepositoryEvent.EventType;
+import org.eclipse.aether.RepositorySystemSession;
 import org.eclipse.aether.artifact.DefaultArtifact;
 import org.eclipse.aether.impl.ArtifactDescriptorReader;
 import org.eclipse.aether.impl.RepositoryEventDispatcher;
+import org.eclipse.aether.impl.VersionResolver;
+import org.eclipse.aether.resolution.ArtifactDescriptorException;
+import org.eclipse.aether.resolution.ArtifactDescriptorPolicy;
 import org.eclipse.aether.resolution.ArtifactDescriptorRequest;
+import org.eclipse.aether.resolution.ArtifactDescriptorResult;
+import org.eclipse.aether.util.repository.SimpleArtifactDescriptorPolicy;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.verify;
 
 public class DefaultArtifactDescriptorReaderTest
@@ -79,4 +98,158 @@ public void testMng5459()
 
         assertTrue( missingArtifactDescriptor, "Expected missing artifact descriptor for org.apache.maven.its:dep-mng5459:pom:0.4.0-20130404.090532-2" );
     }
+
+    @Test
+    public void testCoalescesConcurrentReads()
+        throws Exception
+    {
+        DefaultArtifactDescriptorReader reader = (DefaultArtifactDescriptorReader) getContainer().lookup( ArtifactDescriptorReader.class );
+
+        // slow down the loads so that the reads overlap
+        Field field = DefaultArtifactDescriptorReader.class.getDeclaredField( "versionResolver" );
+        field.setAccessible( true );
+        VersionResolver versionResolver = spy( (VersionResolver) field.get( reader ) );
+        doAnswer( invocation ->
+        {
+            Thread.sleep( 100 );
+            return invocation.callRealMethod();
+        } ).when( versionResolver ).resolveVersion( any(), any() );
+        field.set( reader, versionResolver );
+
+        long loads = reader.getDescriptorLoadCount();
+        long coalesced = reader.getCoalescedLoadCount();
+
+        CountDownLatch start = new CountDownLatch( 1 );
+        ExecutorService executor = Executors.newFixedThreadPool( 4 );
+        try
+        {
+            List<Future<ArtifactDescriptorResult>> results = new ArrayList<>();
+            for ( int i = 0; i < 4; i++ )
+            {
+                results.add( executor.submit( () ->
+                {
+                    ArtifactDescriptorRequest request = new ArtifactDescriptorRequest();
+                    request.addRepository( newTestRepository() );
+                    request.setArtifact( new DefaultArtifact( "ut.simple", "artifact", "jar", "1.0" ) );
+                    start.await();
+                    return reader.readArtifactDescriptor( session, request );
+                } ) );
+            }
+            start.countDown();
+
+            for ( Future<ArtifactDescriptorResult> result : results )
+            {
+                assertEquals( "ut.simple:dependency:jar:1.0",
+                              result.get( 10, TimeUnit.SECONDS ).getDependencies().get( 0 ).getArtifact().toString() );
+            }
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+
+        assertEquals( 4, reader.getDescriptorLoadCount() - loads + reader.getCoalescedLoadCount() - coalesced );
+        assertTrue( reader.getCoalescedLoadCount() > coalesced );
+    }
+
+    @Test
+    public void testCoalescedReadsFailOnError()
+        throws Exception
+    {
+        DefaultArtifactDescriptorReader reader = (DefaultArtifactDescriptorReader) getContainer().lookup( ArtifactDescriptorReader.class );
+
+        Field field = DefaultArtifactDescriptorReader.class.getDeclaredField( "versionResolver" );
+        field.setAccessible( true );
+        VersionResolver versionResolver = mock( VersionResolver.class );
+        doAnswer( invocation ->
+        {
+            Thread.sleep( 100 );
+            throw new LinkageError( "broken" );
+        } ).when( versionResolver ).resolveVersion( any(), any() );
+        field.set( reader, versionResolver );
+
+        CountDownLatch start = new CountDownLatch( 1 );
+        ExecutorService executor = Executors.newFixedThreadPool( 4 );
+        try
+        {
+            List<Future<ArtifactDescriptorResult>> results = new ArrayList<>();
+            for ( int i = 0; i < 4; i++ )
+            {
+                results.add( executor.submit( () ->
+                {
+                    ArtifactDescriptorRequest request = new ArtifactDescriptorRequest();
+                    request.addRepository( newTestRepository() );
+                    request.setArtifact( new DefaultArtifact( "ut.simple", "artifact", "jar", "1.0" ) );
+                    start.await();
+                    return reader.readArtifactDescriptor( session, request );
+                } ) );
+            }
+            start.countDown();
+
+            // the reads that waited for the failed load fail with the same error
+            for ( Future<ArtifactDescriptorResult> result : results )
+            {
+                ExecutionException e =
+                    assertThrows( ExecutionException.class, () -> result.get( 10, TimeUnit.SECONDS ) );
+                assertTrue( e.getCause() instanceof LinkageError, e.getCause().toString() );
+            }
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testReadsWithOtherPolicyAreNotCoalesced()
+        throws Exception
+    {
+        DefaultArtifactDescriptorReader reader = (DefaultArtifactDescriptorReader) getContainer().lookup( ArtifactDescriptorReader.class );
+
+        // slow down the loads so that the reads overlap
+        Field field = DefaultArtifactDescriptorReader.class.getDeclaredField( "versionResolver" );
+        field.setAccessible( true );
+        VersionResolver versionResolver = spy( (VersionResolver) field.get( reader ) );
+        doAnswer( invocation ->
+        {
+            Thread.sleep( 100 );
+            return invocation.callRealMethod();
+        } ).when( versionResolver ).resolveVersion( any(), any() );
+        field.set( reader, versionResolver );
+
+        // derived sessions share their data
+        DefaultRepositorySystemSession strict = new DefaultRepositorySystemSession( session );
+        strict.setArtifactDescriptorPolicy( new SimpleArtifactDescriptorPolicy( ArtifactDescriptorPolicy.STRICT ) );
+        DefaultRepositorySystemSession lenient = new DefaultRepositorySystemSession( session );
+        lenient.setArtifactDescriptorPolicy(
+            new SimpleArtifactDescriptorPolicy( ArtifactDescriptorPolicy.IGNORE_MISSING ) );
+
+        CountDownLatch start = new CountDownLatch( 1 );
+        ExecutorService executor = Executors.newFixedThreadPool( 2 );
+        try
+        {
+            List<Future<ArtifactDescriptorResult>> results = new ArrayList<>();
+            for ( RepositorySystemSession readSession : new RepositorySystemSession[] { strict, lenient } )
+            {
+                results.add( executor.submit( () ->
+                {
+                    ArtifactDescriptorRequest request = new ArtifactDescriptorRequest();
+                    request.addRepository( newTestRepository() );
+                    request.setArtifact( new DefaultArtifact( "ut.simple", "missing", "jar", "1.0" ) );
+                    start.await();
+                    return reader.readArtifactDescriptor( readSession, request );
+                } ) );
+            }
+            start.countDown();
+
+            ExecutionException e =
+                assertThrows( ExecutionException.class, () -> results.get( 0 ).get( 10, TimeUnit.SECONDS ) );
+            assertTrue( e.getCause() instanceof ArtifactDescriptorException, e.getCause().toString() );
+            assertTrue( results.get( 1 ).get( 10, TimeUnit.SECONDS ).getDependencies().isEmpty() );
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+    }
 }
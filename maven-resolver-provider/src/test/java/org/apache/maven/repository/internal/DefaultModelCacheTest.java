@@ -0,0 +1,90 @@
+package org.apache.maven.repository.internal;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+import org.eclipse.aether.DefaultRepositoryCache;
+import org.eclipse.aether.DefaultRepositorySystemSession;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class DefaultModelCacheTest
+{
+
+    private static DefaultRepositorySystemSession newSession()
+    {
+        DefaultRepositorySystemSession session = new DefaultRepositorySystemSession();
+        session.setCache( new DefaultRepositoryCache() );
+        return session;
+    }
+
+    @Test
+    public void testUnboundedByDefault()
+    {
+        DefaultRepositorySystemSession session = newSession();
+        DefaultModelCache cache = (DefaultModelCache) DefaultModelCache.newInstance( session );
+        for ( int i = 0; i < 1000; i++ )
+        {
+            cache.put( "g", "a", String.valueOf( i ), "raw", i );
+        }
+
+        // instances of a session share their entries
+        DefaultModelCache other = (DefaultModelCache) DefaultModelCache.newInstance( session );
+        assertEquals( 0, other.get( "g", "a", "0", "raw" ) );
+        assertNull( other.get( "g", "a", "0", "effective" ) );
+        assertEquals( 1, cache.getHitCount() );
+        assertEquals( 1, cache.getMissCount() );
+        assertEquals( 0, cache.getEvictionCount() );
+    }
+
+    @Test
+    public void testEvictsLeastRecentlyUsed()
+    {
+        DefaultRepositorySystemSession session = newSession();
+        session.setConfigProperty( DefaultModelCache.CONFIG_PROP_MAX_SIZE, 2 );
+        DefaultModelCache cache = (DefaultModelCache) DefaultModelCache.newInstance( session );
+
+        cache.put( "g", "a", "1", "raw", 1 );
+        cache.put( "g", "a", "2", "raw", 2 );
+        assertEquals( 1, cache.get( "g", "a", "1", "raw" ) );
+        cache.put( "g", "a", "3", "raw", 3 );
+
+        assertNull( cache.get( "g", "a", "2", "raw" ) );
+        assertEquals( 1, cache.get( "g", "a", "1", "raw" ) );
+        assertEquals( 3, cache.get( "g", "a", "3", "raw" ) );
+        assertEquals( 1, cache.getEvictionCount() );
+        assertEquals( 3, cache.getHitCount() );
+        assertEquals( 1, cache.getMissCount() );
+    }
+
+    @Test
+    public void testSoftValues()
+    {
+        DefaultRepositorySystemSession session = newSession();
+        session.setConfigProperty( DefaultModelCache.CONFIG_PROP_SOFT_VALUES, true );
+        DefaultModelCache cache = (DefaultModelCache) DefaultModelCache.newInstance( session );
+
+        Object model = new Object();
+        cache.put( "g", "a", "1", "raw", model );
+        assertEquals( model, cache.get( "g", "a", "1", "raw" ) );
+    }
+}
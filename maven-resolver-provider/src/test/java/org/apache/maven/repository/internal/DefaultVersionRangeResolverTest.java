@@ -0,0 +1,79 @@
+package org.apache.maven.repository.internal;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+import javax.inject.Inject;
+
+import org.eclipse.aether.DefaultRepositoryCache;
+import org.eclipse.aether.DefaultRepositorySystemSession;
+import org.eclipse.aether.artifact.DefaultArtifact;
+import org.eclipse.aether.resolution.VersionRangeRequest;
+import org.eclipse.aether.resolution.VersionRangeResult;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class DefaultVersionRangeResolverTest
+    extends AbstractRepositoryTestCase
+{
+    @Inject
+    private DefaultVersionRangeResolver versionRangeResolver;
+
+    private VersionRangeResult resolve()
+        throws Exception
+    {
+        VersionRangeRequest request = new VersionRangeRequest();
+        request.addRepository( newTestRepository() );
+        request.setArtifact( new DefaultArtifact( "ut.simple", "dependency", "jar", "[1.0,2.0)" ) );
+        return versionRangeResolver.resolveVersionRange( session, request );
+    }
+
+    @Test
+    public void testCachesResultsInSession()
+        throws Exception
+    {
+        ( (DefaultRepositorySystemSession) session ).setCache( new DefaultRepositoryCache() );
+
+        VersionRangeResult first = resolve();
+        VersionRangeResult second = resolve();
+
+        assertEquals( "[1.0]", first.getVersions().toString() );
+        assertEquals( first.getVersions(), second.getVersions() );
+        assertEquals( first.getRepository( first.getHighestVersion() ),
+                      second.getRepository( second.getHighestVersion() ) );
+        assertEquals( 1, versionRangeResolver.getCacheHitCount() );
+        assertEquals( 1, versionRangeResolver.getCacheMissCount() );
+    }
+
+    @Test
+    public void testNoCache()
+        throws Exception
+    {
+        DefaultRepositorySystemSession session = (DefaultRepositorySystemSession) this.session;
+        session.setCache( new DefaultRepositoryCache() );
+        session.setConfigProperty( "aether.versionRangeResolver.noCache", true );
+
+        resolve();
+        assertEquals( "[1.0]", resolve().getVersions().toString() );
+        assertEquals( 0, versionRangeResolver.getCacheHitCount() );
+        assertEquals( 0, versionRangeResolver.getCacheMissCount() );
+    }
+}